@@ -47,8 +47,23 @@ application {
 }
 
 tasks.named<Test>("test") {
-    // Use JUnit Platform for unit tests.
-    useJUnitPlatform()
+    // Use JUnit Platform for unit tests, leaving the wall-clock benchmarks out.
+    useJUnitPlatform {
+        excludeTags("benchmark")
+    }
+}
+
+// Runs the tests tagged "benchmark", which time operations on large ledgers.
+tasks.register<Test>("benchmark") {
+    description = "Runs the wall-clock benchmarks."
+    group = "verification"
+    testClassesDirs = sourceSets["test"].output.classesDirs
+    classpath = sourceSets["test"].runtimeClasspath
+    useJUnitPlatform {
+        includeTags("benchmark")
+    }
+    maxHeapSize = "2g"
+    testLogging.showStandardStreams = true
 }
 
 jacoco {
@@ -0,0 +1,57 @@
+package finalprojects;
+
+/**
+ * Fixed-point representation of transaction amounts: an amount is stored as a {@code long} count of
+ * ten-thousandths. Sums of fixed-point amounts are exact and independent of summation order,
+ * unlike sums of doubles.
+ */
+public final class Amounts {
+    /**
+     * Number of fixed-point units per currency unit.
+     */
+    public static final long SCALE = 10_000L;
+
+    /**
+     * Largest magnitude of an amount that can be stored. Its units stay below 2^53, so at least
+     * 1024 such amounts can be summed without overflowing a {@code long}.
+     */
+    public static final double MAX_AMOUNT = (double) (1L << 53) / SCALE;
+
+    private Amounts() {
+    }
+
+    /**
+     * Converts an amount to fixed-point units, rounding to the nearest unit.
+     *
+     * @param amount the amount
+     * @return the amount in units
+     * @throws IllegalArgumentException if the amount is not finite or its magnitude is not below {@link #MAX_AMOUNT}
+     */
+    public static long toUnits(double amount) {
+        if (!(Math.abs(amount) < MAX_AMOUNT)) {
+            throw new IllegalArgumentException("Amount out of range: " + amount);
+        }
+        return Math.round(amount * SCALE);
+    }
+
+    /**
+     * Converts fixed-point units back to an amount.
+     *
+     * @param units the amount in units
+     * @return the amount
+     */
+    public static double toAmount(long units) {
+        return units / (double) SCALE;
+    }
+
+    /**
+     * Tells whether an amount survives the round trip through fixed-point units unchanged,
+     * which holds for amounts below {@link #MAX_AMOUNT} with at most four decimals.
+     *
+     * @param amount the amount
+     * @return true if {@code toAmount(toUnits(amount)) == amount}
+     */
+    public static boolean isExact(double amount) {
+        return Math.abs(amount) < MAX_AMOUNT && toAmount(toUnits(amount)) == amount;
+    }
+}
@@ -0,0 +1,338 @@
+package finalprojects;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned binary file format for a ledger, read and written through NIO channels.
+ *
+ * <p>Layout, all integers big-endian:
+ * <pre>
+ *   int    magic "FPLG", int version
+ *   int    dictionary length, then the dictionary: int member count, byte member index width
+ *          (1, 2 or 4 bytes), and for each member its UTF-8 name as int length and bytes
+ *   int    CRC32 of the dictionary
+ *   blocks of at most {@link #BLOCK_RECORDS} transactions, each:
+ *          int record count, int inexact amount count,
+ *          the columns int[] IDs, int[] epoch days, long[] fixed-point amounts (see {@link Amounts}),
+ *          byte[] category ordinals (see {@link CategoryRegistry}), byte[] types, member indexes,
+ *          then for each amount with more than four decimals its record index and double bits,
+ *          int CRC32 of the block
+ *   int    0, marking the end of the blocks
+ * </pre>
+ * Nothing is parsed from text: a block is read with one channel read, checked against its
+ * checksum and decoded column by column. CSV remains available through {@link #importCsv}
+ * and {@link #exportCsv}.
+ */
+public final class BinaryLedgerFormat {
+    static final int MAGIC = 0x46504C47;
+    static final int VERSION = 1;
+    static final int BLOCK_RECORDS = 1 << 16;
+    private static final int FIXED_RECORD_BYTES = 4 + 4 + 8 + 1 + 1;
+    private static final int INEXACT_ENTRY_BYTES = 4 + 8;
+
+    private BinaryLedgerFormat() {
+    }
+
+    /**
+     * Encodes every transaction of a store, in insertion order.
+     *
+     * @param store the transactions
+     * @return the file content
+     */
+    public static byte[] encode(TransactionStore store) {
+        MemberManager memberManager = store.getMemberManager();
+        int[] slots = new int[store.size()];
+        int count = 0;
+        IntIntHashMap memberIndexes = new IntIntHashMap();
+        List<byte[]> names = new ArrayList<>();
+        int namesLength = 0;
+        for (int slot = 0; slot < store.slotCount(); slot++) {
+            if (!store.isLive(slot)) {
+                continue;
+            }
+            slots[count++] = slot;
+            int memberId = store.memberIdAt(slot);
+            if (memberIndexes.get(memberId) == IntIntHashMap.MISSING) {
+                memberIndexes.put(memberId, names.size());
+                byte[] name = memberManager.getMember(memberId).getName().getBytes(StandardCharsets.UTF_8);
+                names.add(name);
+                namesLength += 4 + name.length;
+            }
+        }
+        int width = indexWidth(names.size());
+        int[] inexactCounts = new int[(count + BLOCK_RECORDS - 1) / BLOCK_RECORDS];
+        long size = 8 + 4 + (4 + 1 + namesLength) + 4 + 4;
+        for (int block = 0; block < inexactCounts.length; block++) {
+            int from = block * BLOCK_RECORDS;
+            int to = Math.min(count, from + BLOCK_RECORDS);
+            for (int i = from; i < to; i++) {
+                if (!Amounts.isExact(store.amountAt(slots[i]))) {
+                    inexactCounts[block]++;
+                }
+            }
+            size += 8 + (long) (to - from) * (FIXED_RECORD_BYTES + width) + (long) inexactCounts[block] * INEXACT_ENTRY_BYTES + 4;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Ledger too large to encode: " + count + " transactions");
+        }
+
+        ByteBuffer buf = ByteBuffer.allocate((int) size);
+        CRC32 crc = new CRC32();
+        buf.putInt(MAGIC).putInt(VERSION);
+        buf.putInt(4 + 1 + namesLength);
+        int start = buf.position();
+        buf.putInt(names.size()).put((byte) width);
+        for (byte[] name : names) {
+            buf.putInt(name.length).put(name);
+        }
+        crc.update(buf.array(), start, buf.position() - start);
+        buf.putInt((int) crc.getValue());
+
+        for (int block = 0; block < inexactCounts.length; block++) {
+            int from = block * BLOCK_RECORDS;
+            int to = Math.min(count, from + BLOCK_RECORDS);
+            start = buf.position();
+            buf.putInt(to - from).putInt(inexactCounts[block]);
+            for (int i = from; i < to; i++) {
+                buf.putInt(store.idAt(slots[i]));
+            }
+            for (int i = from; i < to; i++) {
+                buf.putInt(store.dayAt(slots[i]));
+            }
+            for (int i = from; i < to; i++) {
+                buf.putLong(store.amountUnitsAt(slots[i]));
+            }
+            for (int i = from; i < to; i++) {
+                buf.put((byte) store.categoryAt(slots[i]));
+            }
+            for (int i = from; i < to; i++) {
+                buf.put((byte) store.kindAt(slots[i]));
+            }
+            for (int i = from; i < to; i++) {
+                putIndex(buf, width, memberIndexes.get(store.memberIdAt(slots[i])));
+            }
+            for (int i = from; i < to; i++) {
+                double amount = store.amountAt(slots[i]);
+                if (!Amounts.isExact(amount)) {
+                    buf.putInt(i - from).putLong(Double.doubleToRawLongBits(amount));
+                }
+            }
+            crc.reset();
+            crc.update(buf.array(), start, buf.position() - start);
+            buf.putInt((int) crc.getValue());
+        }
+        buf.putInt(0);
+        return buf.array();
+    }
+
+    /**
+     * Reads every transaction of a ledger file, in file order.
+     *
+     * @param path          the ledger file
+     * @param memberManager the member manager the members are interned in
+     * @param sink          receives each transaction
+     * @param progress      receives the percentage of bytes read after each block, or null
+     * @throws IOException if the file cannot be read, is not a ledger file or fails a checksum
+     */
+    public static void read(Path path, MemberManager memberManager, Consumer<Transaction> sink, IntConsumer progress) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = Math.max(1, channel.size());
+            ByteBuffer header = readFully(channel, ByteBuffer.allocate(12), 12);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a ledger file: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported ledger file version " + version + ": " + path);
+            }
+            int dictionaryLength = header.getInt();
+            ByteBuffer buf = readFully(channel, ByteBuffer.allocate(dictionaryLength + 4), dictionaryLength + 4);
+            CRC32 crc = new CRC32();
+            checkCrc(crc, buf, dictionaryLength, path, "dictionary");
+            Member[] members = new Member[buf.getInt()];
+            int width = buf.get();
+            for (int i = 0; i < members.length; i++) {
+                byte[] name = new byte[buf.getInt()];
+                buf.get(name);
+                members[i] = memberManager.intern(new String(name, StandardCharsets.UTF_8));
+            }
+
+            long read = 12 + dictionaryLength + 4;
+            ByteBuffer blockHeader = ByteBuffer.allocate(8);
+            while (true) {
+                int records = readFully(channel, blockHeader, 4).getInt();
+                if (records == 0) {
+                    break;
+                }
+                int inexact = readFully(channel, blockHeader, 4).getInt();
+                if (records < 0 || records > BLOCK_RECORDS || inexact < 0 || inexact > records) {
+                    throw new IOException("Corrupt block header in ledger file: " + path);
+                }
+                int length = records * (FIXED_RECORD_BYTES + width) + inexact * INEXACT_ENTRY_BYTES;
+                if (buf.capacity() < length + 4) {
+                    buf = ByteBuffer.allocate(length + 4);
+                }
+                readFully(channel, buf, length + 4);
+                crc.reset();
+                crc.update(records >>> 24);
+                crc.update(records >>> 16);
+                crc.update(records >>> 8);
+                crc.update(records);
+                crc.update(inexact >>> 24);
+                crc.update(inexact >>> 16);
+                crc.update(inexact >>> 8);
+                crc.update(inexact);
+                checkCrc(crc, buf, length, path, "block");
+                decodeBlock(buf, records, inexact, width, members, sink);
+                read += 8 + length + 4;
+                if (progress != null) {
+                    progress.accept((int) Math.min(100, read * 100 / size));
+                }
+            }
+            if (progress != null) {
+                progress.accept(100);
+            }
+        }
+    }
+
+    /**
+     * Converts a CSV file into a ledger file.
+     *
+     * @param csvPath       the CSV file to read
+     * @param ledgerPath    the ledger file to write, replaced atomically
+     * @param memberManager the member manager the members are interned in
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void importCsv(Path csvPath, Path ledgerPath, MemberManager memberManager) throws IOException {
+        TransactionStore store = new TransactionStore(memberManager);
+        new ParallelCsvLoader(memberManager).read(csvPath, store::add);
+        LedgerPersister.writeAtomically(ledgerPath, encode(store));
+    }
+
+    /**
+     * Converts a ledger file into a CSV file.
+     *
+     * @param ledgerPath    the ledger file to read
+     * @param csvPath       the CSV file to write, replaced atomically
+     * @param memberManager the member manager the members are interned in
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void exportCsv(Path ledgerPath, Path csvPath, MemberManager memberManager) throws IOException {
+        List<Transaction> transactions = new ArrayList<>();
+        read(ledgerPath, memberManager, transactions::add, null);
+        LedgerPersister.writeAtomically(csvPath, CsvLedgerStorage.csvBytes(transactions));
+    }
+
+    /**
+     * Helper method to decode the columns of a block into transactions.
+     */
+    private static void decodeBlock(ByteBuffer buf, int records, int inexact, int width, Member[] members, Consumer<Transaction> sink) {
+        int idsAt = 0;
+        int daysAt = idsAt + records * 4;
+        int amountsAt = daysAt + records * 4;
+        int categoriesAt = amountsAt + records * 8;
+        int kindsAt = categoriesAt + records;
+        int membersAt = kindsAt + records;
+        int inexactAt = membersAt + records * width;
+        int nextInexact = inexact > 0 ? buf.getInt(inexactAt) : -1;
+        int inexactSeen = 0;
+        for (int i = 0; i < records; i++) {
+            double amount;
+            if (i == nextInexact) {
+                amount = Double.longBitsToDouble(buf.getLong(inexactAt + inexactSeen * INEXACT_ENTRY_BYTES + 4));
+                inexactSeen++;
+                nextInexact = inexactSeen < inexact ? buf.getInt(inexactAt + inexactSeen * INEXACT_ENTRY_BYTES) : -1;
+            } else {
+                amount = Amounts.toAmount(buf.getLong(amountsAt + i * 8));
+            }
+            int day = buf.getInt(daysAt + i * 4);
+            LocalDate date = day == DateIndex.NO_DAY ? null : LocalDate.ofEpochDay(day);
+            Member member = members[getIndex(buf, width, membersAt + i * width)];
+            byte kind = buf.get(kindsAt + i);
+            Transaction transaction;
+            if (kind == TransactionStore.KIND_INCOME) {
+                transaction = new Income(null, amount, date, member);
+            } else if (kind == TransactionStore.KIND_EXPENSE) {
+                transaction = new Expense(null, amount, date, member);
+            } else {
+                transaction = new Transaction(null, amount, date, member);
+            }
+            byte category = buf.get(categoriesAt + i);
+            if (category != TransactionStore.NO_CATEGORY) {
+                transaction.setCategory(CategoryRegistry.byOrdinal(category));
+            }
+            transaction.setId(buf.getInt(idsAt + i * 4));
+            sink.accept(transaction);
+        }
+    }
+
+    /**
+     * Helper method to choose the number of bytes of a member index.
+     */
+    private static int indexWidth(int memberCount) {
+        if (memberCount <= 0xFF) {
+            return 1;
+        }
+        return memberCount <= 0xFFFF ? 2 : 4;
+    }
+
+    /**
+     * Helper method to write a member index with the given width.
+     */
+    private static void putIndex(ByteBuffer buf, int width, int index) {
+        if (width == 1) {
+            buf.put((byte) index);
+        } else if (width == 2) {
+            buf.putShort((short) index);
+        } else {
+            buf.putInt(index);
+        }
+    }
+
+    /**
+     * Helper method to read a member index with the given width at an absolute position.
+     */
+    private static int getIndex(ByteBuffer buf, int width, int at) {
+        if (width == 1) {
+            return buf.get(at) & 0xFF;
+        }
+        return width == 2 ? buf.getShort(at) & 0xFFFF : buf.getInt(at);
+    }
+
+    /**
+     * Helper method to check the CRC32 stored after the first bytes of a buffer, which must be at position 0.
+     */
+    private static void checkCrc(CRC32 crc, ByteBuffer buf, int length, Path path, String section) throws IOException {
+        crc.update(buf.array(), 0, length);
+        if ((int) crc.getValue() != buf.getInt(length)) {
+            throw new IOException("Checksum mismatch in " + section + " of ledger file: " + path);
+        }
+    }
+
+    /**
+     * Helper method to fill the first bytes of a buffer from a channel and rewind it.
+     */
+    private static ByteBuffer readFully(FileChannel channel, ByteBuffer buf, int length) throws IOException {
+        buf.clear();
+        buf.limit(length);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf) < 0) {
+                throw new EOFException("Truncated ledger file");
+            }
+        }
+        buf.flip();
+        return buf;
+    }
+}
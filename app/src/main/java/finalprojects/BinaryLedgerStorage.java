@@ -0,0 +1,76 @@
+package finalprojects;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Keeps the snapshot of a user in the binary file {@code userdata/<username>.ledger}, see
+ * {@link BinaryLedgerFormat}. A user who still has a flat CSV file is imported the first time the
+ * snapshot is opened.
+ */
+public class BinaryLedgerStorage implements LedgerStorage {
+
+    @Override
+    public void read(String username, MemberManager memberManager, Consumer<Transaction> sink, IntConsumer progress) throws IOException {
+        BinaryLedgerFormat.read(open(username, memberManager), memberManager, sink, progress);
+    }
+
+    @Override
+    public void readMonths(String username, MemberManager memberManager, final YearMonth from, final YearMonth to,
+                           final Consumer<Transaction> sink) throws IOException {
+        read(username, memberManager, transaction -> {
+            YearMonth month = LedgerStorage.monthOf(transaction.getDate());
+            if (!month.isBefore(from) && !month.isAfter(to)) {
+                sink.accept(transaction);
+            }
+        }, null);
+    }
+
+    @Override
+    public Snapshot snapshot(final String username, TransactionStore transactions, Set<YearMonth> months) {
+        final byte[] content = BinaryLedgerFormat.encode(transactions);
+        return new Snapshot() {
+            @Override
+            public void write() throws IOException {
+                LedgerPersister.writeAtomically(LoginManager.ledgerPath(username), content);
+            }
+        };
+    }
+
+    /**
+     * Folds the journal once it is as long as the ledger, since every compaction rewrites the whole file.
+     *
+     * @param ledgerSize the number of transactions in the ledger
+     * @return the compaction threshold
+     */
+    @Override
+    public int compactionThreshold(int ledgerSize) {
+        return Math.max(TransactionsManager.MIN_COMPACTION_RECORDS, ledgerSize);
+    }
+
+    /**
+     * Helper method to return the ledger file of a user, creating it first from the flat CSV
+     * file if there is one.
+     */
+    private Path open(String username, MemberManager memberManager) throws IOException {
+        Path ledgerPath = LoginManager.ledgerPath(username);
+        if (Files.exists(ledgerPath)) {
+            return ledgerPath;
+        }
+        Files.createDirectories(ledgerPath.toAbsolutePath().getParent());
+        Path flat = LoginManager.csvPath(username);
+        if (Files.exists(flat)) {
+            BinaryLedgerFormat.importCsv(flat, ledgerPath, memberManager);
+            Files.move(flat, flat.resolveSibling(flat.getFileName() + MIGRATED_SUFFIX));
+            System.out.println("Imported the CSV file of " + username + " into " + ledgerPath);
+        } else {
+            LedgerPersister.writeAtomically(ledgerPath, BinaryLedgerFormat.encode(new TransactionStore(memberManager)));
+        }
+        return ledgerPath;
+    }
+}
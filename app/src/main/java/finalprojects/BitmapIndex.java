@@ -0,0 +1,131 @@
+package finalprojects;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Bitmap indexes over the slots of a {@link TransactionStore}: one bitmap per category, per member
+ * and per transaction type, plus one of all live slots. A filter combining several of these is
+ * answered by intersecting bitmaps, 64 slots per word operation, before any transaction is read.
+ */
+public class BitmapIndex {
+    /**
+     * Category or member value that does not restrict {@link #select}.
+     */
+    public static final int ANY = -1;
+
+    private final BitSet live = new BitSet();
+    private final BitSet income = new BitSet();
+    private final BitSet expense = new BitSet();
+    private final BitSet[] byCategory = new BitSet[CategoryRegistry.SIZE];
+    private final List<BitSet> byMember = new ArrayList<>();
+
+    /**
+     * Constructs an empty index.
+     */
+    public BitmapIndex() {
+        for (int i = 0; i < byCategory.length; i++) {
+            byCategory[i] = new BitSet();
+        }
+    }
+
+    /**
+     * Registers a slot.
+     *
+     * @param slot     the slot
+     * @param kind     the transaction type, one of the {@code KIND_} constants of {@link TransactionStore}
+     * @param category the category ordinal, or {@link TransactionStore#NO_CATEGORY}
+     * @param member   the member ID
+     */
+    public void add(int slot, int kind, int category, int member) {
+        live.set(slot);
+        bitsOfKind(kind).set(slot);
+        if (category != TransactionStore.NO_CATEGORY) {
+            byCategory[category].set(slot);
+        }
+        while (byMember.size() <= member) {
+            byMember.add(new BitSet());
+        }
+        byMember.get(member).set(slot);
+    }
+
+    /**
+     * Removes a slot, given the values it was registered with.
+     *
+     * @param slot     the slot
+     * @param kind     the transaction type
+     * @param category the category ordinal, or {@link TransactionStore#NO_CATEGORY}
+     * @param member   the member ID
+     */
+    public void remove(int slot, int kind, int category, int member) {
+        live.clear(slot);
+        bitsOfKind(kind).clear(slot);
+        if (category != TransactionStore.NO_CATEGORY) {
+            byCategory[category].clear(slot);
+        }
+        if (member < byMember.size()) {
+            byMember.get(member).clear(slot);
+        }
+    }
+
+    /**
+     * Removes every slot.
+     */
+    public void clear() {
+        live.clear();
+        income.clear();
+        expense.clear();
+        for (BitSet bits : byCategory) {
+            bits.clear();
+        }
+        byMember.clear();
+    }
+
+    /**
+     * Returns the live slots matching a category, a member and a transaction class.
+     * Only Income, Expense and Transaction are indexed classes; for any other class the result
+     * still has to be checked against the class by the caller.
+     *
+     * @param category         the category ordinal, or {@link #ANY}
+     * @param member           the member ID, or {@link #ANY}
+     * @param transactionClass the transaction class, or null for all
+     * @return a new bitmap of the matching slots
+     */
+    public BitSet select(int category, int member, Class<? extends Transaction> transactionClass) {
+        BitSet result = (BitSet) (category != ANY ? byCategory[category] : live).clone();
+        if (member != ANY) {
+            if (member >= byMember.size()) {
+                return new BitSet();
+            }
+            result.and(byMember.get(member));
+        }
+        if (transactionClass == Income.class) {
+            result.and(income);
+        } else if (transactionClass == Expense.class) {
+            result.and(expense);
+        }
+        return result;
+    }
+
+    /**
+     * Tells whether the class filter of {@link #select} is exact for a transaction class.
+     *
+     * @param transactionClass the transaction class, or null
+     * @return true if no per-row class check is needed
+     */
+    public static boolean isIndexedClass(Class<? extends Transaction> transactionClass) {
+        return transactionClass == null || transactionClass == Income.class
+            || transactionClass == Expense.class || transactionClass == Transaction.class;
+    }
+
+    /**
+     * Helper method to pick the type bitmap of a transaction type; plain transactions are only in the live bitmap.
+     */
+    private BitSet bitsOfKind(int kind) {
+        if (kind == TransactionStore.KIND_INCOME) {
+            return income;
+        }
+        return kind == TransactionStore.KIND_EXPENSE ? expense : new BitSet();
+    }
+}
@@ -0,0 +1,180 @@
+package finalprojects;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Small open-addressing hash table keyed by byte sequences.
+ * Lookups take a range of a {@link ByteBuffer} directly, so parsers can resolve a field
+ * such as a member name or a category token without first decoding it into a String.
+ *
+ * @param <V> the type of the mapped values
+ */
+public class ByteKeyTable<V> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private byte[][] keys;
+    private Object[] values;
+    private int[] hashes;
+    private int size;
+
+    /**
+     * Constructs an empty table.
+     */
+    public ByteKeyTable() {
+        keys = new byte[INITIAL_CAPACITY][];
+        values = new Object[INITIAL_CAPACITY];
+        hashes = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Returns the number of keys in the table.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Looks up the value mapped to the bytes {@code [from, to)} of the buffer.
+     * The buffer's position and limit are not used or changed.
+     *
+     * @param buf  the buffer holding the key
+     * @param from the index of the first key byte
+     * @param to   the index after the last key byte
+     * @return the mapped value, or null if the key is absent
+     */
+    @SuppressWarnings("unchecked")
+    public V get(ByteBuffer buf, int from, int to) {
+        int hash = hash(buf, from, to);
+        int mask = keys.length - 1;
+        for (int i = hash & mask; keys[i] != null; i = (i + 1) & mask) {
+            if (hashes[i] == hash && matches(keys[i], buf, from, to)) {
+                return (V) values[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Maps the bytes {@code [from, to)} of the buffer to a value, replacing any previous mapping.
+     * The key bytes are copied.
+     *
+     * @param buf   the buffer holding the key
+     * @param from  the index of the first key byte
+     * @param to    the index after the last key byte
+     * @param value the value to map
+     */
+    public void put(ByteBuffer buf, int from, int to, V value) {
+        byte[] key = new byte[to - from];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = buf.get(from + i);
+        }
+        put(key, value);
+    }
+
+    /**
+     * Maps a byte key to a value, replacing any previous mapping. The array is kept, not copied.
+     *
+     * @param key   the key bytes
+     * @param value the value to map
+     */
+    public void put(byte[] key, V value) {
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        int hash = hash(key);
+        int mask = keys.length - 1;
+        int i = hash & mask;
+        for (; keys[i] != null; i = (i + 1) & mask) {
+            if (hashes[i] == hash && Arrays.equals(keys[i], key)) {
+                values[i] = value;
+                return;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        hashes[i] = hash;
+        size++;
+    }
+
+    /**
+     * Computes the hash of the bytes {@code [from, to)} of the buffer.
+     *
+     * @param buf  the buffer
+     * @param from the index of the first byte
+     * @param to   the index after the last byte
+     * @return the hash
+     */
+    static int hash(ByteBuffer buf, int from, int to) {
+        int h = 1;
+        for (int i = from; i < to; i++) {
+            h = 31 * h + buf.get(i);
+        }
+        return spread(h);
+    }
+
+    /**
+     * Computes the hash of a byte array, consistent with {@link #hash(ByteBuffer, int, int)}.
+     *
+     * @param key the bytes
+     * @return the hash
+     */
+    static int hash(byte[] key) {
+        int h = 1;
+        for (byte b : key) {
+            h = 31 * h + b;
+        }
+        return spread(h);
+    }
+
+    /**
+     * Helper method to mix the high bits of a hash into the low bits used for the slot index.
+     *
+     * @param h the raw hash
+     * @return the spread hash
+     */
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Helper method to compare a stored key with a buffer range.
+     *
+     * @param key  the stored key
+     * @param buf  the buffer
+     * @param from the index of the first byte
+     * @param to   the index after the last byte
+     * @return true if the bytes are equal
+     */
+    private static boolean matches(byte[] key, ByteBuffer buf, int from, int to) {
+        if (key.length != to - from) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != buf.get(from + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Helper method to double the table capacity.
+     */
+    @SuppressWarnings("unchecked")
+    private void resize() {
+        byte[][] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new byte[oldKeys.length * 2][];
+        values = new Object[oldKeys.length * 2];
+        hashes = new int[oldKeys.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                put(oldKeys[i], (V) oldValues[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package finalprojects;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Registry of every transaction category across {@link IncomeCategory} and {@link ExpenseCategory}.
+ * Each category gets a dense ordinal (income categories first, then expense categories) so that
+ * aggregation code can index plain arrays, and the "Type:Name" token stored in the CSV file is
+ * resolved with a single hash lookup instead of trial {@code valueOf} calls and exceptions.
+ */
+public final class CategoryRegistry {
+    public static final String INCOME_TYPE = "Income";
+    public static final String EXPENSE_TYPE = "Expense";
+
+    /**
+     * Number of income categories; income ordinals are {@code 0 .. INCOME_COUNT - 1}.
+     */
+    public static final int INCOME_COUNT = IncomeCategory.values().length;
+
+    /**
+     * Total number of categories; expense ordinals are {@code INCOME_COUNT .. SIZE - 1}.
+     */
+    public static final int SIZE = INCOME_COUNT + ExpenseCategory.values().length;
+
+    private static final TransactionCategory[] CATEGORIES = new TransactionCategory[SIZE];
+    private static final ByteKeyTable<TransactionCategory> TOKENS = new ByteKeyTable<>();
+    private static final Map<String, TransactionCategory> NORMALIZED_TOKENS = new HashMap<>();
+    private static final Map<String, TransactionCategory> NAMES = new HashMap<>();
+
+    static {
+        for (IncomeCategory category : IncomeCategory.values()) {
+            register(category.ordinal(), INCOME_TYPE, category);
+        }
+        for (ExpenseCategory category : ExpenseCategory.values()) {
+            register(INCOME_COUNT + category.ordinal(), EXPENSE_TYPE, category);
+        }
+    }
+
+    private CategoryRegistry() {
+    }
+
+    /**
+     * Returns the dense ordinal of a category.
+     *
+     * @param category the category
+     * @return the ordinal, between 0 and {@link #SIZE} - 1
+     * @throws IllegalArgumentException if the category is not an income or expense category
+     */
+    public static int ordinal(TransactionCategory category) {
+        if (category instanceof IncomeCategory) {
+            return ((IncomeCategory) category).ordinal();
+        } else if (category instanceof ExpenseCategory) {
+            return INCOME_COUNT + ((ExpenseCategory) category).ordinal();
+        }
+        throw new IllegalArgumentException("Invalid Category input");
+    }
+
+    /**
+     * Returns the category with the given dense ordinal.
+     *
+     * @param ordinal the ordinal
+     * @return the category
+     */
+    public static TransactionCategory byOrdinal(int ordinal) {
+        return CATEGORIES[ordinal];
+    }
+
+    /**
+     * Tells whether a dense ordinal belongs to an income category.
+     *
+     * @param ordinal the ordinal
+     * @return true for income categories, false for expense categories
+     */
+    public static boolean isIncome(int ordinal) {
+        return ordinal < INCOME_COUNT;
+    }
+
+    /**
+     * Returns the CSV token of a category, such as "Income:SALARY" or "Expense:HOUSING".
+     *
+     * @param category the category
+     * @return the token
+     */
+    public static String token(TransactionCategory category) {
+        return (isIncome(ordinal(category)) ? INCOME_TYPE : EXPENSE_TYPE) + ":" + category.getName();
+    }
+
+    /**
+     * Resolves a "Type:Name" token held in the bytes {@code [from, to)} of a buffer.
+     * Tokens as written to the CSV file are found with one hash lookup and no allocation;
+     * other spellings (different case, repeated separators) are normalized first.
+     *
+     * @param buf  the buffer holding the token
+     * @param from the index of the first byte
+     * @param to   the index after the last byte
+     * @return the category, or null if the token does not name a known category
+     */
+    public static TransactionCategory resolve(ByteBuffer buf, int from, int to) {
+        TransactionCategory category = TOKENS.get(buf, from, to);
+        if (category == null) {
+            category = resolve(TransactionCsvReader.decode(buf, from, to));
+        }
+        return category;
+    }
+
+    /**
+     * Resolves a "Type:Name" token. Type and name are matched ignoring case, and repeated
+     * separators such as "Expense::HOUSING" are accepted.
+     *
+     * @param token the token
+     * @return the category, or null if the token does not name a known category
+     */
+    public static TransactionCategory resolve(String token) {
+        if (token == null) {
+            return null;
+        }
+        TransactionCategory category = NORMALIZED_TOKENS.get(token);
+        if (category != null) {
+            return category;
+        }
+        int separator = token.indexOf(':');
+        if (separator < 0) {
+            return null;
+        }
+        int nameStart = separator;
+        while (nameStart < token.length() && token.charAt(nameStart) == ':') {
+            nameStart++;
+        }
+        return NORMALIZED_TOKENS.get(normalize(token.substring(0, separator), token.substring(nameStart)));
+    }
+
+    /**
+     * Resolves a category name without its type. Names shared by both types (such as OTHER)
+     * resolve to the income category, as {@link Transaction#convertStrToCategory(String)} always has.
+     *
+     * @param name the category name, matched ignoring case
+     * @return the category, or null if the name is unknown
+     */
+    public static TransactionCategory resolveName(String name) {
+        return name == null ? null : NAMES.get(name.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Helper method to register a category under its ordinal and every accepted token spelling.
+     *
+     * @param ordinal  the dense ordinal
+     * @param type     the type part of the token
+     * @param category the category
+     */
+    private static void register(int ordinal, String type, TransactionCategory category) {
+        CATEGORIES[ordinal] = category;
+        String name = category.getName();
+        TOKENS.put((type + ":" + name).getBytes(StandardCharsets.UTF_8), category);
+        TOKENS.put((type + "::" + name).getBytes(StandardCharsets.UTF_8), category);
+        NORMALIZED_TOKENS.put(type + ":" + name, category);
+        NORMALIZED_TOKENS.put(normalize(type, name), category);
+        NAMES.putIfAbsent(name, category);
+    }
+
+    /**
+     * Helper method to build the case-insensitive lookup key of a token.
+     *
+     * @param type the type part
+     * @param name the name part
+     * @return the normalized key
+     */
+    private static String normalize(String type, String name) {
+        return type.trim().toLowerCase(Locale.ROOT) + ":" + name.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,122 @@
+package finalprojects;
+
+import java.time.YearMonth;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Aggregates the columns of a {@link TransactionStore} into a {@link RollupCube} by scanning its
+ * slots rather than applying one delta per transaction, for example to build the rollup of a bulk
+ * loaded batch or to audit the rollup of a large history. The slot range is split in halves down
+ * to chunks of {@link #CHUNK_SLOTS}, each chunk adds into a partial cube of its own, and the
+ * partial cubes are merged in slot order. In parallel mode the chunks run on a dedicated
+ * {@link ForkJoinPool}. Sums are kept in fixed-point units, so the parallel and sequential
+ * results are exactly equal.
+ *
+ * <p>The scanned slots must not be modified while a scan is running.
+ */
+public class ColumnAggregator {
+    /**
+     * Number of slots below which a chunk is scanned by one thread instead of split further.
+     */
+    static final int CHUNK_SLOTS = 1 << 15;
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private ColumnAggregator() {
+    }
+
+    /**
+     * Aggregates every transaction of a range of slots.
+     *
+     * @param store    the store to scan
+     * @param fromSlot the first slot, inclusive
+     * @param toSlot   the last slot, exclusive
+     * @param parallel true to scan the chunks on the aggregation pool, false to scan them on the calling thread
+     * @return a new cube holding the transactions of the range
+     */
+    public static RollupCube aggregate(TransactionStore store, int fromSlot, int toSlot, boolean parallel) {
+        return run(new ChunkTask(store, Integer.MIN_VALUE, Integer.MAX_VALUE + 1L, fromSlot, toSlot), parallel);
+    }
+
+    /**
+     * Aggregates the incomes and expenses of a window of months over every slot.
+     *
+     * @param store    the store to scan
+     * @param from     the first month
+     * @param to       the last month, inclusive
+     * @param parallel true to scan the chunks on the aggregation pool, false to scan them on the calling thread
+     * @return the filled report, equal to {@code store.getRollup().report(from, to)}
+     * @throws IllegalArgumentException if the first month is after the last
+     */
+    public static Report report(TransactionStore store, YearMonth from, YearMonth to, boolean parallel) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("First month must be before or equal to last month.");
+        }
+        long firstDay = from.atDay(1).toEpochDay();
+        long endDay = to.plusMonths(1).atDay(1).toEpochDay();
+        return run(new ChunkTask(store, firstDay, endDay, 0, store.slotCount()), parallel).report(from, to);
+    }
+
+    /**
+     * Helper method to run a scan on the pool or on the calling thread.
+     */
+    private static RollupCube run(ChunkTask task, boolean parallel) {
+        return parallel ? POOL.invoke(task) : task.compute();
+    }
+
+    /**
+     * Scans a range of slots into a partial cube, splitting it in halves while it is larger than
+     * {@link #CHUNK_SLOTS}. Tasks are never serialized.
+     */
+    @SuppressWarnings("serial")
+    private static class ChunkTask extends RecursiveTask<RollupCube> {
+        private final TransactionStore store;
+        private final long firstDay;
+        private final long endDay;
+        private final int fromSlot;
+        private final int toSlot;
+
+        private ChunkTask(TransactionStore store, long firstDay, long endDay, int fromSlot, int toSlot) {
+            this.store = store;
+            this.firstDay = firstDay;
+            this.endDay = endDay;
+            this.fromSlot = fromSlot;
+            this.toSlot = toSlot;
+        }
+
+        @Override
+        protected RollupCube compute() {
+            if (toSlot - fromSlot <= CHUNK_SLOTS) {
+                return scan();
+            }
+            int middle = (fromSlot + toSlot) >>> 1;
+            ChunkTask left = new ChunkTask(store, firstDay, endDay, fromSlot, middle);
+            ChunkTask right = new ChunkTask(store, firstDay, endDay, middle, toSlot);
+            left.fork();
+            RollupCube rightPartial = right.compute();
+            RollupCube partial = left.join();
+            partial.merge(rightPartial);
+            return partial;
+        }
+
+        /**
+         * Helper method to add every live transaction of the chunk dated in the window into a new cube.
+         */
+        private RollupCube scan() {
+            RollupCube partial = new RollupCube();
+            for (int slot = fromSlot; slot < toSlot; slot++) {
+                int kind = store.kindAt(slot);
+                if (kind == TransactionStore.KIND_REMOVED) {
+                    continue;
+                }
+                int day = store.dayAt(slot);
+                if (day < firstDay || day >= endDay) {
+                    continue;
+                }
+                partial.add(day, kind, store.categoryAt(slot), store.memberIdAt(slot), store.amountUnitsAt(slot));
+            }
+            return partial;
+        }
+    }
+}
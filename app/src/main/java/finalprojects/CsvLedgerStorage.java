@@ -0,0 +1,89 @@
+package finalprojects;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Keeps the snapshot of a user in the single flat file {@code userdata/<username>.csv}.
+ * Every read and every compaction touches the whole history.
+ */
+public class CsvLedgerStorage implements LedgerStorage {
+
+    @Override
+    public void read(String username, MemberManager memberManager, Consumer<Transaction> sink, IntConsumer progress) throws IOException {
+        new ParallelCsvLoader(memberManager).read(LoginManager.login(username), sink, progress);
+    }
+
+    @Override
+    public void readInto(String username, TransactionStore store, IntConsumer progress) throws IOException {
+        new ParallelCsvLoader(store.getMemberManager()).read(LoginManager.login(username), store, progress);
+    }
+
+    @Override
+    public void readMonths(String username, MemberManager memberManager, final YearMonth from, final YearMonth to,
+                           final Consumer<Transaction> sink) throws IOException {
+        read(username, memberManager, transaction -> {
+            YearMonth month = LedgerStorage.monthOf(transaction.getDate());
+            if (!month.isBefore(from) && !month.isAfter(to)) {
+                sink.accept(transaction);
+            }
+        }, null);
+    }
+
+    @Override
+    public void scanMonths(String username, MemberManager memberManager, YearMonth from, YearMonth to,
+                           final LedgerRecordSink sink) throws IOException {
+        final long firstDay = from.atDay(1).toEpochDay();
+        final long endDay = to.plusMonths(1).atDay(1).toEpochDay();
+        new ParallelCsvLoader(memberManager).scan(LoginManager.login(username), new LedgerRecordSink() {
+            @Override
+            public void accept(int id, int kind, int category, long units, int epochDay, int member) {
+                if (epochDay >= firstDay && epochDay < endDay) {
+                    sink.accept(id, kind, category, units, epochDay, member);
+                }
+            }
+        }, null);
+    }
+
+    @Override
+    public Snapshot snapshot(final String username, TransactionStore transactions, Set<YearMonth> months) {
+        final byte[] content = csvBytes(transactions);
+        return new Snapshot() {
+            @Override
+            public void write() throws IOException {
+                Path csvPath = LoginManager.login(username);
+                LedgerPersister.writeAtomically(csvPath, content);
+            }
+        };
+    }
+
+    /**
+     * Folds the journal once it is as long as the ledger, so the full rewrite costs constant time per edit on average.
+     *
+     * @param ledgerSize the number of transactions in the ledger
+     * @return the compaction threshold
+     */
+    @Override
+    public int compactionThreshold(int ledgerSize) {
+        return Math.max(TransactionsManager.MIN_COMPACTION_RECORDS, ledgerSize);
+    }
+
+    /**
+     * Renders transactions as CSV lines.
+     *
+     * @param transactions the transactions
+     * @return the CSV lines, encoded as UTF-8
+     */
+    static byte[] csvBytes(Iterable<Transaction> transactions) {
+        StringBuilder csv = new StringBuilder();
+        for (Transaction transaction : transactions) {
+            csv.append(transaction.toCSVLine()).append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,260 @@
+package finalprojects;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Per-day prefix sums of a {@link TransactionStore}, answering "total between two dates" in
+ * O(log days) plus one step per block of days in the range. There is one series per transaction
+ * type, one per type and category, and one per type and member. A transaction change is a point
+ * update of three series.
+ *
+ * <p>A series splits the epoch days into blocks of {@link #BLOCK_DAYS}, each a Fenwick tree that
+ * is only allocated once a transaction falls into it, so a single far-off date costs one block
+ * instead of a domain stretching all the way to it. Plain transactions that are neither income
+ * nor expense are not counted.
+ */
+public class DailyTotals {
+    static final int BLOCK_DAYS = 512;
+
+    private static final int KINDS = 2;
+    private static final int SERIES_PER_KIND = 1 + CategoryRegistry.SIZE;
+
+    private final Series[] kindAndCategorySeries = new Series[KINDS * SERIES_PER_KIND];
+    private Series[] memberSeries = new Series[0];
+
+    /**
+     * Adds a transaction to the sums.
+     *
+     * @param day      the epoch day, or {@link DateIndex#NO_DAY} to skip the transaction
+     * @param kind     the transaction type, one of the {@code KIND_} constants of {@link TransactionStore}
+     * @param category the category ordinal, or {@link TransactionStore#NO_CATEGORY}
+     * @param member   the member ID
+     * @param units    the amount in fixed-point units
+     */
+    public void add(int day, int kind, int category, int member, long units) {
+        update(day, kind, category, member, units);
+    }
+
+    /**
+     * Removes a transaction from the sums, given the values it was added with.
+     *
+     * @param day      the epoch day, or {@link DateIndex#NO_DAY}
+     * @param kind     the transaction type
+     * @param category the category ordinal, or {@link TransactionStore#NO_CATEGORY}
+     * @param member   the member ID
+     * @param units    the amount in fixed-point units
+     */
+    public void remove(int day, int kind, int category, int member, long units) {
+        update(day, kind, category, member, -units);
+    }
+
+    /**
+     * Removes every transaction.
+     */
+    public void clear() {
+        Arrays.fill(kindAndCategorySeries, null);
+        memberSeries = new Series[0];
+    }
+
+    /**
+     * Returns the income or expense total between two dates.
+     *
+     * @param startDate the first date, inclusive
+     * @param endDate   the last date, inclusive
+     * @param income    true for incomes, false for expenses
+     * @return the total
+     */
+    public double total(LocalDate startDate, LocalDate endDate, boolean income) {
+        return Amounts.toAmount(units(kindAndCategorySeries[index(kind(income), BitmapIndex.ANY)], startDate, endDate));
+    }
+
+    /**
+     * Returns the total of one category between two dates.
+     *
+     * @param startDate the first date, inclusive
+     * @param endDate   the last date, inclusive
+     * @param category  the category
+     * @return the total
+     */
+    public double totalByCategory(LocalDate startDate, LocalDate endDate, TransactionCategory category) {
+        int ordinal = CategoryRegistry.ordinal(category);
+        long units = units(kindAndCategorySeries[index(TransactionStore.KIND_INCOME, ordinal)], startDate, endDate)
+            + units(kindAndCategorySeries[index(TransactionStore.KIND_EXPENSE, ordinal)], startDate, endDate);
+        return Amounts.toAmount(units);
+    }
+
+    /**
+     * Returns the income or expense total of one member between two dates.
+     *
+     * @param startDate the first date, inclusive
+     * @param endDate   the last date, inclusive
+     * @param income    true for incomes, false for expenses
+     * @param member    the {@link MemberManager} ID of the member
+     * @return the total
+     */
+    public double totalByMember(LocalDate startDate, LocalDate endDate, boolean income, int member) {
+        int index = KINDS * member + kind(income) - TransactionStore.KIND_INCOME;
+        return Amounts.toAmount(units(member >= 0 && index < memberSeries.length ? memberSeries[index] : null, startDate, endDate));
+    }
+
+    /**
+     * Returns the number of day blocks allocated across all series.
+     *
+     * @return the block count
+     */
+    int blockCount() {
+        int count = 0;
+        for (Series[] all : new Series[][]{kindAndCategorySeries, memberSeries}) {
+            for (Series series : all) {
+                count += series == null ? 0 : series.count;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Helper method to apply a point update to the three series of a transaction.
+     */
+    private void update(int day, int kind, int category, int member, long units) {
+        if (day == DateIndex.NO_DAY || (kind != TransactionStore.KIND_INCOME && kind != TransactionStore.KIND_EXPENSE)) {
+            return;
+        }
+        series(kindAndCategorySeries, index(kind, BitmapIndex.ANY)).add(day, units);
+        if (category != TransactionStore.NO_CATEGORY) {
+            series(kindAndCategorySeries, index(kind, category)).add(day, units);
+        }
+        int index = KINDS * member + kind - TransactionStore.KIND_INCOME;
+        if (index >= memberSeries.length) {
+            memberSeries = Arrays.copyOf(memberSeries, Math.max(index + 1, memberSeries.length * 2));
+        }
+        series(memberSeries, index).add(day, units);
+    }
+
+    /**
+     * Helper method to sum one series between two dates.
+     */
+    private static long units(Series series, LocalDate startDate, LocalDate endDate) {
+        if (series == null || startDate.isAfter(endDate)) {
+            return 0;
+        }
+        return series.sum(startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    /**
+     * Helper method to get the series at an index of an array, creating it on first use.
+     */
+    private static Series series(Series[] all, int index) {
+        if (all[index] == null) {
+            all[index] = new Series();
+        }
+        return all[index];
+    }
+
+    /**
+     * Helper method to find the type or type and category series among the fixed ones.
+     */
+    private static int index(int kind, int category) {
+        return (kind - TransactionStore.KIND_INCOME) * SERIES_PER_KIND + category + 1;
+    }
+
+    /**
+     * Helper method to add a value at a zero-based index of a Fenwick tree.
+     */
+    private static void addAt(long[] tree, int index, long value) {
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] += value;
+        }
+    }
+
+    /**
+     * Helper method to sum the values at zero-based indexes {@code 0 .. index} of a Fenwick tree.
+     */
+    private static long prefix(long[] tree, int index) {
+        long sum = 0;
+        for (int i = index + 1; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Helper method to map income or expense to a transaction type.
+     */
+    private static int kind(boolean income) {
+        return income ? TransactionStore.KIND_INCOME : TransactionStore.KIND_EXPENSE;
+    }
+
+    /**
+     * The blocks of one series, kept sorted by block number next to their Fenwick trees and totals.
+     */
+    private static final class Series {
+        private int[] blocks = new int[4];
+        private long[][] trees = new long[4][];
+        private long[] blockTotals = new long[4];
+        private int count;
+
+        /**
+         * Adds units to one day, allocating its block on first use.
+         *
+         * @param day   the epoch day
+         * @param units the units to add, negative to take them away
+         */
+        void add(int day, long units) {
+            int block = Math.floorDiv(day, BLOCK_DAYS);
+            int i = Arrays.binarySearch(blocks, 0, count, block);
+            if (i < 0) {
+                i = -i - 1;
+                insert(i, block);
+            }
+            addAt(trees[i], Math.floorMod(day, BLOCK_DAYS), units);
+            blockTotals[i] += units;
+        }
+
+        /**
+         * Sums the units between two epoch days, using the block total for every block the range covers whole.
+         *
+         * @param from the first epoch day, inclusive
+         * @param to   the last epoch day, inclusive, not before {@code from}
+         * @return the sum
+         */
+        long sum(long from, long to) {
+            // Epoch days of any LocalDate stay within +-2^39, so their block numbers fit an int
+            int i = Arrays.binarySearch(blocks, 0, count, (int) Math.floorDiv(from, BLOCK_DAYS));
+            if (i < 0) {
+                i = -i - 1;
+            }
+            long lastBlock = Math.floorDiv(to, BLOCK_DAYS);
+            long sum = 0;
+            for (; i < count && blocks[i] <= lastBlock; i++) {
+                long blockStart = (long) blocks[i] * BLOCK_DAYS;
+                int lo = (int) Math.max(from - blockStart, 0);
+                int hi = (int) Math.min(to - blockStart, BLOCK_DAYS - 1);
+                if (lo == 0 && hi == BLOCK_DAYS - 1) {
+                    sum += blockTotals[i];
+                } else {
+                    sum += prefix(trees[i], hi) - (lo == 0 ? 0 : prefix(trees[i], lo - 1));
+                }
+            }
+            return sum;
+        }
+
+        /**
+         * Helper method to insert an empty block at a position, keeping the block numbers sorted.
+         */
+        private void insert(int position, int block) {
+            if (count == blocks.length) {
+                blocks = Arrays.copyOf(blocks, count * 2);
+                trees = Arrays.copyOf(trees, count * 2);
+                blockTotals = Arrays.copyOf(blockTotals, count * 2);
+            }
+            System.arraycopy(blocks, position, blocks, position + 1, count - position);
+            System.arraycopy(trees, position, trees, position + 1, count - position);
+            System.arraycopy(blockTotals, position, blockTotals, position + 1, count - position);
+            blocks[position] = block;
+            trees[position] = new long[BLOCK_DAYS + 1];
+            blockTotals[position] = 0;
+            count++;
+        }
+    }
+}
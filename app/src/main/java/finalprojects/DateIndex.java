@@ -0,0 +1,240 @@
+package finalprojects;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Date-ordered index over the slots of a {@link TransactionStore}.
+ * Slots are grouped by epoch day in a sorted map, so the transactions of a date range are found
+ * with one map lookup followed by a walk over the days inside the range, without touching
+ * transactions outside of it.
+ */
+public class DateIndex {
+    /**
+     * Epoch day standing for a missing date.
+     */
+    public static final int NO_DAY = Integer.MIN_VALUE;
+
+    private final NavigableMap<Integer, Bucket> slotsByDay = new TreeMap<>();
+    private int[] dayOfSlot = emptyDays();
+
+    /**
+     * Converts a date to the epoch day stored by the index.
+     *
+     * @param date the date, or null
+     * @return the epoch day, or {@link #NO_DAY} for null
+     * @throws IllegalArgumentException if the date is too far from 1970 to fit an int epoch day
+     */
+    public static int toDay(LocalDate date) {
+        return date == null ? NO_DAY : toDay(date.toEpochDay());
+    }
+
+    /**
+     * Converts a parsed epoch day to the epoch day stored by the index.
+     *
+     * @param epochDay the days since 1970-01-01, or {@link #NO_DAY} for a missing date
+     * @return the epoch day
+     * @throws IllegalArgumentException if the day does not fit an int epoch day
+     */
+    static int toDay(long epochDay) {
+        if (epochDay == NO_DAY) {
+            return NO_DAY;
+        }
+        if (epochDay <= NO_DAY || epochDay > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Unsupported date: " + LocalDate.ofEpochDay(epochDay));
+        }
+        return (int) epochDay;
+    }
+
+    /**
+     * Registers a slot under an epoch day.
+     *
+     * @param slot the slot
+     * @param day  the epoch day of the transaction stored there, or {@link #NO_DAY} to leave it out of the index
+     */
+    public void add(int slot, int day) {
+        if (slot >= dayOfSlot.length) {
+            int oldLength = dayOfSlot.length;
+            dayOfSlot = Arrays.copyOf(dayOfSlot, Math.max(slot + 1, oldLength * 2));
+            Arrays.fill(dayOfSlot, oldLength, dayOfSlot.length, NO_DAY);
+        }
+        dayOfSlot[slot] = day;
+        if (day == NO_DAY) {
+            return;
+        }
+        slotsByDay.computeIfAbsent(day, d -> new Bucket()).insert(slot);
+    }
+
+    /**
+     * Removes a slot from the index.
+     *
+     * @param slot the slot
+     */
+    public void remove(int slot) {
+        if (slot >= dayOfSlot.length || dayOfSlot[slot] == NO_DAY) {
+            return;
+        }
+        int day = dayOfSlot[slot];
+        dayOfSlot[slot] = NO_DAY;
+        Bucket bucket = slotsByDay.get(day);
+        if (--bucket.live == 0) {
+            slotsByDay.remove(day);
+        } else if (bucket.live * 2 < bucket.size && bucket.size > 8) {
+            bucket.compact(day);
+        }
+    }
+
+    /**
+     * Moves a slot to a new epoch day.
+     *
+     * @param slot the slot
+     * @param day  the new epoch day
+     */
+    public void move(int slot, int day) {
+        remove(slot);
+        add(slot, day);
+    }
+
+    /**
+     * Removes every slot.
+     */
+    public void clear() {
+        slotsByDay.clear();
+        dayOfSlot = emptyDays();
+    }
+
+    /**
+     * Returns the slots dated between two dates, both inclusive, in ascending slot order.
+     * Runs in time proportional to the number of matching slots and days, plus a logarithmic lookup.
+     *
+     * @param startDate the first date of the range
+     * @param endDate   the last date of the range
+     * @return the matching slots
+     */
+    public int[] slotsBetween(LocalDate startDate, LocalDate endDate) {
+        NavigableMap<Integer, Bucket> days = days(startDate, endDate);
+        int count = 0;
+        for (Bucket bucket : days.values()) {
+            count += bucket.live;
+        }
+        int[] result = new int[count];
+        int position = 0;
+        for (Map.Entry<Integer, Bucket> entry : days.entrySet()) {
+            int day = entry.getKey();
+            Bucket bucket = entry.getValue();
+            if (bucket.live == bucket.size) {
+                System.arraycopy(bucket.slots, 0, result, position, bucket.size);
+                position += bucket.size;
+                continue;
+            }
+            for (int i = 0; i < bucket.size; i++) {
+                if (dayOfSlot[bucket.slots[i]] == day) {
+                    result[position++] = bucket.slots[i];
+                }
+            }
+        }
+        if (days.size() > 1) {
+            Arrays.sort(result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns how many bucket entries {@link #slotsBetween(LocalDate, LocalDate)} reads for a
+     * range, stale entries included.
+     *
+     * @param startDate the first date of the range
+     * @param endDate   the last date of the range
+     * @return the number of entries read
+     */
+    int entriesBetween(LocalDate startDate, LocalDate endDate) {
+        int count = 0;
+        for (Bucket bucket : days(startDate, endDate).values()) {
+            count += bucket.size;
+        }
+        return count;
+    }
+
+    /**
+     * Helper method to get the buckets of the days between two dates, both inclusive.
+     */
+    private NavigableMap<Integer, Bucket> days(LocalDate startDate, LocalDate endDate) {
+        return slotsByDay.subMap(clamp(startDate.toEpochDay()), true, clamp(endDate.toEpochDay()), true);
+    }
+
+    /**
+     * Helper method to bring an epoch day into the range of stored days.
+     */
+    private static int clamp(long day) {
+        return (int) Math.max(NO_DAY + 1L, Math.min(Integer.MAX_VALUE, day));
+    }
+
+    /**
+     * Helper method to create the initial slot-to-day table.
+     */
+    private static int[] emptyDays() {
+        int[] days = new int[16];
+        Arrays.fill(days, NO_DAY);
+        return days;
+    }
+
+    /**
+     * The slots of one day, kept in ascending order. Removed slots are left in place and skipped
+     * by checking {@code dayOfSlot}, so removal does not shift a large bucket; the bucket is
+     * compacted once more than half of its entries are stale.
+     */
+    private class Bucket {
+        private int[] slots = new int[4];
+        private int size;
+        private int live;
+
+        /**
+         * Helper method to insert a slot; appending a newer slot is the common case.
+         * A stale entry for the same slot is simply revived.
+         */
+        private void insert(int slot) {
+            live++;
+            if (size == 0 || slots[size - 1] < slot) {
+                grow();
+                slots[size++] = slot;
+                return;
+            }
+            int position = Arrays.binarySearch(slots, 0, size, slot);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            grow();
+            System.arraycopy(slots, position, slots, position + 1, size - position);
+            slots[position] = slot;
+            size++;
+        }
+
+        /**
+         * Helper method to drop the stale entries of the bucket.
+         *
+         * @param day the epoch day of the bucket
+         */
+        private void compact(int day) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (dayOfSlot[slots[i]] == day) {
+                    slots[kept++] = slots[i];
+                }
+            }
+            size = kept;
+        }
+
+        /**
+         * Helper method to make room for one more entry.
+         */
+        private void grow() {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+        }
+    }
+}
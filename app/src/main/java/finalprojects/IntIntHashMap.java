@@ -0,0 +1,180 @@
+package finalprojects;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from int keys to non-negative int values.
+ * Used for indexes over large ledgers, where a {@code HashMap<Integer, Integer>} would box
+ * every key and value and cost several objects per transaction.
+ */
+public class IntIntHashMap {
+    /**
+     * Value returned by {@link #get(int)} for absent keys.
+     */
+    public static final int MISSING = -1;
+
+    private static final int EMPTY = Integer.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    /**
+     * Constructs an empty map.
+     */
+    public IntIntHashMap() {
+        keys = new int[INITIAL_CAPACITY];
+        values = new int[INITIAL_CAPACITY];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Returns the number of mappings.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value mapped to a key.
+     *
+     * @param key the key; {@link Integer#MIN_VALUE} is not supported
+     * @return the value, or {@link #MISSING} if the key is absent
+     */
+    public int get(int key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+        return MISSING;
+    }
+
+    /**
+     * Returns how many table entries {@link #get(int)} reads for a key, including the empty entry
+     * that ends a search for an absent key.
+     *
+     * @param key the key
+     * @return the number of entries read
+     */
+    int probes(int key) {
+        int mask = keys.length - 1;
+        int count = 1;
+        for (int i = slot(key, mask); keys[i] != EMPTY && keys[i] != key; i = (i + 1) & mask) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Maps a key to a value, replacing any previous mapping.
+     *
+     * @param key   the key; {@link Integer#MIN_VALUE} is not supported
+     * @param value the value, must not be negative
+     */
+    public void put(int key, int value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Unsupported key: " + key);
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        for (; keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    /**
+     * Removes the mapping of a key.
+     *
+     * @param key the key
+     * @return the removed value, or {@link #MISSING} if the key was absent
+     */
+    public int remove(int key) {
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        for (; keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                int removed = values[i];
+                shiftBack(i, mask);
+                size--;
+                return removed;
+            }
+        }
+        return MISSING;
+    }
+
+    /**
+     * Removes every mapping.
+     */
+    public void clear() {
+        keys = new int[INITIAL_CAPACITY];
+        values = new int[INITIAL_CAPACITY];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * Helper method to close the gap left by a removal so that linear probing still finds every key.
+     *
+     * @param gap  the slot that was emptied
+     * @param mask the table mask
+     */
+    private void shiftBack(int gap, int mask) {
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            if (keys[i] == EMPTY) {
+                break;
+            }
+            int home = slot(keys[i], mask);
+            // Move the entry into the gap unless its home lies cyclically in (gap, i]
+            boolean stays = gap <= i ? (gap < home && home <= i) : (gap < home || home <= i);
+            if (!stays) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        keys[gap] = EMPTY;
+    }
+
+    /**
+     * Helper method to grow the table.
+     *
+     * @param capacity the new capacity, a power of two
+     */
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /**
+     * Helper method to compute the home slot of a key.
+     */
+    private static int slot(int key, int mask) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,294 @@
+package finalprojects;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind persistence of one user's ledger. Edits only queue their journal record here;
+ * a background thread writes every record queued since the last write as one forced append, at
+ * most {@link #getMaxDelayMillis()} after the first of them, so a burst of edits costs a handful
+ * of disk writes instead of one per edit. Once the journal has grown past the compaction threshold
+ * of the {@link LedgerStorage} the snapshot is rewritten instead, each file into a temporary file
+ * that is forced to disk and renamed over it, so a reader never sees a torn snapshot. Pending
+ * edits are flushed when the ledger is closed and when the JVM shuts down. A failed write keeps
+ * its records queued and is retried on its own, with a delay that doubles after every failure
+ * up to {@link #MAX_RETRY_DELAY_MILLIS}.
+ */
+public class LedgerPersister {
+    /**
+     * Default bound, in milliseconds, between an edit and the write that makes it durable.
+     */
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 250;
+
+    /**
+     * Delay, in milliseconds, before the first retry of a failed write when the write delay is shorter.
+     */
+    static final long MIN_RETRY_DELAY_MILLIS = 100;
+
+    /**
+     * Longest delay, in milliseconds, between two retries of a failed write.
+     */
+    static final long MAX_RETRY_DELAY_MILLIS = 30_000;
+
+    private final TransactionsManager manager;
+    private final String username;
+    private final long maxDelayMillis;
+    private final ScheduledExecutorService executor;
+    private final Thread shutdownHook;
+    private final Object flushLock = new Object();
+    private List<String> pending = new ArrayList<>();
+    private boolean scheduled;
+    private boolean closed;
+    private int writeCount;
+    private int failures;
+
+    /**
+     * Constructs a persister writing a ledger to the files of a user.
+     *
+     * @param manager        the ledger to persist
+     * @param username       the user whose CSV file and journal are written
+     * @param maxDelayMillis the longest time an edit may wait before it is written
+     */
+    public LedgerPersister(TransactionsManager manager, String username, long maxDelayMillis) {
+        if (maxDelayMillis < 0) {
+            throw new IllegalArgumentException("Negative write delay: " + maxDelayMillis);
+        }
+        this.manager = manager;
+        this.username = username;
+        this.maxDelayMillis = maxDelayMillis;
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "ledger-persister-" + username);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.shutdownHook = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                flushQuietly();
+            }
+        }, "ledger-persister-shutdown-" + username);
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Returns the user whose files this persister writes.
+     *
+     * @return the username
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Returns the longest time an edit waits before it is written.
+     *
+     * @return the delay in milliseconds
+     */
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    /**
+     * Returns the number of journal appends and snapshot rewrites made so far.
+     *
+     * @return the number of disk writes
+     */
+    public synchronized int getWriteCount() {
+        return writeCount;
+    }
+
+    /**
+     * Returns the number of writes that failed in a row since the last successful one.
+     *
+     * @return the number of consecutive failures
+     */
+    synchronized int getFailureCount() {
+        return failures;
+    }
+
+    /**
+     * Queues the journal record of an edit and schedules a write if none is pending.
+     *
+     * @param record the journal line without line terminator
+     */
+    public synchronized void enqueue(String record) {
+        pending.add(record);
+        schedule(maxDelayMillis);
+    }
+
+    /**
+     * Writes every queued record now, or rewrites the snapshot if the journal has grown too long.
+     *
+     * @throws IOException if the journal or the snapshot cannot be written
+     */
+    public void flush() throws IOException {
+        flush(false);
+    }
+
+    /**
+     * Writes every queued edit now, optionally folding the journal into a new snapshot.
+     *
+     * @param compact true to rewrite the snapshot even if the journal is still short
+     * @throws IOException if the journal or the snapshot cannot be written
+     */
+    public void flush(final boolean compact) throws IOException {
+        synchronized (flushLock) {
+            final List<String> records = new ArrayList<>();
+            final TransactionJournal[] journal = new TransactionJournal[1];
+            LedgerStorage.Snapshot snapshot = manager.readLocked(() -> {
+                records.addAll(drain());
+                journal[0] = manager.getJournal();
+                if (!compact && records.isEmpty()) {
+                    return null;
+                }
+                int threshold = manager.getStorage().compactionThreshold(manager.getTransactions().size());
+                if (compact || journal[0] == null || journal[0].getRecordCount() + records.size() >= threshold) {
+                    return manager.takeSnapshot(username, compact);
+                }
+                return null;
+            });
+            try {
+                if (snapshot != null) {
+                    try {
+                        snapshot.write();
+                    } catch (IOException e) {
+                        manager.snapshotFailed();
+                        throw e;
+                    }
+                    if (journal[0] != null) {
+                        journal[0].clear();
+                    } else {
+                        Files.deleteIfExists(LoginManager.journalPath(username));
+                    }
+                    countWrite();
+                    manager.reclaimSlots();
+                } else if (!records.isEmpty()) {
+                    journal[0].appendAll(records);
+                    countWrite();
+                }
+            } catch (IOException e) {
+                // Replaying a record twice is harmless, so keep them for the next write
+                requeue(records);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Cancels the scheduled write, writes every queued edit and stops the background thread.
+     *
+     * @throws IOException if the last edits cannot be written
+     */
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+        }
+        executor.shutdown();
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // Already shutting down; the hook flushes anyway
+        }
+        flush();
+    }
+
+    /**
+     * Writes a file by writing a temporary sibling, forcing it to disk and renaming it over the
+     * target, so the target always holds either its old or its new content.
+     *
+     * @param target  the file to replace
+     * @param content the new content
+     * @throws IOException if the file cannot be written
+     */
+    static void writeAtomically(Path target, byte[] content) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Helper method to flush from the background thread or the shutdown hook, reporting failures.
+     */
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            System.err.println("An error occurred while saving the transactions of " + username + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Helper method to take the queued records and allow the next edit to schedule a write.
+     */
+    private synchronized List<String> drain() {
+        List<String> records = pending;
+        pending = new ArrayList<>();
+        scheduled = false;
+        return records;
+    }
+
+    /**
+     * Helper method to put back records that could not be written, ahead of newer ones, and to
+     * schedule a retry, waiting twice as long after each consecutive failure.
+     */
+    private synchronized void requeue(List<String> records) {
+        records.addAll(pending);
+        pending = records;
+        failures++;
+        if (!pending.isEmpty()) {
+            long delay = Math.max(maxDelayMillis, MIN_RETRY_DELAY_MILLIS) << Math.min(failures - 1, 16);
+            schedule(Math.min(delay, MAX_RETRY_DELAY_MILLIS));
+        }
+    }
+
+    /**
+     * Helper method to schedule a write after a delay, unless one is already scheduled or the
+     * persister is closed. Must be called while holding this persister's monitor.
+     */
+    private void schedule(long delayMillis) {
+        if (!scheduled && !closed) {
+            scheduled = true;
+            executor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    flushQuietly();
+                }
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Helper method to count a disk write and end a run of failed writes.
+     */
+    private synchronized void countWrite() {
+        writeCount++;
+        failures = 0;
+    }
+}
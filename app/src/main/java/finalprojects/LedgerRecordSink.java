@@ -0,0 +1,21 @@
+package finalprojects;
+
+/**
+ * Receives the fields of ledger records as primitives while a snapshot is scanned, without any
+ * Transaction, LocalDate or Member being created. Members are registered with the member manager
+ * of the scan and passed by ID.
+ */
+public interface LedgerRecordSink {
+
+    /**
+     * Called for every scanned record, in file order.
+     *
+     * @param id       the transaction ID
+     * @param kind     {@link TransactionStore#KIND_INCOME} or {@link TransactionStore#KIND_EXPENSE}
+     * @param category the category ordinal in the {@link CategoryRegistry}
+     * @param units    the amount in fixed-point units, see {@link Amounts}
+     * @param epochDay the date as days since 1970-01-01, or {@link DateIndex#NO_DAY} if undated
+     * @param member   the {@link MemberManager} ID of the member
+     */
+    void accept(int id, int kind, int category, long units, int epochDay, int member);
+}
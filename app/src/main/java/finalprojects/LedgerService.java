@@ -0,0 +1,97 @@
+package finalprojects;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * LedgerService keeps one in-memory ledger per user for the whole process.
+ * The ledger is loaded from disk the first time it is requested; every frame then reads from
+ * and edits the same {@link TransactionsManager}, so nothing is re-parsed when a window opens
+ * or a chart is refreshed. Shared ledgers persist their edits write-behind, see {@link LedgerPersister}.
+ */
+public class LedgerService {
+    private static LedgerService instance;
+    private final Map<String, TransactionsManager> ledgers = new HashMap<>();
+
+    /**
+     * Private constructor to prevent instantiation from outside the class. Ensures the singleton pattern is maintained.
+     */
+    private LedgerService() {
+
+    }
+
+    /**
+     * Provides access to the singleton instance of the LedgerService class.
+     *
+     * @return The single, static instance of LedgerService.
+     */
+    public static synchronized LedgerService getInstance() {
+        if (instance == null) {
+            instance = new LedgerService();
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the shared ledger of a user, loading it from disk on first use.
+     *
+     * @param username      the user whose ledger is requested
+     * @param memberManager the member manager the ledger registers its members with
+     * @return the user's shared TransactionsManager
+     */
+    public synchronized TransactionsManager getLedger(String username, MemberManager memberManager) {
+        TransactionsManager ledger = ledgers.get(username);
+        if (ledger == null) {
+            ledger = new TransactionsManager(memberManager);
+            ledger.loadTransactionsFromCSV(username);
+            ledger.enableWriteBehind(username, LedgerPersister.DEFAULT_MAX_DELAY_MILLIS);
+            ledgers.put(username, ledger);
+        }
+        return ledger;
+    }
+
+    /**
+     * Registers a ledger that was loaded elsewhere, for example on a background thread, as the
+     * shared ledger of a user.
+     *
+     * @param username the user
+     * @param ledger   the loaded ledger
+     */
+    public synchronized void putLedger(String username, TransactionsManager ledger) {
+        ledger.enableWriteBehind(username, LedgerPersister.DEFAULT_MAX_DELAY_MILLIS);
+        ledgers.put(username, ledger);
+    }
+
+    /**
+     * Returns the shared ledger of a user if it is loaded, without loading it.
+     *
+     * @param username the user
+     * @return the user's shared TransactionsManager, or null if it is not loaded
+     */
+    public synchronized TransactionsManager getLoadedLedger(String username) {
+        return ledgers.get(username);
+    }
+
+    /**
+     * Tells whether the ledger of a user is currently loaded.
+     *
+     * @param username the user
+     * @return true if the ledger has been loaded and not unloaded since
+     */
+    public synchronized boolean isLoaded(String username) {
+        return ledgers.containsKey(username);
+    }
+
+    /**
+     * Writes the pending edits of a user's shared ledger and drops it, so the next request loads it
+     * from disk again.
+     *
+     * @param username the user whose ledger is dropped
+     */
+    public synchronized void unload(String username) {
+        TransactionsManager ledger = ledgers.remove(username);
+        if (ledger != null) {
+            ledger.disableWriteBehind();
+        }
+    }
+}
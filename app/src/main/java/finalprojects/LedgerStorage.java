@@ -0,0 +1,154 @@
+package finalprojects;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * On-disk layout of the transaction snapshots of a user. The snapshot holds every transaction as
+ * of the last compaction; edits made since are kept in the user's {@link TransactionJournal}.
+ * The layout is chosen with the {@value #PROPERTY} system property: {@code csv} (the default)
+ * keeps one flat CSV file per user, {@code partitioned} keeps one file per month and {@code binary}
+ * keeps one {@link BinaryLedgerFormat} file per user. Layouts other than {@code csv} migrate a
+ * user's flat CSV file the first time it is read and keep it renamed with {@value #MIGRATED_SUFFIX}.
+ */
+public interface LedgerStorage {
+    /**
+     * System property selecting the layout used by new ledgers.
+     */
+    String PROPERTY = "finalprojects.storage";
+
+    /**
+     * Suffix appended to the name of a flat CSV file once it was migrated to another layout.
+     */
+    String MIGRATED_SUFFIX = ".migrated";
+
+    /**
+     * Month under which undated transactions are kept. It sorts before every real month, so no
+     * range of months includes it.
+     */
+    YearMonth UNDATED = YearMonth.of(Year.MIN_VALUE, 1);
+
+    /**
+     * Returns the month under which a snapshot keeps a transaction of the given date.
+     *
+     * @param date the date of the transaction, or null
+     * @return the month of the date, or {@link #UNDATED} for null
+     */
+    static YearMonth monthOf(LocalDate date) {
+        return date == null ? UNDATED : YearMonth.from(date);
+    }
+
+    /**
+     * Reads every transaction of a user's snapshot.
+     *
+     * @param username      the user
+     * @param memberManager the member manager used to resolve members
+     * @param sink          receives each transaction
+     * @param progress      receives the percentage read so far, or null
+     * @throws IOException if the snapshot cannot be read
+     */
+    void read(String username, MemberManager memberManager, Consumer<Transaction> sink, IntConsumer progress) throws IOException;
+
+    /**
+     * Reads every transaction of a user's snapshot into a store. Layouts that parse into columns
+     * override this to copy them into the store in bulk.
+     *
+     * @param username the user
+     * @param store    receives the transactions, with its member manager resolving members
+     * @param progress receives the percentage read so far, or null
+     * @throws IOException if the snapshot cannot be read
+     */
+    default void readInto(String username, TransactionStore store, IntConsumer progress) throws IOException {
+        read(username, store.getMemberManager(), store::add, progress);
+    }
+
+    /**
+     * Reads the transactions of a user's snapshot dated within a range of months.
+     *
+     * @param username      the user
+     * @param memberManager the member manager used to resolve members
+     * @param from          the first month
+     * @param to            the last month, inclusive
+     * @param sink          receives each transaction of the range
+     * @throws IOException if the snapshot cannot be read
+     */
+    void readMonths(String username, MemberManager memberManager, YearMonth from, YearMonth to, Consumer<Transaction> sink) throws IOException;
+
+    /**
+     * Pushes the fields of the transactions of a user's snapshot dated within a range of months into
+     * a record sink. Layouts that parse into columns override this to skip creating transactions;
+     * the default reads them with {@link #readMonths}.
+     *
+     * @param username      the user
+     * @param memberManager the member manager used to resolve members
+     * @param from          the first month
+     * @param to            the last month, inclusive
+     * @param sink          receives the fields of each transaction of the range
+     * @throws IOException if the snapshot cannot be read
+     */
+    default void scanMonths(String username, MemberManager memberManager, YearMonth from, YearMonth to,
+                            final LedgerRecordSink sink) throws IOException {
+        readMonths(username, memberManager, from, to, transaction -> {
+            int category = CategoryRegistry.ordinal(transaction.getCategory());
+            int kind = CategoryRegistry.isIncome(category) ? TransactionStore.KIND_INCOME : TransactionStore.KIND_EXPENSE;
+            sink.accept(transaction.getId(), kind, category, Amounts.toUnits(transaction.getAmount()),
+                DateIndex.toDay(transaction.getDate()), memberManager.intern(transaction.getMember()).getId());
+        });
+    }
+
+    /**
+     * Captures the content of a snapshot, to be written later, possibly on another thread.
+     * Must be called while the transactions cannot change.
+     *
+     * @param username     the user
+     * @param transactions the transactions of the ledger
+     * @param months       the months edited since the last snapshot, or null to rewrite every month
+     * @return the captured snapshot
+     */
+    Snapshot snapshot(String username, TransactionStore transactions, Set<YearMonth> months);
+
+    /**
+     * Returns the number of journal records after which the journal is folded into the snapshot.
+     *
+     * @param ledgerSize the number of transactions in the ledger
+     * @return the compaction threshold
+     */
+    int compactionThreshold(int ledgerSize);
+
+    /**
+     * Returns the layout selected by the {@value #PROPERTY} system property.
+     *
+     * @return the storage
+     * @throws IllegalArgumentException if the property names an unknown layout
+     */
+    static LedgerStorage fromSystemProperty() {
+        String layout = System.getProperty(PROPERTY, "csv");
+        switch (layout) {
+            case "csv":
+                return new CsvLedgerStorage();
+            case "partitioned":
+                return new PartitionedLedgerStorage();
+            case "binary":
+                return new BinaryLedgerStorage();
+            default:
+                throw new IllegalArgumentException("Unknown ledger storage: " + layout);
+        }
+    }
+
+    /**
+     * Content of a snapshot captured by {@link #snapshot}, ready to be written.
+     */
+    interface Snapshot {
+        /**
+         * Writes the snapshot. Every file is replaced atomically.
+         *
+         * @throws IOException if a file cannot be written
+         */
+        void write() throws IOException;
+    }
+}
@@ -0,0 +1,97 @@
+package finalprojects;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import javax.swing.SwingWorker;
+
+/**
+ * Background work on a ledger, such as loading a file, querying transactions or building chart
+ * datasets. {@link #compute()} runs on a worker thread and may report progress with
+ * {@link #reportProgress(int)}; the result is handed to {@link #succeeded(Object)} on the event
+ * dispatch thread. A cancelled task, or one superseded in its {@link TaskChannel}, never publishes.
+ *
+ * @param <T> the result type
+ */
+public abstract class LedgerTask<T> extends SwingWorker<T, Void> {
+    private TaskChannel channel;
+
+    /**
+     * Computes the result on a worker thread. Long computations should return early, or throw
+     * {@link CancellationException}, once {@link #isCancelled()} is true.
+     *
+     * @return the result
+     * @throws Exception if the computation fails
+     */
+    protected abstract T compute() throws Exception;
+
+    /**
+     * Receives the result on the event dispatch thread.
+     *
+     * @param result the result of {@link #compute()}
+     */
+    protected abstract void succeeded(T result);
+
+    /**
+     * Receives the failure of {@link #compute()} on the event dispatch thread. Prints it by default.
+     *
+     * @param cause the exception thrown by the computation
+     */
+    protected void failed(Throwable cause) {
+        System.err.println("A background task failed: " + cause.getMessage());
+        cause.printStackTrace();
+    }
+
+    /**
+     * Called on the event dispatch thread when the task was cancelled or superseded. Does nothing by default.
+     */
+    protected void cancelled() {
+    }
+
+    /**
+     * Reports progress and stops the computation if the task was cancelled meanwhile.
+     *
+     * @param percent the progress, from 0 to 100
+     * @throws CancellationException if the task was cancelled
+     */
+    protected void reportProgress(int percent) {
+        if (isCancelled()) {
+            throw new CancellationException();
+        }
+        setProgress(Math.max(0, Math.min(100, percent)));
+    }
+
+    @Override
+    protected final T doInBackground() throws Exception {
+        return compute();
+    }
+
+    @Override
+    protected final void done() {
+        if (isCancelled() || (channel != null && !channel.isCurrent(this))) {
+            cancelled();
+            return;
+        }
+        try {
+            succeeded(get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (CancellationException e) {
+            cancelled();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CancellationException) {
+                cancelled();
+            } else {
+                failed(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Binds the task to the channel it was submitted to.
+     *
+     * @param channel the channel
+     */
+    void setChannel(TaskChannel channel) {
+        this.channel = channel;
+    }
+}
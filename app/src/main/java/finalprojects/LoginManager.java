@@ -27,8 +27,7 @@ public class LoginManager {
         if (!Files.exists(dirPath)) {
             Files.createDirectories(dirPath);
         }
-        String filename = username + ".csv";
-        Path csvPath = Paths.get(DIRECTORY_PATH, filename); // Build the path object
+        Path csvPath = csvPath(username); // Build the path object
 
         if (!Files.exists(csvPath)) {
             // If the file does not exist, create a new file
@@ -42,6 +41,48 @@ public class LoginManager {
         return csvPath;
     }
 
+    /**
+     * Returns the path of the edit journal that belongs next to the user's CSV file.
+     * The journal itself is created lazily on the first recorded edit.
+     *
+     * @param username The username of the user.
+     * @return Path The path to the user's journal file.
+     */
+    public static Path journalPath(String username) {
+        return Paths.get(DIRECTORY_PATH, username + ".journal");
+    }
+
+    /**
+     * Returns the path of the user's flat CSV file without creating it.
+     *
+     * @param username The username of the user.
+     * @return Path The path to the user's CSV file.
+     */
+    public static Path csvPath(String username) {
+        return Paths.get(DIRECTORY_PATH, username + ".csv");
+    }
+
+    /**
+     * Returns the path of the user's binary ledger file when the binary layout is used.
+     *
+     * @param username The username of the user.
+     * @return Path The path to the user's ledger file.
+     */
+    public static Path ledgerPath(String username) {
+        return Paths.get(DIRECTORY_PATH, username + ".ledger");
+    }
+
+    /**
+     * Returns the directory holding the monthly partitions of the user's ledger when the
+     * partitioned layout is used. The directory is created on the first write.
+     *
+     * @param username The username of the user.
+     * @return Path The path to the user's partition directory.
+     */
+    public static Path partitionDirectory(String username) {
+        return Paths.get(DIRECTORY_PATH, username);
+    }
+
 
 
 }
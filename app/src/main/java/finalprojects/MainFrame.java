@@ -2,6 +2,9 @@ package finalprojects;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.function.IntConsumer;
 
 /**
  * @author Menglin Lin
@@ -11,6 +14,7 @@ import java.awt.event.*;
 
 public class MainFrame extends JFrame {
     private MemberManager MM;
+    private final TaskChannel loadTasks = new TaskChannel();
 
     /**
      * Constructs a new MainFrame with the specified MemberManager.
@@ -35,13 +39,17 @@ public class MainFrame extends JFrame {
         // Add action listeners
         leftButton.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
-                // Open new frame on left button click
-                openTrackingFrame();
+                // Open new frame on left button click once the ledger is loaded
+                withLedger(new Runnable() {
+                    public void run() {
+                        openTrackingFrame();
+                    }
+                });
             }
         });
         rightButton.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
-                // Open new frame on right button click
+                // Open new frame on right button click; reports stream from disk unless the ledger is loaded
                 openReportFrame();
             }
         });
@@ -64,12 +72,70 @@ public class MainFrame extends JFrame {
         getContentPane().add(settingsButton, BorderLayout.SOUTH);
     }
 
+    /**
+     * Helper method for running an action once the user's ledger is loaded. A ledger that is not
+     * loaded yet is read on a worker thread behind a progress monitor, so this frame stays
+     * responsive and the load can be cancelled.
+     * @param action the action to run on the event dispatch thread
+     */
+    private void withLedger(final Runnable action) {
+        final String username = UserData.getInstance().getUsername();
+        final LedgerService service = LedgerService.getInstance();
+        if (service.isLoaded(username)) {
+            action.run();
+            return;
+        }
+        final TransactionsManager ledger = new TransactionsManager(MM);
+        final ProgressMonitor monitor = new ProgressMonitor(this, "Loading transactions...", null, 0, 100);
+        final LedgerTask<TransactionsManager.LoadedLedger> task = new LedgerTask<TransactionsManager.LoadedLedger>() {
+            @Override
+            protected TransactionsManager.LoadedLedger compute() throws Exception {
+                return ledger.readLedger(username, new IntConsumer() {
+                    public void accept(int percent) {
+                        reportProgress(percent);
+                    }
+                });
+            }
+
+            @Override
+            protected void succeeded(TransactionsManager.LoadedLedger loaded) {
+                monitor.close();
+                ledger.install(loaded);
+                service.putLedger(username, ledger);
+                action.run();
+            }
+
+            @Override
+            protected void failed(Throwable cause) {
+                monitor.close();
+                super.failed(cause);
+                JOptionPane.showMessageDialog(MainFrame.this, "Could not load transactions: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            }
+
+            @Override
+            protected void cancelled() {
+                monitor.close();
+            }
+        };
+        task.addPropertyChangeListener(new PropertyChangeListener() {
+            public void propertyChange(PropertyChangeEvent evt) {
+                if ("progress".equals(evt.getPropertyName())) {
+                    monitor.setProgress((Integer) evt.getNewValue());
+                    if (monitor.isCanceled()) {
+                        task.cancel(true);
+                    }
+                }
+            }
+        });
+        loadTasks.submit(task);
+    }
+
     /**
      * Helper method for opening tracking frame
      */
     private void openTrackingFrame() {
-        // Create instances of required managers
-        TransactionsManager transactionsManager = new TransactionsManager(MM);
+        // Share the user's ledger with every other frame
+        TransactionsManager transactionsManager = LedgerService.getInstance().getLedger(UserData.getInstance().getUsername(), MM);
 
         // Create the tracking frame
         TrackingFrame trackingGui = new TrackingFrame(transactionsManager, MM);
@@ -3,6 +3,7 @@ package finalprojects;
 
 public class Member {
     private String fullName;
+    private int id = -1;
 
     /**
      * Constructs a new Member with the specified full name.
@@ -32,6 +33,24 @@ public class Member {
         this.fullName= fullName;
     }
 
+    /**
+     * Returns the dictionary ID assigned by the {@link MemberManager} that interned this member.
+     *
+     * @return The ID, or -1 if the member has not been interned.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the dictionary ID. Only called by {@link MemberManager} when the member is interned.
+     *
+     * @param id The ID.
+     */
+    void setId(int id) {
+        this.id = id;
+    }
+
     /**
      * Returns a string representation of the member, which is the full name of the member.
      *
@@ -58,7 +77,15 @@ public class Member {
         return fullName.equals(member.fullName);
     }
 
-
-
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}, derived from the full name.
+     * An interned member should be renamed through {@link MemberManager#renameMember(Member, String)}
+     * so that the dictionary stays consistent.
+     *
+     * @return The hash code of the full name.
+     */
+    @Override
+    public int hashCode() {
+        return fullName == null ? 0 : fullName.hashCode();
+    }
 }
-
@@ -1,15 +1,28 @@
 package finalprojects;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Manages a list of members within the system. This class is responsible for
  * adding, retrieving, and searching for members based on various criteria.
  * It ensures that only distinct members are added to the list, avoiding duplicates.
+ *
+ * <p>The manager is an interning dictionary: every distinct name maps to one canonical
+ * {@link Member} with a small ID, which is its position in {@link #getMembers()}. Exact and
+ * case-insensitive lookups are hash lookups, and renaming a member updates the dictionary once
+ * instead of every transaction, since transactions refer to the canonical instance or its ID.
+ *
+ * <p>All methods are synchronized, so a ledger can be loaded on a background thread while the
+ * event dispatch thread reads members.
  */
 public class MemberManager {
     private List<Member> members;
+    private final Map<String, Member> byName = new HashMap<>();
+    private final Map<String, List<Member>> byFoldedName = new HashMap<>();
 
     /**
      * Constructs a new MemberManager. Initializes the internal list that will hold
@@ -23,19 +36,70 @@ public class MemberManager {
      * only distinct member would be added to list
      * @param member
      */
-    public void addMemberToList(Member member) {
-        if (member != null && !members.contains(member)) {
-            members.add(member);
+    public synchronized void addMemberToList(Member member) {
+        if (member != null) {
+            intern(member);
         }
     }
 
+    /**
+     * Returns the canonical member with the name of the given member, registering the given
+     * instance as canonical if the name is new.
+     *
+     * @param member The member to intern, cannot be null.
+     * @return The canonical member with that name.
+     */
+    public synchronized Member intern(Member member) {
+        Member canonical = byName.get(member.getName());
+        if (canonical != null) {
+            return canonical;
+        }
+        if (member.getId() >= 0) {
+            // Already interned by another manager; do not take over its ID
+            member = new Member(member.getName());
+        }
+        return register(member);
+    }
+
+    /**
+     * Returns the canonical member with the given name, creating it if the name is new.
+     *
+     * @param name The exact name of the member, cannot be null.
+     * @return The canonical member with that name.
+     */
+    public synchronized Member intern(String name) {
+        Member canonical = byName.get(name);
+        return canonical != null ? canonical : register(new Member(name));
+    }
+
     /**
      * Retrieves the list of all members currently managed by this manager.
+     * The position of each member in the list is its ID.
      *
-     * @return A list of {@link Member} objects.
+     * @return An unmodifiable snapshot of the {@link Member} objects.
      */
-    public List<Member> getMembers() {
-        return members;
+    public synchronized List<Member> getMembers() {
+        return Collections.unmodifiableList(new ArrayList<>(members));
+    }
+
+    /**
+     * Returns the member with the given ID.
+     *
+     * @param id The ID assigned when the member was interned.
+     * @return The canonical member.
+     */
+    public synchronized Member getMember(int id) {
+        return members.get(id);
+    }
+
+    /**
+     * Finds a member by their exact name.
+     *
+     * @param name The name of the member to find.
+     * @return The canonical member, or null if no member has exactly this name.
+     */
+    public synchronized Member findMemberByExactName(String name) {
+        return name == null ? null : byName.get(name);
     }
 
     /**
@@ -45,13 +109,91 @@ public class MemberManager {
      * @param name The name of the member to find.
      * @return The {@link Member} object if found, or null if no member with the given name exists.
      */
-    public Member findMemberByName(String name) {
-        for (Member member : members) {
-            if (member.getName().equalsIgnoreCase(name)) {
-                return member;
-            }
+    public synchronized Member findMemberByName(String name) {
+        if (name == null) {
+            return null;
         }
-        return null;  
+        List<Member> matches = byFoldedName.get(fold(name));
+        return matches == null ? null : matches.get(0);
     }
-}
 
+    /**
+     * Renames a member. The canonical instance keeps its ID, so every transaction referring to it
+     * shows the new name; a saved ledger picks the name up the next time its CSV file is rewritten.
+     *
+     * @param member  The member to rename.
+     * @param newName The new name, cannot be null or already used by another member.
+     * @throws IllegalArgumentException if the member is not managed here or the new name is taken.
+     */
+    public synchronized void renameMember(Member member, String newName) {
+        if (newName == null || newName.isEmpty()) {
+            throw new IllegalArgumentException("Member cannot be null.");
+        }
+        Member canonical = byName.get(member.getName());
+        if (canonical == null) {
+            throw new IllegalArgumentException("Unknown member: " + member.getName());
+        }
+        if (newName.equals(canonical.getName())) {
+            return;
+        }
+        if (byName.containsKey(newName)) {
+            throw new IllegalArgumentException("Existing member name: " + newName);
+        }
+        byName.remove(canonical.getName());
+        unfold(canonical);
+        canonical.setName(newName);
+        byName.put(newName, canonical);
+        addFolded(canonical);
+    }
+
+    /**
+     * Helper method to add a new canonical member to the dictionary.
+     *
+     * @param member The member, not yet interned anywhere.
+     * @return The member.
+     */
+    private Member register(Member member) {
+        member.setId(members.size());
+        members.add(member);
+        byName.put(member.getName(), member);
+        addFolded(member);
+        return member;
+    }
+
+    /**
+     * Helper method to add a member under its case-folded name, keeping members with the same
+     * folded name in ID order so the oldest one is found first, as the former list scan did.
+     */
+    private void addFolded(Member member) {
+        List<Member> matches = byFoldedName.computeIfAbsent(fold(member.getName()), k -> new ArrayList<>(1));
+        int position = matches.size();
+        while (position > 0 && matches.get(position - 1).getId() > member.getId()) {
+            position--;
+        }
+        matches.add(position, member);
+    }
+
+    /**
+     * Helper method to remove a member from under its case-folded name.
+     */
+    private void unfold(Member member) {
+        String key = fold(member.getName());
+        List<Member> matches = byFoldedName.get(key);
+        matches.remove(member);
+        if (matches.isEmpty()) {
+            byFoldedName.remove(key);
+        }
+    }
+
+    /**
+     * Helper method to fold a name character by character, the same way
+     * {@link String#equalsIgnoreCase(String)} compares characters.
+     */
+    private static String fold(String name) {
+        StringBuilder folded = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            folded.append(Character.toLowerCase(Character.toUpperCase(name.charAt(i))));
+        }
+        return folded.toString();
+    }
+}
@@ -0,0 +1,371 @@
+package finalprojects;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Reads a transaction CSV file on several threads while producing exactly what a
+ * {@link TransactionCsvReader} produces. The file is cut at line terminators into chunks of about
+ * {@link #CHUNK_BYTES}, each chunk is memory-mapped and parsed on a dedicated {@link ForkJoinPool}
+ * into primitive columns (ID, category ordinal, amount, epoch day and a chunk-local member index),
+ * and the calling thread turns the columns back into transactions chunk by chunk, in file order,
+ * copies them straight into a {@link TransactionStore} when reading into one, or hands their
+ * fields to a {@link LedgerRecordSink} when scanning.
+ *
+ * <p>Members are only registered with the {@link MemberManager} during that ordered merge, so
+ * every name gets the same member ID as with the sequential reader. A malformed line is reported
+ * with the same exception, after every transaction before it was handed to the sink. At most two
+ * chunks per pool thread are parsed ahead of the merge, which bounds the memory held in columns.
+ */
+public class ParallelCsvLoader {
+    /**
+     * Target size of a chunk in bytes.
+     */
+    static final int CHUNK_BYTES = 1 << 23;
+
+    private static final int MAX_CHUNK_BYTES = 1 << 30;
+    private static final int DATE_CACHE_SIZE = 1 << 12;
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private final MemberManager memberManager;
+    private final int chunkBytes;
+    private final LocalDate[] dateCache = new LocalDate[DATE_CACHE_SIZE];
+    private final long[] dateCacheKeys = new long[DATE_CACHE_SIZE];
+
+    /**
+     * Constructs a loader that registers every member it reads with the given member manager.
+     *
+     * @param memberManager the member manager to manage member data
+     */
+    public ParallelCsvLoader(MemberManager memberManager) {
+        this(memberManager, CHUNK_BYTES);
+    }
+
+    /**
+     * Constructs a loader with a specific chunk size.
+     *
+     * @param memberManager the member manager to manage member data
+     * @param chunkBytes    the target size of a chunk in bytes
+     * @throws IllegalArgumentException if the chunk size is not positive
+     */
+    ParallelCsvLoader(MemberManager memberManager, int chunkBytes) {
+        if (chunkBytes <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive.");
+        }
+        this.memberManager = memberManager;
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Reads every transaction in a CSV file, in file order.
+     *
+     * @param csvPath the CSV file to read
+     * @param sink    receives each parsed transaction
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a line is malformed
+     */
+    public void read(Path csvPath, Consumer<Transaction> sink) throws IOException {
+        read(csvPath, sink, null);
+    }
+
+    /**
+     * Reads every transaction in a CSV file, in file order, reporting how much of the file was merged.
+     *
+     * @param csvPath  the CSV file to read
+     * @param sink     receives each parsed transaction, on the calling thread
+     * @param progress receives the percentage of bytes merged after each chunk, or null
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a line is malformed
+     */
+    public void read(Path csvPath, final Consumer<Transaction> sink, IntConsumer progress) throws IOException {
+        readChunks(csvPath, new Consumer<Chunk>() {
+            @Override
+            public void accept(Chunk chunk) {
+                merge(chunk, sink);
+            }
+        }, progress);
+    }
+
+    /**
+     * Reads every transaction in a CSV file into a store, in file order, copying the parsed columns
+     * of each chunk into the store in bulk instead of creating a transaction per line. Only the
+     * distinct member names of a chunk are looked up in the member manager.
+     *
+     * @param csvPath  the CSV file to read
+     * @param store    receives the transactions; its member manager must be the one of this loader
+     * @param progress receives the percentage of bytes merged after each chunk, or null
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a line is malformed, or the store uses another member manager
+     */
+    public void read(Path csvPath, final TransactionStore store, IntConsumer progress) throws IOException {
+        if (store.getMemberManager() != memberManager) {
+            throw new IllegalArgumentException("The store must share the member manager of the loader.");
+        }
+        readChunks(csvPath, new Consumer<Chunk>() {
+            @Override
+            public void accept(Chunk chunk) {
+                internMembers(chunk);
+                store.addRows(chunk.count, chunk.ids, chunk.categories, chunk.amounts, chunk.days, chunk.members);
+                if (chunk.failure != null) {
+                    throw chunk.failure;
+                }
+            }
+        }, progress);
+    }
+
+    /**
+     * Pushes the fields of every record in a CSV file into a sink, in file order, straight from the
+     * parsed columns of each mapped chunk. No Transaction, LocalDate or Member is created per line,
+     * so aggregating a file this way needs memory for the chunks in flight and the sums only.
+     *
+     * @param csvPath  the CSV file to scan
+     * @param sink     receives the fields of each record, on the calling thread
+     * @param progress receives the percentage of bytes scanned after each chunk, or null
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a line is malformed or its date or amount is out of range
+     */
+    public void scan(Path csvPath, final LedgerRecordSink sink, IntConsumer progress) throws IOException {
+        readChunks(csvPath, new Consumer<Chunk>() {
+            @Override
+            public void accept(Chunk chunk) {
+                internMembers(chunk);
+                for (int i = 0; i < chunk.count; i++) {
+                    int category = chunk.categories[i];
+                    int kind = CategoryRegistry.isIncome(category) ? TransactionStore.KIND_INCOME : TransactionStore.KIND_EXPENSE;
+                    sink.accept(chunk.ids[i], kind, category, Amounts.toUnits(chunk.amounts[i]),
+                        DateIndex.toDay(chunk.days[i]), chunk.members[i]);
+                }
+                if (chunk.failure != null) {
+                    throw chunk.failure;
+                }
+            }
+        }, progress);
+    }
+
+    /**
+     * Helper method to register the distinct member names of a chunk, in order of first appearance,
+     * and to replace its chunk-local member indexes with member IDs.
+     */
+    private void internMembers(Chunk chunk) {
+        int[] memberIds = new int[chunk.memberNames.size()];
+        for (int local = 0; local < memberIds.length; local++) {
+            memberIds[local] = memberManager.intern(chunk.memberNames.get(local)).getId();
+        }
+        for (int i = 0; i < chunk.count; i++) {
+            chunk.members[i] = memberIds[chunk.members[i]];
+        }
+    }
+
+    /**
+     * Helper method to parse the chunks of a file on the pool and hand them to a merge step on the
+     * calling thread, in file order, keeping at most two chunks per pool thread in flight.
+     */
+    private void readChunks(Path csvPath, Consumer<Chunk> merge, IntConsumer progress) throws IOException {
+        Deque<ForkJoinTask<Chunk>> pending = new ArrayDeque<>();
+        int ahead = 2 * POOL.getParallelism();
+        try (FileChannel channel = FileChannel.open(csvPath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            long merged = 0;
+            while (position < size || !pending.isEmpty()) {
+                while (position < size && pending.size() < ahead) {
+                    ChunkTask task = mapChunk(channel, position, size);
+                    pending.add(POOL.submit(task));
+                    position += task.end;
+                }
+                Chunk chunk = pending.poll().join();
+                merge.accept(chunk);
+                merged += chunk.bytes;
+                if (progress != null) {
+                    progress.accept((int) (merged * 100 / size));
+                }
+            }
+        } finally {
+            for (ForkJoinTask<Chunk> task : pending) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Helper method to map the next chunk, ending after its last line terminator unless it ends the file.
+     * The mapping is widened while a single line does not fit.
+     */
+    private ChunkTask mapChunk(FileChannel channel, long position, long size) throws IOException {
+        long length = Math.min(chunkBytes, size - position);
+        while (true) {
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            boolean last = position + length == size;
+            int end = (int) length;
+            if (!last) {
+                while (end > 0 && region.get(end - 1) != '\n') {
+                    end--;
+                }
+            }
+            if (end > 0) {
+                return new ChunkTask(region, end, last);
+            }
+            if (length >= MAX_CHUNK_BYTES) {
+                throw new IOException("A line at byte " + position + " is longer than " + MAX_CHUNK_BYTES + " bytes");
+            }
+            length = Math.min(Math.min(length * 2, MAX_CHUNK_BYTES), size - position);
+        }
+    }
+
+    /**
+     * Helper method to hand the transactions of a parsed chunk to the sink, registering its members
+     * in order of first appearance, then to rethrow the error that stopped the chunk, if any.
+     */
+    private void merge(Chunk chunk, Consumer<Transaction> sink) {
+        Member[] members = new Member[chunk.memberNames.size()];
+        for (int i = 0; i < chunk.count; i++) {
+            int local = chunk.members[i];
+            Member member = members[local];
+            if (member == null) {
+                member = memberManager.intern(chunk.memberNames.get(local));
+                members[local] = member;
+            }
+            Transaction transaction = TransactionFactory.createTransaction(CategoryRegistry.byOrdinal(chunk.categories[i]),
+                chunk.amounts[i], date(chunk.days[i]), member);
+            transaction.setId(chunk.ids[i]);
+            sink.accept(transaction);
+        }
+        if (chunk.failure != null) {
+            throw chunk.failure;
+        }
+    }
+
+    /**
+     * Helper method to return the date of an epoch day, sharing LocalDate instances for repeated dates,
+     * or null for {@link DateIndex#NO_DAY}.
+     */
+    private LocalDate date(long epochDay) {
+        if (epochDay == DateIndex.NO_DAY) {
+            return null;
+        }
+        int slot = (int) (epochDay & (DATE_CACHE_SIZE - 1));
+        LocalDate date = dateCache[slot];
+        if (date == null || dateCacheKeys[slot] != epochDay) {
+            date = LocalDate.ofEpochDay(epochDay);
+            dateCache[slot] = date;
+            dateCacheKeys[slot] = epochDay;
+        }
+        return date;
+    }
+
+    /**
+     * Parses the lines of one mapped chunk into a {@link Chunk}. Tasks are never serialized.
+     */
+    @SuppressWarnings("serial")
+    private static class ChunkTask extends RecursiveTask<Chunk> {
+        private final MappedByteBuffer region;
+        private final int end;
+        private final boolean last;
+
+        private ChunkTask(MappedByteBuffer region, int end, boolean last) {
+            this.region = region;
+            this.end = end;
+            this.last = last;
+        }
+
+        @Override
+        protected Chunk compute() {
+            Chunk chunk = new Chunk(end);
+            int[] fieldEnds = new int[TransactionCsvReader.FIELD_COUNT];
+            ByteKeyTable<Integer> members = new ByteKeyTable<>();
+            int lineStart = 0;
+            try {
+                for (int i = 0; i < end; i++) {
+                    if (region.get(i) == '\n') {
+                        parseLine(lineStart, i, fieldEnds, members, chunk);
+                        lineStart = i + 1;
+                    }
+                }
+                if (last && lineStart < end) {
+                    parseLine(lineStart, end, fieldEnds, members, chunk);
+                }
+            } catch (RuntimeException e) {
+                chunk.failure = e;
+            }
+            return chunk;
+        }
+
+        /**
+         * Helper method to parse one line into the columns of the chunk, with the same rules as
+         * {@link TransactionCsvReader#parseLine}.
+         */
+        private void parseLine(int from, int to, int[] fieldEnds, ByteKeyTable<Integer> members, Chunk chunk) {
+            if (!TransactionCsvReader.splitFields(region, from, to, fieldEnds)) {
+                return;
+            }
+            int id = TransactionCsvReader.parseId(region, from, fieldEnds[0]);
+            TransactionCategory category = TransactionCsvReader.resolveCategory(region, fieldEnds[0] + 1, fieldEnds[1]);
+            double amount = TransactionCsvReader.parseAmount(region, fieldEnds[1] + 1, fieldEnds[2]);
+            long epochDay = TransactionCsvReader.parseEpochDay(region, fieldEnds[2] + 1, fieldEnds[3]);
+            if (fieldEnds[2] + 1 == fieldEnds[3]) {
+                epochDay = DateIndex.NO_DAY;
+            } else if (epochDay == Long.MIN_VALUE) {
+                epochDay = Transaction.setStrDate(TransactionCsvReader.decode(region, fieldEnds[2] + 1, fieldEnds[3])).toEpochDay();
+            }
+            Integer member = members.get(region, fieldEnds[3] + 1, fieldEnds[4]);
+            if (member == null) {
+                member = chunk.memberNames.size();
+                chunk.memberNames.add(TransactionCsvReader.decode(region, fieldEnds[3] + 1, fieldEnds[4]));
+                members.put(region, fieldEnds[3] + 1, fieldEnds[4], member);
+            }
+            chunk.add(id, CategoryRegistry.ordinal(category), amount, epochDay, member);
+        }
+    }
+
+    /**
+     * Parsed columns of one chunk, and the error that stopped its parsing if a line was malformed.
+     */
+    private static class Chunk {
+        private static final int INITIAL_CAPACITY = 1 << 10;
+
+        private final int bytes;
+        private final List<String> memberNames = new ArrayList<>();
+        private int count;
+        private int[] ids = new int[INITIAL_CAPACITY];
+        private int[] categories = new int[INITIAL_CAPACITY];
+        private double[] amounts = new double[INITIAL_CAPACITY];
+        private long[] days = new long[INITIAL_CAPACITY];
+        private int[] members = new int[INITIAL_CAPACITY];
+        private RuntimeException failure;
+
+        private Chunk(int bytes) {
+            this.bytes = bytes;
+        }
+
+        private void add(int id, int category, double amount, long day, int member) {
+            if (count == ids.length) {
+                int capacity = count * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                categories = Arrays.copyOf(categories, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+                days = Arrays.copyOf(days, capacity);
+                members = Arrays.copyOf(members, capacity);
+            }
+            ids[count] = id;
+            categories[count] = category;
+            amounts[count] = amount;
+            days[count] = day;
+            members[count] = member;
+            count++;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package finalprojects;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Keeps the snapshot of a user as one CSV file per month in the directory {@code userdata/<username>/},
+ * named after the month ({@code 2024-05.csv}), next to a manifest listing every month with its
+ * number of transactions. Reading a range of months only opens the files of those months, and a
+ * compaction only rewrites the months edited since the previous one, so editing the current month
+ * costs the same whatever the length of the history. Undated transactions are kept together in
+ * {@code undated.csv}. A user who still has a flat CSV file is migrated to this layout the first
+ * time the snapshot is opened.
+ */
+public class PartitionedLedgerStorage implements LedgerStorage {
+    static final String MANIFEST = "manifest";
+    private static final String SEPARATOR = ",";
+    private static final String UNDATED_NAME = "undated";
+
+    @Override
+    public void read(String username, MemberManager memberManager, Consumer<Transaction> sink, final IntConsumer progress) throws IOException {
+        Path directory = LoginManager.partitionDirectory(username);
+        Map<YearMonth, Integer> manifest = open(username, memberManager);
+        List<Path> partitions = new ArrayList<>();
+        long totalBytes = 0;
+        for (YearMonth month : manifest.keySet()) {
+            Path partition = partitionPath(directory, month);
+            partitions.add(partition);
+            totalBytes += Files.size(partition);
+        }
+        TransactionCsvReader reader = new TransactionCsvReader(memberManager);
+        long readBytes = 0;
+        for (Path partition : partitions) {
+            final long before = readBytes;
+            final long size = Files.size(partition);
+            final long total = Math.max(1, totalBytes);
+            reader.read(partition, sink, progress == null ? null : percent ->
+                progress.accept((int) ((before + size * percent / 100) * 100 / total)));
+            readBytes += size;
+        }
+        if (progress != null) {
+            progress.accept(100);
+        }
+    }
+
+    @Override
+    public void readMonths(String username, MemberManager memberManager, YearMonth from, YearMonth to,
+                           Consumer<Transaction> sink) throws IOException {
+        Path directory = LoginManager.partitionDirectory(username);
+        TransactionCsvReader reader = new TransactionCsvReader(memberManager);
+        for (YearMonth month : open(username, memberManager).keySet()) {
+            if (!month.isBefore(from) && !month.isAfter(to)) {
+                reader.read(partitionPath(directory, month), sink);
+            }
+        }
+    }
+
+    @Override
+    public Snapshot snapshot(final String username, TransactionStore transactions, final Set<YearMonth> months) {
+        final Map<YearMonth, List<Transaction>> byMonth = new TreeMap<>();
+        if (months == null) {
+            for (Transaction transaction : transactions) {
+                byMonth.computeIfAbsent(LedgerStorage.monthOf(transaction.getDate()), month -> new ArrayList<>()).add(transaction);
+            }
+        } else {
+            for (YearMonth month : months) {
+                byMonth.put(month, month.equals(UNDATED) ? undated(transactions)
+                    : transactions.query(new TransactionFilter(month.atDay(1), month.atEndOfMonth(), null, null, null)));
+            }
+        }
+        final Map<YearMonth, byte[]> contents = new TreeMap<>();
+        final Map<YearMonth, Integer> counts = new TreeMap<>();
+        for (Map.Entry<YearMonth, List<Transaction>> entry : byMonth.entrySet()) {
+            contents.put(entry.getKey(), CsvLedgerStorage.csvBytes(entry.getValue()));
+            counts.put(entry.getKey(), entry.getValue().size());
+        }
+        return new Snapshot() {
+            @Override
+            public void write() throws IOException {
+                Path directory = LoginManager.partitionDirectory(username);
+                Files.createDirectories(directory);
+                Map<YearMonth, Integer> manifest = readManifest(directory);
+                Set<YearMonth> previous = new TreeSet<>(manifest.keySet());
+                if (months == null) {
+                    manifest.clear();
+                }
+                for (Map.Entry<YearMonth, byte[]> entry : contents.entrySet()) {
+                    YearMonth month = entry.getKey();
+                    int count = counts.get(month);
+                    if (count == 0) {
+                        manifest.remove(month);
+                    } else {
+                        LedgerPersister.writeAtomically(partitionPath(directory, month), entry.getValue());
+                        manifest.put(month, count);
+                    }
+                }
+                writeManifest(directory, manifest);
+                // Until the new manifest is in place the old one may still list these partitions
+                previous.addAll(contents.keySet());
+                for (YearMonth month : previous) {
+                    if (!manifest.containsKey(month)) {
+                        Files.deleteIfExists(partitionPath(directory, month));
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Folds the journal after a fixed number of records, since a compaction only rewrites the edited months.
+     *
+     * @param ledgerSize the number of transactions in the ledger
+     * @return the compaction threshold
+     */
+    @Override
+    public int compactionThreshold(int ledgerSize) {
+        return TransactionsManager.MIN_COMPACTION_RECORDS;
+    }
+
+    /**
+     * Returns the file holding the transactions of a month.
+     *
+     * @param directory the partition directory of the user
+     * @param month     the month
+     * @return the partition path
+     */
+    static Path partitionPath(Path directory, YearMonth month) {
+        return directory.resolve(monthName(month) + ".csv");
+    }
+
+    /**
+     * Helper method to collect the undated transactions, which no date filter selects.
+     */
+    private static List<Transaction> undated(TransactionStore transactions) {
+        List<Transaction> result = new ArrayList<>();
+        for (Transaction transaction : transactions) {
+            if (transaction.getDate() == null) {
+                result.add(transaction);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Helper method to name a month in file names and in the manifest.
+     */
+    private static String monthName(YearMonth month) {
+        return month.equals(UNDATED) ? UNDATED_NAME : month.toString();
+    }
+
+    /**
+     * Helper method to read the manifest of a user, creating the partition directory first,
+     * from the flat CSV file if there is one.
+     */
+    private Map<YearMonth, Integer> open(String username, MemberManager memberManager) throws IOException {
+        Path directory = LoginManager.partitionDirectory(username);
+        if (!Files.exists(directory.resolve(MANIFEST))) {
+            migrate(username, memberManager);
+        }
+        return readManifest(directory);
+    }
+
+    /**
+     * Helper method to split the flat CSV file of a user into month partitions, or to create an
+     * empty partition directory for a new user.
+     */
+    private void migrate(String username, MemberManager memberManager) throws IOException {
+        Path flat = LoginManager.csvPath(username);
+        TransactionStore transactions = new TransactionStore(memberManager);
+        if (Files.exists(flat)) {
+            new ParallelCsvLoader(memberManager).read(flat, transactions::add);
+        }
+        snapshot(username, transactions, null).write();
+        if (Files.exists(flat)) {
+            Files.move(flat, flat.resolveSibling(flat.getFileName() + MIGRATED_SUFFIX));
+            System.out.println("Migrated " + transactions.size() + " transactions of " + username + " to monthly partitions");
+        }
+    }
+
+    /**
+     * Helper method to read the months listed in a manifest with their number of transactions.
+     */
+    private static Map<YearMonth, Integer> readManifest(Path directory) throws IOException {
+        Map<YearMonth, Integer> manifest = new TreeMap<>();
+        Path path = directory.resolve(MANIFEST);
+        if (!Files.exists(path)) {
+            return manifest;
+        }
+        try (BufferedReader br = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] fields = line.split(SEPARATOR);
+                YearMonth month = fields[0].equals(UNDATED_NAME) ? UNDATED : YearMonth.parse(fields[0]);
+                manifest.put(month, Integer.parseInt(fields[1]));
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * Helper method to replace the manifest atomically.
+     */
+    private static void writeManifest(Path directory, Map<YearMonth, Integer> manifest) throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (Map.Entry<YearMonth, Integer> entry : manifest.entrySet()) {
+            content.append(monthName(entry.getKey())).append(SEPARATOR).append(entry.getValue()).append('\n');
+        }
+        LedgerPersister.writeAtomically(directory.resolve(MANIFEST), content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,142 @@
+package finalprojects;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded least-recently-used cache of query results computed at one version of a ledger.
+ * Every lookup states the ledger version it runs at: the first lookup at a newer version drops
+ * every entry at once, and a lookup at an older version is computed but not kept, so a result is
+ * never served across an edit. The cache holds at most a number of entries and at most a total
+ * weight, for example the number of IDs held by all cached results.
+ *
+ * <p>Results are computed outside the cache lock, so the same missing entry may be computed twice
+ * by concurrent callers; cached values are shared and must not be modified.
+ *
+ * @param <K> the query key, with value-based equals and hashCode
+ * @param <V> the query result
+ */
+public class QueryCache<K, V> {
+    private final int maxEntries;
+    private final long maxWeight;
+    private final ToLongFunction<V> weigher;
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long version = Long.MIN_VALUE;
+    private long weight;
+    private long hits;
+    private long misses;
+
+    /**
+     * Constructs a cache bounded by its number of entries only.
+     *
+     * @param maxEntries the largest number of entries kept
+     * @throws IllegalArgumentException if the bound is not positive
+     */
+    public QueryCache(int maxEntries) {
+        this(maxEntries, Long.MAX_VALUE, value -> 0);
+    }
+
+    /**
+     * Constructs a cache bounded by its number of entries and by the total weight of its values.
+     *
+     * @param maxEntries the largest number of entries kept
+     * @param maxWeight  the largest total weight kept; a heavier single value is not cached
+     * @param weigher    returns the weight of a value
+     * @throws IllegalArgumentException if a bound is not positive
+     */
+    public QueryCache(int maxEntries, long maxWeight, ToLongFunction<V> weigher) {
+        if (maxEntries <= 0 || maxWeight <= 0) {
+            throw new IllegalArgumentException("Cache bounds must be positive.");
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Returns the cached result of a query at a ledger version, computing and caching it on a miss.
+     *
+     * @param key     the query
+     * @param version the ledger version the caller reads, which must not change during the call
+     * @param loader  computes the result on a miss
+     * @return the result, possibly shared with other callers
+     */
+    public V get(K key, long version, Supplier<V> loader) {
+        synchronized (this) {
+            if (version > this.version) {
+                clear();
+                this.version = version;
+            } else if (version == this.version) {
+                V value = entries.get(key);
+                if (value != null) {
+                    hits++;
+                    return value;
+                }
+            }
+            misses++;
+        }
+        V value = loader.get();
+        synchronized (this) {
+            if (version == this.version && !entries.containsKey(key)) {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Drops every entry. The counters are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    /**
+     * Returns the number of cached entries.
+     *
+     * @return the entry count
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache.
+     *
+     * @return the hit count
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that had to compute their result.
+     *
+     * @return the miss count
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Helper method to add an entry, evicting the least recently used entries beyond the bounds.
+     */
+    private void put(K key, V value) {
+        long valueWeight = weigher.applyAsLong(value);
+        if (valueWeight > maxWeight) {
+            return;
+        }
+        entries.put(key, value);
+        weight += valueWeight;
+        Iterator<Map.Entry<K, V>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries || weight > maxWeight) {
+            Map.Entry<K, V> entry = eldest.next();
+            weight -= weigher.applyAsLong(entry.getValue());
+            eldest.remove();
+        }
+    }
+}
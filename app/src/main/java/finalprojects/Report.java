@@ -0,0 +1,194 @@
+package finalprojects;
+
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Every aggregate the reporting charts need for one window of months: monthly income and expense
+ * series, income and expense totals by category, and income and expense totals and monthly
+ * averages by member. A report is filled in a single pass by {@link RollupCube#report}, so a chart
+ * refresh reads the ledger once no matter how many charts or members it shows.
+ */
+public class Report {
+    private static final int INCOME = 0;
+    private static final int EXPENSE = 1;
+
+    private final YearMonth from;
+    private final YearMonth to;
+    private final SortedMap<YearMonth, Long> incomeByMonth = new TreeMap<>();
+    private final SortedMap<YearMonth, Long> expenseByMonth = new TreeMap<>();
+    private final long[][] byCategory = new long[2][CategoryRegistry.SIZE];
+    private final boolean[][] hasCategory = new boolean[2][CategoryRegistry.SIZE];
+    private final SortedMap<Integer, Long> incomeByMember = new TreeMap<>();
+    private final SortedMap<Integer, Long> expenseByMember = new TreeMap<>();
+
+    /**
+     * Constructs an empty report for a window of months.
+     *
+     * @param from the first month
+     * @param to   the last month, inclusive
+     * @throws IllegalArgumentException if the first month is after the last
+     */
+    public Report(YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("First month must be before or equal to last month.");
+        }
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Adds the total of a group of transactions to every aggregate. Plain transactions that are
+     * neither income nor expense are ignored.
+     *
+     * @param month    the month of the transactions
+     * @param kind     the transaction type, one of the {@code KIND_} constants of {@link TransactionStore}
+     * @param category the category ordinal, or {@link TransactionStore#NO_CATEGORY}
+     * @param member   the member ID
+     * @param units    the total amount in fixed-point units
+     */
+    public void add(YearMonth month, int kind, int category, int member, long units) {
+        if (kind != TransactionStore.KIND_INCOME && kind != TransactionStore.KIND_EXPENSE) {
+            return;
+        }
+        boolean income = kind == TransactionStore.KIND_INCOME;
+        addMonth(income, month, units);
+        if (category != TransactionStore.NO_CATEGORY) {
+            addCategory(income, category, units);
+        }
+        addMember(income, member, units);
+    }
+
+    /**
+     * Adds to the income or expense total of one month only.
+     *
+     * @param income true for incomes, false for expenses
+     * @param month  the month
+     * @param units  the amount in fixed-point units
+     */
+    void addMonth(boolean income, YearMonth month, long units) {
+        (income ? incomeByMonth : expenseByMonth).merge(month, units, Long::sum);
+    }
+
+    /**
+     * Adds to the income or expense total of one category only.
+     *
+     * @param income   true for incomes, false for expenses
+     * @param category the category ordinal
+     * @param units    the amount in fixed-point units
+     */
+    void addCategory(boolean income, int category, long units) {
+        byCategory[type(income)][category] += units;
+        hasCategory[type(income)][category] = true;
+    }
+
+    /**
+     * Adds to the income or expense total of one member only.
+     *
+     * @param income true for incomes, false for expenses
+     * @param member the member ID
+     * @param units  the amount in fixed-point units
+     */
+    void addMember(boolean income, int member, long units) {
+        (income ? incomeByMember : expenseByMember).merge(member, units, Long::sum);
+    }
+
+    /**
+     * Returns the first month of the window.
+     *
+     * @return the first month
+     */
+    public YearMonth getFrom() {
+        return from;
+    }
+
+    /**
+     * Returns the last month of the window.
+     *
+     * @return the last month, inclusive
+     */
+    public YearMonth getTo() {
+        return to;
+    }
+
+    /**
+     * Returns the number of months in the window.
+     *
+     * @return the month count, at least 1
+     */
+    public long getMonthCount() {
+        return from.until(to, ChronoUnit.MONTHS) + 1;
+    }
+
+    /**
+     * Returns the income or expense total of every month with at least one such transaction.
+     *
+     * @param income true for incomes, false for expenses
+     * @return the totals by month, in month order
+     */
+    public SortedMap<YearMonth, Double> getMonthlyTotals(boolean income) {
+        return toAmounts(income ? incomeByMonth : expenseByMonth);
+    }
+
+    /**
+     * Returns the income or expense total of every category with such transactions.
+     *
+     * @param income true for incomes, false for expenses
+     * @return the totals by category, in {@link CategoryRegistry} order
+     */
+    public Map<TransactionCategory, Double> getCategoryTotals(boolean income) {
+        int type = type(income);
+        Map<TransactionCategory, Double> totals = new LinkedHashMap<>();
+        for (int ordinal = 0; ordinal < CategoryRegistry.SIZE; ordinal++) {
+            if (hasCategory[type][ordinal]) {
+                totals.put(CategoryRegistry.byOrdinal(ordinal), Amounts.toAmount(byCategory[type][ordinal]));
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Returns the income or expense total of every member with such transactions.
+     *
+     * @param income true for incomes, false for expenses
+     * @return the totals by {@link MemberManager} member ID, in ID order
+     */
+    public SortedMap<Integer, Double> getMemberTotals(boolean income) {
+        return toAmounts(income ? incomeByMember : expenseByMember);
+    }
+
+    /**
+     * Returns the monthly average income or expense of one member over the whole window,
+     * counting months without transactions as zero.
+     *
+     * @param member the {@link MemberManager} member ID
+     * @param income true for incomes, false for expenses
+     * @return the average per month
+     */
+    public double getMemberAverage(int member, boolean income) {
+        long units = (income ? incomeByMember : expenseByMember).getOrDefault(member, 0L);
+        return Amounts.toAmount(units) / getMonthCount();
+    }
+
+    /**
+     * Helper method to map income or expense to an aggregate index.
+     */
+    private static int type(boolean income) {
+        return income ? INCOME : EXPENSE;
+    }
+
+    /**
+     * Helper method to convert totals in fixed-point units to amounts.
+     */
+    private static <K> SortedMap<K, Double> toAmounts(SortedMap<K, Long> units) {
+        SortedMap<K, Double> amounts = new TreeMap<>();
+        for (Map.Entry<K, Long> entry : units.entrySet()) {
+            amounts.put(entry.getKey(), Amounts.toAmount(entry.getValue()));
+        }
+        return amounts;
+    }
+}
@@ -0,0 +1,129 @@
+package finalprojects;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+
+/**
+ * Folds the records of a window of months straight into a {@link RollupCube} and
+ * {@link DailyTotals} while a snapshot is scanned, so a report can be drawn from disk without
+ * keeping a single transaction in memory. Only the sums of the window are held, whatever the
+ * length of the ledger.
+ *
+ * <p>{@link #scan} lays the user's journal over the snapshot: records of transactions edited in
+ * the journal are skipped during the scan, and the final state of each edited transaction is
+ * added afterwards, so the result matches the ledger a load would produce.
+ */
+public class ReportSink implements LedgerRecordSink {
+    private final YearMonth from;
+    private final YearMonth to;
+    private final long firstDay;
+    private final long endDay;
+    private final IntIntHashMap skippedIds;
+    private final MemberManager memberManager;
+    private final RollupCube rollup = new RollupCube();
+    private final DailyTotals dailyTotals = new DailyTotals();
+
+    /**
+     * Constructs an empty sink for a window of months.
+     *
+     * @param from          the first month
+     * @param to            the last month, inclusive
+     * @param skippedIds    IDs whose scanned records are ignored, or null to keep every record
+     * @param memberManager the member manager that resolves the members of added transactions
+     * @throws IllegalArgumentException if the first month is after the last
+     */
+    public ReportSink(YearMonth from, YearMonth to, IntIntHashMap skippedIds, MemberManager memberManager) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("First month must be before or equal to last month.");
+        }
+        this.from = from;
+        this.to = to;
+        this.firstDay = from.atDay(1).toEpochDay();
+        this.endDay = to.plusMonths(1).atDay(1).toEpochDay();
+        this.skippedIds = skippedIds;
+        this.memberManager = memberManager;
+    }
+
+    /**
+     * Reads the report of a window of months of a user's ledger from disk, with the journal laid
+     * over the snapshot, without loading the ledger.
+     *
+     * @param storage       the layout of the user's snapshot
+     * @param username      the user
+     * @param memberManager the member manager the scan registers members with
+     * @param from          the first month
+     * @param to            the last month, inclusive
+     * @return the filled sink
+     * @throws IOException if the snapshot or the journal cannot be read
+     */
+    public static ReportSink scan(LedgerStorage storage, String username, MemberManager memberManager,
+                                  YearMonth from, YearMonth to) throws IOException {
+        Map<Integer, Transaction> edits = new TransactionJournal(LoginManager.journalPath(username)).edits(memberManager);
+        IntIntHashMap editedIds = new IntIntHashMap();
+        for (int id : edits.keySet()) {
+            editedIds.put(id, 0);
+        }
+        ReportSink sink = new ReportSink(from, to, editedIds, memberManager);
+        storage.scanMonths(username, memberManager, from, to, sink);
+        for (Transaction transaction : edits.values()) {
+            if (transaction != null) {
+                sink.add(transaction);
+            }
+        }
+        return sink;
+    }
+
+    @Override
+    public void accept(int id, int kind, int category, long units, int epochDay, int member) {
+        if (epochDay < firstDay || epochDay >= endDay
+                || (skippedIds != null && skippedIds.get(id) != IntIntHashMap.MISSING)) {
+            return;
+        }
+        rollup.add(epochDay, kind, category, member, units);
+        dailyTotals.add(epochDay, kind, category, member, units);
+    }
+
+    /**
+     * Adds a transaction that was not scanned, such as one edited in the journal, if it falls in the window.
+     *
+     * @param transaction the income or expense to add
+     */
+    public void add(Transaction transaction) {
+        if (transaction.getDate() == null) {
+            return;
+        }
+        int category = CategoryRegistry.ordinal(transaction.getCategory());
+        int kind = CategoryRegistry.isIncome(category) ? TransactionStore.KIND_INCOME : TransactionStore.KIND_EXPENSE;
+        int day = DateIndex.toDay(transaction.getDate());
+        if (day < firstDay || day >= endDay) {
+            return;
+        }
+        int member = memberManager.intern(transaction.getMember()).getId();
+        long units = Amounts.toUnits(transaction.getAmount());
+        rollup.add(day, kind, category, member, units);
+        dailyTotals.add(day, kind, category, member, units);
+    }
+
+    /**
+     * Returns the report of the whole window.
+     *
+     * @return the report
+     */
+    public Report getReport() {
+        return rollup.report(from, to);
+    }
+
+    /**
+     * Returns the income or expense total between two dates of the window.
+     *
+     * @param startDate the first date, inclusive
+     * @param endDate   the last date, inclusive
+     * @param income    true for incomes, false for expenses
+     * @return the total; dates outside the window contribute nothing
+     */
+    public double total(LocalDate startDate, LocalDate endDate, boolean income) {
+        return dailyTotals.total(startDate, endDate, income);
+    }
+}
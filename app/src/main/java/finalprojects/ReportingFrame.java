@@ -8,6 +8,9 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
@@ -15,12 +18,15 @@ import org.jfree.data.category.DefaultCategoryDataset;
 import org.jfree.data.category.CategoryDataset;
 import org.jfree.data.general.DefaultPieDataset;
 import org.jfree.data.general.PieDataset;
+import org.jdesktop.swingx.JXDatePicker;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.YearMonth;
 import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.TreeMap;
-import java.util.HashMap;
+import java.util.SortedMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Class for Reporting frame for visualized financial reporting and prediction.
@@ -30,18 +36,31 @@ public class ReportingFrame extends JFrame {
     private JTabbedPane tabbedPane;
     private JPanel historicalChartPanel;
     private JPanel predictionChartPanel;
+    private JXDatePicker rangeStartPicker;
+    private JXDatePicker rangeEndPicker;
+    private JLabel rangeTotalsLabel;
+    private final TaskChannel historicalTasks = new TaskChannel();
+    private final TaskChannel predictionTasks = new TaskChannel();
+    private final TaskChannel rangeTasks = new TaskChannel();
 
     public MemberManager MM;
     public TransactionsManager TM;
+    private final String username;
+    private final LedgerStorage storage = LedgerStorage.fromSystemProperty();
     public Member member;
+    private TransactionListener ledgerListener;
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
 
     /**
-     * Constructor for Reporting frame
+     * Constructor for Reporting frame. A ledger that is already loaded is shared and followed for
+     * edits; otherwise charts and totals are streamed from the user's files, see {@link ReportSink},
+     * and the ledger is never loaded for reporting alone.
      * @param MM MemberManager
      */
     public ReportingFrame(MemberManager MM) {
         this.MM = MM;
-        TM = new TransactionsManager(this.MM);
+        username = UserData.getInstance().getUsername();
+        TM = LedgerService.getInstance().getLoadedLedger(username);
 
 
         setTitle("Financial Reporting");
@@ -76,6 +95,65 @@ public class ReportingFrame extends JFrame {
         // Load prediction chart
         loadPredictionChart();
 
+        // Redraw when the shared ledger is edited from another window
+        if (TM != null) {
+            ledgerListener = new TransactionListener() {
+                @Override
+                public void transactionsChanged(TransactionEvent event) {
+                    scheduleRefresh();
+                }
+            };
+            TM.addTransactionListener(ledgerListener);
+            addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowClosed(WindowEvent e) {
+                    TM.removeTransactionListener(ledgerListener);
+                }
+            });
+        }
+    }
+
+    /**
+     * Aggregate a window of months, from the shared ledger if it is loaded by now, or else by
+     * streaming the user's snapshot and journal through a {@link ReportSink}. Runs on a worker thread.
+     * @param from first month of the window
+     * @param to last month of the window, inclusive
+     * @return the report of the window
+     * @throws IOException if the user's files cannot be read
+     */
+    private Report report(YearMonth from, YearMonth to) throws IOException {
+        TransactionsManager ledger = LedgerService.getInstance().getLoadedLedger(username);
+        if (ledger != null) {
+            return ledger.report(from, to);
+        }
+        return ReportSink.scan(storage, username, MM, from, to).getReport();
+    }
+
+    /**
+     * Member manager whose IDs the reports use.
+     * @return the member manager of the shared ledger, or the frame's one when reports are streamed
+     */
+    private MemberManager reportMembers() {
+        TransactionsManager ledger = LedgerService.getInstance().getLoadedLedger(username);
+        return ledger != null ? ledger.memberManager : MM;
+    }
+
+    /**
+     * Schedules one chart refresh for a burst of ledger edits. Edits may be reported on any thread,
+     * so the pending flag is claimed atomically and only released on the event dispatch thread.
+     */
+    private void scheduleRefresh() {
+        if (!refreshPending.compareAndSet(false, true)) {
+            return;
+        }
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                refreshPending.set(false);
+                loadHistoricalCharts((String) timePeriodComboBox.getSelectedItem());
+                loadPredictionChart();
+            }
+        });
     }
 
     /**
@@ -94,6 +172,19 @@ public class ReportingFrame extends JFrame {
             }
         });
 
+        // Custom date range, totalled from the ledger's daily prefix sums
+        ActionListener rangeListener = new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                updateRangeTotals();
+            }
+        };
+        rangeStartPicker = new JXDatePicker();
+        rangeStartPicker.addActionListener(rangeListener);
+        rangeEndPicker = new JXDatePicker();
+        rangeEndPicker.addActionListener(rangeListener);
+        rangeTotalsLabel = new JLabel();
+
         return panel;
     }
     
@@ -110,20 +201,52 @@ public class ReportingFrame extends JFrame {
         JPanel controlPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
         controlPanel.add(new JLabel("Select Time Period:"));
         controlPanel.add(timePeriodComboBox);
+        controlPanel.add(new JLabel("Custom Range:"));
+        controlPanel.add(rangeStartPicker);
+        controlPanel.add(new JLabel("to"));
+        controlPanel.add(rangeEndPicker);
+        controlPanel.add(rangeTotalsLabel);
+        updateRangeTotals();
 
         // Add the control panel to the top center of the historicalChartPanel
         historicalChartPanel.add(controlPanel, BorderLayout.NORTH);
 
+        // Show a placeholder until the charts are ready
+        historicalChartPanel.add(new JLabel("Loading...", SwingConstants.CENTER), BorderLayout.CENTER);
+        historicalChartPanel.revalidate();
+        historicalChartPanel.repaint();
+
+        // Aggregate the selected window once on a worker thread; a newer selection supersedes this one
+        final LocalDate[] range = getDateRange(timePeriod);
+        historicalTasks.submit(new LedgerTask<Report>() {
+            @Override
+            protected Report compute() throws IOException {
+                return report(YearMonth.from(range[0]), YearMonth.from(range[1]));
+            }
+
+            @Override
+            protected void succeeded(Report report) {
+                showHistoricalCharts(report);
+            }
+        });
+    }
+
+    /**
+     * Replace the placeholder of the historical tab with the charts of a report.
+     * @param report aggregates of the user-selected time range.
+     */
+    private void showHistoricalCharts(Report report) {
         // Create a panel for the charts
         JPanel chartPanel = new JPanel(new GridLayout(2, 2)); // Set the layout to a 2x2 grid
 
         // Add the charts to the chart panel
-        chartPanel.add(newLineChart(timePeriod, "Historical Financial Trend", "MonthYear", "Amount ($)"));
-        chartPanel.add(newPieChart("Income", timePeriod));
-        chartPanel.add(newPieChart("Expense", timePeriod));
-        chartPanel.add(newBarChart(timePeriod,"Income vs Expense By Member", "Member", "Amount($)"));
+        chartPanel.add(newLineChart(report, "Historical Financial Trend", "MonthYear", "Amount ($)"));
+        chartPanel.add(newPieChart("Income", report));
+        chartPanel.add(newPieChart("Expense", report));
+        chartPanel.add(newBarChart(report,"Income vs Expense By Member", "Member", "Amount($)"));
 
         // Add the chart panel to the center of the historicalChartPanel
+        historicalChartPanel.remove(((BorderLayout) historicalChartPanel.getLayout()).getLayoutComponent(BorderLayout.CENTER));
         historicalChartPanel.add(chartPanel, BorderLayout.CENTER);
 
         // Update UI
@@ -131,33 +254,83 @@ public class ReportingFrame extends JFrame {
         historicalChartPanel.repaint();
     }
 
+    /**
+     * Show the income and expense totals of the custom date range.
+     */
+    private void updateRangeTotals() {
+        if (rangeStartPicker.getDate() == null || rangeEndPicker.getDate() == null) {
+            rangeTotalsLabel.setText("Select a start and end date");
+            return;
+        }
+        final LocalDate startDate = rangeStartPicker.getDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        final LocalDate endDate = rangeEndPicker.getDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        if (startDate.isAfter(endDate)) {
+            rangeTotalsLabel.setText("Start date must be before or equal to end date");
+            return;
+        }
+        final TransactionsManager ledger = LedgerService.getInstance().getLoadedLedger(username);
+        if (ledger != null) {
+            // Read both totals under one lock, so an edit on another thread cannot fall between them
+            rangeTotalsLabel.setText(ledger.readLocked(() -> String.format("Income: $%.2f  Expense: $%.2f",
+                ledger.total(startDate, endDate, true), ledger.total(startDate, endDate, false))));
+            return;
+        }
+        // Stream the months of the range from disk on a worker thread
+        rangeTotalsLabel.setText("Loading...");
+        rangeTasks.submit(new LedgerTask<String>() {
+            @Override
+            protected String compute() throws IOException {
+                ReportSink sink = ReportSink.scan(storage, username, MM, YearMonth.from(startDate), YearMonth.from(endDate));
+                return String.format("Income: $%.2f  Expense: $%.2f",
+                    sink.total(startDate, endDate, true), sink.total(startDate, endDate, false));
+            }
+
+            @Override
+            protected void succeeded(String totals) {
+                rangeTotalsLabel.setText(totals);
+            }
+        });
+    }
+
     /**
      * Load or refresh the prediction bar chart in prediction tab
      */
     private void loadPredictionChart() {
-        // Clear existing prediction chart
-        predictionChartPanel.removeAll();
+        // Aggregate the past three months on a worker thread
+        final LocalDate[] range = getDateRangeForPastThreeMonths();
+        predictionTasks.submit(new LedgerTask<Report>() {
+            @Override
+            protected Report compute() throws IOException {
+                return report(YearMonth.from(range[0]), YearMonth.from(range[1]));
+            }
 
-        // Generate/refresh prediction chart
-        predictionChartPanel.add(newBarChart("future 1 Month Prediction", "MonthYear", "Amount ($)"));
+            @Override
+            protected void succeeded(Report report) {
+                // Clear existing prediction chart
+                predictionChartPanel.removeAll();
 
-        // Update UI
-        predictionChartPanel.revalidate();
-        predictionChartPanel.repaint();
+                // Generate/refresh prediction chart
+                predictionChartPanel.add(newPredictionBarChart(report, "future 1 Month Prediction", "MonthYear", "Amount ($)"));
+
+                // Update UI
+                predictionChartPanel.revalidate();
+                predictionChartPanel.repaint();
+            }
+        });
     }
 
     
     /**
      * Create a line chart for reporting by income and expense for user-selected time range.
-     * @param timePeriod user-selected time range
+     * @param report aggregates of the user-selected time range
      * @param title Historical trend
      * @param xaxis Amount of expense and income
      * @param yaxis Month Year
      * @return line chart
      */
-    private JPanel newLineChart(String timePeriod, String title, String xaxis, String yaxis) {
+    private JPanel newLineChart(Report report, String title, String xaxis, String yaxis) {
         JPanel panel = new JPanel();
-        JFreeChart chart = ChartFactory.createLineChart(title, xaxis, yaxis, createLineDataset(timePeriod));
+        JFreeChart chart = ChartFactory.createLineChart(title, xaxis, yaxis, createLineDataset(report));
         ChartPanel chartPanel = new ChartPanel(chart) { 
             public Dimension getPreferredSize() {
                 return new Dimension(850, 400);
@@ -169,48 +342,25 @@ public class ReportingFrame extends JFrame {
     
     /**
      * Prepare dataset for creating a line chart to report for user-selected time range.
-     * @param timePeriod user-selected time range
+     * @param report aggregates of the user-selected time range
      * @return line chart
      */
-    private DefaultCategoryDataset createLineDataset(String timePeriod) {
+    private DefaultCategoryDataset createLineDataset(Report report) {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
     
-        // Define start date and end date based on the selected time period
-        LocalDate[] range = getDateRange(timePeriod);
-        LocalDate startDate = range[0], endDate = range[1];
-    
-        // Initialize maps to store aggregated amounts for income and expenses
-        TreeMap<YearMonth, Double> incomeMap = new TreeMap<>();
-        TreeMap<YearMonth, Double> expenseMap = new TreeMap<>();
-    
-        // Display income transactions and aggregate by month-year
-        TM.loadTransactionsFromCSV();
-        List<Transaction> incomes = TM.displayTransactionsbetweendate(startDate, endDate, null, null, true, false, true);
-
-        for (Transaction income : incomes) {
-            YearMonth yearMonth = YearMonth.from(income.getDate());
-            // String monthYear = yearMonth.getMonth().toString() + " " + yearMonth.getYear();
-            double amount = income.getAmount();
-            incomeMap.put(yearMonth, incomeMap.getOrDefault(yearMonth, 0.0) + amount);
-        }
-    
-        // Display expense transactions and aggregate by month-year
-        TM.loadTransactionsFromCSV();
-        List<Transaction> expenses = TM.displayTransactionsbetweendate(startDate, endDate, null, null, false, false, true);
-
-        for (Transaction expense : expenses) {
-            YearMonth yearMonth = YearMonth.from(expense.getDate());
-            // String monthYear = yearMonth.getMonth().toString() + " " + yearMonth.getYear();
-            double amount = expense.getAmount();
-            expenseMap.put(yearMonth, expenseMap.getOrDefault(yearMonth, 0.0) + amount);
+        // Read monthly income and expense totals from the report
+        SortedMap<YearMonth, Double> incomeMap = report.getMonthlyTotals(true);
+        SortedMap<YearMonth, Double> expenseMap = report.getMonthlyTotals(false);
+        if (incomeMap.isEmpty() && expenseMap.isEmpty()) {
+            return dataset;
         }
 
-        YearMonth start = incomeMap.firstKey();
-        if(start.isAfter(expenseMap.firstKey())) {
+        YearMonth start = incomeMap.isEmpty() ? expenseMap.firstKey() : incomeMap.firstKey();
+        if(!expenseMap.isEmpty() && start.isAfter(expenseMap.firstKey())) {
             start = expenseMap.firstKey();
         }
-        YearMonth end = incomeMap.lastKey();
-        if(end.isBefore(expenseMap.lastKey())) {
+        YearMonth end = incomeMap.isEmpty() ? expenseMap.lastKey() : incomeMap.lastKey();
+        if(!expenseMap.isEmpty() && end.isBefore(expenseMap.lastKey())) {
             end = expenseMap.lastKey();
         }
     
@@ -239,13 +389,13 @@ public class ReportingFrame extends JFrame {
     /**
      * Create a Pie chart for reporting by category for user-selected time range.
      * @param type Income or Expense
-     * @param timePeriod user-selected time range
+     * @param report aggregates of the user-selected time range
      * @return pie chart
      */
-    private JPanel newPieChart(String type, String timePeriod) {
+    private JPanel newPieChart(String type, Report report) {
         JPanel panel = new JPanel();
         JFreeChart chart = ChartFactory.createPieChart("Breakdown by " + type,
-            createPieDataset(timePeriod, type),
+            createPieDataset(report, type),
             true, // lengend
             true, // tootips
             false // URL
@@ -263,54 +413,29 @@ public class ReportingFrame extends JFrame {
     
     /**
      * Prepare dataset for pie chart to report breakdown of expense or income by category.
-     * @param timePeriod user-selected time range.
+     * @param report aggregates of the user-selected time range.
      * @param type category type
      * @return pie chart
      */
-    private PieDataset createPieDataset(String timePeriod, String type) {
+    private PieDataset createPieDataset(Report report, String type) {
         DefaultPieDataset dataset = new DefaultPieDataset();
 
-        // Calculate the start date and end date based on the selected time period
-        LocalDate[] range = getDateRange(timePeriod);
-        LocalDate startDate = range[0], endDate = range[1];
-    
-        // Fetch expense transactions within the selected time period
-        List<Transaction> transactions;
+        boolean isIncome;
         if (type.equals("Expense")) {
-            TM.loadTransactionsFromCSV();
-            transactions = TM.displayTransactionsbetweendate(startDate, endDate, null, null, false, false, true);
-            // Group expenses by category and sum the amounts
-            Map<ExpenseCategory, Double> categoryAmountMap = new HashMap<>();
-            for (Transaction expense : transactions) {
-                ExpenseCategory category = (ExpenseCategory) expense.getCategory();
-                double amount = expense.getAmount();
-                categoryAmountMap.put(category, categoryAmountMap.getOrDefault(category, 0.0) + amount);
-            }
-
-            // Add data to the dataset
-            for (Map.Entry<ExpenseCategory, Double> entry : categoryAmountMap.entrySet()) {
-                dataset.setValue(entry.getKey().toString(), entry.getValue());
-            }
+            isIncome = false;
         }
         else if(type.equals("Income")) {
-            TM.loadTransactionsFromCSV();
-            transactions = TM.displayTransactionsbetweendate(startDate, endDate, null, null, true, false, true);
-            // Group expenses by category and sum the amounts
-            Map<IncomeCategory, Double> categoryAmountMap = new HashMap<>();
-            for (Transaction expense : transactions) {
-                IncomeCategory category = (IncomeCategory) expense.getCategory();
-                double amount = expense.getAmount();
-                categoryAmountMap.put(category, categoryAmountMap.getOrDefault(category, 0.0) + amount);
-            }
-
-            // Add data to the dataset
-            for (Map.Entry<IncomeCategory, Double> entry : categoryAmountMap.entrySet()) {
-                dataset.setValue(entry.getKey().toString(), entry.getValue());
-            }
+            isIncome = true;
         }
         else {
             throw new IllegalArgumentException("Type must be 'Income' or 'Expense'");
         }    
+
+        // Read the totals by category from the report and add them to the dataset
+        Map<TransactionCategory, Double> categoryAmounts = report.getCategoryTotals(isIncome);
+        for (Map.Entry<TransactionCategory, Double> entry : categoryAmounts.entrySet()) {
+            dataset.setValue(entry.getKey().toString(), entry.getValue());
+        }
         return dataset;
     }
      
@@ -321,10 +446,10 @@ public class ReportingFrame extends JFrame {
      * @param yaxis Amount of income and expense
      * @return bar chart
      */
-    private JPanel newBarChart(String timePeriod, String title, String xaxis, String yaxis) {
+    private JPanel newBarChart(Report report, String title, String xaxis, String yaxis) {
         JPanel panel = new JPanel();
         // Create a bar chart
-        JFreeChart chart = ChartFactory.createBarChart(title, xaxis, yaxis,createBarDataset(timePeriod));
+        JFreeChart chart = ChartFactory.createBarChart(title, xaxis, yaxis,createBarDataset(report));
     
         ChartPanel chartPanel = new ChartPanel(chart) {
             public Dimension getPreferredSize() {
@@ -337,15 +462,16 @@ public class ReportingFrame extends JFrame {
     
     /**
      * Creating a bar chart to PREDICT on income/expense for each member f
+     * @param report aggregates of the past three months
      * @param title Income vs Expense by Member
      * @param xaxis Member
      * @param yaxis Amount of income and expense
      * @return bar chart
      */
-    private JPanel newBarChart(String title, String xaxis, String yaxis) {
+    private JPanel newPredictionBarChart(Report report, String title, String xaxis, String yaxis) {
         JPanel panel = new JPanel();
         // Create a bar chart
-        JFreeChart chart = ChartFactory.createBarChart(title, xaxis, yaxis,createPredictionBarDataset() // Make sure this method returns a CategoryDataset
+        JFreeChart chart = ChartFactory.createBarChart(title, xaxis, yaxis,createPredictionBarDataset(report) // Make sure this method returns a CategoryDataset
         );
     
         ChartPanel chartPanel = new ChartPanel(chart) {
@@ -359,38 +485,15 @@ public class ReportingFrame extends JFrame {
 
     /**
      * Prepare dataset for creating bar chart in reporting tab.
-     * @param timePeriod use-selected time range.
+     * @param report aggregates of the use-selected time range.
      * @return compatible dataset for bar chart in reporting tab.
      */
-    private CategoryDataset createBarDataset(String timePeriod) {
+    private CategoryDataset createBarDataset(Report report) {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-    
-        // Determine the start date and end date based on the user-selected time period
-        LocalDate[] range = getDateRange(timePeriod);
-        LocalDate startDate = range[0]; 
-        LocalDate endDate = range[1];
-        
-        Map<String, Double> incomeMap = new HashMap<>();
-        Map<String, Double> expenseMap = new HashMap<>();
         
-        TM.loadTransactionsFromCSV();
-        List<Transaction> incomes = TM.displayTransactionsbetweendate(startDate, endDate, null, null, true, false, true);
-        TM.loadTransactionsFromCSV();
-        List<Transaction> expenses = TM.displayTransactionsbetweendate(startDate, endDate, null, null, false, false, true);
-    
-        // Summing  income transaction amounts for each member.
-        for (Transaction income : incomes) {
-            String memberName = income.getMember().getName();
-            double amount = income.getAmount();
-            incomeMap.put(memberName, incomeMap.getOrDefault(memberName, 0.0) + amount);
-        }
-    
-        // Summing expense transaction amounts for each member.
-        for (Transaction expense : expenses) {
-            String memberName = expense.getMember().getName();
-            double amount = expense.getAmount();
-            expenseMap.put(memberName, expenseMap.getOrDefault(memberName, 0.0) + amount);
-        }
+        // Read the totals by member from the report
+        Map<String, Double> incomeMap = namesOf(report.getMemberTotals(true));
+        Map<String, Double> expenseMap = namesOf(report.getMemberTotals(false));
     
         // Populate the dataset with income and expense for each member
         for (Map.Entry<String, Double> entry : incomeMap.entrySet()) {
@@ -407,21 +510,17 @@ public class ReportingFrame extends JFrame {
 
     /**
      * To prepare dataset for creating the bar chart in the prediction tab using data from the past three months.
+     * @param report aggregates of the past three months, see {@link #getDateRangeForPastThreeMonths()}
      * @return compatible dataset for prediction bar chart.
      */
-    public CategoryDataset createPredictionBarDataset() {
+    public CategoryDataset createPredictionBarDataset(Report report) {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
 
-        // Calculate the date range for the past three months
-        LocalDate[] range = getDateRangeForPastThreeMonths();
-        LocalDate startDate = range[0];
-        LocalDate endDate = range[1];
-
-        // Calculate average income and expenses for each member
+        // Calculate average income and expenses for each member from the report
         List<Member> members = MM.getMembers();
         for (Member member : members) {
-            double avgIncome = calculateAverage("Income",startDate, endDate, member);
-            double avgExpenses = calculateAverage("Expense", startDate, endDate, member);
+            double avgIncome = calculateAverage(report, true, member);
+            double avgExpenses = calculateAverage(report, false, member);
             dataset.addValue(avgIncome, "Predicted Income", member.getName());
             dataset.addValue(avgExpenses, "Predicted Expenses", member.getName());
         }
@@ -445,38 +544,28 @@ public class ReportingFrame extends JFrame {
 
     /**
      * Helper method to calculate average of total transaction amount for user-selected time range.
-     * @param type
-     * @param startDate
-     * @param endDate
+     * @param report aggregates of the time range
+     * @param income true to average incomes, false for expenses
      * @param member
      * @return average of expense or income
      */
-    private double calculateAverage(String type, LocalDate startDate, LocalDate endDate, Member member) {
-        List<Transaction> transactions;
-        if (type.equals("Expense")) {
-            TM.loadTransactionsFromCSV();
-            transactions = TM.displayTransactionsbetweendate(startDate, endDate, null, null, false, false, true);
+    private double calculateAverage(Report report, boolean income, Member member) {
+        Member ledgerMember = reportMembers().findMemberByExactName(member.getName());
+        return ledgerMember == null ? 0.0 : report.getMemberAverage(ledgerMember.getId(), income);
+    }
 
-        } else if (type.equals("Income")) {
-            TM.loadTransactionsFromCSV();
-            transactions = TM.displayTransactionsbetweendate(startDate, endDate, null, null, true, false, true);
-        } else {
-            throw new IllegalArgumentException("Type must be 'Income' or 'Expense'");
+    /**
+     * Helper method to replace the member IDs of rollup totals with member names.
+     * @param totals totals by member ID of the ledger's member manager
+     * @return totals by member name, in member ID order
+     */
+    private Map<String, Double> namesOf(Map<Integer, Double> totals) {
+        Map<String, Double> named = new LinkedHashMap<>();
+        MemberManager members = reportMembers();
+        for (Map.Entry<Integer, Double> entry : totals.entrySet()) {
+            named.put(members.getMember(entry.getKey()).getName(), entry.getValue());
         }
-    
-        // Calculate sum for transactions amount within the user-selected date range
-        double total = transactions.stream()
-                .filter(transaction -> !transaction.getDate().isBefore(startDate) &&
-                        !transaction.getDate().isAfter(endDate) &&
-                        transaction.getMember().equals(member))
-                .mapToDouble(Transaction::getAmount)
-                .sum();
-    
-        // Calculate # months from startDate to endDate
-        long numberOfMonths = startDate.until(endDate.plusMonths(1)).toTotalMonths();
-    
-        // Calculate average
-        return total / numberOfMonths;
+        return named;
     }
 
     /**
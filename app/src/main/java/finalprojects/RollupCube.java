@@ -0,0 +1,355 @@
+package finalprojects;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Pre-aggregated totals of a {@link TransactionStore}, keyed by month, category, member and
+ * transaction type. The store applies a constant-time delta for every added, updated or removed
+ * transaction, so report datasets are read from at most months x categories x members cells
+ * instead of from the raw transactions. Sums are kept in fixed-point units of {@link Amounts}
+ * and are therefore exact.
+ *
+ * <p>Nothing is boxed: the months are a sorted int array, and the cells of a month live in an
+ * open-addressing table keyed by the type, category and member packed into one long, with the
+ * totals and counts in parallel primitive arrays. The month of an epoch day is computed with
+ * integer arithmetic, so adding a transaction creates no objects once its cell exists. As a
+ * {@link LedgerRecordSink} the cube folds scanned snapshot records in the same way, so a report
+ * can be built from a file without loading its transactions.
+ */
+public class RollupCube implements LedgerRecordSink {
+    private static final int INITIAL_MONTHS = 8;
+
+    private int[] months = new int[INITIAL_MONTHS];
+    private MonthCells[] cells = new MonthCells[INITIAL_MONTHS];
+    private int monthCount;
+
+    /**
+     * Adds a transaction to its cell.
+     *
+     * @param day      the epoch day of the transaction, or {@link DateIndex#NO_DAY} to skip it
+     * @param kind     the transaction type, one of the {@code KIND_} constants of {@link TransactionStore}
+     * @param category the category ordinal, or {@link TransactionStore#NO_CATEGORY}
+     * @param member   the member ID
+     * @param units    the amount in fixed-point units
+     */
+    public void add(int day, int kind, int category, int member, long units) {
+        if (day == DateIndex.NO_DAY) {
+            return;
+        }
+        monthCells(monthOf(day)).add(key(kind, category, member), units, 1);
+    }
+
+    /**
+     * Adds a scanned record to its cell.
+     *
+     * @param id       the transaction ID, not needed by the cube
+     * @param kind     the transaction type
+     * @param category the category ordinal
+     * @param units    the amount in fixed-point units
+     * @param epochDay the epoch day, or {@link DateIndex#NO_DAY} to skip the record
+     * @param member   the member ID
+     */
+    @Override
+    public void accept(int id, int kind, int category, long units, int epochDay, int member) {
+        add(epochDay, kind, category, member, units);
+    }
+
+    /**
+     * Removes a transaction from its cell, given the values it was added with.
+     *
+     * @param day      the epoch day of the transaction, or {@link DateIndex#NO_DAY}
+     * @param kind     the transaction type
+     * @param category the category ordinal, or {@link TransactionStore#NO_CATEGORY}
+     * @param member   the member ID
+     * @param units    the amount in fixed-point units
+     */
+    public void remove(int day, int kind, int category, int member, long units) {
+        if (day == DateIndex.NO_DAY) {
+            return;
+        }
+        int i = Arrays.binarySearch(months, 0, monthCount, monthOf(day));
+        MonthCells month = cells[i];
+        month.add(key(kind, category, member), -units, -1);
+        if (month.size == 0) {
+            System.arraycopy(months, i + 1, months, i, monthCount - i - 1);
+            System.arraycopy(cells, i + 1, cells, i, monthCount - i - 1);
+            cells[--monthCount] = null;
+        }
+    }
+
+    /**
+     * Adds the totals and counts of every cell of another cube to this one.
+     *
+     * @param other the cube to merge, left unchanged
+     */
+    public void merge(RollupCube other) {
+        for (int i = 0; i < other.monthCount; i++) {
+            MonthCells from = other.cells[i];
+            MonthCells into = monthCells(other.months[i]);
+            for (int cell = 0; cell < from.keys.length; cell++) {
+                if (from.keys[cell] != MonthCells.EMPTY) {
+                    into.add(from.keys[cell], from.units[cell], from.counts[cell]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes every cell.
+     */
+    public void clear() {
+        months = new int[INITIAL_MONTHS];
+        cells = new MonthCells[INITIAL_MONTHS];
+        monthCount = 0;
+    }
+
+    /**
+     * Builds every report aggregate of a window of months in a single pass over its cells.
+     *
+     * @param from the first month
+     * @param to   the last month, inclusive
+     * @return the filled report
+     * @throws IllegalArgumentException if the first month is after the last
+     */
+    public Report report(YearMonth from, YearMonth to) {
+        Report report = new Report(from, to);
+        int last = monthIndex(to);
+        for (int i = firstMonthAtOrAfter(monthIndex(from)); i < monthCount && months[i] <= last; i++) {
+            YearMonth yearMonth = toYearMonth(months[i]);
+            MonthCells month = cells[i];
+            for (int cell = 0; cell < month.keys.length; cell++) {
+                long key = month.keys[cell];
+                if (key != MonthCells.EMPTY) {
+                    report.add(yearMonth, (int) (key >>> 40), (int) ((key >>> 32) & 0xFF) - 1, (int) key, month.units[cell]);
+                }
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Returns the income or expense total of every month between two months that has at least one
+     * such transaction.
+     *
+     * @param from   the first month
+     * @param to     the last month, inclusive
+     * @param income true for incomes, false for expenses
+     * @return the totals by month, in month order
+     */
+    public SortedMap<YearMonth, Double> totalsByMonth(YearMonth from, YearMonth to, boolean income) {
+        return report(from, to).getMonthlyTotals(income);
+    }
+
+    /**
+     * Returns the income or expense total of every category with transactions between two months.
+     *
+     * @param from   the first month
+     * @param to     the last month, inclusive
+     * @param income true for incomes, false for expenses
+     * @return the totals by category, in {@link CategoryRegistry} order
+     */
+    public Map<TransactionCategory, Double> totalsByCategory(YearMonth from, YearMonth to, boolean income) {
+        return report(from, to).getCategoryTotals(income);
+    }
+
+    /**
+     * Returns the income or expense total of every member with transactions between two months.
+     *
+     * @param from   the first month
+     * @param to     the last month, inclusive
+     * @param income true for incomes, false for expenses
+     * @return the totals by {@link MemberManager} member ID, in ID order
+     */
+    public SortedMap<Integer, Double> totalsByMember(YearMonth from, YearMonth to, boolean income) {
+        return report(from, to).getMemberTotals(income);
+    }
+
+    /**
+     * Returns the number of non-empty cells.
+     *
+     * @return the cell count
+     */
+    public int cellCount() {
+        int count = 0;
+        for (int i = 0; i < monthCount; i++) {
+            count += cells[i].size;
+        }
+        return count;
+    }
+
+    /**
+     * Helper method to get the cells of a month number, inserting an empty month in order on first use.
+     */
+    private MonthCells monthCells(int month) {
+        int i = Arrays.binarySearch(months, 0, monthCount, month);
+        if (i >= 0) {
+            return cells[i];
+        }
+        i = -i - 1;
+        if (monthCount == months.length) {
+            months = Arrays.copyOf(months, monthCount * 2);
+            cells = Arrays.copyOf(cells, monthCount * 2);
+        }
+        System.arraycopy(months, i, months, i + 1, monthCount - i);
+        System.arraycopy(cells, i, cells, i + 1, monthCount - i);
+        months[i] = month;
+        cells[i] = new MonthCells();
+        monthCount++;
+        return cells[i];
+    }
+
+    /**
+     * Helper method to find the position of the first stored month not before a month number.
+     */
+    private int firstMonthAtOrAfter(int month) {
+        int i = Arrays.binarySearch(months, 0, monthCount, month);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    /**
+     * Helper method to number a month consecutively.
+     */
+    private static int monthIndex(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    /**
+     * Helper method to find the month number of an epoch day without creating a date, using the
+     * days-to-civil conversion of the proleptic Gregorian calendar in eras of 400 years.
+     */
+    static int monthOf(int day) {
+        long shifted = day + 719_468L;
+        long era = Math.floorDiv(shifted, 146_097L);
+        long dayOfEra = shifted - era * 146_097L;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthFromMarch = (5 * dayOfYear + 2) / 153;
+        long month = monthFromMarch < 10 ? monthFromMarch + 3 : monthFromMarch - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return (int) (year * 12 + month - 1);
+    }
+
+    /**
+     * Helper method to turn a month number back into a month.
+     */
+    private static YearMonth toYearMonth(int month) {
+        return YearMonth.of(Math.floorDiv(month, 12), Math.floorMod(month, 12) + 1);
+    }
+
+    /**
+     * Helper method to pack the dimensions of a cell within a month.
+     */
+    private static long key(int kind, int category, int member) {
+        return ((long) kind << 40) | ((long) (category + 1) << 32) | (member & 0xFFFFFFFFL);
+    }
+
+    /**
+     * The cells of one month: an open-addressing table with linear probing from packed cell keys
+     * to totals and transaction counts. A cell whose count drops to zero is removed by shifting
+     * the rest of its probe chain back, so lookups never pass over deleted entries.
+     */
+    private static final class MonthCells {
+        private static final long EMPTY = -1L;
+        private static final int INITIAL_CAPACITY = 8;
+
+        private long[] keys = emptyKeys(INITIAL_CAPACITY);
+        private long[] units = new long[INITIAL_CAPACITY];
+        private int[] counts = new int[INITIAL_CAPACITY];
+        private int size;
+
+        /**
+         * Adds units and a count change to a cell, creating it if absent and removing it once empty.
+         *
+         * @param key   the packed cell key
+         * @param delta the units to add, negative to take them away
+         * @param count the change in transaction count
+         */
+        void add(long key, long delta, int count) {
+            if ((size + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != EMPTY && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == EMPTY) {
+                keys[i] = key;
+                size++;
+            }
+            units[i] += delta;
+            counts[i] += count;
+            if (counts[i] == 0) {
+                delete(i);
+            }
+        }
+
+        /**
+         * Helper method to empty an entry and move later entries of its probe chain into the gap.
+         */
+        private void delete(int gap) {
+            int mask = keys.length - 1;
+            keys[gap] = EMPTY;
+            units[gap] = 0;
+            counts[gap] = 0;
+            size--;
+            for (int i = (gap + 1) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+                int home = slot(keys[i], mask);
+                // Move the entry unless its home lies cyclically after the gap and up to it
+                if (((i - home) & mask) >= ((i - gap) & mask)) {
+                    keys[gap] = keys[i];
+                    units[gap] = units[i];
+                    counts[gap] = counts[i];
+                    keys[i] = EMPTY;
+                    units[i] = 0;
+                    counts[i] = 0;
+                    gap = i;
+                }
+            }
+        }
+
+        /**
+         * Helper method to rehash every cell into a table of the given power-of-two capacity.
+         */
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            long[] oldUnits = units;
+            int[] oldCounts = counts;
+            keys = emptyKeys(capacity);
+            units = new long[capacity];
+            counts = new int[capacity];
+            int mask = capacity - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] != EMPTY) {
+                    int i = slot(oldKeys[j], mask);
+                    while (keys[i] != EMPTY) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    units[i] = oldUnits[j];
+                    counts[i] = oldCounts[j];
+                }
+            }
+        }
+
+        /**
+         * Helper method to find the home entry of a key.
+         */
+        private static int slot(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+
+        /**
+         * Helper method to create a key array with every entry empty.
+         */
+        private static long[] emptyKeys(int capacity) {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+    }
+}
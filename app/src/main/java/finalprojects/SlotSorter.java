@@ -0,0 +1,265 @@
+package finalprojects;
+
+import java.util.Arrays;
+
+/**
+ * Orders slots of a {@link TransactionStore} by amount or date using primitive keys read from the
+ * store columns, without boxing or building transactions. Full sorts are stable: amounts go
+ * through an LSD radix sort on their order-preserving bit patterns, and dates through a primitive
+ * sort of the epoch day packed with the original position. The top-N selections keep a bounded
+ * heap, so they cost O(n log N) instead of a full sort when only the first rows are needed, and
+ * the {@link Selector} behind them also serves pages of the display order.
+ */
+public final class SlotSorter {
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int PASSES = Long.SIZE / RADIX_BITS;
+
+    private SlotSorter() {
+    }
+
+    /**
+     * Sorts slots by ascending amount, in place. Slots with equal amounts keep their relative order.
+     *
+     * @param store the store holding the slots
+     * @param slots live slots of the store
+     */
+    public static void sortByAmount(TransactionStore store, int[] slots) {
+        if (slots.length < 2) {
+            return;
+        }
+        long[] keys = new long[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            // Flip the sign bit so that unsigned byte order matches signed order
+            keys[i] = amountKey(store.amountAt(slots[i])) ^ Long.MIN_VALUE;
+        }
+        radixSort(keys, slots);
+    }
+
+    /**
+     * Sorts slots by descending date, in place. Slots on the same day keep their relative order,
+     * and undated slots come last.
+     *
+     * @param store the store holding the slots
+     * @param slots live slots of the store
+     */
+    public static void sortByDateDescending(TransactionStore store, int[] slots) {
+        if (slots.length < 2) {
+            return;
+        }
+        long[] packed = new long[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            packed[i] = ((long) ~store.dayAt(slots[i]) << Integer.SIZE) | i;
+        }
+        Arrays.sort(packed);
+        int[] original = slots.clone();
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = original[(int) packed[i]];
+        }
+    }
+
+    /**
+     * Selects the slots with the largest amounts.
+     *
+     * @param store the store holding the slots
+     * @param slots live slots of the store
+     * @param limit the largest number of slots returned
+     * @return a new array of at most {@code limit} slots, largest amount first, equal amounts in slot order
+     * @throws IllegalArgumentException if the limit is negative
+     */
+    public static int[] largestByAmount(TransactionStore store, int[] slots, int limit) {
+        long[] keys = new long[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            keys[i] = ~amountKey(store.amountAt(slots[i]));
+        }
+        return smallest(keys, slots, limit);
+    }
+
+    /**
+     * Selects the most recent slots.
+     *
+     * @param store the store holding the slots
+     * @param slots live slots of the store
+     * @param limit the largest number of slots returned
+     * @return a new array of at most {@code limit} slots, latest date first, equal dates in slot order
+     * @throws IllegalArgumentException if the limit is negative
+     */
+    public static int[] mostRecent(TransactionStore store, int[] slots, int limit) {
+        long[] keys = new long[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            keys[i] = ~store.dayAt(slots[i]);
+        }
+        return smallest(keys, slots, limit);
+    }
+
+    /**
+     * Maps an amount to a long whose signed order is the order of {@link Double#compare}.
+     *
+     * @param amount the amount
+     * @return the sort key
+     */
+    static long amountKey(double amount) {
+        long bits = Double.doubleToLongBits(amount);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Helper method to sort values by unsigned keys with a stable LSD radix sort, skipping every
+     * byte position where all keys agree.
+     */
+    private static void radixSort(long[] keys, int[] values) {
+        int n = keys.length;
+        int[][] counts = new int[PASSES][RADIX];
+        for (long key : keys) {
+            for (int pass = 0; pass < PASSES; pass++) {
+                counts[pass][(int) (key >>> (pass * RADIX_BITS)) & (RADIX - 1)]++;
+            }
+        }
+        long[] sourceKeys = keys;
+        int[] sourceValues = values;
+        long[] targetKeys = new long[n];
+        int[] targetValues = new int[n];
+        for (int pass = 0; pass < PASSES; pass++) {
+            int shift = pass * RADIX_BITS;
+            int[] count = counts[pass];
+            if (count[(int) (sourceKeys[0] >>> shift) & (RADIX - 1)] == n) {
+                continue;
+            }
+            int offset = 0;
+            for (int digit = 0; digit < RADIX; digit++) {
+                int c = count[digit];
+                count[digit] = offset;
+                offset += c;
+            }
+            for (int i = 0; i < n; i++) {
+                int digit = (int) (sourceKeys[i] >>> shift) & (RADIX - 1);
+                int target = count[digit]++;
+                targetKeys[target] = sourceKeys[i];
+                targetValues[target] = sourceValues[i];
+            }
+            long[] swapKeys = sourceKeys;
+            sourceKeys = targetKeys;
+            targetKeys = swapKeys;
+            int[] swapValues = sourceValues;
+            sourceValues = targetValues;
+            targetValues = swapValues;
+        }
+        if (sourceValues != values) {
+            System.arraycopy(sourceValues, 0, values, 0, n);
+        }
+    }
+
+    /**
+     * Helper method to select the slots with the smallest (key, slot) pairs, in ascending order.
+     */
+    private static int[] smallest(long[] keys, int[] slots, int limit) {
+        Selector selector = new Selector(Math.min(limit, slots.length));
+        for (int i = 0; i < slots.length; i++) {
+            selector.offer(keys[i], slots[i]);
+        }
+        return selector.result();
+    }
+
+    /**
+     * Keeps the slots with the smallest (key, slot) pairs offered to it in a bounded max-heap, so
+     * the first rows of an order are found in one pass over any number of slots.
+     */
+    static class Selector {
+        private final long[] keys;
+        private final int[] slots;
+        private int count;
+
+        /**
+         * Constructs an empty selector.
+         *
+         * @param limit the number of slots kept
+         * @throws IllegalArgumentException if the limit is negative
+         */
+        Selector(int limit) {
+            if (limit < 0) {
+                throw new IllegalArgumentException("Limit must not be negative.");
+            }
+            keys = new long[limit];
+            slots = new int[limit];
+        }
+
+        /**
+         * Offers a slot, kept if it is among the smallest seen so far.
+         *
+         * @param key  the sort key of the slot
+         * @param slot the slot, which breaks ties between equal keys
+         */
+        void offer(long key, int slot) {
+            if (count < keys.length) {
+                siftUp(count++, key, slot);
+            } else if (count > 0 && isBefore(key, slot, keys[0], slots[0])) {
+                siftDown(count, key, slot);
+            }
+        }
+
+        /**
+         * Returns the kept slots and empties the selector.
+         *
+         * @return the kept slots by ascending key, then slot
+         */
+        int[] result() {
+            int[] result = new int[count];
+            for (int last = count - 1; last >= 0; last--) {
+                result[last] = slots[0];
+                siftDown(last, keys[last], slots[last]);
+            }
+            count = 0;
+            return result;
+        }
+
+        /**
+         * Helper method to place a pair at an index of the heap and move it up to its place.
+         */
+        private void siftUp(int index, long key, int slot) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!isBefore(keys[parent], slots[parent], key, slot)) {
+                    break;
+                }
+                keys[index] = keys[parent];
+                slots[index] = slots[parent];
+                index = parent;
+            }
+            keys[index] = key;
+            slots[index] = slot;
+        }
+
+        /**
+         * Helper method to replace the root of a heap of the given size by a pair and move it down to its place.
+         */
+        private void siftDown(int size, long key, int slot) {
+            int index = 0;
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && isBefore(keys[child], slots[child], keys[child + 1], slots[child + 1])) {
+                    child++;
+                }
+                if (!isBefore(key, slot, keys[child], slots[child])) {
+                    break;
+                }
+                keys[index] = keys[child];
+                slots[index] = slots[child];
+                index = child;
+            }
+            if (size > 0) {
+                keys[index] = key;
+                slots[index] = slot;
+            }
+        }
+
+        /**
+         * Helper method to order two pairs by key, then by slot.
+         */
+        private static boolean isBefore(long key1, int slot1, long key2, int slot2) {
+            return key1 != key2 ? key1 < key2 : slot1 < slot2;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package finalprojects;
+
+/**
+ * Runs one kind of background request at a time, such as the table query of a frame. Submitting
+ * a task cancels the one still in flight, and only the latest task may publish its result, so a
+ * newer filter always wins over an older one that finishes later. Used from the event dispatch thread.
+ */
+public class TaskChannel {
+    private LedgerTask<?> current;
+
+    /**
+     * Cancels the task in flight, if any, and starts a new one.
+     *
+     * @param task the task to run
+     */
+    public void submit(LedgerTask<?> task) {
+        cancel();
+        current = task;
+        task.setChannel(this);
+        task.execute();
+    }
+
+    /**
+     * Cancels the task in flight, if any.
+     */
+    public void cancel() {
+        if (current != null) {
+            current.cancel(true);
+            current = null;
+        }
+    }
+
+    /**
+     * Tells whether a task is the latest one submitted.
+     *
+     * @param task the task
+     * @return true if no newer task was submitted and the channel was not cancelled since
+     */
+    boolean isCurrent(LedgerTask<?> task) {
+        return current == task;
+    }
+}
@@ -3,17 +3,17 @@ package finalprojects;
 import javax.swing.*;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.Date;
 import java.time.YearMonth;
-import java.util.List;
 
 import org.jdesktop.swingx.JXDatePicker;
 
@@ -26,6 +26,7 @@ public class TrackingFrame extends JFrame {
     private TransactionsManager TM;
     private MemberManager MM;
     private JTable transactionTable;
+    private TransactionTableModel tableModel;
     private JTextField idTextField;
     private JButton IorEButton;
     private JButton memberButton;
@@ -80,15 +81,26 @@ public class TrackingFrame extends JFrame {
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLayout(new BorderLayout());
 
-        // Table for data
-        transactionTable = new JTable();
+        // Table for data, reading its rows from the ledger and following its edits row by row
+        tableModel = new TransactionTableModel(TM);
+        transactionTable = new JTable(tableModel);
+        TM.addTransactionListener(tableModel);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                TM.removeTransactionListener(tableModel);
+                // Make the edits of this window durable now instead of waiting for the persister
+                TM.flush();
+            }
+        });
         JScrollPane scrollPane = new JScrollPane(transactionTable);
         transactionTable.getSelectionModel().addListSelectionListener(new ListSelectionListener() {
             @Override
             public void valueChanged(ListSelectionEvent e) {
                 if (!e.getValueIsAdjusting()) {
                     int selectedRow = transactionTable.getSelectedRow();
-                    if (selectedRow != -1) { // If a row is selected
+                    // Skip a row whose page is still loading
+                    if (selectedRow != -1 && tableModel.getTransactionAt(selectedRow) != null) { // If a row is selected
                         // Set corresponding data
                         idTextField.setText(transactionTable.getValueAt(selectedRow, 0).toString());
                         String dateString = transactionTable.getValueAt(selectedRow, 1).toString();
@@ -346,6 +358,10 @@ public class TrackingFrame extends JFrame {
                 }
                 LocalDate localDate = datePicker.getDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
                 amount = Double.parseDouble(amountTextField.getText().trim());
+                if (!(Math.abs(amount) < Amounts.MAX_AMOUNT)) {
+                    JOptionPane.showMessageDialog(TrackingFrame.this, "Amount is too large.", "Error", JOptionPane.ERROR_MESSAGE);
+                    throw new IllegalArgumentException("Amount out of range");
+                }
                 int selectedRow = transactionTable.getSelectedRow();
                 if (selectedRow != -1) {
                     JOptionPane.showMessageDialog(TrackingFrame.this, "Please do not select a row when using add.", "Error", JOptionPane.ERROR_MESSAGE);
@@ -356,8 +372,7 @@ public class TrackingFrame extends JFrame {
                 }else if (selectedIorE.equals("Expense")){
                     TM.addTransaction(findExpenseCategory(),amount,localDate,MM.findMemberByName(selectedMember));
                 }
-                TM.updateCSV(UserData.getInstance().getUsername());
-                updateTable();
+                TM.compactIfNeeded(UserData.getInstance().getUsername());
                 idTextField.setText("");
                 IorEButton.setText("Income/Expense");
                 selectedIorE = "";
@@ -405,6 +420,10 @@ public class TrackingFrame extends JFrame {
                 }
                 LocalDate localDate = datePicker.getDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
                 amount = Double.parseDouble(amountTextField.getText().trim());
+                if (!(Math.abs(amount) < Amounts.MAX_AMOUNT)) {
+                    JOptionPane.showMessageDialog(TrackingFrame.this, "Amount is too large.", "Error", JOptionPane.ERROR_MESSAGE);
+                    throw new IllegalArgumentException("Amount out of range");
+                }
                 int selectedRow = transactionTable.getSelectedRow();
 
                 // Check if a row is selected
@@ -412,14 +431,17 @@ public class TrackingFrame extends JFrame {
                     JOptionPane.showMessageDialog(TrackingFrame.this, "Please select a row to update.", "Error", JOptionPane.ERROR_MESSAGE);
                     return;
                 }
-                int id = Integer.parseInt(transactionTable.getValueAt(selectedRow, 0).toString());
+                if (!tableModel.isLoaded(selectedRow)) {
+                    JOptionPane.showMessageDialog(TrackingFrame.this, "Please wait for the row to load.", "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                int id = tableModel.getIdAt(selectedRow);
                 if (selectedIorE.equals("Income")){
                     TM.setTransaction(id,findIncomeCategory(),amount,localDate,MM.findMemberByName(selectedMember));
                 }else if (selectedIorE.equals("Expense")){
                     TM.setTransaction(id,findExpenseCategory(),amount,localDate,MM.findMemberByName(selectedMember));
                 }
-                TM.updateCSV(UserData.getInstance().getUsername());
-                updateTable();
+                TM.compactIfNeeded(UserData.getInstance().getUsername());
                 idTextField.setText("");
                 IorEButton.setText("Income/Expense");
                 selectedIorE = "";
@@ -445,10 +467,13 @@ public class TrackingFrame extends JFrame {
                     JOptionPane.showMessageDialog(TrackingFrame.this, "Please select a row to delete.", "Error", JOptionPane.ERROR_MESSAGE);
                     return;
                 }
-                int id = Integer.parseInt(transactionTable.getValueAt(selectedRow, 0).toString());
+                if (!tableModel.isLoaded(selectedRow)) {
+                    JOptionPane.showMessageDialog(TrackingFrame.this, "Please wait for the row to load.", "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                int id = tableModel.getIdAt(selectedRow);
                 TM.removeTransaction(id);
-                TM.updateCSV(UserData.getInstance().getUsername());
-                updateTable();
+                TM.compactIfNeeded(UserData.getInstance().getUsername());
                 idTextField.setText("");
                 IorEButton.setText("Income/Expense");
                 selectedIorE = "";
@@ -698,9 +723,7 @@ public class TrackingFrame extends JFrame {
      * helper method for updating display table
      */
     private void updateTable() {
-        // Get all tasks from TransactionManager
-        TM.loadTransactionsFromCSV();
-        List<Transaction> transactions;
+        // Query the shared in-memory ledger; it is loaded once and kept current by edits
         LocalDate filterByDate = null;
         YearMonth filterByMonth = null;
         if (filterByDatePicker != null && filterByDatePicker.getDate() != null){
@@ -711,28 +734,16 @@ public class TrackingFrame extends JFrame {
             filterByMonth = YearMonth.of(selectedDate.getYear(), selectedDate.getMonth());
         }
 
+        TransactionFilter filter;
         if (filterSelectedIorE.equals("Income")) {
-            transactions = TM.displayTransactions(filterByDate, filterByMonth, Transaction.convertStrToCategory(filterSelectedCategory), MM.findMemberByName(filterSelectedMember), Income.class, isSortByAmount, isSortByDate);
+            filter = TM.createDisplayFilter(filterByDate, filterByMonth, CategoryRegistry.resolve(CategoryRegistry.INCOME_TYPE + ":" + filterSelectedCategory), MM.findMemberByName(filterSelectedMember), Income.class, isSortByDate);
         } else if (filterSelectedIorE.equals("Expense")) {
-            transactions = TM.displayTransactions(filterByDate, filterByMonth, Transaction.convertStrToCategory(filterSelectedCategory), MM.findMemberByName(filterSelectedMember), Expense.class, isSortByAmount, isSortByDate);
+            filter = TM.createDisplayFilter(filterByDate, filterByMonth, CategoryRegistry.resolve(CategoryRegistry.EXPENSE_TYPE + ":" + filterSelectedCategory), MM.findMemberByName(filterSelectedMember), Expense.class, isSortByDate);
         } else {
-            transactions = TM.displayTransactions(filterByDate, filterByMonth, null, MM.findMemberByName(filterSelectedMember), (Class<? extends Transaction>) null, isSortByAmount, isSortByDate);
+            filter = TM.createDisplayFilter(filterByDate, filterByMonth, null, MM.findMemberByName(filterSelectedMember), (Class<? extends Transaction>) null, isSortByDate);
         }
 
-        // Create a 2D array to store task data
-        Object[][] data = new Object[transactions.size()][6];
-        for (int i = 0; i < transactions.size(); i++) {
-            Transaction transaction= transactions.get(i);
-            data[i][0] = transaction.getId();
-            data[i][1] = transaction.getDate();
-            data[i][2] = transaction.getClass().getSimpleName();
-            data[i][3] = transaction.getCategory();
-            data[i][4] = transaction.getAmount();
-            data[i][5] = transaction.getMember();
-        }
-        String[] columns = {"ID", "Date","Income/Expense", "Category", "Amount",  "Member"};
-        // Create a table model with data and column names
-        DefaultTableModel model = new DefaultTableModel(data, columns);
-        transactionTable.setModel(model);
+        // Only the row IDs are fetched, on a worker thread; cells are read from the ledger as the table paints them
+        tableModel.requestQuery(filter, isSortByAmount, isSortByDate);
     }
 }
@@ -53,15 +53,18 @@ public class Transaction {
         int id = Integer.parseInt(parts[0]); 
 
         String categoryType = parts[1];  
-        String[] categoryDetails = getCategoryArr(categoryType);
-        TransactionCategory category= convertStrToCategory(categoryDetails[1]);
+        TransactionCategory category = CategoryRegistry.resolve(categoryType);
+        if (category == null) {
+            String[] categoryDetails = getCategoryArr(categoryType);
+            category = convertStrToCategory(categoryDetails[1]);
+        }
 
         double amount = setStrAmount(parts[2]);
 
-        LocalDate date = setStrDate(parts[3]);  
+        // toCSVLine writes an empty date for an undated transaction
+        LocalDate date = parts[3].isEmpty() ? null : setStrDate(parts[3]);
 
-        Member member=setStrMember(parts[4]);
-        memberManager.addMemberToList(member);
+        Member member=memberManager.intern(parts[4]);
 
         Transaction transaction = TransactionFactory.createTransaction(category, amount, date, member);
         transaction.setId(id);
@@ -80,7 +83,8 @@ public class Transaction {
         if (categoryType == null || categoryType.trim().isEmpty()) {
             throw new IllegalArgumentException("Category cannot be null or empty.");
         }
-        String[] categoryDetails = categoryType.split(":");
+        // "Type::Name" is what toCSVLine has always written for expenses, so tolerate repeated separators
+        String[] categoryDetails = categoryType.split(":+");
         if (categoryDetails.length != 2) {
             throw new IllegalArgumentException("Categorytype in csv must be in the format 'Type:Category', received: " + categoryType);
         }
@@ -95,15 +99,9 @@ public class Transaction {
      * @throws IllegalArgumentException if the category string is invalid or not recognized
      */
     public static TransactionCategory convertStrToCategory(String categoryStr){
-        TransactionCategory category = null;
-        try {
-            category = IncomeCategory.valueOf(categoryStr.toUpperCase());
-        } catch (IllegalArgumentException e) {
-            try {
-                category = ExpenseCategory.valueOf(categoryStr.toUpperCase());
-            } catch (IllegalArgumentException ex) {
-                throw new IllegalArgumentException("Invalid category: " + categoryStr, ex);
-            }
+        TransactionCategory category = CategoryRegistry.resolveName(categoryStr);
+        if (category == null) {
+            throw new IllegalArgumentException("Invalid category: " + categoryStr);
         }
         return category;
     }
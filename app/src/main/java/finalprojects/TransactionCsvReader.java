@@ -0,0 +1,435 @@
+package finalprojects;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Streaming reader for transaction CSV files.
+ * Unlike {@link Transaction#readFromCsv(String, MemberManager)}, which splits every line into
+ * Strings, this reader scans the fields in place in a byte buffer: ids and amounts are parsed
+ * from the bytes, dates go straight to an epoch day, category tokens are looked up in the
+ * {@link CategoryRegistry} without decoding, and member names are decoded only the first time
+ * they are seen. It produces the same transactions as readFromCsv.
+ */
+public class TransactionCsvReader {
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    static final int FIELD_COUNT = 5;
+    private static final int DATE_CACHE_SIZE = 1 << 12;
+    private static final int MAX_EXACT_FRACTION_DIGITS = 22;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = new double[MAX_EXACT_FRACTION_DIGITS + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0;
+        }
+    }
+
+    private final MemberManager memberManager;
+    private final int bufferSize;
+    private final ByteKeyTable<Member> members = new ByteKeyTable<>();
+    private final LocalDate[] dateCache = new LocalDate[DATE_CACHE_SIZE];
+    private final long[] dateCacheKeys = new long[DATE_CACHE_SIZE];
+    private final int[] fieldEnds = new int[FIELD_COUNT];
+
+    /**
+     * Constructs a reader that registers every member it reads with the given member manager.
+     *
+     * @param memberManager the member manager to manage member data
+     */
+    public TransactionCsvReader(MemberManager memberManager) {
+        this(memberManager, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructs a reader with a specific initial buffer size. The buffer grows when a line does not fit.
+     *
+     * @param memberManager the member manager to manage member data
+     * @param bufferSize    the initial read buffer size in bytes
+     */
+    TransactionCsvReader(MemberManager memberManager, int bufferSize) {
+        this.memberManager = memberManager;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Reads every transaction in a CSV file, in file order.
+     *
+     * @param csvPath the CSV file to read
+     * @param sink    receives each parsed transaction
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a line is malformed
+     */
+    public void read(Path csvPath, Consumer<Transaction> sink) throws IOException {
+        read(csvPath, sink, null);
+    }
+
+    /**
+     * Reads every transaction in a CSV file, in file order, reporting how much of the file was read.
+     *
+     * @param csvPath  the CSV file to read
+     * @param sink     receives each parsed transaction
+     * @param progress receives the percentage of bytes read after each buffer, or null
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a line is malformed
+     */
+    public void read(Path csvPath, Consumer<Transaction> sink, IntConsumer progress) throws IOException {
+        try (FileChannel channel = FileChannel.open(csvPath, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate(bufferSize);
+            long size = Math.max(channel.size(), 1);
+            long read = 0;
+            int bytes;
+            while ((bytes = channel.read(buf)) >= 0) {
+                read += bytes;
+                if (progress != null) {
+                    progress.accept((int) Math.min(100, read * 100 / size));
+                }
+                int parsed = parseLines(buf, 0, buf.position(), sink);
+                buf.limit(buf.position());
+                buf.position(parsed);
+                buf.compact();
+                if (!buf.hasRemaining()) {
+                    // A single line is longer than the buffer
+                    ByteBuffer larger = ByteBuffer.allocate(buf.capacity() * 2);
+                    buf.flip();
+                    larger.put(buf);
+                    buf = larger;
+                }
+            }
+            if (buf.position() > 0) {
+                parseLine(buf, 0, buf.position(), sink);
+            }
+        }
+    }
+
+    /**
+     * Parses every complete line in the bytes {@code [from, to)} of the buffer.
+     * A trailing line without a line terminator is left unparsed.
+     *
+     * @param buf  the buffer holding CSV bytes
+     * @param from the index of the first byte of a line
+     * @param to   the index after the last available byte
+     * @param sink receives each parsed transaction
+     * @return the index just after the last parsed line terminator
+     */
+    public int parseLines(ByteBuffer buf, int from, int to, Consumer<Transaction> sink) {
+        int lineStart = from;
+        for (int i = from; i < to; i++) {
+            if (buf.get(i) == '\n') {
+                parseLine(buf, lineStart, i, sink);
+                lineStart = i + 1;
+            }
+        }
+        return lineStart;
+    }
+
+    /**
+     * Parses a single line without its line terminator. Blank lines are skipped.
+     *
+     * @param buf  the buffer holding the line
+     * @param from the index of the first byte of the line
+     * @param to   the index after the last byte of the line
+     * @param sink receives the parsed transaction
+     * @throws IllegalArgumentException if the line is malformed
+     */
+    public void parseLine(ByteBuffer buf, int from, int to, Consumer<Transaction> sink) {
+        if (!splitFields(buf, from, to, fieldEnds)) {
+            return;
+        }
+
+        int id = parseId(buf, from, fieldEnds[0]);
+        TransactionCategory category = resolveCategory(buf, fieldEnds[0] + 1, fieldEnds[1]);
+        double amount = parseAmount(buf, fieldEnds[1] + 1, fieldEnds[2]);
+        LocalDate date = resolveDate(buf, fieldEnds[2] + 1, fieldEnds[3]);
+        Member member = resolveMember(buf, fieldEnds[3] + 1, fieldEnds[4]);
+
+        Transaction transaction = TransactionFactory.createTransaction(category, amount, date, member);
+        transaction.setId(id);
+        sink.accept(transaction);
+    }
+
+    /**
+     * Finds the fields of a line. A trailing carriage return is ignored and anything after a
+     * fifth comma is ignored, as readFromCsv does.
+     *
+     * @param buf       the buffer holding the line
+     * @param from      the index of the first byte of the line
+     * @param to        the index after the last byte of the line, without its line terminator
+     * @param fieldEnds receives the index of the comma ending each of the first four fields,
+     *                  followed by the index after the member field
+     * @return false if the line is blank and holds no fields
+     * @throws IllegalArgumentException if the line has fewer than five fields
+     */
+    static boolean splitFields(ByteBuffer buf, int from, int to, int[] fieldEnds) {
+        if (to > from && buf.get(to - 1) == '\r') {
+            to--;
+        }
+        if (isBlank(buf, from, to)) {
+            return false;
+        }
+        int fields = 0;
+        for (int i = from; i < to && fields < FIELD_COUNT - 1; i++) {
+            if (buf.get(i) == ',') {
+                fieldEnds[fields++] = i;
+            }
+        }
+        if (fields < FIELD_COUNT - 1) {
+            throw new IllegalArgumentException("data is malformed and does not contain enough data elements.");
+        }
+        fieldEnds[FIELD_COUNT - 1] = to;
+        for (int i = fieldEnds[3] + 1; i < to; i++) {
+            if (buf.get(i) == ',') {
+                fieldEnds[FIELD_COUNT - 1] = i;
+                break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses a transaction ID with the same rules as {@link Integer#parseInt(String)}.
+     *
+     * @param buf  the buffer
+     * @param from the index of the first byte
+     * @param to   the index after the last byte
+     * @return the parsed ID
+     * @throws NumberFormatException if the field is not a valid integer
+     */
+    static int parseId(ByteBuffer buf, int from, int to) {
+        int length = to - from;
+        if (length > 0 && length <= 9) {
+            int value = 0;
+            int i = from;
+            for (; i < to; i++) {
+                int digit = buf.get(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                value = value * 10 + digit;
+            }
+            if (i == to) {
+                return value;
+            }
+        }
+        return Integer.parseInt(decode(buf, from, to));
+    }
+
+    /**
+     * Parses an amount. Plain decimals such as {@code -1234.56} are computed exactly from the digits;
+     * anything else falls back to {@link Transaction#setStrAmount(String)}, so the result always equals
+     * {@link Double#parseDouble(String)}.
+     *
+     * @param buf  the buffer
+     * @param from the index of the first byte
+     * @param to   the index after the last byte
+     * @return the parsed amount
+     * @throws IllegalArgumentException if the field is empty or not a number
+     */
+    static double parseAmount(ByteBuffer buf, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buf.get(i) == '-' || buf.get(i) == '+')) {
+            negative = buf.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; i < to; i++) {
+            byte b = buf.get(i);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+                if (mantissa >= MAX_EXACT_MANTISSA) {
+                    break;
+                }
+            } else if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                break;
+            }
+        }
+        if (i == to && digits > 0 && mantissa < MAX_EXACT_MANTISSA && fractionDigits <= MAX_EXACT_FRACTION_DIGITS) {
+            // Both operands are exact doubles, so the quotient is correctly rounded like parseDouble
+            double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : (double) mantissa;
+            return negative ? -value : value;
+        }
+        return Transaction.setStrAmount(decode(buf, from, to));
+    }
+
+    /**
+     * Parses a {@code yyyy-MM-dd} date straight to an epoch day. Day-of-month overflow within 1..31 is
+     * clamped to the end of the month, as the smart resolver of {@link Transaction#setStrDate(String)} does.
+     *
+     * @param buf  the buffer
+     * @param from the index of the first byte
+     * @param to   the index after the last byte
+     * @return the epoch day, or {@link Long#MIN_VALUE} if the field is not a plain valid date
+     */
+    static long parseEpochDay(ByteBuffer buf, int from, int to) {
+        if (to - from != 10 || buf.get(from + 4) != '-' || buf.get(from + 7) != '-') {
+            return Long.MIN_VALUE;
+        }
+        int year = digits(buf, from, from + 4);
+        int month = digits(buf, from + 5, from + 7);
+        int day = digits(buf, from + 8, from + 10);
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return Long.MIN_VALUE;
+        }
+        day = Math.min(day, lengthOfMonth(year, month));
+        return epochDay(year, month, day);
+    }
+
+    /**
+     * Computes the epoch day of a valid proleptic Gregorian date without creating a LocalDate.
+     *
+     * @param year  the year
+     * @param month the month, 1 to 12
+     * @param day   the day of month
+     * @return days since 1970-01-01
+     */
+    static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Helper method to resolve a date field, sharing LocalDate instances for repeated dates.
+     *
+     * @param buf  the buffer
+     * @param from the index of the first byte
+     * @param to   the index after the last byte
+     * @return the date
+     */
+    private LocalDate resolveDate(ByteBuffer buf, int from, int to) {
+        if (from == to) {
+            return null;
+        }
+        long epochDay = parseEpochDay(buf, from, to);
+        if (epochDay == Long.MIN_VALUE) {
+            return Transaction.setStrDate(decode(buf, from, to));
+        }
+        int slot = (int) (epochDay & (DATE_CACHE_SIZE - 1));
+        LocalDate date = dateCache[slot];
+        if (date == null || dateCacheKeys[slot] != epochDay) {
+            date = LocalDate.ofEpochDay(epochDay);
+            dateCache[slot] = date;
+            dateCacheKeys[slot] = epochDay;
+        }
+        return date;
+    }
+
+    /**
+     * Helper method to resolve a "Type:Name" category field through the {@link CategoryRegistry}.
+     * Tokens the registry does not know fall back to the rules of readFromCsv, which also report errors.
+     *
+     * @param buf  the buffer
+     * @param from the index of the first byte
+     * @param to   the index after the last byte
+     * @return the category
+     */
+    static TransactionCategory resolveCategory(ByteBuffer buf, int from, int to) {
+        TransactionCategory category = CategoryRegistry.resolve(buf, from, to);
+        if (category == null) {
+            String[] categoryDetails = Transaction.getCategoryArr(decode(buf, from, to));
+            category = Transaction.convertStrToCategory(categoryDetails[1]);
+        }
+        return category;
+    }
+
+    /**
+     * Helper method to resolve a member name, creating and registering each distinct member once.
+     *
+     * @param buf  the buffer
+     * @param from the index of the first byte
+     * @param to   the index after the last byte
+     * @return the member
+     */
+    private Member resolveMember(ByteBuffer buf, int from, int to) {
+        Member member = members.get(buf, from, to);
+        if (member == null) {
+            member = memberManager.intern(decode(buf, from, to));
+            members.put(buf, from, to, member);
+        }
+        return member;
+    }
+
+    /**
+     * Helper method to decode a field as UTF-8. Only used on first sight or on the slow path.
+     *
+     * @param buf  the buffer
+     * @param from the index of the first byte
+     * @param to   the index after the last byte
+     * @return the decoded field
+     */
+    static String decode(ByteBuffer buf, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buf.get(from + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Helper method to parse a fixed-width run of ASCII digits.
+     *
+     * @return the value, or -1 if a byte is not a digit
+     */
+    private static int digits(ByteBuffer buf, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = buf.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Helper method returning the number of days in a month.
+     */
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Helper method to test whether a range holds only whitespace.
+     */
+    private static boolean isBlank(ByteBuffer buf, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = buf.get(i);
+            if (b != ' ' && b != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,104 @@
+package finalprojects;
+
+/**
+ * Describes a change made to the transactions held by a {@link TransactionsManager}.
+ */
+public class TransactionEvent {
+
+    /**
+     * The kind of change.
+     */
+    public enum Type {
+        ADDED,
+        UPDATED,
+        REMOVED,
+        /** The whole ledger was replaced, for example by loading it from disk. */
+        RELOADED
+    }
+
+    private final Type type;
+    private final Transaction transaction;
+    private final Transaction previous;
+    private final int slot;
+    private final long version;
+
+    /**
+     * Constructs a new TransactionEvent.
+     *
+     * @param type        the kind of change
+     * @param transaction the affected transaction, or null for {@link Type#RELOADED}
+     */
+    public TransactionEvent(Type type, Transaction transaction) {
+        this(type, transaction, null, -1, -1);
+    }
+
+    /**
+     * Constructs a new TransactionEvent that also tells where the transaction is stored and
+     * which version of the ledger the change produced.
+     *
+     * @param type        the kind of change
+     * @param transaction the affected transaction, or null for {@link Type#RELOADED}
+     * @param previous    the transaction before an {@link Type#UPDATED} change, or null
+     * @param slot        the slot of the transaction in the {@link TransactionStore}, or -1 if unknown
+     * @param version     the {@link TransactionsManager#getVersion() version} right after the change, or -1 if unknown
+     */
+    public TransactionEvent(Type type, Transaction transaction, Transaction previous, int slot, long version) {
+        this.type = type;
+        this.transaction = transaction;
+        this.previous = previous;
+        this.slot = slot;
+        this.version = version;
+    }
+
+    /**
+     * Returns the kind of change.
+     *
+     * @return the event type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the affected transaction.
+     *
+     * @return the transaction, or null for {@link Type#RELOADED}
+     */
+    public Transaction getTransaction() {
+        return transaction;
+    }
+
+    /**
+     * Returns the transaction as it was before an update, so a view can find where it showed it.
+     *
+     * @return the previous transaction, or null unless the type is {@link Type#UPDATED}
+     */
+    public Transaction getPrevious() {
+        return previous;
+    }
+
+    /**
+     * Returns the slot of the affected transaction in the store, which does not change while the
+     * transaction is stored.
+     *
+     * @return the slot, or -1 for {@link Type#RELOADED} or if unknown
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Returns the version of the ledger right after the change. Listeners are notified on the
+     * thread that made the change, so events of concurrent edits may arrive out of this order.
+     *
+     * @return the version, or -1 if unknown
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionEvent{" + type + ", " + transaction + '}';
+    }
+}
@@ -0,0 +1,140 @@
+package finalprojects;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * TransactionFilter describes which transactions a query selects: an optional inclusive date range,
+ * category, member and transaction class. A null field does not restrict the result.
+ */
+public class TransactionFilter {
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final TransactionCategory category;
+    private final Member member;
+    private final Class<? extends Transaction> transactionClass;
+
+    /**
+     * Constructs a filter.
+     *
+     * @param startDate        the first date of the range, or null for no date restriction
+     * @param endDate          the last date of the range, or null for no date restriction
+     * @param category         the category to select, or null for all categories
+     * @param member           the member to select, or null for all members
+     * @param transactionClass the transaction class to select (such as Income.class), or null for all
+     * @throws IllegalArgumentException if only one end of the date range is given, or the start is after the end
+     */
+    public TransactionFilter(LocalDate startDate, LocalDate endDate, TransactionCategory category,
+                             Member member, Class<? extends Transaction> transactionClass) {
+        if ((startDate == null) != (endDate == null)) {
+            throw new IllegalArgumentException("Start date and end date must be given together.");
+        }
+        if (startDate != null && startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must be before or equal to end date.");
+        }
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.category = category;
+        this.member = member;
+        this.transactionClass = transactionClass;
+    }
+
+    /**
+     * Returns the first date of the range.
+     *
+     * @return the start date, or null if the filter has no date range
+     */
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    /**
+     * Returns the last date of the range.
+     *
+     * @return the end date, or null if the filter has no date range
+     */
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    /**
+     * Returns the selected category.
+     *
+     * @return the category, or null for all categories
+     */
+    public TransactionCategory getCategory() {
+        return category;
+    }
+
+    /**
+     * Returns the selected member.
+     *
+     * @return the member, or null for all members
+     */
+    public Member getMember() {
+        return member;
+    }
+
+    /**
+     * Returns the selected transaction class.
+     *
+     * @return the class, or null for all transactions
+     */
+    public Class<? extends Transaction> getTransactionClass() {
+        return transactionClass;
+    }
+
+    /**
+     * Tells whether the filter has a date range.
+     *
+     * @return true if start and end dates are set
+     */
+    public boolean hasDateRange() {
+        return startDate != null;
+    }
+
+    /**
+     * Tests a single transaction against the filter.
+     *
+     * @param transaction the transaction
+     * @return true if the transaction is selected
+     */
+    public boolean matches(Transaction transaction) {
+        if (startDate != null && (transaction.getDate().isBefore(startDate) || transaction.getDate().isAfter(endDate))) {
+            return false;
+        }
+        if (category != null && !transaction.getCategory().equals(category)) {
+            return false;
+        }
+        if (member != null && !transaction.getMember().equals(member)) {
+            return false;
+        }
+        return transactionClass == null || transactionClass.isAssignableFrom(transaction.getClass());
+    }
+
+    /**
+     * Compares this filter to another object. Two filters are equal when they select the same transactions.
+     *
+     * @param o the object to compare with
+     * @return true if the object is an equal filter
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TransactionFilter)) return false;
+        TransactionFilter other = (TransactionFilter) o;
+        return Objects.equals(startDate, other.startDate) && Objects.equals(endDate, other.endDate)
+            && Objects.equals(category, other.category) && Objects.equals(member, other.member)
+            && Objects.equals(transactionClass, other.transactionClass);
+    }
+
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(startDate, endDate, category, member, transactionClass);
+    }
+}
@@ -0,0 +1,385 @@
+package finalprojects;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Append-only journal of transaction edits kept next to a user's CSV snapshot.
+ * Every add, update and delete becomes one appended record, so the cost of persisting an edit
+ * does not depend on the size of the ledger. The records are replayed on top of the snapshot
+ * at load time and discarded once the snapshot has been rewritten (compaction).
+ *
+ * <p>Record format, one per line:
+ * <pre>
+ *   A,&lt;transaction csv line&gt;   added transaction
+ *   U,&lt;transaction csv line&gt;   updated transaction (full new state)
+ *   D,&lt;id&gt;                     deleted transaction
+ * </pre>
+ * Add and update records carry the whole transaction, so replaying a record twice is harmless.
+ */
+public class TransactionJournal {
+    static final String ADD = "A";
+    static final String UPDATE = "U";
+    static final String DELETE = "D";
+    private static final String SEPARATOR = ",";
+
+    private final Path path;
+    private volatile int recordCount;
+
+    /**
+     * Constructs a journal backed by the given file. The file is created on the first append.
+     *
+     * @param path the path of the journal file
+     */
+    public TransactionJournal(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Returns the path of the journal file.
+     *
+     * @return the journal path
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the number of records appended or replayed since the journal was last cleared.
+     *
+     * @return the number of pending journal records
+     */
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Records that a transaction was added.
+     *
+     * @param transaction the added transaction
+     */
+    public void appendAdd(Transaction transaction) {
+        append(addRecord(transaction));
+    }
+
+    /**
+     * Records the new state of an updated transaction.
+     *
+     * @param transaction the updated transaction
+     */
+    public void appendUpdate(Transaction transaction) {
+        append(updateRecord(transaction));
+    }
+
+    /**
+     * Records that a transaction was deleted.
+     *
+     * @param id the ID of the deleted transaction
+     */
+    public void appendDelete(int id) {
+        append(deleteRecord(id));
+    }
+
+    /**
+     * Appends a batch of records with a single write and forces them to disk before returning,
+     * so a whole burst of edits becomes durable at the cost of one synchronous write.
+     *
+     * @param records the journal lines without line terminators, in edit order
+     * @throws IOException if the journal cannot be written
+     */
+    public void appendAll(List<String> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        StringBuilder batch = new StringBuilder();
+        for (String record : records) {
+            batch.append(record).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(batch.toString().getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        recordCount += records.size();
+    }
+
+    /**
+     * Builds the record of an added transaction.
+     *
+     * @param transaction the added transaction
+     * @return the journal line without line terminator
+     */
+    static String addRecord(Transaction transaction) {
+        return ADD + SEPARATOR + transaction.toCSVLine();
+    }
+
+    /**
+     * Builds the record of an updated transaction.
+     *
+     * @param transaction the updated transaction
+     * @return the journal line without line terminator
+     */
+    static String updateRecord(Transaction transaction) {
+        return UPDATE + SEPARATOR + transaction.toCSVLine();
+    }
+
+    /**
+     * Builds the record of a deleted transaction.
+     *
+     * @param id the ID of the deleted transaction
+     * @return the journal line without line terminator
+     */
+    static String deleteRecord(int id) {
+        return DELETE + SEPARATOR + id;
+    }
+
+    /**
+     * Applies every journal record, in order, on top of the given transactions keyed by ID.
+     * A malformed record (for example a line torn by a crash during an append) is reported and skipped.
+     *
+     * @param transactionsById the snapshot transactions keyed by ID, updated in place
+     * @param memberManager    the member manager used to resolve members of replayed transactions
+     * @throws IOException if the journal cannot be read
+     */
+    public void replay(Map<Integer, Transaction> transactionsById, MemberManager memberManager) throws IOException {
+        replay(transactionsById, memberManager, null);
+    }
+
+    /**
+     * Applies every journal record like {@link #replay(Map, MemberManager)} and collects the months
+     * whose transactions the records change, both before and after each edit.
+     *
+     * @param transactionsById the snapshot transactions keyed by ID, updated in place
+     * @param memberManager    the member manager used to resolve members of replayed transactions
+     * @param touchedMonths    receives the changed months, or null
+     * @throws IOException if the journal cannot be read
+     */
+    public void replay(Map<Integer, Transaction> transactionsById, MemberManager memberManager,
+                       Set<YearMonth> touchedMonths) throws IOException {
+        replay(record -> applyRecord(record, transactionsById, memberManager, touchedMonths));
+    }
+
+    /**
+     * Applies every journal record, in order, directly to the slots of a store: an added or
+     * updated transaction overwrites the slot holding its ID or is appended, and a deleted one
+     * frees its slot. Only the transactions named by records are parsed, so the cost depends on
+     * the journal and not on the size of the snapshot. Nothing is read when the journal file is
+     * missing or empty.
+     *
+     * @param store         the snapshot transactions, updated in place
+     * @param touchedMonths receives the months whose transactions the records change, or null
+     * @throws IOException if the journal cannot be read
+     */
+    public void replay(TransactionStore store, Set<YearMonth> touchedMonths) throws IOException {
+        replay(record -> applyRecord(record, store, touchedMonths));
+    }
+
+    /**
+     * Discards all journal records. Called after the snapshot has been rewritten.
+     *
+     * @throws IOException if the journal file cannot be removed
+     */
+    public void clear() throws IOException {
+        Files.deleteIfExists(path);
+        recordCount = 0;
+    }
+
+    /**
+     * Reads the final state of every transaction the journal records edit, without a snapshot to
+     * apply them to, so the edits can be laid over a scan of the snapshot.
+     *
+     * @param memberManager the member manager used to resolve members of edited transactions
+     * @return the edited transactions keyed by ID, with a null value for deleted ones
+     * @throws IOException if the journal cannot be read
+     */
+    public Map<Integer, Transaction> edits(final MemberManager memberManager) throws IOException {
+        final Map<Integer, Transaction> edits = new LinkedHashMap<>();
+        replay(record -> {
+            int comma = record.indexOf(SEPARATOR);
+            String type = comma < 0 ? record : record.substring(0, comma);
+            String payload = record.substring(comma + 1);
+            switch (type) {
+                case ADD:
+                case UPDATE:
+                    Transaction transaction = Transaction.readFromCsv(payload, memberManager);
+                    edits.put(transaction.getId(), transaction);
+                    break;
+                case DELETE:
+                    edits.put(Integer.parseInt(payload.trim()), null);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown journal record type: " + type);
+            }
+        });
+        return edits;
+    }
+
+    /**
+     * Helper method to read the journal and hand every non-empty line to a record handler,
+     * reporting and skipping the records it rejects.
+     *
+     * @param apply applies one record, throwing a RuntimeException for a malformed one
+     * @throws IOException if the journal cannot be read
+     */
+    private void replay(Consumer<String> apply) throws IOException {
+        recordCount = 0;
+        if (!Files.exists(path) || Files.size(path) == 0) {
+            return;
+        }
+        try (BufferedReader br = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    apply.accept(line);
+                    recordCount++;
+                } catch (RuntimeException e) {
+                    System.err.println("Skipping malformed journal record in " + path + ": " + line);
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper method to apply a single journal record to the slots of a store.
+     *
+     * @param record        the journal line
+     * @param store         the store
+     * @param touchedMonths receives the changed months, or null
+     */
+    private static void applyRecord(String record, TransactionStore store, Set<YearMonth> touchedMonths) {
+        int comma = record.indexOf(SEPARATOR);
+        if (comma < 0) {
+            throw new IllegalArgumentException("Journal record without type: " + record);
+        }
+        String type = record.substring(0, comma);
+        String payload = record.substring(comma + 1);
+        switch (type) {
+            case ADD:
+            case UPDATE:
+                Transaction transaction = Transaction.readFromCsv(payload, store.getMemberManager());
+                int slot = store.slotOf(transaction.getId());
+                if (slot == IntIntHashMap.MISSING) {
+                    store.add(transaction);
+                } else {
+                    touch(touchedMonths, store.dayAt(slot));
+                    store.update(transaction);
+                }
+                touch(touchedMonths, transaction);
+                break;
+            case DELETE:
+                int id = Integer.parseInt(payload.trim());
+                slot = store.slotOf(id);
+                if (slot != IntIntHashMap.MISSING) {
+                    touch(touchedMonths, store.dayAt(slot));
+                    store.removeById(id);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown journal record type: " + type);
+        }
+    }
+
+    /**
+     * Helper method to apply a single journal record.
+     *
+     * @param record           the journal line
+     * @param transactionsById transactions keyed by ID
+     * @param memberManager    the member manager
+     * @param touchedMonths    receives the changed months, or null
+     */
+    private static void applyRecord(String record, Map<Integer, Transaction> transactionsById, MemberManager memberManager,
+                                    Set<YearMonth> touchedMonths) {
+        int comma = record.indexOf(SEPARATOR);
+        if (comma < 0) {
+            throw new IllegalArgumentException("Journal record without type: " + record);
+        }
+        String type = record.substring(0, comma);
+        String payload = record.substring(comma + 1);
+        switch (type) {
+            case ADD:
+            case UPDATE:
+                Transaction transaction = Transaction.readFromCsv(payload, memberManager);
+                touch(touchedMonths, transactionsById.put(transaction.getId(), transaction));
+                touch(touchedMonths, transaction);
+                break;
+            case DELETE:
+                touch(touchedMonths, transactionsById.remove(Integer.parseInt(payload.trim())));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown journal record type: " + type);
+        }
+    }
+
+    /**
+     * Helper method to collect the month of a transaction changed by a record.
+     *
+     * @param touchedMonths the collected months, or null
+     * @param transaction   the transaction, or null
+     */
+    private static void touch(Set<YearMonth> touchedMonths, Transaction transaction) {
+        if (touchedMonths != null && transaction != null) {
+            touchedMonths.add(LedgerStorage.monthOf(transaction.getDate()));
+        }
+    }
+
+    /**
+     * Helper method to collect the month of a stored epoch day changed by a record.
+     *
+     * @param touchedMonths the collected months, or null
+     * @param day           the epoch day, or {@link DateIndex#NO_DAY}
+     */
+    private static void touch(Set<YearMonth> touchedMonths, int day) {
+        if (touchedMonths != null) {
+            touchedMonths.add(LedgerStorage.monthOf(day == DateIndex.NO_DAY ? null : LocalDate.ofEpochDay(day)));
+        }
+    }
+
+    /**
+     * Appends one record. Only this line is written; the snapshot is never touched.
+     *
+     * @param record the journal line without line terminator
+     */
+    void append(String record) {
+        try {
+            Files.write(path, (record + "\n").getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+            recordCount++;
+        } catch (IOException e) {
+            System.err.println("An error occurred while appending to the journal: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Helper method to key a list of transactions by ID, keeping their order.
+     *
+     * @param transactions the transactions to index
+     * @return an insertion-ordered map from ID to transaction
+     */
+    static Map<Integer, Transaction> byId(Iterable<Transaction> transactions) {
+        Map<Integer, Transaction> map = new LinkedHashMap<>();
+        for (Transaction transaction : transactions) {
+            map.put(transaction.getId(), transaction);
+        }
+        return map;
+    }
+}
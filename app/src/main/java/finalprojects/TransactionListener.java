@@ -0,0 +1,15 @@
+package finalprojects;
+
+/**
+ * Receives notifications about changes to the transactions of a {@link TransactionsManager}.
+ * Frames that share a ledger register a listener to stay current with edits made elsewhere.
+ */
+public interface TransactionListener {
+
+    /**
+     * Called after a transaction was added, updated or removed, or after the ledger was reloaded.
+     *
+     * @param event describes the change
+     */
+    void transactionsChanged(TransactionEvent event);
+}
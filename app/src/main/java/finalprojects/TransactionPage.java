@@ -0,0 +1,118 @@
+package finalprojects;
+
+/**
+ * One page of a display query answered by {@link TransactionsManager#queryPage}: the IDs of its
+ * rows and a cursor positioned after its last row, from which the next page continues.
+ */
+public class TransactionPage {
+    private final int[] ids;
+    private final Cursor next;
+
+    /**
+     * Constructs a page.
+     *
+     * @param ids  the transaction IDs of the rows, in display order
+     * @param next the position after the last row, or null if no row follows
+     */
+    TransactionPage(int[] ids, Cursor next) {
+        this.ids = ids;
+        this.next = next;
+    }
+
+    /**
+     * Returns the transaction IDs of the rows of the page.
+     *
+     * @return the IDs in display order
+     */
+    public int[] getIds() {
+        return ids.clone();
+    }
+
+    /**
+     * Returns the number of rows of the page.
+     *
+     * @return the row count
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Returns the cursor from which the next page continues.
+     *
+     * @return the cursor, or null if this page ends the query
+     */
+    public Cursor getNext() {
+        return next;
+    }
+
+    /**
+     * Tells whether more rows follow this page.
+     *
+     * @return true if {@link #getNext()} is not null
+     */
+    public boolean hasMore() {
+        return next != null;
+    }
+
+    /**
+     * A position in the display order of a query: the sort key and slot of the last row read.
+     * Since the order is total and slots never change while a transaction is stored, a cursor
+     * keeps its place across edits: rows added or removed before it do not shift the next page.
+     */
+    public static final class Cursor {
+        private final boolean sortByAmount;
+        private final boolean sortByDate;
+        private final long key;
+        private final int slot;
+
+        Cursor(boolean sortByAmount, boolean sortByDate, long key, int slot) {
+            this.sortByAmount = sortByAmount;
+            this.sortByDate = sortByDate;
+            this.key = key;
+            this.slot = slot;
+        }
+
+        /**
+         * Returns the cursor placed before the first row of an order.
+         *
+         * @param sortByAmount true if ordered by amount
+         * @param sortByDate   true if ordered by date, and not by amount
+         * @return the starting cursor
+         */
+        static Cursor start(boolean sortByAmount, boolean sortByDate) {
+            return new Cursor(sortByAmount, sortByDate, Long.MIN_VALUE, -1);
+        }
+
+        /**
+         * Tells whether the cursor was taken from a query with the given effective sort.
+         *
+         * @param sortByAmount true if ordered by amount
+         * @param sortByDate   true if ordered by date, and not by amount
+         * @return true if the cursor belongs to that order
+         */
+        boolean belongsTo(boolean sortByAmount, boolean sortByDate) {
+            return this.sortByAmount == sortByAmount && this.sortByDate == sortByDate;
+        }
+
+        /**
+         * Returns the slot of the row the cursor is placed after.
+         *
+         * @return the slot, or -1 before the first row
+         */
+        int getSlot() {
+            return slot;
+        }
+
+        /**
+         * Tells whether a row comes after the cursor in its order.
+         *
+         * @param key  the sort key of the row
+         * @param slot the slot of the row
+         * @return true if the row follows the cursor
+         */
+        boolean isBefore(long key, int slot) {
+            return this.key != key ? this.key < key : this.slot < slot;
+        }
+    }
+}
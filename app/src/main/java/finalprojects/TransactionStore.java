@@ -0,0 +1,888 @@
+package finalprojects;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/**
+ * The list of transactions held by a {@link TransactionsManager}, indexed by ID.
+ *
+ * <p>Transactions are stored column by column in parallel primitive arrays (ID, epoch day,
+ * fixed-point amount, category ordinal, member ID and type), about 22 bytes per transaction
+ * instead of a Transaction object with its LocalDate. {@link Transaction} objects returned by
+ * this list are views created on demand: changing one does not change the store, so stored
+ * transactions are modified through {@link #update(Transaction)}, as
+ * {@link TransactionsManager#setTransaction} does. Aggregations can read the columns directly
+ * with {@link #dayAt(int)}, {@link #amountUnitsAt(int)} and the other column accessors.
+ *
+ * <p>Members are interned in the {@link MemberManager} of the store and referred to by ID, so
+ * renaming a member there is immediately reflected by every transaction.
+ *
+ * <p>Transactions are kept in insertion order. A slot number never changes while the transaction
+ * is stored, so other indexes can refer to transactions by slot. Removing a transaction leaves an
+ * empty slot behind instead of shifting the columns, which together with the ID index makes
+ * lookup, update and removal by ID constant time. {@link #compact()} reclaims the empty slots,
+ * renumbering the others. The highest ID ever stored is tracked, so
+ * allocating a new ID is constant time as well. A {@link DateIndex} keeps the slots ordered by
+ * date for range queries, a {@link BitmapIndex} answers category, member and type filters, a
+ * {@link RollupCube} keeps monthly totals for reports and {@link DailyTotals} keeps prefix sums
+ * for totals over arbitrary date ranges.
+ *
+ * <p>Transaction IDs are expected to be unique; if two stored transactions share an ID, lookups
+ * by ID find the one added last.
+ */
+public class TransactionStore extends AbstractList<Transaction> {
+    /**
+     * Type of an empty slot.
+     */
+    static final byte KIND_REMOVED = 0;
+    /**
+     * Type of a plain {@link Transaction}.
+     */
+    static final byte KIND_TRANSACTION = 1;
+    /**
+     * Type of an {@link Income}.
+     */
+    static final byte KIND_INCOME = 2;
+    /**
+     * Type of an {@link Expense}.
+     */
+    static final byte KIND_EXPENSE = 3;
+    /**
+     * Category ordinal of a transaction without category.
+     */
+    static final int NO_CATEGORY = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private int[] days = new int[INITIAL_CAPACITY];
+    private long[] amounts = new long[INITIAL_CAPACITY];
+    private byte[] categories = new byte[INITIAL_CAPACITY];
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private int[] memberIds = new int[INITIAL_CAPACITY];
+    private final Map<Integer, Double> inexactAmounts = new HashMap<>();
+    private final MemberManager memberManager;
+
+    private int slotCount;
+    private int size;
+    private final IntIntHashMap slotById = new IntIntHashMap();
+    private final DateIndex dateIndex = new DateIndex();
+    private final BitmapIndex bitmapIndex = new BitmapIndex();
+    private final RollupCube rollup = new RollupCube();
+    private final DailyTotals dailyTotals = new DailyTotals();
+    private int[] liveSlots;
+    private int maxId;
+
+    /**
+     * Constructs an empty store with its own member dictionary.
+     */
+    public TransactionStore() {
+        this(new MemberManager());
+    }
+
+    /**
+     * Constructs an empty store interning members in the given dictionary.
+     *
+     * @param memberManager the member dictionary, or null to use a dictionary of its own
+     */
+    public TransactionStore(MemberManager memberManager) {
+        this.memberManager = memberManager != null ? memberManager : new MemberManager();
+    }
+
+    /**
+     * Returns the dictionary the members of the stored transactions are interned in.
+     *
+     * @return the member manager
+     */
+    public MemberManager getMemberManager() {
+        return memberManager;
+    }
+
+    /**
+     * Returns the number of stored transactions.
+     *
+     * @return the number of transactions
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the transaction at a position in insertion order.
+     * Constant time until a transaction is removed; the first positional access after a removal
+     * rebuilds the position table once.
+     *
+     * @param index the position
+     * @return a view of the transaction
+     */
+    @Override
+    public Transaction get(int index) {
+        return view(slotAt(index));
+    }
+
+    /**
+     * Replaces the transaction at a position.
+     *
+     * @param index       the position
+     * @param transaction the new transaction
+     * @return the replaced transaction
+     */
+    @Override
+    public Transaction set(int index, Transaction transaction) {
+        if (transaction == null) {
+            throw new IllegalArgumentException("Transaction cannot be null.");
+        }
+        int slot = slotAt(index);
+        Transaction old = view(slot);
+        checkStorable(transaction);
+        unindex(slot);
+        write(slot, transaction);
+        index(slot);
+        return old;
+    }
+
+    /**
+     * Appends a transaction by copying its fields into the columns.
+     *
+     * @param transaction the transaction to add, cannot be null
+     * @return always true
+     */
+    @Override
+    public boolean add(Transaction transaction) {
+        if (transaction == null) {
+            throw new IllegalArgumentException("Transaction cannot be null.");
+        }
+        checkStorable(transaction);
+        if (slotCount == ids.length) {
+            grow(ids.length * 2);
+        }
+        int slot = slotCount++;
+        write(slot, transaction);
+        size++;
+        index(slot);
+        if (liveSlots != null) {
+            if (liveSlots.length < size) {
+                liveSlots = Arrays.copyOf(liveSlots, size * 2);
+            }
+            liveSlots[size - 1] = slot;
+        }
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Appends parsed income and expense rows straight from primitive columns, without creating a
+     * Transaction per row. The columns are grown once for the whole batch. Each row is checked like
+     * {@link #add(Transaction)} before it is written, so a row that does not fit stops the batch
+     * with every earlier row stored. The rollup cells of the batch are built by a
+     * {@link ColumnAggregator} scan of the new slots and merged into the rollup once.
+     *
+     * @param count      the number of rows
+     * @param ids        the transaction IDs
+     * @param categories the category ordinals, whose {@link CategoryRegistry#isIncome(int)} gives the type
+     * @param amounts    the amounts
+     * @param days       the epoch days, or {@link DateIndex#NO_DAY} for undated rows
+     * @param members    the member IDs, already registered with the member manager of this store
+     * @throws IllegalArgumentException if a date or an amount does not fit the columns
+     */
+    public void addRows(int count, int[] ids, int[] categories, double[] amounts, long[] days, int[] members) {
+        if (slotCount + count > this.ids.length) {
+            grow(Math.max(slotCount + count, this.ids.length * 2));
+        }
+        liveSlots = null;
+        modCount++;
+        int firstSlot = slotCount;
+        try {
+            addColumns(count, ids, categories, amounts, days, members);
+        } finally {
+            rollup.merge(ColumnAggregator.aggregate(this, firstSlot, slotCount, true));
+        }
+    }
+
+    /**
+     * Helper method to write rows into the columns and every index except the rollup.
+     */
+    private void addColumns(int count, int[] ids, int[] categories, double[] amounts, long[] days, int[] members) {
+        for (int i = 0; i < count; i++) {
+            int day = DateIndex.toDay(days[i]);
+            long units = Amounts.toUnits(amounts[i]);
+            int slot = slotCount++;
+            this.ids[slot] = ids[i];
+            this.days[slot] = day;
+            this.amounts[slot] = units;
+            if (!Amounts.isExact(amounts[i])) {
+                inexactAmounts.put(slot, amounts[i]);
+            }
+            this.categories[slot] = (byte) categories[i];
+            kinds[slot] = CategoryRegistry.isIncome(categories[i]) ? KIND_INCOME : KIND_EXPENSE;
+            memberIds[slot] = members[i];
+            size++;
+            indexExceptRollup(slot);
+        }
+    }
+
+    /**
+     * Inserts a transaction at a position. Only appending at the end is supported.
+     *
+     * @param index       the position, must equal {@link #size()}
+     * @param transaction the transaction to add
+     */
+    @Override
+    public void add(int index, Transaction transaction) {
+        if (index != size) {
+            throw new UnsupportedOperationException("Transactions can only be appended.");
+        }
+        add(transaction);
+    }
+
+    /**
+     * Removes the transaction at a position.
+     *
+     * @param index the position
+     * @return the removed transaction
+     */
+    @Override
+    public Transaction remove(int index) {
+        int slot = slotAt(index);
+        Transaction removed = view(slot);
+        removeSlot(slot);
+        return removed;
+    }
+
+    /**
+     * Removes a transaction, matched by ID like {@link Transaction#equals(Object)}, in constant time.
+     *
+     * @param o the transaction to remove
+     * @return true if a transaction was removed
+     */
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof Transaction)) {
+            return false;
+        }
+        return removeById(((Transaction) o).getId());
+    }
+
+    /**
+     * Removes the transaction with the given ID in constant time.
+     *
+     * @param id the ID of the transaction
+     * @return true if a transaction was removed
+     */
+    public boolean removeById(int id) {
+        int slot = slotById.get(id);
+        if (slot == IntIntHashMap.MISSING) {
+            return false;
+        }
+        removeSlot(slot);
+        return true;
+    }
+
+    /**
+     * Tells whether a transaction with the same ID is stored, in constant time.
+     *
+     * @param o the transaction to look for
+     * @return true if a transaction with that ID is stored
+     */
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Transaction && slotById.get(((Transaction) o).getId()) != IntIntHashMap.MISSING;
+    }
+
+    /**
+     * Removes every transaction and forgets the highest ID.
+     */
+    @Override
+    public void clear() {
+        ids = new int[INITIAL_CAPACITY];
+        days = new int[INITIAL_CAPACITY];
+        amounts = new long[INITIAL_CAPACITY];
+        categories = new byte[INITIAL_CAPACITY];
+        kinds = new byte[INITIAL_CAPACITY];
+        memberIds = new int[INITIAL_CAPACITY];
+        inexactAmounts.clear();
+        slotCount = 0;
+        size = 0;
+        slotById.clear();
+        dateIndex.clear();
+        bitmapIndex.clear();
+        rollup.clear();
+        dailyTotals.clear();
+        liveSlots = null;
+        maxId = 0;
+        modCount++;
+    }
+
+    /**
+     * Iterates over the transactions in insertion order, skipping removed slots.
+     *
+     * @return an iterator of views, supporting removal
+     */
+    @Override
+    public Iterator<Transaction> iterator() {
+        return new Iterator<Transaction>() {
+            private int next = nextLive(0);
+            private int last = -1;
+            private int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return next < slotCount;
+            }
+
+            @Override
+            public Transaction next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (next >= slotCount) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                next = nextLive(next + 1);
+                return view(last);
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                removeSlot(last);
+                last = -1;
+                expectedModCount = modCount;
+            }
+        };
+    }
+
+    /**
+     * Finds a transaction by ID in constant time.
+     *
+     * @param id the ID of the transaction
+     * @return a view of the transaction, or null if not found
+     */
+    public Transaction findById(int id) {
+        int slot = slotById.get(id);
+        return slot == IntIntHashMap.MISSING ? null : view(slot);
+    }
+
+    /**
+     * Writes the fields of a modified transaction back into the slot holding its ID,
+     * and updates the date and bitmap indexes.
+     *
+     * @param transaction the modified transaction
+     * @return true if a transaction with that ID is stored and was updated
+     */
+    public boolean update(Transaction transaction) {
+        int slot = slotById.get(transaction.getId());
+        if (slot == IntIntHashMap.MISSING) {
+            return false;
+        }
+        checkStorable(transaction);
+        unindex(slot);
+        write(slot, transaction);
+        index(slot);
+        return true;
+    }
+
+    /**
+     * Returns the transactions selected by a filter, in insertion order.
+     *
+     * @param filter the filter
+     * @return a new list of views of the matching transactions
+     */
+    public List<Transaction> query(TransactionFilter filter) {
+        int[] slots = querySlots(filter);
+        List<Transaction> result = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            result.add(view(slot));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the slots of the transactions selected by a filter, in ascending (insertion) order.
+     * Category, member and type are intersected as bitmaps first; with a date range only the
+     * slots of that range are then checked against the bitmap, otherwise its set bits are read directly.
+     *
+     * @param filter the filter
+     * @return a new array of the matching slots
+     */
+    public int[] querySlots(TransactionFilter filter) {
+        BitSet matches = select(filter);
+        if (matches == null) {
+            return new int[0];
+        }
+        int[] result = new int[matches.cardinality()];
+        int count = 0;
+        if (filter.hasDateRange()) {
+            for (int slot : dateIndex.slotsBetween(filter.getStartDate(), filter.getEndDate())) {
+                if (matches.get(slot)) {
+                    result[count++] = slot;
+                }
+            }
+        } else {
+            for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+                result[count++] = slot;
+            }
+        }
+        if (!BitmapIndex.isIndexedClass(filter.getTransactionClass())) {
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                if (filter.getTransactionClass().isAssignableFrom(view(result[i]).getClass())) {
+                    result[kept++] = result[i];
+                }
+            }
+            count = kept;
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Calls an action for every slot selected by a filter, in ascending (insertion) order, without
+     * collecting the slots. Category, member and type are intersected as bitmaps and the date range
+     * is checked against the day column.
+     *
+     * @param filter the filter
+     * @param action receives each matching slot
+     */
+    public void forEachSlot(TransactionFilter filter, IntConsumer action) {
+        BitSet matches = select(filter);
+        if (matches == null) {
+            return;
+        }
+        boolean dated = filter.hasDateRange();
+        long firstDay = dated ? filter.getStartDate().toEpochDay() : 0;
+        long lastDay = dated ? filter.getEndDate().toEpochDay() : 0;
+        boolean indexedClass = BitmapIndex.isIndexedClass(filter.getTransactionClass());
+        for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+            if (dated && (days[slot] == DateIndex.NO_DAY || days[slot] < firstDay || days[slot] > lastDay)) {
+                continue;
+            }
+            if (!indexedClass && !filter.getTransactionClass().isAssignableFrom(view(slot).getClass())) {
+                continue;
+            }
+            action.accept(slot);
+        }
+    }
+
+    /**
+     * Finds the slot a number of rows past a slot among those selected by a filter, in insertion
+     * order. Without a filter the live slots are ranked directly, so the seek costs a binary search
+     * instead of a pass over the rows; otherwise the matching slots are counted in one pass.
+     *
+     * @param filter    the filter
+     * @param afterSlot the slot to start after, or -1 to start before the first slot
+     * @param rank      the number of matching rows to skip after that slot
+     * @return the slot of the row after the skipped ones, or -1 if no more than {@code rank} rows follow
+     * @throws IllegalArgumentException if the rank is negative
+     */
+    public int seekSlot(TransactionFilter filter, final int afterSlot, final int rank) {
+        if (rank < 0) {
+            throw new IllegalArgumentException("Rank must not be negative.");
+        }
+        if (filter.getCategory() == null && filter.getMember() == null && !filter.hasDateRange()
+            && (filter.getTransactionClass() == null || filter.getTransactionClass() == Transaction.class)) {
+            long position = (long) liveBefore(afterSlot + 1) + rank;
+            return position < size ? slotAt((int) position) : -1;
+        }
+        final int[] seek = {rank, -1};
+        forEachSlot(filter, slot -> {
+            if (slot > afterSlot && seek[0]-- == 0) {
+                seek[1] = slot;
+            }
+        });
+        return seek[1];
+    }
+
+    /**
+     * Counts the transactions selected by a filter without collecting them.
+     *
+     * @param filter the filter
+     * @return the number of matching transactions
+     */
+    public int count(TransactionFilter filter) {
+        final int[] count = new int[1];
+        forEachSlot(filter, slot -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * Helper method to intersect the category, member and type bitmaps of a filter.
+     *
+     * @param filter the filter
+     * @return the matching live slots before the date range is applied, or null if the member is unknown
+     */
+    private BitSet select(TransactionFilter filter) {
+        int member = BitmapIndex.ANY;
+        if (filter.getMember() != null) {
+            Member canonical = memberManager.findMemberByExactName(filter.getMember().getName());
+            if (canonical == null) {
+                return null;
+            }
+            member = canonical.getId();
+        }
+        int category = filter.getCategory() == null ? BitmapIndex.ANY : CategoryRegistry.ordinal(filter.getCategory());
+        return bitmapIndex.select(category, member, filter.getTransactionClass());
+    }
+
+    /**
+     * Returns the monthly totals of the stored transactions, kept up to date by every change.
+     *
+     * @return the rollup
+     */
+    public RollupCube getRollup() {
+        return rollup;
+    }
+
+    /**
+     * Returns the per-day prefix sums of the stored transactions, kept up to date by every change.
+     *
+     * @return the daily totals
+     */
+    public DailyTotals getDailyTotals() {
+        return dailyTotals;
+    }
+
+    /**
+     * Returns the slot of the transaction with the given ID.
+     *
+     * @param id the ID of the transaction
+     * @return the slot, or {@link IntIntHashMap#MISSING} if not found
+     */
+    public int slotOf(int id) {
+        return slotById.get(id);
+    }
+
+    /**
+     * Returns how many entries of the ID index a lookup of an ID reads.
+     *
+     * @param id the ID of the transaction
+     * @return the number of index entries read
+     */
+    int idProbes(int id) {
+        return slotById.probes(id);
+    }
+
+    /**
+     * Returns the transaction stored in a slot.
+     *
+     * @param slot the slot, between 0 and {@link #slotCount()} - 1
+     * @return a view of the transaction, or null if it was removed
+     */
+    public Transaction getSlot(int slot) {
+        return isLive(slot) ? view(slot) : null;
+    }
+
+    /**
+     * Returns the number of slots in use, including slots of removed transactions.
+     *
+     * @return the slot count
+     */
+    public int slotCount() {
+        return slotCount;
+    }
+
+    /**
+     * Tells whether a slot holds a transaction.
+     *
+     * @param slot the slot, between 0 and {@link #slotCount()} - 1
+     * @return false if the transaction of the slot was removed
+     */
+    public boolean isLive(int slot) {
+        return kinds[slot] != KIND_REMOVED;
+    }
+
+    /**
+     * Returns the ID of the transaction in a slot.
+     *
+     * @param slot a live slot
+     * @return the ID
+     */
+    public int idAt(int slot) {
+        return ids[slot];
+    }
+
+    /**
+     * Returns the date of the transaction in a slot as an epoch day.
+     *
+     * @param slot a live slot
+     * @return the epoch day, or {@link DateIndex#NO_DAY} if the transaction has no date
+     */
+    public int dayAt(int slot) {
+        return days[slot];
+    }
+
+    /**
+     * Returns the amount of the transaction in a slot in fixed-point units of {@link Amounts}.
+     *
+     * @param slot a live slot
+     * @return the amount in units
+     */
+    public long amountUnitsAt(int slot) {
+        return amounts[slot];
+    }
+
+    /**
+     * Returns the amount of the transaction in a slot exactly as it was stored.
+     *
+     * @param slot a live slot
+     * @return the amount
+     */
+    public double amountAt(int slot) {
+        Double inexact = inexactAmounts.isEmpty() ? null : inexactAmounts.get(slot);
+        return inexact == null ? Amounts.toAmount(amounts[slot]) : inexact;
+    }
+
+    /**
+     * Returns the category of the transaction in a slot as a {@link CategoryRegistry} ordinal.
+     *
+     * @param slot a live slot
+     * @return the ordinal, or {@link #NO_CATEGORY}
+     */
+    public int categoryAt(int slot) {
+        return categories[slot];
+    }
+
+    /**
+     * Returns the member of the transaction in a slot as a {@link MemberManager} ID.
+     *
+     * @param slot a live slot
+     * @return the member ID
+     */
+    public int memberIdAt(int slot) {
+        return memberIds[slot];
+    }
+
+    /**
+     * Returns the type of the transaction in a slot.
+     *
+     * @param slot the slot
+     * @return one of {@link #KIND_REMOVED}, {@link #KIND_TRANSACTION}, {@link #KIND_INCOME} or {@link #KIND_EXPENSE}
+     */
+    public int kindAt(int slot) {
+        return kinds[slot];
+    }
+
+    /**
+     * Tells whether the transaction in a slot is an {@link Income}.
+     *
+     * @param slot a live slot
+     * @return true for incomes
+     */
+    public boolean isIncomeAt(int slot) {
+        return kinds[slot] == KIND_INCOME;
+    }
+
+    /**
+     * Moves the transactions into the leading slots, keeping their order, and rebuilds the indexes,
+     * so the slots of removed transactions are reused. Every slot number handed out before is invalid
+     * afterwards. The highest ID is kept.
+     *
+     * @return true if any empty slot was reclaimed
+     */
+    public boolean compact() {
+        if (size == slotCount) {
+            return false;
+        }
+        List<Transaction> live = new ArrayList<>(this);
+        int keptMaxId = maxId;
+        clear();
+        if (live.size() > ids.length) {
+            grow(live.size());
+        }
+        addAll(live);
+        maxId = keptMaxId;
+        return true;
+    }
+
+    /**
+     * Returns the highest ID ever stored since the store was last cleared.
+     * Removing that transaction does not lower it, so new IDs are never reused within a session.
+     *
+     * @return the highest ID, or 0 if nothing was stored
+     */
+    public int getMaxId() {
+        return maxId;
+    }
+
+    /**
+     * Helper method to remove the transaction of a slot.
+     *
+     * @param slot the slot
+     */
+    private void removeSlot(int slot) {
+        unindex(slot);
+        kinds[slot] = KIND_REMOVED;
+        inexactAmounts.remove(slot);
+        size--;
+        liveSlots = null;
+        modCount++;
+    }
+
+    /**
+     * Helper method to reject a transaction whose date or amount does not fit the columns,
+     * before any column is changed.
+     */
+    private static void checkStorable(Transaction transaction) {
+        DateIndex.toDay(transaction.getDate());
+        Amounts.toUnits(transaction.getAmount());
+    }
+
+    /**
+     * Helper method to copy the fields of a transaction into the columns of a slot.
+     */
+    private void write(int slot, Transaction transaction) {
+        ids[slot] = transaction.getId();
+        days[slot] = DateIndex.toDay(transaction.getDate());
+        double amount = transaction.getAmount();
+        amounts[slot] = Amounts.toUnits(amount);
+        if (Amounts.isExact(amount)) {
+            inexactAmounts.remove(slot);
+        } else {
+            inexactAmounts.put(slot, amount);
+        }
+        categories[slot] = (byte) (transaction.getCategory() == null ? NO_CATEGORY : CategoryRegistry.ordinal(transaction.getCategory()));
+        if (transaction instanceof Income) {
+            kinds[slot] = KIND_INCOME;
+        } else if (transaction instanceof Expense) {
+            kinds[slot] = KIND_EXPENSE;
+        } else {
+            kinds[slot] = KIND_TRANSACTION;
+        }
+        memberIds[slot] = memberManager.intern(transaction.getMember()).getId();
+    }
+
+    /**
+     * Helper method to create a transaction object from the columns of a slot.
+     */
+    private Transaction view(int slot) {
+        double amount = amountAt(slot);
+        LocalDate date = days[slot] == DateIndex.NO_DAY ? null : LocalDate.ofEpochDay(days[slot]);
+        Member member = memberManager.getMember(memberIds[slot]);
+        Transaction transaction;
+        if (kinds[slot] == KIND_INCOME) {
+            transaction = new Income(null, amount, date, member);
+        } else if (kinds[slot] == KIND_EXPENSE) {
+            transaction = new Expense(null, amount, date, member);
+        } else {
+            transaction = new Transaction(null, amount, date, member);
+        }
+        if (categories[slot] != NO_CATEGORY) {
+            transaction.setCategory(CategoryRegistry.byOrdinal(categories[slot]));
+        }
+        transaction.setId(ids[slot]);
+        return transaction;
+    }
+
+    /**
+     * Helper method to register a slot with every index.
+     */
+    private void index(int slot) {
+        indexExceptRollup(slot);
+        rollup.add(days[slot], kinds[slot], categories[slot], memberIds[slot], amounts[slot]);
+    }
+
+    /**
+     * Helper method to register a slot with every index but the rollup, which bulk loads build by scanning.
+     */
+    private void indexExceptRollup(int slot) {
+        slotById.put(ids[slot], slot);
+        maxId = Math.max(maxId, ids[slot]);
+        dateIndex.add(slot, days[slot]);
+        bitmapIndex.add(slot, kinds[slot], categories[slot], memberIds[slot]);
+        dailyTotals.add(days[slot], kinds[slot], categories[slot], memberIds[slot], amounts[slot]);
+    }
+
+    /**
+     * Helper method to drop a slot from every index; the ID entry only if it still points there.
+     */
+    private void unindex(int slot) {
+        if (slotById.get(ids[slot]) == slot) {
+            slotById.remove(ids[slot]);
+        }
+        dateIndex.remove(slot);
+        bitmapIndex.remove(slot, kinds[slot], categories[slot], memberIds[slot]);
+        rollup.remove(days[slot], kinds[slot], categories[slot], memberIds[slot], amounts[slot]);
+        dailyTotals.remove(days[slot], kinds[slot], categories[slot], memberIds[slot], amounts[slot]);
+    }
+
+    /**
+     * Helper method to enlarge every column.
+     *
+     * @param capacity the new number of slots
+     */
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        days = Arrays.copyOf(days, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        kinds = Arrays.copyOf(kinds, capacity);
+        memberIds = Arrays.copyOf(memberIds, capacity);
+    }
+
+    /**
+     * Helper method to translate a position into a slot.
+     *
+     * @param index the position
+     * @return the slot
+     */
+    private int slotAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (size == slotCount) {
+            return index;
+        }
+        if (liveSlots == null) {
+            int[] positions = new int[Math.max(size, INITIAL_CAPACITY)];
+            int position = 0;
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (kinds[slot] != KIND_REMOVED) {
+                    positions[position++] = slot;
+                }
+            }
+            liveSlots = positions;
+        }
+        return liveSlots[index];
+    }
+
+    /**
+     * Helper method to count the live slots before a slot, by binary search over the live slots.
+     */
+    private int liveBefore(int slot) {
+        if (slot <= 0 || size == 0) {
+            return 0;
+        }
+        if (size == slotCount || slot >= slotCount) {
+            return Math.min(slot, size);
+        }
+        slotAt(0);
+        int position = Arrays.binarySearch(liveSlots, 0, size, slot);
+        return position >= 0 ? position : -position - 1;
+    }
+
+    /**
+     * Helper method to find the first occupied slot at or after a slot.
+     */
+    private int nextLive(int slot) {
+        while (slot < slotCount && kinds[slot] == KIND_REMOVED) {
+            slot++;
+        }
+        return slot;
+    }
+}
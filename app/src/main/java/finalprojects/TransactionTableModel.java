@@ -0,0 +1,588 @@
+package finalprojects;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Table model that reads its rows lazily from the {@link TransactionStore} of a ledger. The model
+ * only keeps the IDs of the rows matching the current filter, in display order, with their sort keys
+ * and slots, and builds a transaction when the table asks for a cell of its row. Registered as a
+ * {@link TransactionListener}, it applies every edit as a single inserted, updated or deleted row
+ * instead of rebuilding the table, and finds that row by binary search on its key and slot.
+ * A new filter can be queried on a worker thread with {@link #requestQuery}, where a newer request
+ * supersedes an older one still in flight.
+ *
+ * <p>Edits may be made on any thread. Their events are applied on the event dispatch thread in the
+ * order of the ledger versions they produced, so the rows always reflect one version of the ledger.
+ *
+ * <p>A query matching more than {@link #PAGED_ROWS} transactions is shown in pages instead: the model
+ * only counts the rows and keeps a window of IDs around the rows the table last asked for, fetched
+ * with {@link TransactionsManager#queryPage} from the nearest cursor it saw while scrolling. Windows
+ * are fetched on a worker thread like {@link #requestQuery}, and the rows of a window still on its
+ * way show a placeholder until it arrives. Its memory no longer grows with the ledger, and an edit
+ * simply requests the first window again.
+ */
+@SuppressWarnings("serial")
+public class TransactionTableModel extends AbstractTableModel implements TransactionListener {
+    private static final String[] COLUMNS = {"ID", "Date", "Income/Expense", "Category", "Amount", "Member"};
+
+    /**
+     * Number of matching rows above which the model fetches its rows in pages.
+     */
+    static final int PAGED_ROWS = 100_000;
+
+    /**
+     * Number of rows fetched at once in paged mode.
+     */
+    static final int WINDOW_ROWS = 512;
+
+    /**
+     * Number of rows fetched before the requested row in paged mode, for scrolling back up.
+     */
+    static final int PREFETCH_ROWS = 128;
+
+    /**
+     * Text shown in the first column of a row whose window is still being fetched.
+     */
+    static final String LOADING_TEXT = "Loading...";
+
+    private static final int REMOVED = -1;
+    private static final int LOADING = -2;
+
+    private final TransactionsManager manager;
+    private final TaskChannel queries = new TaskChannel();
+    private final TaskChannel windows = new TaskChannel();
+    private TransactionFilter filter = new TransactionFilter(null, null, null, null, null);
+    private boolean sortByAmount;
+    private boolean sortByDate;
+    private final int pagedRows;
+    private int[] ids = new int[0];
+    private long[] keys = new long[0];
+    private int[] slots = new int[0];
+    private int rowCount;
+    private boolean paged;
+    private int windowStart;
+    private int windowEnd;
+    private int pendingStart = -1;
+    private final TreeMap<Integer, TransactionPage.Cursor> anchors = new TreeMap<>();
+    private int cachedRow = -1;
+    private Transaction cachedTransaction;
+    private long appliedVersion;
+    private final TreeMap<Long, TransactionEvent> early = new TreeMap<>();
+    private List<TransactionEvent> queued;
+
+    /**
+     * Constructs a model showing every transaction of a ledger in insertion order. The rows are
+     * queried on a worker thread like {@link #requestQuery}, so the table starts empty.
+     *
+     * @param manager the ledger to read rows from
+     */
+    public TransactionTableModel(TransactionsManager manager) {
+        this(manager, PAGED_ROWS);
+    }
+
+    /**
+     * Constructs a model showing every transaction of a ledger in insertion order. The rows are
+     * queried on a worker thread like {@link #requestQuery}, so the table starts empty.
+     *
+     * @param manager   the ledger to read rows from
+     * @param pagedRows the number of matching rows above which rows are fetched in pages
+     */
+    TransactionTableModel(TransactionsManager manager, int pagedRows) {
+        this.manager = manager;
+        this.pagedRows = pagedRows;
+        // Nothing else can reach the model yet, so it may be built off the event dispatch thread
+        requestQuery(filter, sortByAmount, sortByDate);
+    }
+
+    /**
+     * Selects the rows to show and their order, and refreshes the whole table.
+     *
+     * @param filter       the transactions to show
+     * @param sortByAmount true to order rows by ascending amount
+     * @param sortByDate   true to order rows by descending date, unless sorting by amount
+     */
+    public void setQuery(TransactionFilter filter, boolean sortByAmount, boolean sortByDate) {
+        queries.cancel();
+        queued = null;
+        this.filter = filter;
+        this.sortByAmount = sortByAmount;
+        this.sortByDate = sortByDate;
+        reload();
+    }
+
+    /**
+     * Selects the rows to show and their order like {@link #setQuery}, but queries and sorts them
+     * on a worker thread and refreshes the table on the event dispatch thread once they are ready.
+     * Edits made meanwhile are applied to the current rows, and those the result does not contain
+     * yet are applied to it again. Must be called on the event dispatch thread.
+     *
+     * @param filter       the transactions to show
+     * @param sortByAmount true to order rows by ascending amount
+     * @param sortByDate   true to order rows by descending date, unless sorting by amount
+     */
+    public void requestQuery(final TransactionFilter filter, final boolean sortByAmount, final boolean sortByDate) {
+        // Every edit applied from now on may be missing from the result
+        queued = new ArrayList<>();
+        queries.submit(new LedgerTask<Rows>() {
+            @Override
+            protected Rows compute() {
+                return manager.readLocked(() -> query(filter, sortByAmount, sortByDate));
+            }
+
+            @Override
+            protected void succeeded(Rows result) {
+                List<TransactionEvent> events = queued;
+                queued = null;
+                TransactionTableModel.this.filter = filter;
+                TransactionTableModel.this.sortByAmount = sortByAmount;
+                TransactionTableModel.this.sortByDate = sortByDate;
+                setRows(result);
+                for (TransactionEvent event : events) {
+                    if (event.getVersion() > appliedVersion) {
+                        early.put(event.getVersion(), event);
+                    }
+                }
+                applyInOrder();
+            }
+        });
+    }
+
+    /**
+     * Returns the ID of the transaction shown in a row.
+     *
+     * @param row the row
+     * @return the transaction ID
+     * @throws IndexOutOfBoundsException if the row is outside the table, was removed, or is still loading
+     */
+    public int getIdAt(int row) {
+        checkRow(row);
+        int index = windowIndex(row);
+        if (index == LOADING) {
+            throw new IndexOutOfBoundsException("Row: " + row + " is still loading");
+        }
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("Row: " + row + " was removed");
+        }
+        return ids[index];
+    }
+
+    /**
+     * Tells whether the ID of a row is known, requesting its window on a worker thread otherwise.
+     * Always true outside paged mode.
+     *
+     * @param row the row
+     * @return false while the window of the row is being fetched
+     */
+    public boolean isLoaded(int row) {
+        checkRow(row);
+        return windowIndex(row) != LOADING;
+    }
+
+    /**
+     * Returns the transaction shown in a row, without waiting for its window in paged mode.
+     *
+     * @param row the row
+     * @return a view of the transaction, or null if it was removed since the rows were queried or
+     *         its window is still being fetched
+     */
+    public Transaction getTransactionAt(int row) {
+        checkRow(row);
+        if (row != cachedRow) {
+            int index = windowIndex(row);
+            if (index == LOADING) {
+                return null;
+            }
+            cachedTransaction = index < 0 ? null : manager.findTransactionbyID(ids[index]);
+            cachedRow = row;
+        }
+        return cachedTransaction;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Transaction transaction = getTransactionAt(row);
+        if (transaction == null) {
+            return column == 0 && !isLoaded(row) ? LOADING_TEXT : null;
+        }
+        switch (column) {
+            case 0:
+                return transaction.getId();
+            case 1:
+                return transaction.getDate();
+            case 2:
+                return transaction.getClass().getSimpleName();
+            case 3:
+                return transaction.getCategory();
+            case 4:
+                return transaction.getAmount();
+            case 5:
+                return transaction.getMember();
+            default:
+                throw new IndexOutOfBoundsException("Column: " + column);
+        }
+    }
+
+    /**
+     * Tells whether the rows are fetched in pages because the query matches too many transactions.
+     *
+     * @return true in paged mode
+     */
+    public boolean isPaged() {
+        return paged;
+    }
+
+    /**
+     * Applies a change of the ledger to the affected row on the event dispatch thread, once the
+     * changes of every earlier version have been applied.
+     *
+     * @param event describes the change
+     */
+    @Override
+    public void transactionsChanged(final TransactionEvent event) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    transactionsChanged(event);
+                }
+            });
+            return;
+        }
+        if (queued != null) {
+            queued.add(event);
+        }
+        if (event.getVersion() < 0) {
+            apply(event);
+            return;
+        }
+        if (event.getVersion() <= appliedVersion) {
+            // The rows were queried after this change
+            return;
+        }
+        early.put(event.getVersion(), event);
+        applyInOrder();
+        if (!early.isEmpty() && queued == null) {
+            // An earlier change has not arrived yet, or happened before the model listened; the
+            // query gets past it, and a change still on its way is applied to the result later
+            requestQuery(filter, sortByAmount, sortByDate);
+        }
+    }
+
+    /**
+     * Helper method to apply the held changes that follow the applied version without a gap.
+     */
+    private void applyInOrder() {
+        TransactionEvent next;
+        while ((next = early.remove(appliedVersion + 1)) != null) {
+            appliedVersion = next.getVersion();
+            apply(next);
+        }
+    }
+
+    /**
+     * Helper method to apply a change of the ledger to the affected row.
+     */
+    private void apply(TransactionEvent event) {
+        Transaction transaction = event.getTransaction();
+        if ((paged || event.getSlot() < 0) && event.getType() != TransactionEvent.Type.RELOADED) {
+            // Row numbers past the edit have shifted, so the anchors no longer hold; and
+            // without its slot the row cannot be placed in the display order
+            if (queued == null) {
+                requestQuery(filter, sortByAmount, sortByDate);
+            }
+            return;
+        }
+        int slot = event.getSlot();
+        switch (event.getType()) {
+            case ADDED:
+                if (filter.matches(transaction)) {
+                    insertRow(transaction.getId(), keyOf(transaction), slot);
+                }
+                break;
+            case UPDATED: {
+                Transaction previous = event.getPrevious();
+                int row = previous != null && filter.matches(previous) ? rowOf(keyOf(previous), slot) : -1;
+                boolean matches = filter.matches(transaction);
+                long key = keyOf(transaction);
+                if (row >= 0 && matches && isInOrder(row, key)) {
+                    keys[row] = key;
+                    cachedRow = -1;
+                    fireTableRowsUpdated(row, row);
+                    break;
+                }
+                if (row >= 0) {
+                    deleteRow(row);
+                }
+                if (matches) {
+                    insertRow(transaction.getId(), key, slot);
+                }
+                break;
+            }
+            case REMOVED: {
+                int row = filter.matches(transaction) ? rowOf(keyOf(transaction), slot) : -1;
+                if (row >= 0) {
+                    deleteRow(row);
+                }
+                break;
+            }
+            default:
+                // The rows refer to the replaced store; show nothing until the new one is queried
+                setRows(new Rows(new int[0], new long[0], new int[0], Math.max(appliedVersion, event.getVersion())));
+                requestQuery(filter, sortByAmount, sortByDate);
+                break;
+        }
+    }
+
+    /**
+     * Helper method to query and sort the rows again and refresh the whole table.
+     */
+    private void reload() {
+        setRows(manager.readLocked(() -> query(filter, sortByAmount, sortByDate)));
+    }
+
+    /**
+     * Helper method to count the rows of a query, then fetch either all of them with their keys and
+     * slots or their first window. Must be called under the read lock of the ledger.
+     */
+    private Rows query(TransactionFilter filter, boolean sortByAmount, boolean sortByDate) {
+        int count = manager.countTransactions(filter);
+        long version = manager.getVersion();
+        if (count <= pagedRows) {
+            TransactionStore store = manager.getStore();
+            int[] ids = manager.queryIds(filter, sortByAmount, sortByDate);
+            long[] keys = new long[ids.length];
+            int[] slots = new int[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                slots[i] = store.slotOf(ids[i]);
+                keys[i] = TransactionsManager.displayKey(store, slots[i], sortByAmount, sortByDate && !sortByAmount);
+            }
+            return new Rows(ids, keys, slots, version);
+        }
+        return new Rows(count, manager.queryPage(filter, sortByAmount, sortByDate, null, 0, WINDOW_ROWS), version);
+    }
+
+    /**
+     * Helper method to replace every row and refresh the whole table.
+     */
+    private void setRows(Rows rows) {
+        windows.cancel();
+        pendingStart = -1;
+        appliedVersion = rows.version;
+        early.headMap(rows.version, true).clear();
+        paged = rows.first != null;
+        anchors.clear();
+        if (paged) {
+            ids = rows.first.getIds();
+            anchors.put(0, null);
+            if (rows.first.hasMore()) {
+                anchors.put(ids.length, rows.first.getNext());
+            }
+            keys = new long[0];
+            slots = new int[0];
+        } else {
+            ids = rows.ids;
+            keys = rows.keys;
+            slots = rows.slots;
+        }
+        windowStart = 0;
+        windowEnd = paged ? WINDOW_ROWS : 0;
+        rowCount = rows.count;
+        cachedRow = -1;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Helper method to find a row in the IDs held by the model. In paged mode, returns
+     * {@link #LOADING} and requests the window of the row unless it is already on its way, or
+     * {@link #REMOVED} if the ledger no longer holds that many rows, until an edit is queried again.
+     */
+    private int windowIndex(int row) {
+        if (!paged) {
+            return row;
+        }
+        if (row >= windowStart && row < windowEnd) {
+            return row < windowStart + ids.length ? row - windowStart : REMOVED;
+        }
+        if (pendingStart < 0 || row < pendingStart || row >= pendingStart + WINDOW_ROWS) {
+            requestWindow(Math.max(0, row - PREFETCH_ROWS));
+        }
+        return LOADING;
+    }
+
+    /**
+     * Helper method to fetch a window of IDs on a worker thread, from the nearest cursor before it,
+     * and refresh its rows once it arrives. A newer window supersedes one still in flight.
+     */
+    private void requestWindow(final int start) {
+        final Map.Entry<Integer, TransactionPage.Cursor> anchor = anchors.floorEntry(start);
+        final TransactionFilter filter = this.filter;
+        final boolean sortByAmount = this.sortByAmount;
+        final boolean sortByDate = this.sortByDate;
+        pendingStart = start;
+        windows.submit(new LedgerTask<TransactionPage>() {
+            @Override
+            protected TransactionPage compute() {
+                return manager.queryPage(filter, sortByAmount, sortByDate,
+                    anchor.getValue(), start - anchor.getKey(), WINDOW_ROWS);
+            }
+
+            @Override
+            protected void succeeded(TransactionPage page) {
+                pendingStart = -1;
+                ids = page.getIds();
+                windowStart = start;
+                windowEnd = start + WINDOW_ROWS;
+                if (page.hasMore()) {
+                    anchors.put(start + ids.length, page.getNext());
+                }
+                cachedRow = -1;
+                int last = Math.min(windowEnd, rowCount) - 1;
+                if (start <= last) {
+                    fireTableRowsUpdated(start, last);
+                }
+            }
+
+            @Override
+            protected void failed(Throwable cause) {
+                pendingStart = -1;
+                super.failed(cause);
+            }
+        });
+    }
+
+    /**
+     * Helper method to insert the row of a stored transaction at its place in the display order.
+     */
+    private void insertRow(int id, long key, int slot) {
+        int row = search(key, slot);
+        if (rowCount == ids.length) {
+            int capacity = Math.max(16, rowCount * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+            slots = Arrays.copyOf(slots, capacity);
+        }
+        System.arraycopy(ids, row, ids, row + 1, rowCount - row);
+        System.arraycopy(keys, row, keys, row + 1, rowCount - row);
+        System.arraycopy(slots, row, slots, row + 1, rowCount - row);
+        ids[row] = id;
+        keys[row] = key;
+        slots[row] = slot;
+        rowCount++;
+        cachedRow = -1;
+        fireTableRowsInserted(row, row);
+    }
+
+    /**
+     * Helper method to remove a row.
+     */
+    private void deleteRow(int row) {
+        System.arraycopy(ids, row + 1, ids, row, rowCount - row - 1);
+        System.arraycopy(keys, row + 1, keys, row, rowCount - row - 1);
+        System.arraycopy(slots, row + 1, slots, row, rowCount - row - 1);
+        rowCount--;
+        cachedRow = -1;
+        fireTableRowsDeleted(row, row);
+    }
+
+    /**
+     * Helper method to find the row showing a slot under the key it was shown with.
+     */
+    private int rowOf(long key, int slot) {
+        int row = search(key, slot);
+        return row < rowCount && slots[row] == slot ? row : -1;
+    }
+
+    /**
+     * Helper method to find the first row not before a key and slot in the display order.
+     */
+    private int search(long key, int slot) {
+        int low = 0;
+        int high = rowCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] < key || (keys[middle] == key && slots[middle] < slot)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Helper method to check whether an updated row with a new key is still between its neighbours.
+     */
+    private boolean isInOrder(int row, long key) {
+        int slot = slots[row];
+        return (row == 0 || keys[row - 1] < key || (keys[row - 1] == key && slots[row - 1] < slot))
+            && (row == rowCount - 1 || key < keys[row + 1] || (key == keys[row + 1] && slot < slots[row + 1]));
+    }
+
+    /**
+     * Helper method to compute the display key of a transaction in the current order.
+     */
+    private long keyOf(Transaction transaction) {
+        return TransactionsManager.displayKey(transaction, sortByAmount, sortByDate && !sortByAmount);
+    }
+
+    /**
+     * Helper method to reject rows outside the table.
+     */
+    private void checkRow(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", Rows: " + rowCount);
+        }
+    }
+
+    /**
+     * The rows of a query at one version of the ledger: either all of their IDs with their keys
+     * and slots, or their count and first page.
+     */
+    private static final class Rows {
+        private final int count;
+        private final int[] ids;
+        private final long[] keys;
+        private final int[] slots;
+        private final TransactionPage first;
+        private final long version;
+
+        private Rows(int[] ids, long[] keys, int[] slots, long version) {
+            this.count = ids.length;
+            this.ids = ids;
+            this.keys = keys;
+            this.slots = slots;
+            this.first = null;
+            this.version = version;
+        }
+
+        private Rows(int count, TransactionPage first, long version) {
+            this.count = count;
+            this.ids = null;
+            this.keys = null;
+            this.slots = null;
+            this.first = first;
+            this.version = version;
+        }
+    }
+}
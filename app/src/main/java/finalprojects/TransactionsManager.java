@@ -1,29 +1,88 @@
 package finalprojects;
 
 import java.util.*;
-import java.util.stream.Collectors;
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.nio.file.*;
-import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
 
 /*
  * TransactionsManager handles all executives on Transaction
+ *
+ * The manager may be used from any thread. Edits serialize on the write lock of a StampedLock.
+ * Lookups by ID read optimistically, and retry under the read lock only if an edit ran meanwhile.
+ * Queries and background tasks read through readLocked, so an edit never runs while they read,
+ * and snapshot returns an immutable copy. Listeners are notified on the thread that made the edit,
+ * with the version the edit produced so they can tell the order of concurrent edits.
+ * getTransactions, getStore, getRollup and getDailyTotals expose live structures, which are only
+ * safe to read inside readLocked, or directly while no other thread edits the ledger.
  */
 public class TransactionsManager {
-    protected List<Transaction> transactions;
+    protected volatile TransactionStore transactions;
     public MemberManager memberManager;
+    private volatile TransactionJournal journal;
+    private volatile LedgerPersister persister;
+    private final Object persistLock = new Object();
+    private List<String> heldRecords;
+    private final LedgerStorage storage;
+    private final Set<YearMonth> dirtyMonths = ConcurrentHashMap.newKeySet();
+    private volatile boolean rewriteAll;
+    private final List<TransactionListener> listeners = new CopyOnWriteArrayList<>();
+    private final StampedLock lock = new StampedLock();
+    private final ThreadLocal<Boolean> reading = new ThreadLocal<>();
+    private volatile long version;
+    private final QueryCache<QueryKey, int[]> queryCache = new QueryCache<>(QUERY_CACHE_ENTRIES, QUERY_CACHE_IDS, ids -> ids.length);
+    private final QueryCache<List<YearMonth>, Report> reportCache = new QueryCache<>(REPORT_CACHE_ENTRIES);
 
     /**
-     * Constructor that initializes the TransactionsManager with a MemberManager.
+     * Number of display queries whose row IDs are kept by {@link #queryIds}.
+     */
+    static final int QUERY_CACHE_ENTRIES = 16;
+
+    /**
+     * Total number of row IDs kept by {@link #queryIds} across all cached queries.
+     */
+    static final long QUERY_CACHE_IDS = 1L << 22;
+
+    /**
+     * Number of report windows kept by {@link #report}.
+     */
+    static final int REPORT_CACHE_ENTRIES = 32;
+
+    /**
+     * Number of skipped rows above which {@link #queryPage} seeks the first row of the page by key
+     * instead of keeping every skipped row.
+     */
+    static final int SEEK_SKIP = 4096;
+
+    /**
+     * Minimum number of journal records before the journal is folded back into the CSV snapshot.
+     */
+    static final int MIN_COMPACTION_RECORDS = 500;
+
+    /**
+     * Constructor that initializes the TransactionsManager with a MemberManager, storing snapshots
+     * in the layout selected by the {@value LedgerStorage#PROPERTY} system property.
      * @param memberManager the MemberManager to associate with this TransactionsManager.
      */
     public TransactionsManager(MemberManager memberManager) { 
-        transactions = new ArrayList<>();
+        this(memberManager, LedgerStorage.fromSystemProperty());
+    }
+
+    /**
+     * Constructor that initializes the TransactionsManager with a MemberManager and a snapshot layout.
+     * @param memberManager the MemberManager to associate with this TransactionsManager.
+     * @param storage the layout of the user's snapshot on disk.
+     */
+    public TransactionsManager(MemberManager memberManager, LedgerStorage storage) {
+        transactions = new TransactionStore(memberManager);
         this.memberManager=memberManager;
+        this.storage = storage;
     }
 
     /**
@@ -34,26 +93,55 @@ public class TransactionsManager {
      * @param member the member associated with the transaction.
      */
     public void addTransaction(TransactionCategory category, double amount, LocalDate date, Member member) {
-        int id = generateNewId();
         Transaction transaction=TransactionFactory.createTransaction(category, amount, date, member);
-        transaction.setId(id);
-        transactions.add(transaction);
+        YearMonth month = LedgerStorage.monthOf(date);
+        TransactionEvent event;
+        long stamp = lock.writeLock();
+        try {
+            // The ID is allocated under the lock so concurrent additions never share one
+            transaction.setId(transactions.getMaxId() + 1);
+            transactions.add(transaction);
+            dirtyMonths.add(month);
+            record(TransactionJournal.addRecord(transaction));
+            version++;
+            int slot = transactions.slotOf(transaction.getId());
+            event = new TransactionEvent(TransactionEvent.Type.ADDED, transactions.getSlot(slot), null, slot, version);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        fireTransactionsChanged(event);
     } 
     
     /**
      * Retrieves all stored transactions.
-     * @return a list of all transactions.
+     * @return a list of all transactions, backed by the live store.
      */
     public List<Transaction> getTransactions() {
        return transactions;
     }
 
+    /**
+     * Copies all stored transactions while no edit can run, for readers on other threads.
+     * @return an unmodifiable list of the transactions, unaffected by later edits.
+     */
+    public List<Transaction> snapshot() {
+        return readLocked(() -> Collections.unmodifiableList(new ArrayList<>(transactions)));
+    }
+
+    /**
+     * Returns the column store holding the transactions, for views that read rows by slot.
+     * @return the store.
+     */
+    public TransactionStore getStore() {
+        return transactions;
+    }
+
     /**
      * Removes a specific transaction from the list.
      * @param transaction the transaction to remove.
      */                
     public void removeTransaction(Transaction transaction) {
-        transactions.remove(transaction);
+        removeTransaction(transaction.getId());
     }
 
     /**
@@ -61,8 +149,24 @@ public class TransactionsManager {
      * @param id the transaction to remove.
      */
     public void removeTransaction(int id) {
-        Transaction transaction=findTransactionbyID(id);
-        transactions.remove(transaction);
+        TransactionEvent event;
+        long stamp = lock.writeLock();
+        try {
+            // The event carries the stored transaction, found before its slot is cleared
+            int slot = transactions.slotOf(id);
+            if (slot == IntIntHashMap.MISSING) {
+                return;
+            }
+            Transaction transaction = transactions.getSlot(slot);
+            transactions.remove(transaction);
+            dirtyMonths.add(LedgerStorage.monthOf(transaction.getDate()));
+            record(TransactionJournal.deleteRecord(id));
+            version++;
+            event = new TransactionEvent(TransactionEvent.Type.REMOVED, transaction, null, slot, version);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        fireTransactionsChanged(event);
     }
 
     /**
@@ -74,154 +178,875 @@ public class TransactionsManager {
      * @param member the new member associated with the transaction, or null to keep the original.
      */
     public void setTransaction(int id, TransactionCategory category, Double amount, LocalDate date, Member member) {
-        Transaction transaction = findTransactionbyID(id);
-        if (transaction != null) {
+        TransactionEvent event;
+        long stamp = lock.writeLock();
+        try {
+            // Read and write back under one lock, so concurrent updates of other fields are not lost
+            int slot = transactions.slotOf(id);
+            if (slot == IntIntHashMap.MISSING) {
+                return;
+            }
+            Transaction previous = transactions.getSlot(slot);
+            Transaction transaction = transactions.getSlot(slot);
+            YearMonth oldMonth = LedgerStorage.monthOf(transaction.getDate());
             if (category != null) transaction.setCategory(category);
             if (amount != null) transaction.setAmount(amount);
             if (date != null) transaction.setDate(date);
             if (member != null) transaction.setMember(member);
+            transactions.update(transaction);
+            dirtyMonths.add(oldMonth);
+            dirtyMonths.add(LedgerStorage.monthOf(transaction.getDate()));
+            record(TransactionJournal.updateRecord(transaction));
+            version++;
+            event = new TransactionEvent(TransactionEvent.Type.UPDATED, transactions.getSlot(slot), previous, slot, version);
+        } finally {
+            lock.unlockWrite(stamp);
         }
+        fireTransactionsChanged(event);
     }
 
     /**
-     * Finds a transaction by its ID.
+     * Finds a transaction by its ID in constant time.
      * @param id the ID of the transaction to find.
      * @return the transaction with the specified ID, or null if not found.
      */
-    public Transaction findTransactionbyID(int id){ 
-        for (Transaction transaction : transactions) {
-            if (transaction.getId() == id) {
-                return transaction;
-            }
-        }
-        return null;
+    public Transaction findTransactionbyID(final int id){ 
+        return optimisticRead(() -> transactions.findById(id));
     }
 
     /**
-     * Generates a new unique ID for a transaction.
+     * Generates a new unique ID for a transaction. IDs are allocated in increasing order
+     * and are not reused after the transaction holding the highest ID is removed.
+     * The ID is not reserved: a concurrent addition may take it first.
      * @return a new unique ID.
      */
     public int generateNewId() {
-        int maxId = getCurrentMaxID();
-        int newId = maxId + 1;
-        return newId;
+        return getCurrentMaxID() + 1;
     }
 
     /**.
-     * Gets current largest ID
+     * Gets the largest ID stored since the ledger was loaded, restored from the file at load time.
      * 
      * @return current largest ID.
      */
     public int getCurrentMaxID(){ 
-        int maxId = 0;
-        for (Transaction transaction : transactions) {
-            if (transaction.getId() > maxId) {
-                maxId = transaction.getId();
-            }
-        }
-        return maxId;
+        return optimisticRead(() -> transactions.getMaxId());
     }
 
     /**
      * Loads all transactions from a CSV file associated with the current user.
-     * Clears existing transactions before loading new ones.
+     * Clears existing transactions before loading new ones, then replays the user's journal
+     * on top of the snapshot. Later edits are appended to that journal.
      */
     public void loadTransactionsFromCSV() {
-        String username=UserData.getInstance().getUsername();
-        transactions.clear();
-        Path csvPath;
+        loadTransactionsFromCSV(UserData.getInstance().getUsername());
+    }
+
+    /**
+     * Loads all transactions from the CSV file of the given user and replays that user's journal.
+     * Clears existing transactions before loading new ones and notifies listeners afterwards.
+     * @param username the username associated with the CSV file.
+     */
+    public void loadTransactionsFromCSV(String username) {
+        LoadedLedger ledger;
         try {
-            csvPath= LoginManager.login(username);
-            try (BufferedReader br = Files.newBufferedReader(csvPath)) {
-                String line;
-                while ((line = br.readLine()) != null) {
-                    Transaction transaction = Transaction.readFromCsv(line, memberManager);  
-                    if (transaction != null) { 
-                        transactions.add(transaction);
-                    }
-                }
-            }    
+            ledger = readLedger(username, null);
         } catch (IOException e) {
             System.err.println("An error occurred while reading transactions from the CSVFile: " + e.getMessage()+ ",Please check the file path and permissions again");
             e.printStackTrace();
+            ledger = new LoadedLedger(new TransactionStore(memberManager), journal, new HashSet<>());
+        }
+        install(ledger);
+    }
+
+    /**
+     * Reads the CSV file and journal of a user into a new store without touching the current ledger,
+     * so it can run on a background thread while the current ledger stays in use.
+     * @param username the username associated with the CSV file.
+     * @param progress receives the percentage of the CSV file read so far, or null.
+     * @return the loaded ledger, to be passed to {@link #install(LoadedLedger)}.
+     * @throws IOException if the CSV file or the journal cannot be read.
+     */
+    public LoadedLedger readLedger(String username, IntConsumer progress) throws IOException {
+        TransactionStore store = new TransactionStore(memberManager);
+        storage.readInto(username, store, progress);
+        TransactionJournal userJournal = new TransactionJournal(LoginManager.journalPath(username));
+        Set<YearMonth> touchedMonths = new HashSet<>();
+        userJournal.replay(store, touchedMonths);
+        return new LoadedLedger(store, userJournal, touchedMonths);
+    }
+
+    /**
+     * Replaces the transactions and journal with a loaded ledger and notifies listeners.
+     * @param ledger the ledger returned by {@link #readLedger(String, IntConsumer)}.
+     */
+    public void install(LoadedLedger ledger) {
+        if (persister != null) {
+            flush();
+        }
+        TransactionEvent event;
+        long stamp = lock.writeLock();
+        try {
+            transactions = ledger.transactions;
+            journal = ledger.journal;
+            dirtyMonths.clear();
+            dirtyMonths.addAll(ledger.touchedMonths);
+            rewriteAll = false;
+            version++;
+            event = new TransactionEvent(TransactionEvent.Type.RELOADED, null, null, -1, version);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        fireTransactionsChanged(event);
+    }
+
+    /**
+     * Runs a read-only computation while no edit can run, for use from background threads.
+     * The computation may itself read through this method, which then runs it directly.
+     * @param reader the computation, which must not edit the ledger.
+     * @param <T> the result type.
+     * @return the result of the computation.
+     */
+    public <T> T readLocked(Supplier<T> reader) {
+        if (reading.get() != null) {
+            // StampedLock is not reentrant, and a nested read would wait behind a queued edit
+            return reader.get();
+        }
+        long stamp = lock.readLock();
+        reading.set(Boolean.TRUE);
+        try {
+            return reader.get();
+        } finally {
+            reading.remove();
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Helper method to run a short read without locking, and again under the read lock if an
+     * edit ran meanwhile. A failure seen while an edit ran is discarded in the same way, since
+     * the reader may have met a store half way through the edit.
+     */
+    private <T> T optimisticRead(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp)) {
+                    throw e;
+                }
+            }
         }
+        return readLocked(reader);
+    }
+
+    /**
+     * Returns a number that changes with every edit and reload, so a background result computed
+     * at one version can be recognised as stale.
+     * @return the current version.
+     */
+    public long getVersion() {
+        return version;
     }
-  
+
     /**
-     * Writes all current transactions into a CSV file associated with the specified username.
+     * Writes all current transactions into the snapshot associated with the specified username
+     * and discards that user's journal, since the snapshot now contains every edit.
      * @param username the username associated with the CSV file.
      */
     public void updateCSV(String username) {
-        Path csvPath;
+        writeSnapshot(username, true);
+    }
+
+    /**
+     * Folds the journal back into the CSV snapshot once it has grown past
+     * {@link #MIN_COMPACTION_RECORDS} records and the size of the ledger, so a full rewrite
+     * happens at most once per that many edits and each edit stays constant cost on average.
+     * Without a journal (nothing loaded yet) the snapshot is written directly.
+     * With write-behind enabled the persister thread decides this when it writes the pending edits.
+     * @param username the username associated with the CSV file.
+     */
+    public void compactIfNeeded(String username) {
+        if (persister != null) {
+            return;
+        }
+        if (journal == null) {
+            updateCSV(username);
+            return;
+        }
+        if (journal.getRecordCount() >= storage.compactionThreshold(transactions.size())) {
+            writeSnapshot(username, false);
+        }
+    }
+
+    /**
+     * Helper method to write the snapshot of a user and discard the journal. A partial snapshot
+     * only rewrites the months edited since the last one, where the storage supports that.
+     * The snapshot is taken under the read lock, and the records of edits made while it is written
+     * are held back and appended to the emptied journal, so discarding the journal loses none of them.
+     */
+    private void writeSnapshot(final String username, final boolean full) {
+        synchronized (persistLock) {
+            try {
+                LedgerPersister current = persister;
+                if (current != null && current.getUsername().equals(username)) {
+                    current.flush(true);
+                    return;
+                }
+                final TransactionJournal[] target = new TransactionJournal[1];
+                LedgerStorage.Snapshot snapshot = readLocked(() -> {
+                    target[0] = journal;
+                    heldRecords = journal != null ? new ArrayList<>() : null;
+                    return takeSnapshot(username, full);
+                });
+                boolean written = false;
+                try {
+                    snapshot.write();
+                    written = true;
+                } catch (IOException e) {
+                    snapshotFailed();
+                    throw e;
+                } finally {
+                    releaseRecords(username, target[0], written);
+                }
+                reclaimSlots();
+            } catch (IOException e) {
+                System.err.println("An error occurred while updating the CSV file: " + e.getMessage());
+                e.printStackTrace();
+
+            }
+        }
+    }
+
+    /**
+     * Helper method to stop holding back journal records, optionally discarding the journal they
+     * were held from first, and append them to the current journal in edit order.
+     */
+    private void releaseRecords(String username, TransactionJournal cleared, boolean clear) throws IOException {
+        long stamp = lock.writeLock();
         try {
-            csvPath= LoginManager.login(username);
-            try (BufferedWriter bw = Files.newBufferedWriter(csvPath)) {
-                for (Transaction transaction : transactions) {
-                    bw.write(transaction.toCSVLine()+"\n");
+            List<String> records = heldRecords;
+            heldRecords = null;
+            try {
+                if (clear && cleared != null) {
+                    cleared.clear();
+                } else if (clear) {
+                    Files.deleteIfExists(LoginManager.journalPath(username));
+                }
+            } finally {
+                if (records != null && journal != null) {
+                    journal.appendAll(records);
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Hands edits to a background persister instead of appending each one to the journal as it is made.
+     * Edits made within the delay are written together in one forced append, and the snapshot is
+     * replaced atomically when the journal is folded into it.
+     * @param username the user whose CSV file and journal are written.
+     * @param maxDelayMillis the longest time an edit may wait before it is written.
+     */
+    public void enableWriteBehind(String username, long maxDelayMillis) {
+        synchronized (persistLock) {
+            disableWriteBehind();
+            LedgerPersister created = new LedgerPersister(this, username, maxDelayMillis);
+            long stamp = lock.writeLock();
+            try {
+                persister = created;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * Writes the pending edits and goes back to appending every edit to the journal as it is made.
+     * The persister is detached under the write lock, and edits made while it writes its last
+     * records are appended after them, so the journal keeps the order of the edits.
+     */
+    public void disableWriteBehind() {
+        synchronized (persistLock) {
+            LedgerPersister closing;
+            long stamp = lock.writeLock();
+            try {
+                closing = persister;
+                if (closing == null) {
+                    return;
                 }
-            }    
+                persister = null;
+                heldRecords = journal != null ? new ArrayList<>() : null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            try {
+                try {
+                    closing.close();
+                } finally {
+                    releaseRecords(closing.getUsername(), null, false);
+                }
+            } catch (IOException e) {
+                System.err.println("An error occurred while saving pending transactions: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Writes the edits still waiting in the write-behind persister, if any, before returning.
+     */
+    public void flush() {
+        if (persister == null) {
+            return;
+        }
+        try {
+            persister.flush();
         } catch (IOException e) {
-            System.err.println("An error occurred while updating the CSV file: " + e.getMessage());
+            System.err.println("An error occurred while saving pending transactions: " + e.getMessage());
             e.printStackTrace();
-            
         }
     }
+
+    /**
+     * Returns the write-behind persister, or null when every edit is appended as it is made.
+     * @return the persister.
+     */
+    public LedgerPersister getPersister() {
+        return persister;
+    }
+
+    /**
+     * Returns the journal edits are appended to, or null when no ledger has been loaded.
+     * @return the current journal.
+     */
+    public TransactionJournal getJournal() {
+        return journal;
+    }
     
     /**
-     * Enhanced displayTransactions method to filter and sort transaction records based on class type, date, category, and member.
+     * Returns the monthly totals by category, member and type, maintained incrementally on every edit.
+     * The rollup is live, so other threads must read it inside {@link #readLocked}, or use {@link #report}.
+     * @return the rollup of the ledger.
+     */
+    public RollupCube getRollup() {
+        return transactions.getRollup();
+    }
+
+    /**
+     * Aggregates a window of months by scanning every stored transaction instead of reading the rollup.
+     * @param from the first month.
+     * @param to the last month, inclusive.
+     * @param parallel true to split the scan across the cores of a dedicated fork/join pool.
+     * @return the report, identical to the one built from the rollup.
+     */
+    public Report scanReport(YearMonth from, YearMonth to, boolean parallel) {
+        return readLocked(() -> ColumnAggregator.report(transactions, from, to, parallel));
+    }
+
+    /**
+     * Returns the report of a window of months from the rollup. Reports are cached per ledger
+     * version, so switching back to a window seen since the last edit costs no aggregation.
+     * The returned report is shared and must not be modified.
+     * @param from the first month.
+     * @param to the last month, inclusive.
+     * @return the report.
+     * @throws IllegalArgumentException if the first month is after the last.
+     */
+    public Report report(final YearMonth from, final YearMonth to) {
+        return readLocked(() -> reportCache.get(Arrays.asList(from, to), version, () -> transactions.getRollup().report(from, to)));
+    }
+
+    /**
+     * Returns the IDs of the transactions matching a filter in display order: by ascending amount,
+     * else by descending date, else in insertion order, with ties in insertion order. Results are
+     * cached per ledger version under the filter and the effective sort, so repeating a query
+     * since the last edit only copies the cached IDs.
+     * @param filter the transactions to select.
+     * @param sortByAmount true to order by ascending amount.
+     * @param sortByDate true to order by descending date, unless ordering by amount.
+     * @return a new array of transaction IDs, which the caller may modify.
+     */
+    public int[] queryIds(final TransactionFilter filter, final boolean sortByAmount, final boolean sortByDate) {
+        final QueryKey key = new QueryKey(filter, sortByAmount, sortByDate && !sortByAmount);
+        int[] ids = readLocked(() -> queryCache.get(key, version, () -> sortedIds(key)));
+        return ids.clone();
+    }
+
+    /**
+     * Returns the IDs of the matching transactions with the largest amounts, without sorting the
+     * whole selection.
+     * @param filter the transactions to select.
+     * @param limit the largest number of IDs returned.
+     * @return at most {@code limit} transaction IDs, largest amount first, equal amounts in insertion order.
+     * @throws IllegalArgumentException if the limit is negative.
+     */
+    public int[] topIdsByAmount(final TransactionFilter filter, final int limit) {
+        return readLocked(() -> idsOf(transactions, SlotSorter.largestByAmount(transactions, transactions.querySlots(filter), limit)));
+    }
+
+    /**
+     * Returns the IDs of the most recent matching transactions, without sorting the whole selection.
+     * @param filter the transactions to select.
+     * @param limit the largest number of IDs returned.
+     * @return at most {@code limit} transaction IDs, latest date first, equal dates in insertion order.
+     * @throws IllegalArgumentException if the limit is negative.
+     */
+    public int[] mostRecentIds(final TransactionFilter filter, final int limit) {
+        return readLocked(() -> idsOf(transactions, SlotSorter.mostRecent(transactions, transactions.querySlots(filter), limit)));
+    }
+
+    /**
+     * Returns one page of a display query in the order of {@link #queryIds}, without sorting or
+     * copying the whole selection: the page is picked in a single pass over the matching slots that
+     * keeps only {@code skip + limit + 1} candidates. Beyond {@link #SEEK_SKIP} skipped rows, the
+     * first row of the page is sought by key in a few more passes instead, so memory stays bounded
+     * by the limit wherever the page is. A cursor from a previous page of the same order continues
+     * right after that page, and stays valid across edits of the ledger.
+     * @param filter the transactions to select.
+     * @param sortByAmount true to order by ascending amount.
+     * @param sortByDate true to order by descending date, unless ordering by amount.
+     * @param after the cursor to continue from, or null to start at the first row.
+     * @param skip the number of rows to skip after the cursor.
+     * @param limit the largest number of rows returned.
+     * @return the page.
+     * @throws IllegalArgumentException if skip or limit is negative, or if the cursor belongs to another order.
+     */
+    public TransactionPage queryPage(final TransactionFilter filter, final boolean sortByAmount, boolean sortByDate,
+                                     final TransactionPage.Cursor after, final int skip, final int limit) {
+        final boolean byDate = sortByDate && !sortByAmount;
+        if (skip < 0 || limit < 0) {
+            throw new IllegalArgumentException("Skip and limit must not be negative.");
+        }
+        if (after != null && !after.belongsTo(sortByAmount, byDate)) {
+            throw new IllegalArgumentException("Cursor belongs to another sort order.");
+        }
+        return readLocked(() -> {
+            final TransactionStore store = transactions;
+            TransactionPage.Cursor from = after != null ? after : TransactionPage.Cursor.start(sortByAmount, byDate);
+            int rest = skip;
+            if (skip > SEEK_SKIP) {
+                from = seek(store, filter, from, skip, sortByAmount, byDate);
+                if (from == null) {
+                    return new TransactionPage(new int[0], null);
+                }
+                rest = 0;
+            }
+            final TransactionPage.Cursor start = from;
+            final SlotSorter.Selector selector = new SlotSorter.Selector((int) Math.min(store.size(), (long) rest + limit + 1));
+            store.forEachSlot(filter, slot -> {
+                long key = displayKey(store, slot, sortByAmount, byDate);
+                if (start.isBefore(key, slot)) {
+                    selector.offer(key, slot);
+                }
+            });
+            int[] slots = selector.result();
+            int first = Math.min(rest, slots.length);
+            int to = (int) Math.min(slots.length, (long) first + limit);
+            int[] ids = idsOf(store, Arrays.copyOfRange(slots, first, to));
+            TransactionPage.Cursor next = null;
+            if (to < slots.length) {
+                next = to == 0 ? start
+                    : new TransactionPage.Cursor(sortByAmount, byDate, displayKey(store, slots[to - 1], sortByAmount, byDate), slots[to - 1]);
+            }
+            return new TransactionPage(ids, next);
+        });
+    }
+
+    /**
+     * Helper method to find the cursor placed right before the row {@code skip} rows after a cursor,
+     * without keeping the skipped rows. The rows are ordered by their key, then slot, so a radix
+     * select over the 64 key bits and then the 32 slot bits narrows the last skipped row down one
+     * 16-bit digit per pass over the matching slots, until its bucket is small enough to select
+     * directly. In insertion order the key is constant, so the row is sought by its rank among the
+     * slots instead. Must be called under the read lock.
+     * @return the cursor, or null if no more than {@code skip} rows follow the given cursor.
+     */
+    private static TransactionPage.Cursor seek(final TransactionStore store, final TransactionFilter filter,
+                                               final TransactionPage.Cursor after, int skip,
+                                               final boolean sortByAmount, final boolean sortByDate) {
+        if (!sortByAmount && !sortByDate) {
+            int slot = store.seekSlot(filter, after.getSlot(), skip - 1);
+            return slot < 0 ? null : new TransactionPage.Cursor(false, false, 0, slot);
+        }
+        final int[] histogram = new int[1 << 16];
+        int rank = skip - 1;
+        long keyBits = 0;
+        int slotBits = 0;
+        for (int bits = 0; bits < 96; bits += 16) {
+            final int known = bits;
+            final long knownKey = keyBits;
+            final int knownSlot = slotBits;
+            Arrays.fill(histogram, 0);
+            store.forEachSlot(filter, slot -> {
+                long key = displayKey(store, slot, sortByAmount, sortByDate);
+                if (after.isBefore(key, slot) && hasPrefix(key ^ Long.MIN_VALUE, slot, known, knownKey, knownSlot)) {
+                    histogram[digit(key ^ Long.MIN_VALUE, slot, known)]++;
+                }
+            });
+            int digit = 0;
+            while (digit < histogram.length && rank >= histogram[digit]) {
+                rank -= histogram[digit];
+                digit++;
+            }
+            if (digit == histogram.length) {
+                return null;
+            }
+            if (bits < 64) {
+                keyBits = (keyBits << 16) | digit;
+            } else {
+                slotBits = (slotBits << 16) | digit;
+            }
+            if (histogram[digit] <= SEEK_SKIP) {
+                final int prefix = bits + 16;
+                final long prefixKey = keyBits;
+                final int prefixSlot = slotBits;
+                final SlotSorter.Selector selector = new SlotSorter.Selector(rank + 1);
+                store.forEachSlot(filter, slot -> {
+                    long key = displayKey(store, slot, sortByAmount, sortByDate);
+                    if (after.isBefore(key, slot) && hasPrefix(key ^ Long.MIN_VALUE, slot, prefix, prefixKey, prefixSlot)) {
+                        selector.offer(key, slot);
+                    }
+                });
+                int slot = selector.result()[rank];
+                return new TransactionPage.Cursor(sortByAmount, sortByDate, displayKey(store, slot, sortByAmount, sortByDate), slot);
+            }
+        }
+        return new TransactionPage.Cursor(sortByAmount, sortByDate, keyBits ^ Long.MIN_VALUE, slotBits);
+    }
+
+    /**
+     * Helper method to test whether the leading bits of an unsigned key followed by a slot are known ones.
+     */
+    private static boolean hasPrefix(long unsignedKey, int slot, int bits, long keyBits, int slotBits) {
+        if (bits == 0) {
+            return true;
+        }
+        if (bits <= 64) {
+            return unsignedKey >>> (64 - bits) == keyBits;
+        }
+        return unsignedKey == keyBits && slot >>> (96 - bits) == slotBits;
+    }
+
+    /**
+     * Helper method to read the 16-bit digit following the leading bits of an unsigned key followed by a slot.
+     */
+    private static int digit(long unsignedKey, int slot, int bits) {
+        if (bits < 64) {
+            return (int) (unsignedKey >>> (48 - bits)) & 0xFFFF;
+        }
+        return (slot >>> (80 - bits)) & 0xFFFF;
+    }
+
+    /**
+     * Counts the transactions matching a filter without collecting them.
+     * @param filter the transactions to count.
+     * @return the number of matching transactions.
+     */
+    public int countTransactions(final TransactionFilter filter) {
+        return readLocked(() -> transactions.count(filter));
+    }
+
+    /**
+     * Returns the cache of {@link #queryIds}, for its hit and miss counters.
+     * @return the query cache.
+     */
+    public QueryCache<?, ?> getQueryCache() {
+        return queryCache;
+    }
+
+    /**
+     * Returns the cache of {@link #report}, for its hit and miss counters.
+     * @return the report cache.
+     */
+    public QueryCache<?, ?> getReportCache() {
+        return reportCache;
+    }
+
+    /**
+     * Orders two live slots of a store for display like {@link #queryIds}.
+     * @param store the store.
+     * @param slot1 the first slot.
+     * @param slot2 the second slot.
+     * @param sortByAmount true to order by ascending amount.
+     * @param sortByDate true to order by descending date, unless ordering by amount.
+     * @return a negative number, zero or a positive number as the first slot comes before, with or after the second.
+     */
+    static int compareSlots(TransactionStore store, int slot1, int slot2, boolean sortByAmount, boolean sortByDate) {
+        int result = 0;
+        if (sortByAmount) {
+            result = Double.compare(store.amountAt(slot1), store.amountAt(slot2));
+        } else if (sortByDate) {
+            result = Integer.compare(store.dayAt(slot2), store.dayAt(slot1));
+        }
+        return result != 0 ? result : Integer.compare(slot1, slot2);
+    }
+
+    /**
+     * Computes the key of a slot in the display order: ascending on the amount bits, descending on
+     * the day, or constant so that the slot alone gives insertion order.
+     * @param store the store.
+     * @param slot a live slot of the store.
+     * @param sortByAmount true to order by ascending amount.
+     * @param sortByDate true to order by descending date, unless ordering by amount.
+     * @return the key, ordering slots like {@link #compareSlots} when equal keys are ordered by slot.
+     */
+    static long displayKey(TransactionStore store, int slot, boolean sortByAmount, boolean sortByDate) {
+        if (sortByAmount) {
+            return SlotSorter.amountKey(store.amountAt(slot));
+        }
+        return sortByDate ? ~store.dayAt(slot) : 0;
+    }
+
+    /**
+     * Computes the display key of a transaction like {@link #displayKey(TransactionStore, int, boolean, boolean)}
+     * does for its slot, for views that must place a row without reading the store again.
+     * @param transaction a transaction read from the store.
+     * @param sortByAmount true to order by ascending amount.
+     * @param sortByDate true to order by descending date, unless ordering by amount.
+     * @return the key.
+     */
+    static long displayKey(Transaction transaction, boolean sortByAmount, boolean sortByDate) {
+        if (sortByAmount) {
+            return SlotSorter.amountKey(transaction.getAmount());
+        }
+        return sortByDate ? ~DateIndex.toDay(transaction.getDate()) : 0;
+    }
+
+    /**
+     * Helper method to query and sort the IDs of a display query. Must be called under the read lock.
+     */
+    private int[] sortedIds(QueryKey key) {
+        TransactionStore store = transactions;
+        int[] slots = store.querySlots(key.filter);
+        if (key.sortByAmount || key.sortByDate) {
+            // Ties are shown in insertion order, and both sorts keep the order of equal keys
+            if (!isAscending(slots)) {
+                Arrays.sort(slots);
+            }
+            if (key.sortByAmount) {
+                SlotSorter.sortByAmount(store, slots);
+            } else {
+                SlotSorter.sortByDateDescending(store, slots);
+            }
+        }
+        return idsOf(store, slots);
+    }
+
+    /**
+     * Helper method to map slots to their transaction IDs.
+     */
+    private static int[] idsOf(TransactionStore store, int[] slots) {
+        int[] result = new int[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            result[i] = store.idAt(slots[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Helper method to test whether slots are in ascending order.
+     */
+    private static boolean isAscending(int[] slots) {
+        for (int i = 1; i < slots.length; i++) {
+            if (slots[i - 1] > slots[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Helper method to build views of slots, in order. Must be called under the read lock.
+     */
+    private List<Transaction> viewsOf(int[] slots) {
+        List<Transaction> result = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            result.add(transactions.getSlot(slot));
+        }
+        return result;
+    }
+
+    /**
+     * Returns prefix sums answering income and expense totals between any two dates in logarithmic time.
+     * The totals are live, so other threads must read them inside {@link #readLocked}, or use {@link #total}.
+     * @return the daily totals of the ledger.
+     */
+    public DailyTotals getDailyTotals() {
+        return transactions.getDailyTotals();
+    }
+
+    /**
+     * Returns the income or expense total between two dates from the daily totals, while no edit can run.
+     * @param startDate the first date, inclusive.
+     * @param endDate the last date, inclusive.
+     * @param income true for the income total, false for the expense total.
+     * @return the total amount.
+     */
+    public double total(final LocalDate startDate, final LocalDate endDate, final boolean income) {
+        return readLocked(() -> transactions.getDailyTotals().total(startDate, endDate, income));
+    }
+
+    /**
+     * Returns the layout of the user's snapshot on disk.
+     * @return the storage.
+     */
+    public LedgerStorage getStorage() {
+        return storage;
+    }
+
+    /**
+     * Captures the snapshot content of every month edited since the last snapshot, or of all
+     * of them, and starts tracking edits anew. Must be called while no edit can run.
+     * @param username the user whose snapshot is written.
+     * @param full true to capture every month.
+     * @return the snapshot, to be written outside the lock.
+     */
+    LedgerStorage.Snapshot takeSnapshot(String username, boolean full) {
+        Set<YearMonth> months = full || rewriteAll || journal == null ? null : new HashSet<>(dirtyMonths);
+        dirtyMonths.clear();
+        rewriteAll = false;
+        return storage.snapshot(username, transactions, months);
+    }
+
+    /**
+     * Reclaims the slots of removed transactions once they outnumber both
+     * {@link #MIN_COMPACTION_RECORDS} and the stored transactions, so the store is compacted at
+     * most once per that many removals. Slots are renumbered, so listeners are told the ledger was
+     * reloaded. Called after a snapshot has been written.
+     */
+    void reclaimSlots() {
+        TransactionEvent event = null;
+        long stamp = lock.writeLock();
+        try {
+            int removed = transactions.slotCount() - transactions.size();
+            if (removed >= Math.max(MIN_COMPACTION_RECORDS, transactions.size()) && transactions.compact()) {
+                version++;
+                event = new TransactionEvent(TransactionEvent.Type.RELOADED, null, null, -1, version);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (event != null) {
+            fireTransactionsChanged(event);
+        }
+    }
+
+    /**
+     * Records that a snapshot taken by {@link #takeSnapshot} could not be written, so the next
+     * one rewrites every month.
+     */
+    void snapshotFailed() {
+        rewriteAll = true;
+    }
+
+    /**
+     * Helper method to persist the journal record of an edit, directly or through the persister,
+     * or to hold it back while the journal is being replaced. Must be called under the write lock.
+     */
+    private void record(String record) {
+        if (persister != null) {
+            persister.enqueue(record);
+        } else if (heldRecords != null) {
+            heldRecords.add(record);
+        } else if (journal != null) {
+            journal.append(record);
+        }
+    }
+
+    /**
+     * Registers a listener that is notified after every change to the transactions.
+     * @param listener the listener to add.
+     */
+    public void addTransactionListener(TransactionListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener added with {@link #addTransactionListener(TransactionListener)}.
+     * @param listener the listener to remove.
+     */
+    public void removeTransactionListener(TransactionListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Helper method to notify listeners of a change.
+     * @param event the change.
+     */
+    private void fireTransactionsChanged(TransactionEvent event) {
+        for (TransactionListener listener : listeners) {
+            listener.transactionsChanged(event);
+        }
+    }
+
+    /**
+     * Builds the filter of {@link #displayTransactions}, checking that the options can be combined.
      * @param filterByDate Filter transactions by specific date.
-     * @param filterByMonth Filter transactions by specific month (as LocalDate).
+     * @param filterByMonth Filter transactions by specific month.
      * @param showCategory Filter transactions by specific category.
      * @param showMember Filter transactions by specific member.
-     * @param sortByAmount Sort transactions by amount.
-     * @param sortByDate Sort transactions by date in descending order.
      * @param transactionClass Filter by transaction class (Income.class or Expense.class).
-     * @return List of filtered and sorted transactions.
+     * @param sortByDate Whether the result will be sorted by date.
+     * @return the filter.
+     * @throws IllegalArgumentException if both date and month are given, or a date filter is combined with sorting by date.
      */
-    public List<Transaction> displayTransactions(LocalDate filterByDate, YearMonth filterByMonth,
+    public TransactionFilter createDisplayFilter(LocalDate filterByDate, YearMonth filterByMonth,
                                                  TransactionCategory showCategory, Member showMember,
-                                                Class<? extends Transaction> transactionClass, Boolean sortByAmount, Boolean sortByDate) {
+                                                 Class<? extends Transaction> transactionClass, Boolean sortByDate) {
         if (filterByDate != null && filterByMonth != null) {
             throw new IllegalArgumentException("Cannot filter by both date and month at the same time.");
         }
         if ((filterByDate != null || filterByMonth != null) && sortByDate) {
             throw new IllegalArgumentException("Cannot filter and sort by date at the same time.");
         }
-    
-        Stream<Transaction> filteredStream = transactions.stream();
-
-        if (transactionClass != null) {
-            filteredStream = filteredStream.filter(t -> transactionClass.isAssignableFrom(t.getClass()));
-        }
-    
         if (filterByDate != null) {
-            filteredStream = filteredStream.filter(t -> t.getDate().equals(filterByDate));
-        }
-    
-        if (filterByMonth != null) {
-            filteredStream = filteredStream.filter(t -> YearMonth.from(t.getDate()).equals(filterByMonth));
+            return new TransactionFilter(filterByDate, filterByDate, showCategory, showMember, transactionClass);
+        } else if (filterByMonth != null) {
+            return new TransactionFilter(filterByMonth.atDay(1), filterByMonth.atEndOfMonth(), showCategory, showMember, transactionClass);
         }
-    
-        if (showCategory != null) {
-            filteredStream = filteredStream.filter(t -> t.getCategory().equals(showCategory));
-        }
-    
-        if (showMember != null) {
-            filteredStream = filteredStream.filter(t -> t.getMember().equals(showMember));
-        }
-    
-        if (sortByAmount != null && sortByAmount) {
-            filteredStream = filteredStream.sorted(Comparator.comparing(Transaction::getAmount));
-        } else if (sortByDate != null && sortByDate) {
-            filteredStream = filteredStream.sorted(Comparator.comparing(Transaction::getDate).reversed());
-        }
-    
-        return filteredStream.collect(Collectors.toList());
+        return new TransactionFilter(null, null, showCategory, showMember, transactionClass);
+    }
+
+    /**
+     * Enhanced displayTransactions method to filter and sort transaction records based on class type, date, category, and member.
+     * Filters are answered from the date and bitmap indexes of the store, so only matching transactions are visited.
+     * @param filterByDate Filter transactions by specific date.
+     * @param filterByMonth Filter transactions by specific month (as LocalDate).
+     * @param showCategory Filter transactions by specific category.
+     * @param showMember Filter transactions by specific member.
+     * @param sortByAmount Sort transactions by amount.
+     * @param sortByDate Sort transactions by date in descending order.
+     * @param transactionClass Filter by transaction class (Income.class or Expense.class).
+     * @return List of filtered and sorted transactions.
+     */
+    public List<Transaction> displayTransactions(LocalDate filterByDate, YearMonth filterByMonth,
+                                                 TransactionCategory showCategory, Member showMember,
+                                                Class<? extends Transaction> transactionClass, Boolean sortByAmount, Boolean sortByDate) {
+        final TransactionFilter filter = createDisplayFilter(filterByDate, filterByMonth, showCategory, showMember, transactionClass, sortByDate);
+        final boolean byAmount = sortByAmount != null && sortByAmount;
+        final boolean byDate = sortByDate != null && sortByDate;
+        return readLocked(() -> {
+            int[] slots = transactions.querySlots(filter);
+            if (byAmount) {
+                SlotSorter.sortByAmount(transactions, slots);
+            } else if (byDate) {
+                SlotSorter.sortByDateDescending(transactions, slots);
+            }
+            return viewsOf(slots);
+        });
     }
  
     /**
      * Displays transactions filtered by a date range, category, member, and transaction type (income/expense).
-     * Transactions can also be sorted by amount or date.
+     * Transactions can also be sorted by amount or date. Filters are answered from the date and bitmap indexes,
+     * so the cost depends on the number of matching transactions rather than the size of the ledger.
      *
      * @param startDate Start date for the filter.
      * @param endDate End date for the filter.
@@ -239,49 +1064,77 @@ public class TransactionsManager {
             throw new IllegalArgumentException("Start date must be before or equal to end date.");
         }
 
-        Stream<Transaction> filteredStream = transactions.stream();
-
+        Class<? extends Transaction> transactionClass = null;
         if (isIncome != null) {
-            Class<? extends Transaction> transactionClass = isIncome ? Income.class : Expense.class;
-            filteredStream = filteredStream.filter(t -> transactionClass.isAssignableFrom(t.getClass()));
+            transactionClass = isIncome ? Income.class : Expense.class;
         }
+        TransactionFilter filter = startDate != null && endDate != null
+            ? new TransactionFilter(startDate, endDate, showCategory, showMember, transactionClass)
+            : new TransactionFilter(null, null, showCategory, showMember, transactionClass);
+        final boolean byAmount = sortByAmount != null && sortByAmount;
+        final boolean byDate = sortByDate != null && sortByDate;
+        return readLocked(() -> {
+            int[] slots = transactions.querySlots(filter);
+            // Both sorts are stable, so sorting by date after amount orders equal dates by amount
+            if (byAmount) {
+                SlotSorter.sortByAmount(transactions, slots);
+            }
+            if (byDate) {
+                SlotSorter.sortByDateDescending(transactions, slots);
+            }
+            return viewsOf(slots);
+        });
+    }
 
-        if (startDate != null && endDate != null) {
-            filteredStream = filteredStream.filter(t -> !t.getDate().isBefore(startDate) && !t.getDate().isAfter(endDate));
-        }
+    /**
+     * A display query as cached by {@link #queryIds}: the filter, which already folds a day or a
+     * month into a date range, and the effective sort.
+     */
+    private static final class QueryKey {
+        private final TransactionFilter filter;
+        private final boolean sortByAmount;
+        private final boolean sortByDate;
 
-        if (showCategory != null) {
-            filteredStream = filteredStream.filter(t -> t.getCategory().equals(showCategory));
+        private QueryKey(TransactionFilter filter, boolean sortByAmount, boolean sortByDate) {
+            this.filter = filter;
+            this.sortByAmount = sortByAmount;
+            this.sortByDate = sortByDate;
         }
 
-        if (showMember != null) {
-            filteredStream = filteredStream.filter(t -> t.getMember().equals(showMember));
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof QueryKey)) return false;
+            QueryKey other = (QueryKey) o;
+            return filter.equals(other.filter) && sortByAmount == other.sortByAmount && sortByDate == other.sortByDate;
         }
 
-        if (sortByAmount != null && sortByAmount) {
-            filteredStream = filteredStream.sorted(Comparator.comparing(Transaction::getAmount));
+        @Override
+        public int hashCode() {
+            return Objects.hash(filter, sortByAmount, sortByDate);
         }
-        if (sortByDate != null && sortByDate) {
-            filteredStream = filteredStream.sorted(Comparator.comparing(Transaction::getDate).reversed());
-        }
-
-        return filteredStream.collect(Collectors.toList());
     }
 
+    /**
+     * A ledger read by {@link #readLedger(String, IntConsumer)} and not yet installed.
+     */
+    public static class LoadedLedger {
+        private final TransactionStore transactions;
+        private final TransactionJournal journal;
+        private final Set<YearMonth> touchedMonths;
 
-}
-
-
-
-
-
-
-
-
-
-
-
-
-
-
+        private LoadedLedger(TransactionStore transactions, TransactionJournal journal, Set<YearMonth> touchedMonths) {
+            this.transactions = transactions;
+            this.journal = journal;
+            this.touchedMonths = touchedMonths;
+        }
 
+        /**
+         * Returns the number of transactions read.
+         * @return the transaction count.
+         */
+        public int size() {
+            return transactions.size();
+        }
+    }
+}
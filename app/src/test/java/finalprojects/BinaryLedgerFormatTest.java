@@ -0,0 +1,127 @@
+package finalprojects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class BinaryLedgerFormatTest {
+    private static final String USERNAME = "binaryLedgerTestUser";
+    private MemberManager memberManager;
+    private Path ledgerPath;
+    private Path exportPath;
+
+    @BeforeEach
+    void setup() throws IOException {
+        memberManager = new MemberManager();
+        ledgerPath = LoginManager.ledgerPath(USERNAME);
+        exportPath = LoginManager.csvPath(USERNAME + "_export");
+        cleanup();
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        Files.deleteIfExists(ledgerPath);
+        Files.deleteIfExists(exportPath);
+        Files.deleteIfExists(LoginManager.csvPath(USERNAME));
+        Files.deleteIfExists(Path.of(LoginManager.csvPath(USERNAME) + LedgerStorage.MIGRATED_SUFFIX));
+        Files.deleteIfExists(LoginManager.journalPath(USERNAME));
+    }
+
+    @Test
+    void readEncoded_ReturnsSameTransactions() throws IOException {
+        TransactionStore store = randomStore(BinaryLedgerFormat.BLOCK_RECORDS + 1000, 300);
+        store.remove(store.findById(5));
+        store.add(new Expense(ExpenseCategory.GROCERY, 1.234567, LocalDate.of(2024, 2, 29), memberManager.intern("Jane Doe")));
+        Transaction undated = new Transaction(null, 3.0, null, memberManager.intern("Jane Doe"));
+        undated.setId(store.getMaxId() + 1);
+        store.add(undated);
+        Files.write(ledgerPath, BinaryLedgerFormat.encode(store));
+
+        List<Transaction> read = new ArrayList<>();
+        List<Integer> progress = new ArrayList<>();
+        BinaryLedgerFormat.read(ledgerPath, new MemberManager(), read::add, progress::add);
+
+        assertEquals(store.size(), read.size());
+        for (int i = 0; i < read.size(); i++) {
+            Transaction expected = store.get(i);
+            Transaction actual = read.get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getClass(), actual.getClass());
+            assertEquals(expected.getCategory(), actual.getCategory());
+            assertEquals(expected.getAmount(), actual.getAmount());
+            assertEquals(expected.getDate(), actual.getDate());
+            assertEquals(expected.getMember().getName(), actual.getMember().getName());
+        }
+        assertEquals(100, (int) progress.get(progress.size() - 1));
+    }
+
+    @Test
+    void read_RejectsCorruptBlocksAndForeignFiles() throws IOException {
+        byte[] content = BinaryLedgerFormat.encode(randomStore(100, 3));
+        content[content.length - 20] ^= 1;
+        Files.write(ledgerPath, content);
+        IOException corrupt = assertThrows(IOException.class,
+            () -> BinaryLedgerFormat.read(ledgerPath, memberManager, transaction -> { }, null));
+        assertTrue(corrupt.getMessage().contains("Checksum"));
+
+        Files.write(ledgerPath, List.of("1,Income:SALARY,1000.0,2024-04-01,John Doe"));
+        assertThrows(IOException.class, () -> BinaryLedgerFormat.read(ledgerPath, memberManager, transaction -> { }, null));
+    }
+
+    @Test
+    void importThenExport_ReproducesCsv() throws IOException {
+        TransactionStore store = randomStore(10_000, 5);
+        Path csvPath = LoginManager.login(USERNAME);
+        Files.write(csvPath, CsvLedgerStorage.csvBytes(store));
+
+        BinaryLedgerFormat.importCsv(csvPath, ledgerPath, new MemberManager());
+        BinaryLedgerFormat.exportCsv(ledgerPath, exportPath, new MemberManager());
+
+        assertEquals(Files.readAllLines(csvPath), Files.readAllLines(exportPath));
+        assertTrue(Files.size(ledgerPath) * 2 < Files.size(csvPath),
+            "Binary " + Files.size(ledgerPath) + " bytes, CSV " + Files.size(csvPath) + " bytes");
+    }
+
+    @Test
+    void storage_ImportsCsvOnFirstLoadAndKeepsEdits() throws IOException {
+        Files.write(LoginManager.login(USERNAME), List.of(
+            "1,Income:SALARY,1000.0,2024-01-05,John Doe",
+            "2,Expense:GROCERY,50.0,2024-01-20,John Doe"));
+        TransactionsManager manager = new TransactionsManager(new MemberManager(), new BinaryLedgerStorage());
+        manager.loadTransactionsFromCSV(USERNAME);
+        assertEquals(2, manager.getTransactions().size());
+        assertFalse(Files.exists(LoginManager.csvPath(USERNAME)));
+
+        manager.setTransaction(2, null, 55.5, null, null);
+        manager.updateCSV(USERNAME);
+        assertFalse(Files.exists(LoginManager.journalPath(USERNAME)));
+
+        TransactionsManager reader = new TransactionsManager(new MemberManager(), new BinaryLedgerStorage());
+        reader.loadTransactionsFromCSV(USERNAME);
+        assertEquals(2, reader.getTransactions().size());
+        assertEquals(55.5, reader.findTransactionbyID(2).getAmount());
+    }
+
+    private TransactionStore randomStore(int count, int memberCount) {
+        Random random = new Random(11);
+        TransactionStore store = new TransactionStore(memberManager);
+        TransactionCategory[] categories = {IncomeCategory.SALARY, IncomeCategory.COMMISSION, ExpenseCategory.GROCERY, ExpenseCategory.HOUSING};
+        for (int id = 1; id <= count; id++) {
+            Transaction transaction = TransactionFactory.createTransaction(categories[random.nextInt(categories.length)],
+                random.nextInt(1_000_000) / 100.0, LocalDate.of(2010, 1, 1).plusDays(random.nextInt(5000)),
+                memberManager.intern("Member " + random.nextInt(memberCount)));
+            transaction.setId(id);
+            store.add(transaction);
+        }
+        return store;
+    }
+}
@@ -0,0 +1,99 @@
+package finalprojects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class BitmapIndexTest {
+    private static final LocalDate START = LocalDate.of(2023, 1, 1);
+    private final Member john = new Member("John Doe");
+    private final Member jane = new Member("Jane Doe");
+    private TransactionsManager manager;
+
+    @BeforeEach
+    void setup() {
+        manager = new TransactionsManager(new MemberManager());
+    }
+
+    @Test
+    void select_IntersectsCategoryMemberAndType() {
+        int salary = CategoryRegistry.ordinal(IncomeCategory.SALARY);
+        int grocery = CategoryRegistry.ordinal(ExpenseCategory.GROCERY);
+        int housing = CategoryRegistry.ordinal(ExpenseCategory.HOUSING);
+        BitmapIndex index = new BitmapIndex();
+        index.add(0, TransactionStore.KIND_INCOME, salary, 0);
+        index.add(1, TransactionStore.KIND_EXPENSE, grocery, 0);
+        index.add(2, TransactionStore.KIND_EXPENSE, grocery, 1);
+        index.add(3, TransactionStore.KIND_EXPENSE, housing, 1);
+
+        assertEquals(bits(1, 2), index.select(grocery, BitmapIndex.ANY, null));
+        assertEquals(bits(2), index.select(grocery, 1, Expense.class));
+        assertEquals(bits(0), index.select(BitmapIndex.ANY, 0, Income.class));
+        assertEquals(bits(), index.select(BitmapIndex.ANY, 5, null));
+
+        index.remove(2, TransactionStore.KIND_EXPENSE, grocery, 1);
+        assertEquals(bits(3), index.select(BitmapIndex.ANY, 1, null));
+        assertEquals(bits(0, 1, 3), index.select(BitmapIndex.ANY, BitmapIndex.ANY, null));
+    }
+
+    @Test
+    void query_MatchesPerRowFilterAfterEdits() {
+        Random random = new Random(11);
+        Member[] members = {john, jane, new Member("Sam Roe")};
+        TransactionCategory[] categories = {IncomeCategory.SALARY, IncomeCategory.COMMISSION, ExpenseCategory.GROCERY, ExpenseCategory.HOUSING};
+        for (int i = 0; i < 3000; i++) {
+            manager.addTransaction(categories[random.nextInt(categories.length)], i,
+                START.plusDays(random.nextInt(200)), members[random.nextInt(members.length)]);
+        }
+        for (int i = 0; i < 1000; i++) {
+            int id = 1 + random.nextInt(3000);
+            switch (random.nextInt(3)) {
+                case 0:
+                    manager.setTransaction(id, categories[random.nextInt(categories.length)], null, null, null);
+                    break;
+                case 1:
+                    manager.setTransaction(id, null, null, START.plusDays(random.nextInt(200)), members[random.nextInt(members.length)]);
+                    break;
+                default:
+                    manager.removeTransaction(id);
+            }
+        }
+
+        for (int i = 0; i < 50; i++) {
+            LocalDate from = random.nextBoolean() ? START.plusDays(random.nextInt(100)) : null;
+            TransactionFilter filter = new TransactionFilter(from, from == null ? null : from.plusDays(random.nextInt(100)),
+                random.nextBoolean() ? categories[random.nextInt(categories.length)] : null,
+                random.nextBoolean() ? members[random.nextInt(members.length)] : null,
+                random.nextBoolean() ? (random.nextBoolean() ? Income.class : Expense.class) : null);
+            List<Transaction> expected = manager.getTransactions().stream().filter(filter::matches).collect(Collectors.toList());
+            assertEquals(expected, ((TransactionStore) manager.getTransactions()).query(filter));
+        }
+    }
+
+    @Test
+    void displayTransactions_CombinesFiltersThroughIndexes() {
+        manager.addTransaction(ExpenseCategory.GROCERY, 10.0, START, john);
+        manager.addTransaction(ExpenseCategory.GROCERY, 20.0, START, jane);
+        manager.addTransaction(IncomeCategory.SALARY, 30.0, START, jane);
+        manager.setTransaction(1, null, null, null, jane);
+
+        List<Transaction> result = manager.displayTransactions(null, null, ExpenseCategory.GROCERY, jane, Expense.class, true, false);
+        assertEquals(2, result.size());
+        assertEquals(10.0, result.get(0).getAmount());
+        assertTrue(manager.displayTransactions(null, null, null, john, null, false, false).isEmpty());
+    }
+
+    private static BitSet bits(int... slots) {
+        BitSet bits = new BitSet();
+        for (int slot : slots) {
+            bits.set(slot);
+        }
+        return bits;
+    }
+}
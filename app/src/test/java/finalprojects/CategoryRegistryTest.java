@@ -0,0 +1,70 @@
+package finalprojects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+public class CategoryRegistryTest {
+
+    @Test
+    void ordinals_AreDenseAndRoundTrip() {
+        assertEquals(IncomeCategory.values().length + ExpenseCategory.values().length, CategoryRegistry.SIZE);
+        for (int ordinal = 0; ordinal < CategoryRegistry.SIZE; ordinal++) {
+            TransactionCategory category = CategoryRegistry.byOrdinal(ordinal);
+            assertEquals(ordinal, CategoryRegistry.ordinal(category));
+            assertEquals(category instanceof IncomeCategory, CategoryRegistry.isIncome(ordinal));
+        }
+    }
+
+    @Test
+    void resolve_DistinguishesSharedNamesByType() {
+        assertEquals(IncomeCategory.OTHER, CategoryRegistry.resolve("Income:OTHER"));
+        assertEquals(ExpenseCategory.OTHER, CategoryRegistry.resolve("Expense:OTHER"));
+        assertEquals(ExpenseCategory.MISCELLANEOUS, CategoryRegistry.resolve("Expense::MISCELLANEOUS"));
+    }
+
+    @Test
+    void resolve_IgnoresCase() {
+        assertEquals(IncomeCategory.SALARY, CategoryRegistry.resolve("income:salary"));
+        assertEquals(ExpenseCategory.GROCERY, CategoryRegistry.resolve("EXPENSE:Grocery"));
+    }
+
+    @Test
+    void resolve_UnknownToken_ReturnsNull() {
+        assertNull(CategoryRegistry.resolve("Income:UNKNOWN"));
+        assertNull(CategoryRegistry.resolve("Income:"));
+        assertNull(CategoryRegistry.resolve("SALARY"));
+        assertNull(CategoryRegistry.resolve((String) null));
+    }
+
+    @Test
+    void resolve_FromBytes() {
+        ByteBuffer buf = ByteBuffer.wrap("7,Expense:HOUSING,1.0".getBytes(StandardCharsets.UTF_8));
+        assertEquals(ExpenseCategory.HOUSING, CategoryRegistry.resolve(buf, 2, 17));
+    }
+
+    @Test
+    void token_MatchesCsvFormat() {
+        assertEquals("Income:SALARY", CategoryRegistry.token(IncomeCategory.SALARY));
+        assertEquals("Expense:HOUSING", CategoryRegistry.token(ExpenseCategory.HOUSING));
+    }
+
+    @Test
+    void readFromCsv_ExpenseOther_CreatesExpense() {
+        Transaction transaction = Transaction.readFromCsv("1,Expense:OTHER,5.0,2024-01-01,John Doe", new MemberManager());
+        assertTrue(transaction instanceof Expense);
+        assertEquals(ExpenseCategory.OTHER, transaction.getCategory());
+    }
+
+    @Test
+    void toCSVLine_ExpenseRoundTrips() {
+        Transaction expense = new Expense(ExpenseCategory.GROCERY, 12.5, LocalDate.of(2024, 1, 2), new Member("John Doe"));
+        expense.setId(3);
+        Transaction reread = Transaction.readFromCsv(expense.toCSVLine(), new MemberManager());
+        assertEquals(ExpenseCategory.GROCERY, reread.getCategory());
+        assertEquals(12.5, reread.getAmount());
+    }
+}
@@ -0,0 +1,99 @@
+package finalprojects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Random;
+
+public class ColumnAggregatorTest {
+    private static final LocalDate START = LocalDate.of(2014, 1, 1);
+    private MemberManager memberManager;
+    private TransactionsManager manager;
+
+    @BeforeEach
+    void setup() {
+        memberManager = new MemberManager();
+        manager = new TransactionsManager(memberManager);
+    }
+
+    @Test
+    void report_ParallelEqualsSequentialAndRollup() {
+        Random random = new Random(13);
+        Member[] members = {memberManager.intern("John Doe"), memberManager.intern("Jane Doe"), memberManager.intern("Kid Doe")};
+        TransactionCategory[] categories = {IncomeCategory.SALARY, IncomeCategory.COMMISSION, ExpenseCategory.GROCERY, ExpenseCategory.HOUSING};
+        int count = 4 * ColumnAggregator.CHUNK_SLOTS + 123;
+        for (int i = 0; i < count; i++) {
+            manager.addTransaction(categories[random.nextInt(4)], random.nextInt(100_000) / 100.0,
+                START.plusDays(random.nextInt(3650)), members[random.nextInt(3)]);
+        }
+        for (int i = 0; i < 5000; i++) {
+            manager.removeTransaction(1 + random.nextInt(count));
+        }
+
+        YearMonth from = YearMonth.of(2015, 7);
+        YearMonth to = YearMonth.of(2022, 2);
+        Report sequential = manager.scanReport(from, to, false);
+        Report parallel = manager.scanReport(from, to, true);
+        Report rollup = manager.getRollup().report(from, to);
+
+        for (boolean income : new boolean[]{true, false}) {
+            assertEquals(rollup.getMonthlyTotals(income), sequential.getMonthlyTotals(income));
+            assertEquals(rollup.getCategoryTotals(income), sequential.getCategoryTotals(income));
+            assertEquals(rollup.getMemberTotals(income), sequential.getMemberTotals(income));
+            assertEquals(sequential.getMonthlyTotals(income), parallel.getMonthlyTotals(income));
+            assertEquals(sequential.getCategoryTotals(income), parallel.getCategoryTotals(income));
+            assertEquals(sequential.getMemberTotals(income), parallel.getMemberTotals(income));
+        }
+    }
+
+    @Test
+    void report_SkipsTransactionsOutsideTheWindow() {
+        Member john = memberManager.intern("John Doe");
+        manager.addTransaction(ExpenseCategory.GROCERY, 10.0, LocalDate.of(2024, 1, 31), john);
+        manager.addTransaction(ExpenseCategory.GROCERY, 20.0, LocalDate.of(2024, 2, 1), john);
+        manager.addTransaction(ExpenseCategory.GROCERY, 40.0, LocalDate.of(2024, 2, 29), john);
+        manager.addTransaction(ExpenseCategory.GROCERY, 80.0, LocalDate.of(2024, 3, 1), john);
+
+        Report report = manager.scanReport(YearMonth.of(2024, 2), YearMonth.of(2024, 2), true);
+
+        assertEquals(60.0, report.getMonthlyTotals(false).get(YearMonth.of(2024, 2)));
+        assertEquals(1, report.getMonthlyTotals(false).size());
+        assertTrue(report.getMonthlyTotals(true).isEmpty());
+    }
+
+    @Test
+    void addRows_BuildsTheSameRollupAsAddingOneByOne() {
+        Random random = new Random(29);
+        int count = 2 * ColumnAggregator.CHUNK_SLOTS + 7;
+        int[] ids = new int[count], categories = new int[count], members = new int[count];
+        double[] amounts = new double[count];
+        long[] days = new long[count];
+        TransactionStore oneByOne = new TransactionStore(memberManager);
+        for (int i = 0; i < count; i++) {
+            ids[i] = i + 1;
+            categories[i] = random.nextInt(CategoryRegistry.SIZE);
+            amounts[i] = random.nextInt(100_000) / 100.0;
+            days[i] = i % 100 == 0 ? DateIndex.NO_DAY : START.plusDays(random.nextInt(3650)).toEpochDay();
+            members[i] = memberManager.intern("Member " + random.nextInt(4)).getId();
+            Transaction transaction = TransactionFactory.createTransaction(CategoryRegistry.byOrdinal(categories[i]), amounts[i],
+                days[i] == DateIndex.NO_DAY ? null : LocalDate.ofEpochDay(days[i]), memberManager.getMember(members[i]));
+            transaction.setId(ids[i]);
+            oneByOne.add(transaction);
+        }
+        TransactionStore bulk = new TransactionStore(memberManager);
+        bulk.addRows(count, ids, categories, amounts, days, members);
+
+        YearMonth from = YearMonth.of(2014, 1), to = YearMonth.of(2023, 12);
+        Report expected = oneByOne.getRollup().report(from, to);
+        Report actual = bulk.getRollup().report(from, to);
+        for (boolean income : new boolean[]{true, false}) {
+            assertEquals(expected.getMonthlyTotals(income), actual.getMonthlyTotals(income));
+            assertEquals(expected.getCategoryTotals(income), actual.getCategoryTotals(income));
+            assertEquals(expected.getMemberTotals(income), actual.getMemberTotals(income));
+        }
+        assertEquals(oneByOne.getRollup().cellCount(), bulk.getRollup().cellCount());
+    }
+}
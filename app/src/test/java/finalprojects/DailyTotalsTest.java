@@ -0,0 +1,132 @@
+package finalprojects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+public class DailyTotalsTest {
+    private static final LocalDate START = LocalDate.of(2023, 1, 1);
+    private MemberManager memberManager;
+    private TransactionsManager manager;
+
+    @BeforeEach
+    void setup() {
+        memberManager = new MemberManager();
+        manager = new TransactionsManager(memberManager);
+    }
+
+    @Test
+    void total_CoversInclusiveDateRange() {
+        Member john = memberManager.intern("John Doe");
+        manager.addTransaction(IncomeCategory.SALARY, 100.10, LocalDate.of(2024, 1, 5), john);
+        manager.addTransaction(IncomeCategory.SALARY, 0.20, LocalDate.of(2024, 1, 20), john);
+        manager.addTransaction(ExpenseCategory.GROCERY, 30.0, LocalDate.of(2024, 2, 1), john);
+        DailyTotals totals = manager.getDailyTotals();
+
+        assertEquals(100.30, totals.total(LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 20), true));
+        assertEquals(0.20, totals.total(LocalDate.of(2024, 1, 6), LocalDate.of(2024, 2, 1), true));
+        assertEquals(30.0, totals.total(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 1), false));
+        assertEquals(0.0, totals.total(LocalDate.of(2024, 1, 21), LocalDate.of(2024, 1, 31), true));
+        assertEquals(30.0, totals.totalByCategory(LocalDate.of(2000, 1, 1), LocalDate.of(2100, 1, 1), ExpenseCategory.GROCERY));
+        assertEquals(100.30, totals.totalByMember(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), true, john.getId()));
+    }
+
+    @Test
+    void total_FollowsUpdateAndRemove() {
+        Member john = memberManager.intern("John Doe");
+        Member jane = memberManager.intern("Jane Doe");
+        manager.addTransaction(ExpenseCategory.GROCERY, 30.0, LocalDate.of(2024, 2, 1), john);
+        DailyTotals totals = manager.getDailyTotals();
+
+        manager.setTransaction(1, ExpenseCategory.HOUSING, 45.5, LocalDate.of(2024, 3, 1), jane);
+        LocalDate from = LocalDate.of(2024, 1, 1), to = LocalDate.of(2024, 12, 31);
+        assertEquals(0.0, totals.totalByCategory(from, to, ExpenseCategory.GROCERY));
+        assertEquals(45.5, totals.totalByCategory(from, to, ExpenseCategory.HOUSING));
+        assertEquals(0.0, totals.totalByMember(from, to, false, john.getId()));
+        assertEquals(45.5, totals.totalByMember(from, to, false, jane.getId()));
+
+        manager.removeTransaction(1);
+        assertEquals(0.0, totals.total(from, to, false));
+    }
+
+    @Test
+    void total_GrowsDomainForDistantDates() {
+        Member john = memberManager.intern("John Doe");
+        manager.addTransaction(IncomeCategory.SALARY, 10.0, LocalDate.of(2024, 1, 1), john);
+        manager.addTransaction(IncomeCategory.SALARY, 20.0, LocalDate.of(1990, 6, 15), john);
+        manager.addTransaction(IncomeCategory.SALARY, 40.0, LocalDate.of(2060, 6, 15), john);
+        DailyTotals totals = manager.getDailyTotals();
+
+        assertEquals(70.0, totals.total(LocalDate.of(1900, 1, 1), LocalDate.of(2200, 1, 1), true));
+        assertEquals(30.0, totals.total(LocalDate.of(1990, 6, 15), LocalDate.of(2024, 1, 1), true));
+        assertEquals(50.0, totals.total(LocalDate.of(2024, 1, 1), LocalDate.of(2060, 6, 15), true));
+        assertEquals(0.0, totals.total(LocalDate.of(2024, 1, 2), LocalDate.of(2060, 6, 14), true));
+    }
+
+    @Test
+    void total_AllocatesOnlyTheBlocksOfFarOffDates() {
+        Member john = memberManager.intern("John Doe");
+        manager.addTransaction(IncomeCategory.SALARY, 10.0, LocalDate.of(2024, 1, 1), john);
+        manager.addTransaction(IncomeCategory.SALARY, 20.0, LocalDate.of(-900_000, 3, 1), john);
+        manager.addTransaction(IncomeCategory.SALARY, 40.0, LocalDate.of(900_000, 12, 31), john);
+        DailyTotals totals = manager.getDailyTotals();
+
+        assertEquals(9, totals.blockCount());
+        assertEquals(70.0, totals.total(LocalDate.MIN, LocalDate.MAX, true));
+        assertEquals(30.0, totals.total(LocalDate.of(-900_000, 3, 1), LocalDate.of(2024, 1, 1), true));
+        assertEquals(40.0, totals.total(LocalDate.of(900_000, 12, 31), LocalDate.of(900_000, 12, 31), true));
+        assertEquals(0.0, totals.total(LocalDate.of(-900_000, 3, 2), LocalDate.of(2023, 12, 31), true));
+        assertEquals(10.0, totals.totalByMember(LocalDate.of(2000, 1, 1), LocalDate.of(2100, 1, 1), true, john.getId()));
+    }
+
+    @Test
+    void total_MatchesBruteForceSumsAfterRandomEdits() {
+        Random random = new Random(11);
+        Member[] members = {memberManager.intern("John Doe"), memberManager.intern("Jane Doe")};
+        TransactionCategory[] categories = {IncomeCategory.SALARY, IncomeCategory.COMMISSION, ExpenseCategory.GROCERY, ExpenseCategory.HOUSING};
+        for (int i = 0; i < 3000; i++) {
+            manager.addTransaction(categories[random.nextInt(4)], random.nextInt(100_000) / 100.0,
+                START.plusDays(random.nextInt(730)), members[random.nextInt(2)]);
+        }
+        for (int i = 0; i < 1000; i++) {
+            int id = 1 + random.nextInt(3000);
+            if (random.nextBoolean()) {
+                manager.setTransaction(id, categories[random.nextInt(4)], random.nextInt(1000) / 4.0,
+                    START.plusDays(random.nextInt(730)), members[random.nextInt(2)]);
+            } else {
+                manager.removeTransaction(id);
+            }
+        }
+
+        DailyTotals totals = manager.getDailyTotals();
+        for (int i = 0; i < 50; i++) {
+            LocalDate from = START.plusDays(random.nextInt(800) - 30);
+            LocalDate to = from.plusDays(random.nextInt(400));
+            long income = 0, expense = 0, grocery = 0, jane = 0;
+            for (Transaction transaction : manager.getTransactions()) {
+                if (transaction.getDate().isBefore(from) || transaction.getDate().isAfter(to)) {
+                    continue;
+                }
+                long units = Amounts.toUnits(transaction.getAmount());
+                if (transaction instanceof Income) {
+                    income += units;
+                } else if (transaction instanceof Expense) {
+                    expense += units;
+                    if (transaction.getMember().equals(members[1])) {
+                        jane += units;
+                    }
+                }
+                if (transaction.getCategory() == ExpenseCategory.GROCERY) {
+                    grocery += units;
+                }
+            }
+            assertEquals(Amounts.toAmount(income), totals.total(from, to, true));
+            assertEquals(Amounts.toAmount(expense), totals.total(from, to, false));
+            assertEquals(Amounts.toAmount(grocery), totals.totalByCategory(from, to, ExpenseCategory.GROCERY));
+            assertEquals(Amounts.toAmount(jane), totals.totalByMember(from, to, false, members[1].getId()));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package finalprojects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class DateIndexTest {
+    private static final LocalDate START = LocalDate.of(2023, 1, 1);
+    private TransactionsManager manager;
+    private Member member;
+
+    @BeforeEach
+    void setup() {
+        manager = new TransactionsManager(new MemberManager());
+        member = new Member("John Doe");
+    }
+
+    @Test
+    void slotsBetween_ReturnsSlotsInAscendingOrder() {
+        DateIndex index = new DateIndex();
+        index.add(0, DateIndex.toDay(START.plusDays(2)));
+        index.add(1, DateIndex.toDay(START));
+        index.add(2, DateIndex.toDay(START.plusDays(1)));
+        index.add(3, DateIndex.toDay(START.plusDays(9)));
+        index.add(4, DateIndex.toDay(null));
+        assertArrayEquals(new int[] {0, 1, 2}, index.slotsBetween(START, START.plusDays(2)));
+
+        index.move(1, DateIndex.toDay(START.plusDays(9)));
+        index.remove(2);
+        assertArrayEquals(new int[] {0}, index.slotsBetween(START, START.plusDays(2)));
+        assertArrayEquals(new int[] {1, 3}, index.slotsBetween(START.plusDays(9), START.plusDays(9)));
+        assertEquals(0, index.slotsBetween(START.plusDays(10), START.plusDays(20)).length);
+
+        index.move(1, DateIndex.toDay(START));
+        assertArrayEquals(new int[] {0, 1}, index.slotsBetween(START, START.plusDays(2)));
+        assertArrayEquals(new int[] {3}, index.slotsBetween(START.plusDays(9), START.plusDays(9)));
+    }
+
+    @Test
+    void slotsBetween_SkipsRemovedSlotsOfCrowdedDay() {
+        DateIndex index = new DateIndex();
+        for (int slot = 0; slot < 100; slot++) {
+            index.add(slot, DateIndex.toDay(START));
+        }
+        for (int slot = 0; slot < 100; slot++) {
+            if (slot % 10 != 0) {
+                index.remove(slot);
+            }
+        }
+        index.move(50, DateIndex.toDay(START));
+        assertArrayEquals(new int[] {0, 10, 20, 30, 40, 50, 60, 70, 80, 90}, index.slotsBetween(START, START));
+    }
+
+    @Test
+    void rangeQueries_MatchFullScanAfterEdits() {
+        Random random = new Random(3);
+        for (int i = 0; i < 2000; i++) {
+            manager.addTransaction(i % 2 == 0 ? ExpenseCategory.GROCERY : IncomeCategory.SALARY,
+                i, START.plusDays(random.nextInt(400)), member);
+        }
+        for (int i = 0; i < 500; i++) {
+            int id = 1 + random.nextInt(2000);
+            if (random.nextBoolean()) {
+                manager.setTransaction(id, null, null, START.plusDays(random.nextInt(400)), null);
+            } else {
+                manager.removeTransaction(id);
+            }
+        }
+
+        LocalDate from = START.plusDays(50);
+        LocalDate to = START.plusDays(120);
+        List<Transaction> expected = manager.getTransactions().stream()
+            .filter(t -> t instanceof Expense && !t.getDate().isBefore(from) && !t.getDate().isAfter(to))
+            .collect(Collectors.toList());
+        assertEquals(expected, manager.displayTransactionsbetweendate(from, to, null, null, false, false, false));
+
+        YearMonth month = YearMonth.of(2023, 3);
+        List<Transaction> inMonth = manager.getTransactions().stream()
+            .filter(t -> YearMonth.from(t.getDate()).equals(month))
+            .collect(Collectors.toList());
+        assertEquals(inMonth, manager.displayTransactions(null, month, null, null, null, false, false));
+
+        LocalDate day = START.plusDays(77);
+        List<Transaction> onDay = manager.getTransactions().stream()
+            .filter(t -> t.getDate().equals(day))
+            .collect(Collectors.toList());
+        assertEquals(onDay, manager.displayTransactions(day, null, null, null, null, false, false));
+    }
+
+    @Test
+    void rangeQuery_ReadsOnlyTheEntriesOfTheRange() {
+        DateIndex index = new DateIndex();
+        for (int slot = 0; slot < 100_000; slot++) {
+            index.add(slot, DateIndex.toDay(START.plusDays(slot % 3650)));
+        }
+        LocalDate day = START.plusDays(100);
+        assertEquals(28, index.slotsBetween(day, day).length);
+        assertEquals(28, index.entriesBetween(day, day));
+        assertEquals(28 * 7, index.entriesBetween(day, day.plusDays(6)));
+
+        // Removed slots stay in their bucket until more than half of it is stale
+        for (int slot = 100; slot < 100_000; slot += 3650) {
+            index.remove(slot);
+            int live = index.slotsBetween(day, day).length;
+            assertTrue(index.entriesBetween(day, day) <= Math.max(2 * live + 1, 8),
+                live + " live slots cost " + index.entriesBetween(day, day) + " entries");
+        }
+        assertEquals(0, index.entriesBetween(day, day));
+        assertEquals(28, index.entriesBetween(day.plusDays(1), day.plusDays(1)));
+    }
+}
@@ -0,0 +1,118 @@
+package finalprojects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Wall-clock checks on large ledgers. They are tagged {@code benchmark} so the unit suite leaves
+ * them out; run them with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+public class LedgerBenchmark {
+    private final Member member = new Member("John Doe");
+    private final LocalDate date = LocalDate.of(2024, 1, 1);
+
+    @Test
+    void operationsById_DoNotSlowDownWithLedgerSize() {
+        double small = nanosPerOperation(20_000);
+        double large = nanosPerOperation(2_000_000);
+        System.out.printf("Operations by ID: %.0f ns on 20k rows, %.0f ns on 2M rows%n", small, large);
+        // A linear scan would make the large ledger about 100 times slower per operation
+        assertTrue(large < small * 10 + 2000,
+            "Per-operation cost grew from " + small + " ns to " + large + " ns");
+    }
+
+    @Test
+    void rangeQuery_DoesNotScanWholeLedger() {
+        TransactionsManager manager = new TransactionsManager(new MemberManager());
+        LocalDate start = LocalDate.of(2023, 1, 1);
+        for (int i = 0; i < 1_000_000; i++) {
+            manager.addTransaction(ExpenseCategory.GROCERY, 1.0, start.plusDays(i % 3650), member);
+        }
+        LocalDate day = start.plusDays(100);
+        manager.displayTransactions(day, null, null, null, null, false, false);
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long begin = System.nanoTime();
+            for (int i = 0; i < 100; i++) {
+                assertEquals(274, manager.displayTransactions(day, null, null, null, null, false, false).size());
+            }
+            best = Math.min(best, System.nanoTime() - begin);
+        }
+        System.out.printf("100 single-day queries on 1M rows: %d ms%n", best / 1_000_000);
+        // Scanning a million transactions a hundred times takes far longer than this
+        assertTrue(best < 200_000_000L, "100 single-day queries took " + best / 1_000_000 + " ms");
+    }
+
+    @Test
+    void bulkLoad_IsFasterThanLoadingTransactionByTransaction() throws IOException {
+        Path csvPath = Files.createTempFile("benchmark", ".csv");
+        try {
+            StringBuilder content = new StringBuilder();
+            Random random = new Random(9);
+            String[] categories = {"Income:SALARY", "Expense:GROCERY", "Expense:HOUSING", "Expense:TRANSPORTATION"};
+            for (int id = 1; id <= 2_000_000; id++) {
+                content.append(id).append(',').append(categories[random.nextInt(categories.length)]).append(',')
+                    .append(random.nextInt(1_000_000) / 100.0).append(',')
+                    .append(LocalDate.of(2010, 1, 1).plusDays(random.nextInt(5000))).append(',')
+                    .append("Member ").append(random.nextInt(50)).append('\n');
+            }
+            Files.write(csvPath, content.toString().getBytes(StandardCharsets.UTF_8));
+            long perTransaction = Long.MAX_VALUE;
+            long bulk = Long.MAX_VALUE;
+            for (int round = 0; round < 3; round++) {
+                MemberManager members = new MemberManager();
+                TransactionStore store = new TransactionStore(members);
+                long start = System.nanoTime();
+                new ParallelCsvLoader(members).read(csvPath, store::add);
+                perTransaction = Math.min(perTransaction, System.nanoTime() - start);
+
+                members = new MemberManager();
+                store = new TransactionStore(members);
+                start = System.nanoTime();
+                new ParallelCsvLoader(members).read(csvPath, store, null);
+                bulk = Math.min(bulk, System.nanoTime() - start);
+                assertEquals(2_000_000, store.size());
+            }
+            System.out.printf("Loading 2M rows: %d ms transaction by transaction, %d ms in bulk (%.1fx)%n",
+                perTransaction / 1_000_000, bulk / 1_000_000, (double) perTransaction / bulk);
+            assertTrue(bulk < perTransaction, "Bulk loading took " + bulk / 1_000_000 + " ms");
+        } finally {
+            Files.deleteIfExists(csvPath);
+        }
+    }
+
+    /**
+     * Helper method measuring find, update, delete and add on a ledger of the given size.
+     */
+    private double nanosPerOperation(int ledgerSize) {
+        TransactionsManager manager = new TransactionsManager(new MemberManager());
+        for (int i = 0; i < ledgerSize; i++) {
+            manager.addTransaction(ExpenseCategory.GROCERY, i, date, member);
+        }
+        Random random = new Random(1);
+        int operations = 50_000;
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < operations; i++) {
+                int id = 1 + random.nextInt(manager.getCurrentMaxID());
+                if (manager.findTransactionbyID(id) != null) {
+                    manager.setTransaction(id, null, 1.0, null, null);
+                    manager.removeTransaction(id);
+                }
+                manager.addTransaction(ExpenseCategory.GROCERY, i, date, member);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return (double) best / operations;
+    }
+}
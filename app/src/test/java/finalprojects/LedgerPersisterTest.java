@@ -0,0 +1,170 @@
+package finalprojects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LedgerPersisterTest {
+    private static final String USERNAME = "ledgerPersisterTestUser";
+    private MemberManager memberManager;
+    private Member member;
+    private LocalDate date;
+    private TransactionsManager manager;
+
+    @BeforeEach
+    void setup() throws IOException {
+        memberManager = new MemberManager();
+        member = memberManager.intern("John Doe");
+        date = LocalDate.of(2024, 5, 1);
+        cleanup();
+        manager = new TransactionsManager(memberManager);
+        manager.loadTransactionsFromCSV(USERNAME);
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        if (manager != null) {
+            manager.disableWriteBehind();
+        }
+        Files.deleteIfExists(LoginManager.login(USERNAME));
+        Files.deleteIfExists(LoginManager.journalPath(USERNAME));
+    }
+
+    @Test
+    void burstOfEdits_IsWrittenInAFewWrites() throws Exception {
+        manager.enableWriteBehind(USERNAME, 50);
+        for (int i = 0; i < 300; i++) {
+            manager.addTransaction(ExpenseCategory.GROCERY, i, date, member);
+        }
+        manager.setTransaction(1, null, 99.0, null, null);
+        manager.removeTransaction(2);
+        Thread.sleep(1000);
+        LedgerPersister persister = manager.getPersister();
+        assertTrue(persister.getWriteCount() >= 1 && persister.getWriteCount() <= 3, "Writes: " + persister.getWriteCount());
+        assertEquals(302, Files.readAllLines(LoginManager.journalPath(USERNAME)).size());
+        assertEquals(299, reload().getTransactions().size());
+    }
+
+    @Test
+    void close_FlushesPendingEdits() throws Exception {
+        manager.enableWriteBehind(USERNAME, 60_000);
+        manager.addTransaction(IncomeCategory.SALARY, 1000.0, date, member);
+        manager.addTransaction(ExpenseCategory.GROCERY, 50.0, date, member);
+        manager.disableWriteBehind();
+
+        TransactionsManager reader = reload();
+        assertEquals(2, reader.getTransactions().size());
+        assertEquals(50.0, reader.findTransactionbyID(2).getAmount());
+    }
+
+    @Test
+    void failedWrite_IsRetriedWithoutAnotherEdit() throws Exception {
+        // A directory in place of the journal makes the first append fail
+        Path journal = LoginManager.journalPath(USERNAME);
+        Files.createDirectory(journal);
+        manager.enableWriteBehind(USERNAME, 10);
+        manager.addTransaction(ExpenseCategory.GROCERY, 5.0, date, member);
+        LedgerPersister persister = manager.getPersister();
+        for (int i = 0; i < 250 && persister.getFailureCount() == 0; i++) {
+            Thread.sleep(20);
+        }
+        assertTrue(persister.getFailureCount() > 0);
+        assertEquals(0, persister.getWriteCount());
+
+        Files.delete(journal);
+        for (int i = 0; i < 250 && persister.getWriteCount() == 0; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(1, persister.getWriteCount());
+        assertEquals(0, persister.getFailureCount());
+        assertEquals(1, Files.readAllLines(journal).size());
+    }
+
+    @Test
+    void flush_CompactsLongJournalIntoSnapshot() throws Exception {
+        manager.enableWriteBehind(USERNAME, 60_000);
+        for (int i = 0; i < TransactionsManager.MIN_COMPACTION_RECORDS; i++) {
+            manager.addTransaction(IncomeCategory.SALARY, i, date, member);
+        }
+        manager.flush();
+
+        Path csvPath = LoginManager.login(USERNAME);
+        assertFalse(Files.exists(LoginManager.journalPath(USERNAME)), "Journal should be folded into the snapshot");
+        assertFalse(Files.exists(csvPath.resolveSibling(csvPath.getFileName() + ".tmp")));
+        assertEquals(TransactionsManager.MIN_COMPACTION_RECORDS, Files.readAllLines(csvPath).size());
+        assertEquals(1, manager.getPersister().getWriteCount());
+    }
+
+    @Test
+    void updateCSV_DrainsPendingEdits() throws Exception {
+        manager.enableWriteBehind(USERNAME, 60_000);
+        manager.addTransaction(IncomeCategory.SALARY, 1000.0, date, member);
+        manager.updateCSV(USERNAME);
+        manager.addTransaction(ExpenseCategory.GROCERY, 50.0, date, member);
+        manager.flush();
+
+        List<String> snapshot = Files.readAllLines(LoginManager.login(USERNAME));
+        assertEquals(1, snapshot.size());
+        assertTrue(snapshot.get(0).startsWith("1,Income:SALARY"));
+        List<String> journal = Files.readAllLines(LoginManager.journalPath(USERNAME));
+        assertEquals(1, journal.size());
+        assertTrue(journal.get(0).startsWith("A,2,Expense"));
+        assertEquals(2, reload().getTransactions().size());
+    }
+
+    @Test
+    void snapshot_ReclaimsSlotsOfRemovedTransactions() throws Exception {
+        manager.enableWriteBehind(USERNAME, 60_000);
+        for (int i = 1; i <= 1000; i++) {
+            manager.addTransaction(ExpenseCategory.GROCERY, i, date, member);
+        }
+        for (int id = 1; id <= 600; id++) {
+            manager.removeTransaction(id);
+        }
+        final List<TransactionEvent> events = new ArrayList<>();
+        manager.addTransactionListener(new TransactionListener() {
+            @Override
+            public void transactionsChanged(TransactionEvent event) {
+                events.add(event);
+            }
+        });
+        manager.updateCSV(USERNAME);
+
+        TransactionStore store = manager.getStore();
+        assertEquals(400, store.slotCount());
+        assertEquals(601, store.getSlot(0).getId());
+        assertEquals(1, events.size());
+        assertEquals(TransactionEvent.Type.RELOADED, events.get(0).getType());
+        manager.addTransaction(ExpenseCategory.GROCERY, 1.0, date, member);
+        assertEquals(1001, store.getSlot(400).getId());
+        manager.flush();
+        assertEquals(401, reload().getTransactions().size());
+    }
+
+    @Test
+    void writeAtomically_ReplacesWholeFile() throws Exception {
+        Path csvPath = LoginManager.login(USERNAME);
+        Files.write(csvPath, List.of("old", "content", "that", "is", "longer"));
+        LedgerPersister.writeAtomically(csvPath, "new\n".getBytes());
+        assertEquals(List.of("new"), Files.readAllLines(csvPath));
+    }
+
+    @Test
+    void constructor_RejectsNegativeDelay() {
+        assertThrows(IllegalArgumentException.class, () -> new LedgerPersister(manager, USERNAME, -1));
+    }
+
+    private TransactionsManager reload() {
+        TransactionsManager reader = new TransactionsManager(new MemberManager());
+        reader.loadTransactionsFromCSV(USERNAME);
+        return reader;
+    }
+}
@@ -0,0 +1,78 @@
+package finalprojects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LedgerServiceTest {
+    private static final String USERNAME = "ledgerServiceTestUser";
+    private MemberManager memberManager;
+
+    @BeforeEach
+    void setup() throws IOException {
+        memberManager = new MemberManager();
+        cleanup();
+        Files.write(LoginManager.login(USERNAME), List.of("1,Income:SALARY,1000.0,2024-04-01,John Doe"));
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        LedgerService.getInstance().unload(USERNAME);
+        Files.deleteIfExists(LoginManager.login(USERNAME));
+        Files.deleteIfExists(LoginManager.journalPath(USERNAME));
+    }
+
+    @Test
+    void getLedger_ReturnsSameLedgerForUser() {
+        TransactionsManager first = LedgerService.getInstance().getLedger(USERNAME, memberManager);
+        TransactionsManager second = LedgerService.getInstance().getLedger(USERNAME, memberManager);
+        assertSame(first, second);
+        assertEquals(1, first.getTransactions().size());
+    }
+
+    @Test
+    void getLedger_LoadsFromDiskOnlyOnce() throws IOException {
+        TransactionsManager ledger = LedgerService.getInstance().getLedger(USERNAME, memberManager);
+        Path csvPath = LoginManager.login(USERNAME);
+        Files.write(csvPath, List.of());
+        assertEquals(1, LedgerService.getInstance().getLedger(USERNAME, memberManager).getTransactions().size(),
+            "The shared ledger should not be re-read from disk");
+
+        LedgerService.getInstance().unload(USERNAME);
+        assertFalse(LedgerService.getInstance().isLoaded(USERNAME));
+        assertNotSame(ledger, LedgerService.getInstance().getLedger(USERNAME, memberManager));
+    }
+
+    @Test
+    void edits_AreVisibleToEveryReaderAndNotified() {
+        TransactionsManager tracking = LedgerService.getInstance().getLedger(USERNAME, memberManager);
+        TransactionsManager reporting = LedgerService.getInstance().getLedger(USERNAME, memberManager);
+        List<TransactionEvent> events = new ArrayList<>();
+        TransactionListener listener = events::add;
+        reporting.addTransactionListener(listener);
+
+        Member member = memberManager.findMemberByName("John Doe");
+        tracking.addTransaction(ExpenseCategory.GROCERY, 25.0, LocalDate.of(2024, 4, 2), member);
+        tracking.setTransaction(1, null, 1100.0, null, null);
+        tracking.removeTransaction(2);
+
+        assertEquals(1, reporting.getTransactions().size());
+        assertEquals(1100.0, reporting.findTransactionbyID(1).getAmount());
+        assertEquals(3, events.size());
+        assertEquals(TransactionEvent.Type.ADDED, events.get(0).getType());
+        assertEquals(TransactionEvent.Type.UPDATED, events.get(1).getType());
+        assertEquals(TransactionEvent.Type.REMOVED, events.get(2).getType());
+
+        reporting.removeTransactionListener(listener);
+        tracking.addTransaction(ExpenseCategory.GROCERY, 5.0, LocalDate.of(2024, 4, 3), member);
+        assertEquals(3, events.size());
+    }
+}
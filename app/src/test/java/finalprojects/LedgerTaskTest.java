@@ -0,0 +1,175 @@
+package finalprojects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.swing.SwingUtilities;
+
+public class LedgerTaskTest {
+    private static final String USERNAME = "ledgerTaskTestUser";
+    private MemberManager memberManager;
+
+    @BeforeEach
+    void setup() throws IOException {
+        memberManager = new MemberManager();
+        cleanup();
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        Files.deleteIfExists(LoginManager.login(USERNAME));
+        Files.deleteIfExists(LoginManager.journalPath(USERNAME));
+    }
+
+    @Test
+    void submit_NewerTaskSupersedesOlderOne() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(2);
+        final List<String> published = new ArrayList<>();
+        final TaskChannel channel = new TaskChannel();
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                channel.submit(new RecordingTask("old", release, published, finished));
+                channel.submit(new RecordingTask("new", null, published, finished));
+            }
+        });
+        release.countDown();
+
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        flushEventQueue();
+        assertEquals(List.of("new"), published);
+    }
+
+    @Test
+    void cancel_StopsTaskWithoutPublishing() throws Exception {
+        final CountDownLatch finished = new CountDownLatch(1);
+        final List<String> published = new ArrayList<>();
+        final TaskChannel channel = new TaskChannel();
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                channel.submit(new RecordingTask("cancelled", new CountDownLatch(1), published, finished));
+                channel.cancel();
+            }
+        });
+
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        flushEventQueue();
+        assertTrue(published.isEmpty());
+    }
+
+    @Test
+    void readLedger_LeavesCurrentLedgerUntilInstalled() throws Exception {
+        StringBuilder csv = new StringBuilder();
+        for (int id = 1; id <= 1000; id++) {
+            csv.append(id).append(",Expense:GROCERY,").append(id).append(".5,2024-04-01,John Doe\n");
+        }
+        Files.write(LoginManager.login(USERNAME), csv.toString().getBytes());
+        TransactionsManager manager = new TransactionsManager(memberManager);
+        manager.addTransaction(IncomeCategory.SALARY, 10.0, LocalDate.of(2024, 1, 1), memberManager.intern("Jane Doe"));
+        final List<TransactionEvent> events = new ArrayList<>();
+        manager.addTransactionListener(new TransactionListener() {
+            @Override
+            public void transactionsChanged(TransactionEvent event) {
+                events.add(event);
+            }
+        });
+        final List<Integer> progress = new ArrayList<>();
+        long version = manager.getVersion();
+
+        TransactionsManager.LoadedLedger loaded = manager.readLedger(USERNAME, progress::add);
+        assertEquals(1, manager.getTransactions().size());
+        assertEquals(1000, loaded.size());
+        assertEquals(100, (int) progress.get(progress.size() - 1));
+
+        manager.install(loaded);
+        assertEquals(1000, manager.getTransactions().size());
+        assertEquals(1000.5, manager.findTransactionbyID(1000).getAmount());
+        assertEquals(TransactionEvent.Type.RELOADED, events.get(0).getType());
+        assertNotEquals(version, manager.getVersion());
+    }
+
+    @Test
+    void readLocked_WaitsForEdits() throws Exception {
+        final TransactionsManager manager = new TransactionsManager(memberManager);
+        final Member john = memberManager.intern("John Doe");
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 20_000; i++) {
+                    manager.addTransaction(ExpenseCategory.GROCERY, 1.0, LocalDate.of(2024, 1, 1).plusDays(i % 365), john);
+                }
+            }
+        });
+        writer.start();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        while (writer.isAlive()) {
+            try {
+                manager.readLocked(() -> {
+                    int count = manager.displayTransactions(null, null, null, null, Expense.class, false, false).size();
+                    assertEquals(count, manager.getRollup().report(
+                        java.time.YearMonth.of(2024, 1), java.time.YearMonth.of(2024, 12)).getMonthlyTotals(false)
+                        .values().stream().mapToDouble(Double::doubleValue).sum(), 0.0);
+                    return count;
+                });
+            } catch (Throwable t) {
+                failure.set(t);
+                break;
+            }
+        }
+        writer.join();
+        assertNull(failure.get());
+    }
+
+    private static void flushEventQueue() throws Exception {
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+    }
+
+    private static class RecordingTask extends LedgerTask<String> {
+        private final String name;
+        private final CountDownLatch release;
+        private final List<String> published;
+        private final CountDownLatch finished;
+
+        private RecordingTask(String name, CountDownLatch release, List<String> published, CountDownLatch finished) {
+            this.name = name;
+            this.release = release;
+            this.published = published;
+            this.finished = finished;
+        }
+
+        @Override
+        protected String compute() throws Exception {
+            if (release != null) {
+                release.await(10, TimeUnit.SECONDS);
+            }
+            return name;
+        }
+
+        @Override
+        protected void succeeded(String result) {
+            published.add(result);
+            finished.countDown();
+        }
+
+        @Override
+        protected void cancelled() {
+            finished.countDown();
+        }
+    }
+}
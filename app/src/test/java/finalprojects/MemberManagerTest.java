@@ -2,7 +2,10 @@ package finalprojects;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class MemberManagerTest {
 
@@ -56,4 +59,54 @@ public class MemberManagerTest {
         foundMember = memberManager.findMemberByName("John Smith");
         assertNull(foundMember);
     }
+
+    @Test
+    public void testIntern_ReturnsCanonicalMemberWithStableId() {
+        Member first = memberManager.intern("John Doe");
+        Member second = memberManager.intern(new Member("John Doe"));
+        Member other = memberManager.intern("Jane Doe");
+
+        assertSame(first, second);
+        assertEquals(0, first.getId());
+        assertEquals(1, other.getId());
+        assertSame(other, memberManager.getMember(1));
+        assertEquals(2, memberManager.getMembers().size());
+    }
+
+    @Test
+    public void testFindMemberByName_CaseInsensitiveFindsOldest() {
+        Member lower = memberManager.intern("john doe");
+        memberManager.intern("John Doe");
+
+        assertSame(lower, memberManager.findMemberByName("JOHN DOE"));
+        assertNull(memberManager.findMemberByExactName("JOHN DOE"));
+        assertNull(memberManager.findMemberByName(null));
+    }
+
+    @Test
+    public void testRenameMember_UpdatesDictionaryAndTransactions() {
+        TransactionsManager manager = new TransactionsManager(memberManager);
+        Member member = memberManager.intern("John Doe");
+        manager.addTransaction(IncomeCategory.SALARY, 100.0, LocalDate.of(2024, 1, 1), member);
+
+        memberManager.renameMember(new Member("John Doe"), "Johnny Doe");
+
+        assertNull(memberManager.findMemberByName("john doe"));
+        assertSame(member, memberManager.findMemberByName("johnny doe"));
+        assertEquals(0, member.getId());
+        assertEquals("Johnny Doe", manager.findTransactionbyID(1).getMember().getName());
+        assertEquals(1, manager.displayTransactions(null, null, null, new Member("Johnny Doe"), null, false, false).size());
+
+        memberManager.intern("Jane Doe");
+        assertThrows(IllegalArgumentException.class, () -> memberManager.renameMember(member, "Jane Doe"));
+        assertThrows(IllegalArgumentException.class, () -> memberManager.renameMember(new Member("Nobody"), "Somebody"));
+    }
+
+    @Test
+    public void testMembers_UsableInHashSet() {
+        Set<Member> set = new HashSet<>();
+        set.add(new Member("John Doe"));
+        assertTrue(set.contains(new Member("John Doe")));
+        assertFalse(set.contains(new Member("Jane Doe")));
+    }
 }
@@ -0,0 +1,199 @@
+package finalprojects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class ParallelCsvLoaderTest {
+    private Path csvPath;
+
+    @BeforeEach
+    void setup() throws IOException {
+        csvPath = Files.createTempFile("parallel", ".csv");
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        Files.deleteIfExists(csvPath);
+    }
+
+    @Test
+    void read_MatchesSequentialReaderAcrossChunks() throws IOException {
+        writeMixedLedger();
+        MemberManager sequentialMembers = new MemberManager();
+        List<Transaction> expected = new ArrayList<>();
+        new TransactionCsvReader(sequentialMembers).read(csvPath, expected::add);
+        MemberManager parallelMembers = new MemberManager();
+        List<Transaction> actual = new ArrayList<>();
+        List<Integer> progress = new ArrayList<>();
+        new ParallelCsvLoader(parallelMembers, 997).read(csvPath, actual::add, progress::add);
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Transaction e = expected.get(i);
+            Transaction a = actual.get(i);
+            assertEquals(e.getId(), a.getId());
+            assertEquals(e.getClass(), a.getClass());
+            assertEquals(e.getCategory(), a.getCategory());
+            assertEquals(e.getAmount(), a.getAmount());
+            assertEquals(e.getDate(), a.getDate());
+            assertEquals(e.getMember().getName(), a.getMember().getName());
+            assertEquals(e.getMember().getId(), a.getMember().getId());
+            assertSame(parallelMembers.intern(a.getMember().getName()), a.getMember());
+        }
+        assertEquals(100, (int) progress.get(progress.size() - 1));
+    }
+
+    @Test
+    void read_StopsAtTheFirstMalformedLineLikeTheSequentialReader() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int id = 1; id <= 500; id++) {
+            lines.add(id + ",Expense:GROCERY,10.0,2024-01-05,John Doe");
+        }
+        lines.set(321, "322,Expense:GROCERY,ten,2024-01-05,John Doe");
+        lines.set(400, "401,Expense:GROCERY");
+        Files.write(csvPath, lines);
+
+        List<Transaction> expected = new ArrayList<>();
+        RuntimeException sequential = assertThrows(RuntimeException.class,
+            () -> new TransactionCsvReader(new MemberManager()).read(csvPath, expected::add));
+        List<Transaction> actual = new ArrayList<>();
+        RuntimeException parallel = assertThrows(RuntimeException.class,
+            () -> new ParallelCsvLoader(new MemberManager(), 256).read(csvPath, actual::add));
+
+        assertEquals(sequential.getClass(), parallel.getClass());
+        assertEquals(sequential.getMessage(), parallel.getMessage());
+        assertEquals(321, expected.size());
+        assertEquals(expected.size(), actual.size());
+    }
+
+    @Test
+    void read_EmptyDateYieldsUndatedTransactionLikeTheSequentialReader() throws IOException {
+        Files.write(csvPath, List.of("1,Expense:GROCERY,10.0,,John Doe", "2,Income:SALARY,20.0,2024-01-05,John Doe"));
+        List<Transaction> expected = new ArrayList<>();
+        new TransactionCsvReader(new MemberManager()).read(csvPath, expected::add);
+        List<Transaction> actual = new ArrayList<>();
+        new ParallelCsvLoader(new MemberManager()).read(csvPath, actual::add);
+        assertEquals(2, actual.size());
+        assertNull(expected.get(0).getDate());
+        assertNull(actual.get(0).getDate());
+        assertEquals(expected.get(1).getDate(), actual.get(1).getDate());
+    }
+
+    @Test
+    void read_EmptyFileYieldsNothing() throws IOException {
+        List<Transaction> actual = new ArrayList<>();
+        new ParallelCsvLoader(new MemberManager()).read(csvPath, actual::add);
+        assertTrue(actual.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> new ParallelCsvLoader(new MemberManager(), 0));
+    }
+
+    @Test
+    void readIntoStore_MatchesPerTransactionMerge() throws IOException {
+        writeMixedLedger();
+        MemberManager perTransactionMembers = new MemberManager();
+        TransactionStore expected = new TransactionStore(perTransactionMembers);
+        new ParallelCsvLoader(perTransactionMembers, 997).read(csvPath, expected::add);
+        MemberManager bulkMembers = new MemberManager();
+        TransactionStore actual = new TransactionStore(bulkMembers);
+        List<Integer> progress = new ArrayList<>();
+        new ParallelCsvLoader(bulkMembers, 997).read(csvPath, actual, progress::add);
+
+        assertEquals(expected.size(), actual.size());
+        for (int slot = 0; slot < expected.slotCount(); slot++) {
+            assertEquals(expected.idAt(slot), actual.idAt(slot));
+            assertEquals(expected.kindAt(slot), actual.kindAt(slot));
+            assertEquals(expected.categoryAt(slot), actual.categoryAt(slot));
+            assertEquals(expected.amountAt(slot), actual.amountAt(slot));
+            assertEquals(expected.dayAt(slot), actual.dayAt(slot));
+            assertEquals(expected.memberIdAt(slot), actual.memberIdAt(slot));
+        }
+        assertEquals(expected.getMaxId(), actual.getMaxId());
+        assertEquals(expected.findById(20_002).getMember().getName(), actual.findById(20_002).getMember().getName());
+        YearMonth from = YearMonth.of(2010, 1), to = YearMonth.of(2024, 12);
+        assertEquals(expected.getRollup().totalsByMonth(from, to, false), actual.getRollup().totalsByMonth(from, to, false));
+        assertEquals(100, (int) progress.get(progress.size() - 1));
+        assertThrows(IllegalArgumentException.class,
+            () -> new ParallelCsvLoader(new MemberManager()).read(csvPath, new TransactionStore(), null));
+    }
+
+    @Test
+    void readIntoStore_KeepsRowsBeforeMalformedLine() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int id = 1; id <= 500; id++) {
+            lines.add(id + ",Expense:GROCERY,10.0,2024-01-05,John Doe");
+        }
+        lines.set(321, "322,Expense:GROCERY,ten,2024-01-05,John Doe");
+        Files.write(csvPath, lines);
+        MemberManager members = new MemberManager();
+        TransactionStore store = new TransactionStore(members);
+        assertThrows(IllegalArgumentException.class, () -> new ParallelCsvLoader(members, 256).read(csvPath, store, null));
+        assertEquals(321, store.size());
+    }
+
+    @Test
+    void scan_AggregatesLikeTheLoadedStore() throws IOException {
+        writeMixedLedger();
+        MemberManager loadedMembers = new MemberManager();
+        TransactionStore store = new TransactionStore(loadedMembers);
+        new ParallelCsvLoader(loadedMembers, 997).read(csvPath, store, null);
+        MemberManager scannedMembers = new MemberManager();
+        RollupCube scanned = new RollupCube();
+        final int[] records = new int[1];
+        new ParallelCsvLoader(scannedMembers, 997).scan(csvPath, new LedgerRecordSink() {
+            @Override
+            public void accept(int id, int kind, int category, long units, int epochDay, int member) {
+                records[0]++;
+                scanned.accept(id, kind, category, units, epochDay, member);
+            }
+        }, null);
+
+        assertEquals(store.size(), records[0]);
+        assertEquals(loadedMembers.getMember(store.memberIdAt(0)).getName(), scannedMembers.getMember(store.memberIdAt(0)).getName());
+        YearMonth from = YearMonth.of(2010, 1), to = YearMonth.of(2024, 12);
+        Report expected = store.getRollup().report(from, to);
+        Report actual = scanned.report(from, to);
+        for (boolean income : new boolean[] {true, false}) {
+            assertEquals(expected.getMonthlyTotals(income), actual.getMonthlyTotals(income));
+            assertEquals(expected.getCategoryTotals(income), actual.getCategoryTotals(income));
+            assertEquals(expected.getMemberTotals(income), actual.getMemberTotals(income));
+        }
+    }
+
+    /**
+     * Helper method to write 20,000 lines with varied categories, line terminators, blank lines,
+     * extra fields, an invalid date that falls back to lenient parsing and a very long member name.
+     */
+    private void writeMixedLedger() throws IOException {
+        StringBuilder content = new StringBuilder();
+        Random random = new Random(23);
+        String[] categories = {"Income:SALARY", "Income::COMMISSION", "Expense:GROCERY", "Expense::HOUSING"};
+        for (int id = 1; id <= 20_000; id++) {
+            LocalDate date = LocalDate.of(2010, 1, 1).plusDays(random.nextInt(5000));
+            content.append(id).append(',').append(categories[random.nextInt(categories.length)]).append(',')
+                .append(random.nextInt(1_000_000) / 100.0).append(',').append(date).append(',')
+                .append("Member ").append(random.nextInt(50));
+            if (id % 1000 == 0) {
+                content.append(",ignored");
+            }
+            content.append(id % 7 == 0 ? "\r\n" : "\n");
+            if (id % 5000 == 0) {
+                content.append('\n');
+            }
+        }
+        content.append("20001,Expense:GROCERY,1.5,2024-02-30,").append("Long Name ".repeat(300)).append('\n');
+        content.append("20002,Income:SALARY,12.25,2024-03-01,Member 999");
+        Files.write(csvPath, content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
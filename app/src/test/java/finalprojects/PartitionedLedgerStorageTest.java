@@ -0,0 +1,194 @@
+package finalprojects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class PartitionedLedgerStorageTest {
+    private static final String USERNAME = "partitionedStorageTestUser";
+    private static final YearMonth JANUARY = YearMonth.of(2024, 1);
+    private static final YearMonth MAY = YearMonth.of(2024, 5);
+    private MemberManager memberManager;
+    private Path directory;
+
+    @BeforeEach
+    void setup() throws IOException {
+        memberManager = new MemberManager();
+        directory = LoginManager.partitionDirectory(USERNAME);
+        cleanup();
+        Files.write(LoginManager.login(USERNAME), List.of(
+            "1,Income:SALARY,1000.0,2024-01-05,John Doe",
+            "2,Expense:GROCERY,50.0,2024-01-20,John Doe",
+            "3,Expense:HOUSING,700.0,2024-03-01,John Doe"));
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        if (Files.exists(directory)) {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+        Files.deleteIfExists(LoginManager.csvPath(USERNAME));
+        Files.deleteIfExists(Path.of(LoginManager.csvPath(USERNAME) + LedgerStorage.MIGRATED_SUFFIX));
+        Files.deleteIfExists(LoginManager.journalPath(USERNAME));
+    }
+
+    @Test
+    void load_MigratesFlatFileIntoMonths() throws IOException {
+        TransactionsManager manager = load();
+
+        assertEquals(3, manager.getTransactions().size());
+        assertFalse(Files.exists(LoginManager.csvPath(USERNAME)));
+        assertTrue(Files.exists(Path.of(LoginManager.csvPath(USERNAME) + LedgerStorage.MIGRATED_SUFFIX)));
+        assertEquals(List.of("2024-01,2", "2024-03,1"), Files.readAllLines(directory.resolve(PartitionedLedgerStorage.MANIFEST)));
+        assertEquals(2, Files.readAllLines(PartitionedLedgerStorage.partitionPath(directory, JANUARY)).size());
+        assertEquals(3, load().getTransactions().size());
+    }
+
+    @Test
+    void compaction_RewritesOnlyEditedMonths() throws IOException {
+        TransactionsManager manager = load();
+        Path january = PartitionedLedgerStorage.partitionPath(directory, JANUARY);
+        FileTime untouched = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(january, untouched);
+
+        Member member = manager.memberManager.findMemberByName("John Doe");
+        for (int i = 0; i < TransactionsManager.MIN_COMPACTION_RECORDS; i++) {
+            manager.addTransaction(ExpenseCategory.GROCERY, i, MAY.atDay(1 + i % 28), member);
+        }
+        manager.compactIfNeeded(USERNAME);
+
+        assertFalse(Files.exists(LoginManager.journalPath(USERNAME)));
+        assertEquals(untouched, Files.getLastModifiedTime(january));
+        assertEquals(TransactionsManager.MIN_COMPACTION_RECORDS,
+            Files.readAllLines(PartitionedLedgerStorage.partitionPath(directory, MAY)).size());
+        assertEquals(List.of("2024-01,2", "2024-03,1", "2024-05," + TransactionsManager.MIN_COMPACTION_RECORDS),
+            Files.readAllLines(directory.resolve(PartitionedLedgerStorage.MANIFEST)));
+    }
+
+    @Test
+    void compaction_RewritesBothMonthsOfAMovedTransaction() throws IOException {
+        TransactionsManager manager = load();
+        manager.setTransaction(2, null, null, LocalDate.of(2024, 3, 15), null);
+        manager.removeTransaction(3);
+        manager.takeSnapshot(USERNAME, false).write();
+        assertEquals(List.of("2024-01,1", "2024-03,1"), Files.readAllLines(directory.resolve(PartitionedLedgerStorage.MANIFEST)));
+
+        manager.setTransaction(1, null, null, MAY.atDay(2), null);
+        manager.takeSnapshot(USERNAME, false).write();
+        manager.getJournal().clear();
+
+        assertFalse(Files.exists(PartitionedLedgerStorage.partitionPath(directory, JANUARY)));
+        assertEquals(List.of("2024-03,1", "2024-05,1"), Files.readAllLines(directory.resolve(PartitionedLedgerStorage.MANIFEST)));
+        TransactionsManager reader = load();
+        assertEquals(2, reader.getTransactions().size());
+        assertEquals(MAY.atDay(2), reader.findTransactionbyID(1).getDate());
+    }
+
+    @Test
+    void compaction_IncludesMonthsEditedInAPreviousSession() throws IOException {
+        TransactionsManager writer = load();
+        writer.setTransaction(3, null, 750.0, null, null);
+
+        TransactionsManager reader = load();
+        Member member = reader.memberManager.findMemberByName("John Doe");
+        for (int i = 0; i < TransactionsManager.MIN_COMPACTION_RECORDS; i++) {
+            reader.addTransaction(ExpenseCategory.GROCERY, i, MAY.atDay(1), member);
+        }
+        reader.compactIfNeeded(USERNAME);
+
+        assertFalse(Files.exists(LoginManager.journalPath(USERNAME)));
+        assertTrue(Files.readAllLines(PartitionedLedgerStorage.partitionPath(directory, YearMonth.of(2024, 3))).get(0).contains("750.0"));
+    }
+
+    @Test
+    void write_KeepsListedPartitionsUntilTheManifestIsReplaced() throws IOException {
+        TransactionsManager manager = load();
+        manager.removeTransaction(3);
+        Path blocked = directory.resolve(PartitionedLedgerStorage.MANIFEST + ".tmp");
+        Files.createDirectories(blocked.resolve("entry"));
+        try {
+            assertThrows(IOException.class, () -> manager.takeSnapshot(USERNAME, false).write());
+            assertEquals(List.of("2024-01,2", "2024-03,1"), Files.readAllLines(directory.resolve(PartitionedLedgerStorage.MANIFEST)));
+            assertTrue(Files.exists(PartitionedLedgerStorage.partitionPath(directory, YearMonth.of(2024, 3))));
+        } finally {
+            Files.delete(blocked.resolve("entry"));
+            Files.delete(blocked);
+        }
+        manager.takeSnapshot(USERNAME, true).write();
+        assertEquals(List.of("2024-01,2"), Files.readAllLines(directory.resolve(PartitionedLedgerStorage.MANIFEST)));
+        assertFalse(Files.exists(PartitionedLedgerStorage.partitionPath(directory, YearMonth.of(2024, 3))));
+    }
+
+    @Test
+    void undatedTransactions_KeepTheirOwnPartition() throws IOException {
+        TransactionsManager manager = load();
+        Member member = manager.memberManager.findMemberByName("John Doe");
+        manager.addTransaction(ExpenseCategory.GROCERY, 5.0, null, member);
+        manager.setTransaction(4, null, 6.0, null, null);
+        assertEquals(4, manager.getTransactions().size());
+        assertNull(load().findTransactionbyID(4).getDate());
+
+        manager.takeSnapshot(USERNAME, false).write();
+        manager.getJournal().clear();
+        assertEquals(List.of("undated,1", "2024-01,2", "2024-03,1"), Files.readAllLines(directory.resolve(PartitionedLedgerStorage.MANIFEST)));
+        TransactionsManager reader = load();
+        assertEquals(6.0, reader.findTransactionbyID(4).getAmount());
+        assertNull(reader.findTransactionbyID(4).getDate());
+
+        manager.removeTransaction(4);
+        manager.takeSnapshot(USERNAME, false).write();
+        assertEquals(List.of("2024-01,2", "2024-03,1"), Files.readAllLines(directory.resolve(PartitionedLedgerStorage.MANIFEST)));
+        assertFalse(Files.exists(PartitionedLedgerStorage.partitionPath(directory, LedgerStorage.UNDATED)));
+    }
+
+    @Test
+    void readMonths_OpensOnlyPartitionsInRange() throws IOException {
+        load();
+        Files.write(PartitionedLedgerStorage.partitionPath(directory, YearMonth.of(2024, 3)), List.of("not,a,transaction"));
+
+        List<Transaction> january = new ArrayList<>();
+        new PartitionedLedgerStorage().readMonths(USERNAME, memberManager, JANUARY, YearMonth.of(2024, 2), january::add);
+
+        assertEquals(2, january.size());
+        assertEquals(1, january.get(0).getId());
+    }
+
+    @Test
+    void fromSystemProperty_RejectsUnknownLayout() {
+        String previous = System.getProperty(LedgerStorage.PROPERTY);
+        try {
+            System.setProperty(LedgerStorage.PROPERTY, "partitioned");
+            assertTrue(LedgerStorage.fromSystemProperty() instanceof PartitionedLedgerStorage);
+            System.setProperty(LedgerStorage.PROPERTY, "sharded");
+            assertThrows(IllegalArgumentException.class, LedgerStorage::fromSystemProperty);
+        } finally {
+            if (previous == null) {
+                System.clearProperty(LedgerStorage.PROPERTY);
+            } else {
+                System.setProperty(LedgerStorage.PROPERTY, previous);
+            }
+        }
+    }
+
+    private TransactionsManager load() {
+        TransactionsManager manager = new TransactionsManager(new MemberManager(), new PartitionedLedgerStorage());
+        manager.loadTransactionsFromCSV(USERNAME);
+        return manager;
+    }
+}
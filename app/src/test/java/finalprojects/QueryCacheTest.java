@@ -0,0 +1,93 @@
+package finalprojects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class QueryCacheTest {
+
+    @Test
+    void get_ServesRepeatedKeysUntilTheVersionChanges() {
+        QueryCache<String, String> cache = new QueryCache<>(4);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("a1", cache.get("a", 1, () -> "a" + loads.incrementAndGet()));
+        assertEquals("a1", cache.get("a", 1, () -> "a" + loads.incrementAndGet()));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        assertEquals("a2", cache.get("a", 2, () -> "a" + loads.incrementAndGet()));
+        assertEquals("x3", cache.get("a", 1, () -> "x" + loads.incrementAndGet()));
+        assertEquals("a2", cache.get("a", 2, () -> "a" + loads.incrementAndGet()));
+        assertEquals(3, loads.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void get_EvictsLeastRecentlyUsedBeyondEntriesAndWeight() {
+        QueryCache<Integer, int[]> cache = new QueryCache<>(3, 10, ids -> ids.length);
+        cache.get(1, 0, () -> new int[2]);
+        cache.get(2, 0, () -> new int[2]);
+        cache.get(3, 0, () -> new int[2]);
+        cache.get(1, 0, () -> new int[2]);
+        cache.get(4, 0, () -> new int[2]);
+        assertEquals(3, cache.size());
+        long misses = cache.getMissCount();
+        cache.get(1, 0, () -> new int[2]);
+        assertEquals(misses, cache.getMissCount());
+        cache.get(2, 0, () -> new int[2]);
+        assertEquals(misses + 1, cache.getMissCount());
+
+        cache.get(5, 0, () -> new int[9]);
+        assertEquals(1, cache.size());
+        cache.get(6, 0, () -> new int[11]);
+        assertEquals(1, cache.size());
+        assertThrows(IllegalArgumentException.class, () -> new QueryCache<>(0));
+    }
+
+    @Test
+    void queryIds_IsCachedUntilAnEdit() {
+        MemberManager memberManager = new MemberManager();
+        TransactionsManager manager = new TransactionsManager(memberManager);
+        Member john = memberManager.intern("John Doe");
+        manager.addTransaction(ExpenseCategory.GROCERY, 30.0, LocalDate.of(2024, 1, 5), john);
+        manager.addTransaction(ExpenseCategory.GROCERY, 10.0, LocalDate.of(2024, 1, 7), john);
+        manager.addTransaction(IncomeCategory.SALARY, 20.0, LocalDate.of(2024, 2, 1), john);
+        TransactionFilter january = manager.createDisplayFilter(null, YearMonth.of(2024, 1), null, null, null, false);
+        TransactionFilter all = new TransactionFilter(null, null, null, null, null);
+
+        int[] byAmount = manager.queryIds(january, true, false);
+        assertArrayEquals(new int[]{2, 1}, byAmount);
+        byAmount[0] = 99;
+        assertArrayEquals(new int[]{2, 1}, manager.queryIds(january, true, true));
+        assertArrayEquals(new int[]{3, 2, 1}, manager.queryIds(all, false, true));
+        assertArrayEquals(new int[]{3, 2, 1}, manager.queryIds(new TransactionFilter(null, null, null, null, null), false, true));
+        assertEquals(2, manager.getQueryCache().getHitCount());
+        assertEquals(2, manager.getQueryCache().getMissCount());
+
+        manager.setTransaction(1, null, 5.0, null, null);
+        assertArrayEquals(new int[]{1, 2}, manager.queryIds(january, true, false));
+        assertEquals(3, manager.getQueryCache().getMissCount());
+    }
+
+    @Test
+    void report_IsCachedPerWindowUntilAnEdit() {
+        MemberManager memberManager = new MemberManager();
+        TransactionsManager manager = new TransactionsManager(memberManager);
+        Member john = memberManager.intern("John Doe");
+        manager.addTransaction(ExpenseCategory.GROCERY, 30.0, LocalDate.of(2024, 1, 5), john);
+
+        Report quarter = manager.report(YearMonth.of(2024, 1), YearMonth.of(2024, 3));
+        manager.report(YearMonth.of(2023, 1), YearMonth.of(2024, 3));
+        assertSame(quarter, manager.report(YearMonth.of(2024, 1), YearMonth.of(2024, 3)));
+        assertEquals(1, manager.getReportCache().getHitCount());
+
+        manager.addTransaction(ExpenseCategory.GROCERY, 12.0, LocalDate.of(2024, 2, 5), john);
+        Report updated = manager.report(YearMonth.of(2024, 1), YearMonth.of(2024, 3));
+        assertNotSame(quarter, updated);
+        assertEquals(12.0, updated.getMonthlyTotals(false).get(YearMonth.of(2024, 2)));
+    }
+}
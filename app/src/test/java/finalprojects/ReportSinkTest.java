@@ -0,0 +1,97 @@
+package finalprojects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Random;
+
+public class ReportSinkTest {
+    private static final String USERNAME = "reportSinkTestUser";
+    private static final LocalDate START = LocalDate.of(2023, 1, 1);
+
+    @BeforeEach
+    void setup() throws IOException {
+        UserData.getInstance().setUsername(USERNAME);
+        cleanup();
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        Files.deleteIfExists(LoginManager.login(USERNAME));
+        Files.deleteIfExists(LoginManager.journalPath(USERNAME));
+    }
+
+    @Test
+    void scan_MatchesReportOfLoadedLedger() throws IOException {
+        MemberManager writerMembers = new MemberManager();
+        TransactionsManager writer = new TransactionsManager(writerMembers);
+        writer.loadTransactionsFromCSV();
+        Random random = new Random(17);
+        Member[] members = {writerMembers.intern("John Doe"), writerMembers.intern("Jane Doe"), writerMembers.intern("Max Doe")};
+        TransactionCategory[] categories = {IncomeCategory.SALARY, IncomeCategory.COMMISSION, ExpenseCategory.GROCERY, ExpenseCategory.HOUSING};
+        for (int i = 0; i < 3000; i++) {
+            writer.addTransaction(categories[random.nextInt(4)], random.nextInt(100_000) / 100.0,
+                START.plusDays(random.nextInt(730)), members[random.nextInt(3)]);
+        }
+        writer.updateCSV(USERNAME);
+        // Edits after the snapshot only reach the journal
+        for (int i = 0; i < 300; i++) {
+            int id = 1 + random.nextInt(3000);
+            int edit = random.nextInt(3);
+            if (edit == 0) {
+                writer.setTransaction(id, categories[random.nextInt(4)], random.nextInt(1000) / 4.0,
+                    START.plusDays(random.nextInt(730)), members[random.nextInt(3)]);
+            } else if (edit == 1) {
+                writer.removeTransaction(id);
+            } else {
+                writer.addTransaction(categories[random.nextInt(4)], random.nextInt(1000) / 4.0,
+                    START.plusDays(random.nextInt(730)), members[random.nextInt(3)]);
+            }
+        }
+        assertTrue(writer.getJournal().getRecordCount() > 0);
+
+        MemberManager memberManager = new MemberManager();
+        TransactionsManager loaded = new TransactionsManager(memberManager);
+        loaded.loadTransactionsFromCSV(USERNAME);
+        YearMonth from = YearMonth.of(2023, 4);
+        YearMonth to = YearMonth.of(2024, 3);
+        Report expected = loaded.report(from, to);
+        ReportSink sink = ReportSink.scan(new CsvLedgerStorage(), USERNAME, memberManager, from, to);
+        Report actual = sink.getReport();
+
+        assertEquals(expected.getMonthCount(), actual.getMonthCount());
+        for (boolean income : new boolean[] {true, false}) {
+            assertEquals(expected.getMonthlyTotals(income), actual.getMonthlyTotals(income));
+            assertEquals(expected.getCategoryTotals(income), actual.getCategoryTotals(income));
+            assertEquals(expected.getMemberTotals(income), actual.getMemberTotals(income));
+            for (Member member : memberManager.getMembers()) {
+                assertEquals(expected.getMemberAverage(member.getId(), income), actual.getMemberAverage(member.getId(), income));
+            }
+            LocalDate startDate = LocalDate.of(2023, 5, 17), endDate = LocalDate.of(2024, 2, 3);
+            assertEquals(loaded.total(startDate, endDate, income), sink.total(startDate, endDate, income));
+        }
+    }
+
+    @Test
+    void accept_IgnoresRecordsOutsideWindowAndSkippedIds() {
+        IntIntHashMap skipped = new IntIntHashMap();
+        skipped.put(2, 0);
+        ReportSink sink = new ReportSink(YearMonth.of(2024, 1), YearMonth.of(2024, 1), skipped, new MemberManager());
+        int salary = CategoryRegistry.ordinal(IncomeCategory.SALARY);
+        sink.accept(1, TransactionStore.KIND_INCOME, salary, 10_000, DateIndex.toDay(LocalDate.of(2024, 1, 31)), 0);
+        sink.accept(2, TransactionStore.KIND_INCOME, salary, 20_000, DateIndex.toDay(LocalDate.of(2024, 1, 15)), 0);
+        sink.accept(3, TransactionStore.KIND_INCOME, salary, 40_000, DateIndex.toDay(LocalDate.of(2024, 2, 1)), 0);
+        sink.accept(4, TransactionStore.KIND_INCOME, salary, 80_000, DateIndex.NO_DAY, 0);
+
+        assertEquals(1.0, sink.getReport().getMonthlyTotals(true).get(YearMonth.of(2024, 1)));
+        assertEquals(1.0, sink.total(LocalDate.MIN, LocalDate.MAX, true));
+        assertThrows(IllegalArgumentException.class,
+            () -> new ReportSink(YearMonth.of(2024, 2), YearMonth.of(2024, 1), null, new MemberManager()));
+    }
+}
@@ -0,0 +1,79 @@
+package finalprojects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.Random;
+
+public class ReportTest {
+    private static final LocalDate START = LocalDate.of(2023, 1, 1);
+    private MemberManager memberManager;
+    private TransactionsManager manager;
+
+    @BeforeEach
+    void setup() {
+        memberManager = new MemberManager();
+        manager = new TransactionsManager(memberManager);
+    }
+
+    @Test
+    void report_FillsEveryAggregateOfTheWindow() {
+        Member john = memberManager.intern("John Doe");
+        Member jane = memberManager.intern("Jane Doe");
+        manager.addTransaction(IncomeCategory.SALARY, 300.0, LocalDate.of(2024, 1, 5), john);
+        manager.addTransaction(ExpenseCategory.GROCERY, 30.0, LocalDate.of(2024, 2, 1), jane);
+        manager.addTransaction(ExpenseCategory.HOUSING, 60.0, LocalDate.of(2024, 3, 31), jane);
+        manager.addTransaction(ExpenseCategory.HOUSING, 99.0, LocalDate.of(2024, 4, 1), jane);
+
+        Report report = manager.getRollup().report(YearMonth.of(2024, 1), YearMonth.of(2024, 3));
+
+        assertEquals(3, report.getMonthCount());
+        assertEquals(Map.of(YearMonth.of(2024, 1), 300.0), report.getMonthlyTotals(true));
+        assertEquals(Map.of(YearMonth.of(2024, 2), 30.0, YearMonth.of(2024, 3), 60.0), report.getMonthlyTotals(false));
+        assertEquals(Map.of(ExpenseCategory.GROCERY, 30.0, ExpenseCategory.HOUSING, 60.0), report.getCategoryTotals(false));
+        assertEquals(Map.of(IncomeCategory.SALARY, 300.0), report.getCategoryTotals(true));
+        assertEquals(Map.of(jane.getId(), 90.0), report.getMemberTotals(false));
+        assertEquals(100.0, report.getMemberAverage(john.getId(), true));
+        assertEquals(30.0, report.getMemberAverage(jane.getId(), false));
+        assertEquals(0.0, report.getMemberAverage(john.getId(), false));
+    }
+
+    @Test
+    void memberAverage_MatchesRawTransactions() {
+        Random random = new Random(3);
+        Member[] members = {memberManager.intern("John Doe"), memberManager.intern("Jane Doe")};
+        TransactionCategory[] categories = {IncomeCategory.SALARY, IncomeCategory.COMMISSION, ExpenseCategory.GROCERY, ExpenseCategory.HOUSING};
+        for (int i = 0; i < 2000; i++) {
+            manager.addTransaction(categories[random.nextInt(4)], random.nextInt(100_000) / 100.0,
+                START.plusDays(random.nextInt(730)), members[random.nextInt(2)]);
+        }
+        YearMonth from = YearMonth.of(2023, 4);
+        YearMonth to = YearMonth.of(2024, 3);
+        Report report = manager.getRollup().report(from, to);
+
+        for (Member member : members) {
+            long income = 0, expense = 0;
+            for (Transaction transaction : manager.getTransactions()) {
+                YearMonth month = YearMonth.from(transaction.getDate());
+                if (transaction.getMember().equals(member) && !month.isBefore(from) && !month.isAfter(to)) {
+                    if (transaction instanceof Income) {
+                        income += Amounts.toUnits(transaction.getAmount());
+                    } else {
+                        expense += Amounts.toUnits(transaction.getAmount());
+                    }
+                }
+            }
+            assertEquals(Amounts.toAmount(income) / 12, report.getMemberAverage(member.getId(), true));
+            assertEquals(Amounts.toAmount(expense) / 12, report.getMemberAverage(member.getId(), false));
+        }
+    }
+
+    @Test
+    void constructor_RejectsReversedWindow() {
+        assertThrows(IllegalArgumentException.class, () -> new Report(YearMonth.of(2024, 2), YearMonth.of(2024, 1)));
+    }
+}
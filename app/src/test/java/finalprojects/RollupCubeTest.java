@@ -0,0 +1,125 @@
+package finalprojects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class RollupCubeTest {
+    private static final LocalDate START = LocalDate.of(2023, 1, 1);
+    private MemberManager memberManager;
+    private TransactionsManager manager;
+
+    @BeforeEach
+    void setup() {
+        memberManager = new MemberManager();
+        manager = new TransactionsManager(memberManager);
+    }
+
+    @Test
+    void totals_FollowAddUpdateAndRemove() {
+        Member john = memberManager.intern("John Doe");
+        manager.addTransaction(IncomeCategory.SALARY, 100.10, LocalDate.of(2024, 1, 5), john);
+        manager.addTransaction(IncomeCategory.SALARY, 0.20, LocalDate.of(2024, 1, 20), john);
+        manager.addTransaction(ExpenseCategory.GROCERY, 30.0, LocalDate.of(2024, 2, 1), john);
+        RollupCube rollup = manager.getRollup();
+        YearMonth january = YearMonth.of(2024, 1);
+        YearMonth february = YearMonth.of(2024, 2);
+
+        assertEquals(Map.of(january, 100.30), rollup.totalsByMonth(january, february, true));
+        assertEquals(Map.of(february, 30.0), rollup.totalsByMonth(january, february, false));
+
+        manager.setTransaction(3, ExpenseCategory.HOUSING, 45.5, LocalDate.of(2024, 1, 31), null);
+        assertEquals(Map.of(ExpenseCategory.HOUSING, 45.5), rollup.totalsByCategory(january, january, false));
+        assertTrue(rollup.totalsByMonth(february, february, false).isEmpty());
+
+        manager.removeTransaction(1);
+        assertEquals(Map.of(john.getId(), 0.20), rollup.totalsByMember(january, february, true));
+        manager.removeTransaction(2);
+        manager.removeTransaction(3);
+        assertEquals(0, rollup.cellCount());
+    }
+
+    @Test
+    void totals_MatchRawTransactionsAfterRandomEdits() {
+        Random random = new Random(5);
+        Member[] members = {memberManager.intern("John Doe"), memberManager.intern("Jane Doe")};
+        TransactionCategory[] categories = {IncomeCategory.SALARY, IncomeCategory.COMMISSION, ExpenseCategory.GROCERY, ExpenseCategory.HOUSING};
+        for (int i = 0; i < 5000; i++) {
+            manager.addTransaction(categories[random.nextInt(4)], random.nextInt(100_000) / 100.0,
+                START.plusDays(random.nextInt(730)), members[random.nextInt(2)]);
+        }
+        for (int i = 0; i < 2000; i++) {
+            int id = 1 + random.nextInt(5000);
+            if (random.nextBoolean()) {
+                manager.setTransaction(id, categories[random.nextInt(4)], random.nextInt(1000) / 4.0,
+                    START.plusDays(random.nextInt(730)), members[random.nextInt(2)]);
+            } else {
+                manager.removeTransaction(id);
+            }
+        }
+
+        YearMonth from = YearMonth.of(2023, 4);
+        YearMonth to = YearMonth.of(2024, 3);
+        Map<YearMonth, Long> byMonth = new TreeMap<>();
+        Map<TransactionCategory, Long> byCategory = new HashMap<>();
+        Map<Integer, Long> byMember = new HashMap<>();
+        for (Transaction transaction : manager.getTransactions()) {
+            YearMonth month = YearMonth.from(transaction.getDate());
+            if (transaction instanceof Expense && !month.isBefore(from) && !month.isAfter(to)) {
+                long units = Amounts.toUnits(transaction.getAmount());
+                byMonth.merge(month, units, Long::sum);
+                byCategory.merge(transaction.getCategory(), units, Long::sum);
+                byMember.merge(transaction.getMember().getId(), units, Long::sum);
+            }
+        }
+        RollupCube rollup = manager.getRollup();
+        assertEquals(toAmounts(byMonth), rollup.totalsByMonth(from, to, false));
+        assertEquals(toAmounts(byCategory), rollup.totalsByCategory(from, to, false));
+        assertEquals(toAmounts(byMember), rollup.totalsByMember(from, to, false));
+        assertTrue(rollup.cellCount() <= 24 * 2 * 4 * 2, "Cells are bounded by months x types x categories x members");
+    }
+
+    @Test
+    void monthOf_MatchesCalendarAcrossEras() {
+        Random random = new Random(3);
+        for (int i = 0; i < 100_000; i++) {
+            int day = i < 50_000 ? i * 16 - 400_000 : random.nextInt();
+            YearMonth month = YearMonth.from(LocalDate.ofEpochDay(day));
+            assertEquals(month.getYear() * 12 + month.getMonthValue() - 1, RollupCube.monthOf(day), "Epoch day " + day);
+        }
+    }
+
+    @Test
+    void cells_SurviveRemovalsInsideProbeChains() {
+        RollupCube rollup = new RollupCube();
+        int day = DateIndex.toDay(LocalDate.of(2024, 5, 1));
+        for (int member = 0; member < 200; member++) {
+            rollup.add(day, TransactionStore.KIND_EXPENSE, 3, member, member + 1);
+        }
+        for (int member = 0; member < 200; member += 3) {
+            rollup.remove(day, TransactionStore.KIND_EXPENSE, 3, member, member + 1);
+        }
+        Map<Integer, Double> expected = new TreeMap<>();
+        for (int member = 0; member < 200; member++) {
+            if (member % 3 != 0) {
+                expected.put(member, Amounts.toAmount(member + 1));
+            }
+        }
+        YearMonth may = YearMonth.of(2024, 5);
+        assertEquals(expected, rollup.totalsByMember(may, may, false));
+        assertEquals(expected.size(), rollup.cellCount());
+    }
+
+    private static <K> Map<K, Double> toAmounts(Map<K, Long> units) {
+        Map<K, Double> amounts = new HashMap<>();
+        units.forEach((key, value) -> amounts.put(key, Amounts.toAmount(value)));
+        return amounts;
+    }
+}
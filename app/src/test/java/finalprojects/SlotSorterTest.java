@@ -0,0 +1,103 @@
+package finalprojects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class SlotSorterTest {
+    private MemberManager memberManager;
+    private TransactionsManager manager;
+
+    @BeforeEach
+    void setup() {
+        memberManager = new MemberManager();
+        manager = new TransactionsManager(memberManager);
+        Random random = new Random(29);
+        Member[] members = {memberManager.intern("John Doe"), memberManager.intern("Jane Doe")};
+        TransactionCategory[] categories = {IncomeCategory.SALARY, ExpenseCategory.GROCERY, ExpenseCategory.HOUSING};
+        double[] specials = {0.0, -0.0, -12.5, 1e-7, 1.0 / 3, 123456789.123456};
+        for (int i = 0; i < 20_000; i++) {
+            double amount = i % 50 == 0 ? specials[random.nextInt(specials.length)] : random.nextInt(2000) / 4.0;
+            manager.addTransaction(categories[random.nextInt(categories.length)], amount,
+                LocalDate.of(2020, 1, 1).plusDays(random.nextInt(400)), members[random.nextInt(2)]);
+        }
+        for (int i = 0; i < 500; i++) {
+            manager.removeTransaction(1 + random.nextInt(20_000));
+        }
+    }
+
+    @Test
+    void sorts_MatchBoxedStableSorts() {
+        TransactionStore store = manager.getStore();
+        int[] slots = store.querySlots(new TransactionFilter(null, null, null, null, null));
+        List<Integer> boxed = Arrays.stream(slots).boxed().collect(Collectors.toList());
+
+        int[] byAmount = slots.clone();
+        SlotSorter.sortByAmount(store, byAmount);
+        List<Integer> expectedByAmount = new ArrayList<>(boxed);
+        expectedByAmount.sort(Comparator.comparing(slot -> store.amountAt(slot)));
+        assertArrayEquals(expectedByAmount.stream().mapToInt(Integer::intValue).toArray(), byAmount);
+
+        int[] byDate = byAmount.clone();
+        SlotSorter.sortByDateDescending(store, byDate);
+        List<Integer> expectedByDate = new ArrayList<>(expectedByAmount);
+        expectedByDate.sort(Comparator.comparing((Integer slot) -> store.dayAt(slot)).reversed());
+        assertArrayEquals(expectedByDate.stream().mapToInt(Integer::intValue).toArray(), byDate);
+    }
+
+    @Test
+    void topSelections_AreThePrefixOfTheFullOrder() {
+        TransactionStore store = manager.getStore();
+        int[] slots = store.querySlots(new TransactionFilter(null, null, ExpenseCategory.GROCERY, null, null));
+        Integer[] boxed = Arrays.stream(slots).boxed().toArray(Integer[]::new);
+
+        Integer[] largest = boxed.clone();
+        Arrays.sort(largest, (a, b) -> {
+            int result = Double.compare(store.amountAt(b), store.amountAt(a));
+            return result != 0 ? result : Integer.compare(a, b);
+        });
+        Integer[] recent = boxed.clone();
+        Arrays.sort(recent, (a, b) -> {
+            int result = Integer.compare(store.dayAt(b), store.dayAt(a));
+            return result != 0 ? result : Integer.compare(a, b);
+        });
+        for (int limit : new int[]{0, 1, 7, 100, slots.length + 5}) {
+            int expected = Math.min(limit, slots.length);
+            assertArrayEquals(Arrays.stream(largest).limit(expected).mapToInt(Integer::intValue).toArray(),
+                SlotSorter.largestByAmount(store, slots, limit));
+            assertArrayEquals(Arrays.stream(recent).limit(expected).mapToInt(Integer::intValue).toArray(),
+                SlotSorter.mostRecent(store, slots, limit));
+        }
+        assertThrows(IllegalArgumentException.class, () -> SlotSorter.mostRecent(store, slots, -1));
+    }
+
+    @Test
+    void managerQueries_UsePrimitiveOrder() {
+        TransactionFilter all = new TransactionFilter(null, null, null, null, null);
+        List<Transaction> byAmount = manager.displayTransactions(null, null, null, null, null, true, false);
+        for (int i = 1; i < byAmount.size(); i++) {
+            assertTrue(Double.compare(byAmount.get(i - 1).getAmount(), byAmount.get(i).getAmount()) <= 0);
+        }
+        int[] ids = manager.queryIds(all, true, false);
+        assertEquals(byAmount.size(), ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(byAmount.get(i).getId(), ids[i]);
+        }
+
+        int[] top = manager.topIdsByAmount(all, 10);
+        int[] recent = manager.mostRecentIds(all, 10);
+        List<Transaction> byDate = manager.displayTransactions(null, null, null, null, null, false, true);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(byAmount.get(byAmount.size() - 1 - i).getAmount(), manager.findTransactionbyID(top[i]).getAmount());
+            assertEquals(byDate.get(i).getDate(), manager.findTransactionbyID(recent[i]).getDate());
+        }
+    }
+}
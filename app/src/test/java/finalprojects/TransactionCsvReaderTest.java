@@ -0,0 +1,134 @@
+package finalprojects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TransactionCsvReaderTest {
+    private MemberManager memberManager;
+    private TransactionCsvReader reader;
+
+    @BeforeEach
+    void setup() {
+        memberManager = new MemberManager();
+        reader = new TransactionCsvReader(memberManager);
+    }
+
+    @Test
+    void parseLine_MatchesReadFromCsv() {
+        String[] lines = {
+            "1,Income:SALARY,10000.0,2024-04-03,snoopydad",
+            "2,Expense:HOUSING,2050.0,2024-03-28,snoopy",
+            "3,Expense::GROCERY,15.25,2024-02-29,snoopy",
+            "4,Income:COMMISSION,-0.5,2023-12-31,Jane Doe",
+            "5,Income:salary,1e3,2023-01-01,John Doe",
+            "6,Expense:OTHER,0.1,2023-02-30,John Doe,extra",
+        };
+        for (String line : lines) {
+            Transaction expected = Transaction.readFromCsv(line, new MemberManager());
+            Transaction actual = parse(line);
+            assertSame(expected.getClass(), actual.getClass(), line);
+            assertEquals(expected.getId(), actual.getId(), line);
+            assertEquals(expected.getCategory(), actual.getCategory(), line);
+            assertEquals(expected.getAmount(), actual.getAmount(), line);
+            assertEquals(expected.getDate(), actual.getDate(), line);
+            assertEquals(expected.getMember(), actual.getMember(), line);
+        }
+    }
+
+    @Test
+    void parseAmount_EqualsParseDouble() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            String amount = random.nextInt(1000000) + "." + random.nextInt(100);
+            if (i % 3 == 0) {
+                amount = "-" + amount;
+            }
+            if (i % 7 == 0) {
+                amount = Double.toString(random.nextDouble() * 1e9);
+            }
+            ByteBuffer buf = ByteBuffer.wrap(amount.getBytes(StandardCharsets.US_ASCII));
+            assertEquals(Double.parseDouble(amount), TransactionCsvReader.parseAmount(buf, 0, buf.limit()), amount);
+        }
+    }
+
+    @Test
+    void parseAmount_InvalidAmount_ThrowsIllegalArgumentException() {
+        ByteBuffer buf = ByteBuffer.wrap("abc".getBytes(StandardCharsets.US_ASCII));
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> TransactionCsvReader.parseAmount(buf, 0, 3));
+        assertEquals("Invalid amount format.", exception.getMessage());
+    }
+
+    @Test
+    void parseEpochDay_MatchesLocalDate() {
+        for (LocalDate date = LocalDate.of(1999, 12, 1); date.isBefore(LocalDate.of(2031, 1, 1)); date = date.plusDays(1)) {
+            ByteBuffer buf = ByteBuffer.wrap(date.toString().getBytes(StandardCharsets.US_ASCII));
+            assertEquals(date.toEpochDay(), TransactionCsvReader.parseEpochDay(buf, 0, 10), date.toString());
+        }
+    }
+
+    @Test
+    void parseLine_InvalidDate_ThrowsLikeReadFromCsv() {
+        assertThrows(DateTimeParseException.class, () -> parse("1,Income:SALARY,1.0,2023-13-01,John Doe"));
+        assertThrows(DateTimeParseException.class, () -> parse("1,Income:SALARY,1.0,15-04-2023,John Doe"));
+    }
+
+    @Test
+    void parseLine_MalformedLine_ThrowsIllegalArgumentException() {
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> parse("1,Income:SALARY,1000.0"));
+        assertEquals("data is malformed and does not contain enough data elements.", exception.getMessage());
+    }
+
+    @Test
+    void parseLine_SharesMembersAndRegistersThem() {
+        Transaction first = parse("1,Income:SALARY,1.0,2024-01-01,John Doe");
+        Transaction second = parse("2,Expense:GROCERY,2.0,2024-01-02,John Doe");
+        assertSame(first.getMember(), second.getMember());
+        assertEquals(1, memberManager.getMembers().size());
+    }
+
+    @Test
+    void read_HandlesLinesSpanningBufferBoundaries() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 1; i <= 500; i++) {
+            csv.append(i).append(",Expense:GROCERY,").append(i).append(".5,2024-01-")
+               .append(String.format("%02d", i % 28 + 1)).append(",Member").append(i % 5)
+               .append(i % 2 == 0 ? "\r\n" : "\n");
+        }
+        csv.append("501,Income:SALARY,9.0,2024-02-01,a member with a particularly long name that overflows the buffer");
+        Path file = Files.createTempFile("ledger", ".csv");
+        try {
+            Files.write(file, csv.toString().getBytes(StandardCharsets.UTF_8));
+            List<Transaction> transactions = new ArrayList<>();
+            new TransactionCsvReader(memberManager, 16).read(file, transactions::add);
+
+            assertEquals(501, transactions.size());
+            for (int i = 0; i < 500; i++) {
+                assertEquals(i + 1, transactions.get(i).getId());
+                assertEquals(i + 1.5, transactions.get(i).getAmount());
+            }
+            assertEquals("a member with a particularly long name that overflows the buffer", transactions.get(500).getMember().getName());
+            assertEquals(6, memberManager.getMembers().size());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private Transaction parse(String line) {
+        List<Transaction> result = new ArrayList<>();
+        ByteBuffer buf = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        reader.parseLine(buf, 0, buf.limit(), result::add);
+        return result.get(0);
+    }
+}
@@ -0,0 +1,147 @@
+package finalprojects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class TransactionJournalTest {
+    private static final String USERNAME = "journalTestUser";
+    private MemberManager memberManager;
+    private Member member;
+    private LocalDate date;
+
+    @BeforeEach
+    void setup() throws IOException {
+        memberManager = new MemberManager();
+        member = new Member("John Doe");
+        date = LocalDate.of(2024, 3, 1);
+        UserData.getInstance().setUsername(USERNAME);
+        cleanup();
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        Files.deleteIfExists(LoginManager.login(USERNAME));
+        Files.deleteIfExists(LoginManager.journalPath(USERNAME));
+    }
+
+    @Test
+    void edits_AreAppendedInsteadOfRewritingSnapshot() throws IOException {
+        TransactionsManager manager = new TransactionsManager(memberManager);
+        manager.loadTransactionsFromCSV();
+        manager.addTransaction(IncomeCategory.SALARY, 1000.0, date, member);
+        manager.addTransaction(ExpenseCategory.GROCERY, 50.0, date, member);
+        manager.setTransaction(1, null, 1200.0, null, null);
+        manager.removeTransaction(2);
+
+        assertEquals(0, Files.size(LoginManager.login(USERNAME)), "Snapshot should not be rewritten on each edit");
+        List<String> records = Files.readAllLines(LoginManager.journalPath(USERNAME));
+        assertEquals(4, records.size());
+        assertTrue(records.get(0).startsWith("A,1,Income:SALARY"));
+        assertEquals("D,2", records.get(3));
+    }
+
+    @Test
+    void load_ReplaysJournalOnTopOfSnapshot() {
+        TransactionsManager writer = new TransactionsManager(memberManager);
+        writer.loadTransactionsFromCSV();
+        writer.addTransaction(IncomeCategory.SALARY, 1000.0, date, member);
+        writer.updateCSV(USERNAME);
+        writer.addTransaction(ExpenseCategory.GROCERY, 50.0, date, member);
+        writer.setTransaction(1, null, 1500.0, null, null);
+
+        TransactionsManager reader = new TransactionsManager(new MemberManager());
+        reader.loadTransactionsFromCSV();
+        assertEquals(2, reader.getTransactions().size());
+        assertEquals(1500.0, reader.findTransactionbyID(1).getAmount());
+        assertEquals(ExpenseCategory.GROCERY, reader.findTransactionbyID(2).getCategory());
+    }
+
+    @Test
+    void compactIfNeeded_FoldsJournalIntoSnapshot() throws IOException {
+        TransactionsManager manager = new TransactionsManager(memberManager);
+        manager.loadTransactionsFromCSV();
+        for (int i = 0; i < TransactionsManager.MIN_COMPACTION_RECORDS; i++) {
+            manager.addTransaction(IncomeCategory.SALARY, i, date, member);
+        }
+        manager.compactIfNeeded(USERNAME);
+
+        assertFalse(Files.exists(LoginManager.journalPath(USERNAME)), "Journal should be cleared after compaction");
+        assertEquals(TransactionsManager.MIN_COMPACTION_RECORDS, Files.readAllLines(LoginManager.login(USERNAME)).size());
+    }
+
+    @Test
+    void compactIfNeeded_KeepsSmallJournal() {
+        TransactionsManager manager = new TransactionsManager(memberManager);
+        manager.loadTransactionsFromCSV();
+        manager.addTransaction(IncomeCategory.SALARY, 1000.0, date, member);
+        manager.compactIfNeeded(USERNAME);
+        assertTrue(Files.exists(LoginManager.journalPath(USERNAME)));
+        assertEquals(1, manager.getJournal().getRecordCount());
+    }
+
+    @Test
+    void replay_SkipsTornRecord() throws IOException {
+        Path path = LoginManager.journalPath(USERNAME);
+        Files.write(path, List.of("A,1,Income:SALARY,100.0,2024-03-01,John Doe", "A,2,Expense:GRO"));
+        TransactionJournal journal = new TransactionJournal(path);
+        Map<Integer, Transaction> byId = TransactionJournal.byId(List.of());
+        journal.replay(byId, memberManager);
+        assertEquals(1, byId.size());
+        assertEquals(1, journal.getRecordCount());
+    }
+
+    @Test
+    void replay_EditsStoreSlotsInPlace() throws IOException {
+        TransactionStore store = new TransactionStore(memberManager);
+        for (int id = 1; id <= 4; id++) {
+            Transaction transaction = new Expense(ExpenseCategory.GROCERY, id, date, member);
+            transaction.setId(id);
+            store.add(transaction);
+        }
+        Path path = LoginManager.journalPath(USERNAME);
+        Files.write(path, List.of("U,2,Expense:HOUSING,20.5,2024-05-01,John Doe", "D,3",
+            "A,5,Income:SALARY,100.0,2024-06-01,John Doe", "D,9"));
+        TransactionJournal journal = new TransactionJournal(path);
+        Set<YearMonth> touchedMonths = new HashSet<>();
+        journal.replay(store, touchedMonths);
+
+        assertEquals(4, journal.getRecordCount());
+        assertEquals(4, store.size());
+        assertEquals(1, store.slotOf(2), "An updated transaction keeps its slot");
+        assertEquals(20.5, store.findById(2).getAmount());
+        assertEquals(ExpenseCategory.HOUSING, store.findById(2).getCategory());
+        assertNull(store.findById(3));
+        assertEquals(4, store.slotOf(5), "An added transaction is appended");
+        assertEquals(List.of(1, 2, 4, 5), store.stream().map(Transaction::getId).collect(Collectors.toList()));
+        assertEquals(Set.of(YearMonth.of(2024, 3), YearMonth.of(2024, 5), YearMonth.of(2024, 6)), touchedMonths);
+    }
+
+    @Test
+    void replay_LeavesStoreAloneWithoutJournal() throws IOException {
+        TransactionStore store = new TransactionStore(memberManager);
+        store.add(new Income(IncomeCategory.SALARY, 10.0, date, member));
+        Path path = LoginManager.journalPath(USERNAME);
+        TransactionJournal journal = new TransactionJournal(path);
+        Set<YearMonth> touchedMonths = new HashSet<>();
+        journal.replay(store, touchedMonths);
+        Files.createFile(path);
+        journal.replay(store, touchedMonths);
+
+        assertEquals(0, journal.getRecordCount());
+        assertEquals(1, store.size());
+        assertTrue(touchedMonths.isEmpty());
+    }
+}
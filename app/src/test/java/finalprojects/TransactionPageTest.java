@@ -0,0 +1,182 @@
+package finalprojects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+import javax.swing.SwingUtilities;
+
+public class TransactionPageTest {
+    private MemberManager memberManager;
+    private TransactionsManager manager;
+    private final TransactionFilter all = new TransactionFilter(null, null, null, null, null);
+
+    @BeforeEach
+    void setup() {
+        memberManager = new MemberManager();
+        manager = new TransactionsManager(memberManager);
+        Random random = new Random(31);
+        Member[] members = {memberManager.intern("John Doe"), memberManager.intern("Jane Doe")};
+        TransactionCategory[] categories = {IncomeCategory.SALARY, ExpenseCategory.GROCERY, ExpenseCategory.HOUSING};
+        for (int i = 0; i < 3_000; i++) {
+            manager.addTransaction(categories[random.nextInt(categories.length)], random.nextInt(200) / 4.0,
+                LocalDate.of(2023, 1, 1).plusDays(random.nextInt(90)), members[random.nextInt(2)]);
+        }
+        for (int i = 0; i < 100; i++) {
+            manager.removeTransaction(1 + random.nextInt(3_000));
+        }
+    }
+
+    @Test
+    void queryPage_PagesConcatenateToTheFullOrder() {
+        TransactionFilter grocery = new TransactionFilter(null, null, ExpenseCategory.GROCERY, null, null);
+        boolean[][] sorts = {{false, false}, {true, false}, {false, true}, {true, true}};
+        for (TransactionFilter filter : new TransactionFilter[]{all, grocery}) {
+            for (boolean[] sort : sorts) {
+                int[] expected = manager.queryIds(filter, sort[0], sort[1]);
+                int[] actual = new int[0];
+                TransactionPage.Cursor cursor = null;
+                do {
+                    TransactionPage page = manager.queryPage(filter, sort[0], sort[1], cursor, 0, 97);
+                    int length = actual.length;
+                    actual = Arrays.copyOf(actual, length + page.size());
+                    System.arraycopy(page.getIds(), 0, actual, length, page.size());
+                    cursor = page.getNext();
+                } while (cursor != null);
+                assertArrayEquals(expected, actual);
+                assertEquals(expected.length, manager.countTransactions(filter));
+            }
+        }
+    }
+
+    @Test
+    void queryPage_SkipsRowsAndKeepsItsPlaceAcrossEdits() {
+        int[] expected = manager.queryIds(all, true, false);
+        TransactionPage skipped = manager.queryPage(all, true, false, null, 1_000, 10);
+        assertArrayEquals(Arrays.copyOfRange(expected, 1_000, 1_010), skipped.getIds());
+
+        TransactionPage first = manager.queryPage(all, true, false, null, 0, 10);
+        assertTrue(first.hasMore());
+        manager.removeTransaction(first.getIds()[0]);
+        manager.addTransaction(ExpenseCategory.GROCERY, -1.0, LocalDate.of(2023, 1, 1), memberManager.intern("John Doe"));
+        TransactionPage next = manager.queryPage(all, true, false, first.getNext(), 0, 10);
+        assertArrayEquals(Arrays.copyOfRange(expected, 10, 20), next.getIds());
+
+        TransactionPage empty = manager.queryPage(all, false, false, null, 0, 0);
+        assertEquals(0, empty.size());
+        assertTrue(empty.hasMore());
+        TransactionPage last = manager.queryPage(all, false, false, null, manager.countTransactions(all) - 1, 5);
+        assertEquals(1, last.size());
+        assertFalse(last.hasMore());
+    }
+
+    @Test
+    void queryPage_SeeksLargeSkipsByKey() {
+        Random random = new Random(47);
+        Member john = memberManager.intern("John Doe");
+        for (int i = 0; i < 6_000; i++) {
+            manager.addTransaction(ExpenseCategory.GROCERY, random.nextInt(40) / 4.0,
+                LocalDate.of(2023, 1, 1).plusDays(random.nextInt(90)), john);
+        }
+        TransactionFilter grocery = new TransactionFilter(null, null, ExpenseCategory.GROCERY, null, null);
+        boolean[][] sorts = {{false, false}, {true, false}, {false, true}};
+        for (TransactionFilter filter : new TransactionFilter[]{all, grocery}) {
+            for (boolean[] sort : sorts) {
+                int[] expected = manager.queryIds(filter, sort[0], sort[1]);
+                for (int skip : new int[]{TransactionsManager.SEEK_SKIP + 1, 5_000, expected.length - 3}) {
+                    TransactionPage page = manager.queryPage(filter, sort[0], sort[1], null, skip, 10);
+                    assertArrayEquals(Arrays.copyOfRange(expected, skip, Math.min(expected.length, skip + 10)), page.getIds());
+                }
+                TransactionPage first = manager.queryPage(filter, sort[0], sort[1], null, 0, 100);
+                TransactionPage after = manager.queryPage(filter, sort[0], sort[1], first.getNext(), 4_500, 10);
+                assertArrayEquals(Arrays.copyOfRange(expected, 4_600, 4_610), after.getIds());
+                TransactionPage past = manager.queryPage(filter, sort[0], sort[1], null, expected.length, 10);
+                assertEquals(0, past.size());
+                assertFalse(past.hasMore());
+            }
+        }
+    }
+
+    @Test
+    void queryPage_RejectsBadArguments() {
+        TransactionPage.Cursor byAmount = manager.queryPage(all, true, false, null, 0, 1).getNext();
+        assertThrows(IllegalArgumentException.class, () -> manager.queryPage(all, false, true, byAmount, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> manager.queryPage(all, false, false, null, -1, 1));
+        assertThrows(IllegalArgumentException.class, () -> manager.queryPage(all, false, false, null, 0, -1));
+        // Sorting by date is ignored when sorting by amount, as in queryIds
+        assertEquals(1, manager.queryPage(all, true, true, byAmount, 0, 1).size());
+    }
+
+    @Test
+    void tableModel_FetchesWindowsAboveTheThreshold() throws Exception {
+        final TransactionTableModel model = new TransactionTableModel(manager, 100);
+        manager.addTransactionListener(model);
+        model.setQuery(all, false, true);
+        assertTrue(model.isPaged());
+        final int[] expected = manager.queryIds(all, false, true);
+        assertEquals(expected.length, model.getRowCount());
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                // The first window comes with the query; any other one is fetched in the background
+                assertEquals(expected[5], model.getIdAt(5));
+                assertEquals(TransactionTableModel.LOADING_TEXT, model.getValueAt(2_000, 0));
+                assertNull(model.getValueAt(2_000, 1));
+                assertFalse(model.isLoaded(2_000));
+                assertThrows(IndexOutOfBoundsException.class, () -> model.getIdAt(2_000));
+            }
+        });
+        for (int row : new int[]{0, 2_000, 5, expected.length - 1, 1_500, 700, 701}) {
+            assertEquals(expected[row], awaitIdAt(model, row));
+        }
+        for (int row = expected.length - 1; row >= 0; row--) {
+            assertEquals(expected[row], awaitIdAt(model, row));
+        }
+
+        manager.removeTransaction(expected[3]);
+        awaitRowCount(model, expected.length - 1);
+        assertEquals(expected[4], model.getIdAt(3));
+
+        model.setQuery(new TransactionFilter(null, null, null, memberManager.intern("Nobody"), null), false, true);
+        assertFalse(model.isPaged());
+        assertEquals(0, model.getRowCount());
+    }
+
+    private static int awaitIdAt(final TransactionTableModel model, final int row) throws Exception {
+        final int[] id = {-1};
+        for (int i = 0; i < 500 && id[0] < 0; i++) {
+            SwingUtilities.invokeAndWait(new Runnable() {
+                @Override
+                public void run() {
+                    if (model.isLoaded(row)) {
+                        id[0] = model.getIdAt(row);
+                    }
+                }
+            });
+            if (id[0] < 0) {
+                Thread.sleep(10);
+            }
+        }
+        return id[0];
+    }
+
+    private static void awaitRowCount(final TransactionTableModel model, int count) throws Exception {
+        final int[] rows = new int[1];
+        for (int i = 0; i < 500; i++) {
+            SwingUtilities.invokeAndWait(new Runnable() {
+                @Override
+                public void run() {
+                    rows[0] = model.getRowCount();
+                }
+            });
+            if (rows[0] == count) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        assertEquals(count, rows[0]);
+    }
+}
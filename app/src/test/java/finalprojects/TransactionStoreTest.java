@@ -0,0 +1,267 @@
+package finalprojects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+public class TransactionStoreTest {
+    private TransactionStore store;
+    private Member member;
+    private LocalDate date;
+
+    @BeforeEach
+    void setup() {
+        store = new TransactionStore();
+        member = new Member("John Doe");
+        date = LocalDate.of(2024, 1, 1);
+    }
+
+    @Test
+    void findById_AfterAddAndRemove() {
+        for (int id = 1; id <= 5; id++) {
+            store.add(transaction(id));
+        }
+        assertEquals(3, store.findById(3).getId());
+        assertTrue(store.remove(transaction(3)));
+        assertNull(store.findById(3));
+        assertFalse(store.contains(transaction(3)));
+        assertFalse(store.remove(transaction(3)));
+        assertEquals(4, store.size());
+    }
+
+    @Test
+    void removal_PreservesInsertionOrder() {
+        for (int id = 1; id <= 6; id++) {
+            store.add(transaction(id));
+        }
+        store.remove(transaction(2));
+        store.remove(1);
+        store.add(transaction(7));
+
+        List<Integer> ids = new ArrayList<>();
+        for (Transaction transaction : store) {
+            ids.add(transaction.getId());
+        }
+        assertEquals(List.of(1, 4, 5, 6, 7), ids);
+        for (int i = 0; i < store.size(); i++) {
+            assertEquals(ids.get(i).intValue(), store.get(i).getId());
+        }
+    }
+
+    @Test
+    void seekSlot_RanksMatchingSlotsAfterASlot() {
+        for (int id = 1; id <= 8; id++) {
+            store.add(transaction(id));
+        }
+        TransactionFilter all = new TransactionFilter(null, null, null, null, null);
+        TransactionFilter expenses = new TransactionFilter(null, null, null, null, Expense.class);
+        assertEquals(3, store.seekSlot(all, -1, 3));
+        store.removeById(2);
+        store.removeById(5);
+
+        // Live slots are now 0, 2, 3, 5, 6 and 7
+        for (TransactionFilter filter : new TransactionFilter[]{all, expenses}) {
+            assertEquals(0, store.seekSlot(filter, -1, 0));
+            assertEquals(3, store.seekSlot(filter, -1, 2));
+            assertEquals(5, store.seekSlot(filter, 1, 2));
+            assertEquals(7, store.seekSlot(filter, 3, 2));
+            assertEquals(-1, store.seekSlot(filter, 3, 3));
+            assertEquals(-1, store.seekSlot(filter, 7, 0));
+        }
+        assertThrows(IllegalArgumentException.class, () -> store.seekSlot(all, -1, -1));
+    }
+
+    @Test
+    void iteratorRemove_KeepsIndexInSync() {
+        for (int id = 1; id <= 4; id++) {
+            store.add(transaction(id));
+        }
+        Iterator<Transaction> iterator = store.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getId() % 2 == 0) {
+                iterator.remove();
+            }
+        }
+        assertEquals(2, store.size());
+        assertNull(store.findById(2));
+        assertNotNull(store.findById(3));
+    }
+
+    @Test
+    void maxId_IsMonotonicUntilCleared() {
+        store.add(transaction(4));
+        store.add(transaction(9));
+        store.remove(transaction(9));
+        assertEquals(9, store.getMaxId());
+        store.clear();
+        assertEquals(0, store.getMaxId());
+        assertTrue(store.isEmpty());
+    }
+
+    @Test
+    void generateNewId_NotReusedAfterRemovingNewest() {
+        TransactionsManager manager = new TransactionsManager(new MemberManager());
+        manager.addTransaction(IncomeCategory.SALARY, 1.0, date, member);
+        manager.addTransaction(IncomeCategory.SALARY, 2.0, date, member);
+        manager.removeTransaction(2);
+        manager.addTransaction(IncomeCategory.SALARY, 3.0, date, member);
+        assertNull(manager.findTransactionbyID(2));
+        assertEquals(3.0, manager.findTransactionbyID(3).getAmount());
+    }
+
+    @Test
+    void amountsOutOfRange_AreRejectedWithoutChangingTheStore() {
+        store.add(transaction(1));
+        Transaction huge = transaction(2);
+        huge.setAmount(1e15);
+        assertThrows(IllegalArgumentException.class, () -> store.add(huge));
+        assertEquals(1, store.size());
+        assertEquals(1, store.slotCount());
+
+        Transaction view = store.findById(1);
+        view.setAmount(Double.NaN);
+        assertThrows(IllegalArgumentException.class, () -> store.update(view));
+        assertEquals(1.0, store.findById(1).getAmount());
+        assertEquals(1.0, store.getDailyTotals().total(date, date, false));
+        assertEquals(1, store.query(new TransactionFilter(null, null, ExpenseCategory.GROCERY, null, null)).size());
+    }
+
+    @Test
+    void compact_ReclaimsRemovedSlotsInOrder() {
+        for (int id = 1; id <= 6; id++) {
+            store.add(transaction(id));
+        }
+        store.remove(transaction(2));
+        store.remove(transaction(6));
+        assertTrue(store.compact());
+
+        assertEquals(4, store.slotCount());
+        assertEquals(6, store.getMaxId());
+        int[] ids = {1, 3, 4, 5};
+        for (int slot = 0; slot < ids.length; slot++) {
+            assertEquals(ids[slot], store.getSlot(slot).getId());
+            assertEquals(slot, store.slotOf(ids[slot]));
+        }
+        assertEquals(13.0, store.getDailyTotals().total(date, date, false));
+        assertFalse(store.compact());
+    }
+
+    @Test
+    void views_RoundTripEveryField() {
+        Transaction plain = new Transaction(IncomeCategory.SALARY, 0.1 + 0.2, null, member);
+        plain.setId(1);
+        Income income = new Income(IncomeCategory.COMMISSION, 1234.5678, date, member);
+        income.setId(2);
+        store.add(plain);
+        store.add(income);
+
+        Transaction first = store.findById(1);
+        assertEquals(Transaction.class, first.getClass());
+        assertEquals(0.1 + 0.2, first.getAmount(), "Amounts with more than four decimals are kept exactly");
+        assertNull(first.getDate());
+        Transaction second = store.get(1);
+        assertTrue(second instanceof Income);
+        assertEquals(IncomeCategory.COMMISSION, second.getCategory());
+        assertEquals(1234.5678, second.getAmount());
+        assertEquals(date, second.getDate());
+        assertEquals("John Doe", second.getMember().getName());
+    }
+
+    @Test
+    void update_WritesViewBackIntoColumns() {
+        store.add(transaction(1));
+        Transaction view = store.findById(1);
+        view.setAmount(99.25);
+        assertEquals(1.0, store.findById(1).getAmount(), "Changing a view leaves the store unchanged");
+
+        view.setCategory(ExpenseCategory.HOUSING);
+        view.setDate(date.plusDays(3));
+        assertTrue(store.update(view));
+        int slot = store.slotOf(1);
+        assertEquals(99.25, store.findById(1).getAmount());
+        assertEquals(992_500L, store.amountUnitsAt(slot));
+        assertEquals(date.plusDays(3).toEpochDay(), store.dayAt(slot));
+        assertEquals(CategoryRegistry.ordinal(ExpenseCategory.HOUSING), store.categoryAt(slot));
+        assertFalse(store.isIncomeAt(slot));
+        assertFalse(store.update(transaction(5)));
+    }
+
+    @Test
+    void columns_SumWithoutMaterializingTransactions() {
+        for (int id = 1; id <= 1000; id++) {
+            store.add(transaction(id));
+        }
+        store.remove(transaction(500));
+        long units = 0;
+        for (int slot = 0; slot < store.slotCount(); slot++) {
+            if (store.isLive(slot)) {
+                units += store.amountUnitsAt(slot);
+            }
+        }
+        assertEquals(500_500.0 - 500, Amounts.toAmount(units));
+    }
+
+    @Test
+    void intIntHashMap_RemoveKeepsProbeChainsIntact() {
+        IntIntHashMap map = new IntIntHashMap();
+        Random random = new Random(7);
+        java.util.Map<Integer, Integer> expected = new java.util.HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(5000);
+            if (random.nextBoolean()) {
+                map.put(key, i);
+                expected.put(key, i);
+            } else {
+                Integer removed = expected.remove(key);
+                assertEquals(removed == null ? IntIntHashMap.MISSING : removed, map.remove(key));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (int key = 0; key < 5000; key++) {
+            assertEquals(expected.getOrDefault(key, IntIntHashMap.MISSING).intValue(), map.get(key));
+        }
+    }
+
+    @Test
+    void lookupsById_ReadFewIndexEntriesAtAnyLedgerSize() {
+        double small = probesPerLookup(2_000);
+        double large = probesPerLookup(100_000);
+        // A linear scan would read about 100 times as many entries on the large ledger
+        assertTrue(small < 3, "Lookups read " + small + " index entries on average");
+        assertTrue(large < 3, "Lookups read " + large + " index entries on average");
+    }
+
+    /**
+     * Helper method filling a store, churning it with removals and new IDs, and returning the
+     * average number of index entries read by a lookup of a present or removed ID.
+     */
+    private double probesPerLookup(int ledgerSize) {
+        TransactionStore churned = new TransactionStore();
+        for (int id = 1; id <= ledgerSize; id++) {
+            churned.add(transaction(id));
+        }
+        Random random = new Random(1);
+        int maxId = ledgerSize;
+        for (int i = 0; i < ledgerSize / 2; i++) {
+            churned.remove(transaction(1 + random.nextInt(maxId)));
+            churned.add(transaction(++maxId));
+        }
+        long probes = 0;
+        for (int id = 1; id <= maxId; id++) {
+            probes += churned.idProbes(id);
+        }
+        return (double) probes / maxId;
+    }
+
+    private Transaction transaction(int id) {
+        Transaction transaction = new Expense(ExpenseCategory.GROCERY, id, date, member);
+        transaction.setId(id);
+        return transaction;
+    }
+}
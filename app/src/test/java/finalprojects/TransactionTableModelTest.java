@@ -0,0 +1,212 @@
+package finalprojects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import javax.swing.SwingUtilities;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+
+public class TransactionTableModelTest {
+    private MemberManager memberManager;
+    private TransactionsManager manager;
+    private TransactionTableModel model;
+    private List<TableModelEvent> events;
+    private Member john;
+
+    @BeforeEach
+    void setup() throws Exception {
+        memberManager = new MemberManager();
+        manager = new TransactionsManager(memberManager);
+        john = memberManager.intern("John Doe");
+        manager.addTransaction(ExpenseCategory.GROCERY, 30.0, LocalDate.of(2024, 2, 1), john);
+        manager.addTransaction(IncomeCategory.SALARY, 100.0, LocalDate.of(2024, 1, 5), john);
+        manager.addTransaction(ExpenseCategory.HOUSING, 10.0, LocalDate.of(2024, 3, 1), john);
+        model = new TransactionTableModel(manager);
+        manager.addTransactionListener(model);
+        awaitRowCount(3);
+        events = new ArrayList<>();
+        model.addTableModelListener(new TableModelListener() {
+            @Override
+            public void tableChanged(TableModelEvent e) {
+                events.add(e);
+            }
+        });
+    }
+
+    @Test
+    void getValueAt_ReadsColumnsOfTheRow() {
+        assertEquals(3, model.getRowCount());
+        assertEquals(6, model.getColumnCount());
+        assertEquals("Income/Expense", model.getColumnName(2));
+        assertEquals(2, model.getValueAt(1, 0));
+        assertEquals(LocalDate.of(2024, 1, 5), model.getValueAt(1, 1));
+        assertEquals("Income", model.getValueAt(1, 2));
+        assertEquals(IncomeCategory.SALARY, model.getValueAt(1, 3));
+        assertEquals(100.0, model.getValueAt(1, 4));
+        assertEquals(john, model.getValueAt(1, 5));
+        assertThrows(IndexOutOfBoundsException.class, () -> model.getValueAt(3, 0));
+    }
+
+    @Test
+    void constructor_QueriesRowsInTheBackground() throws Exception {
+        final TransactionTableModel[] created = new TransactionTableModel[1];
+        onEdt(() -> {
+            created[0] = new TransactionTableModel(manager);
+            // The query can only be applied once the event dispatch thread is free again
+            assertEquals(0, created[0].getRowCount());
+        });
+        model = created[0];
+        awaitRowCount(3);
+        assertEquals(2, model.getIdAt(1));
+    }
+
+    @Test
+    void edits_FireSingleRowEvents() throws Exception {
+        // Events are applied on the event dispatch thread, so edit there to see them at once
+        onEdt(() -> {
+            manager.addTransaction(ExpenseCategory.GROCERY, 5.0, LocalDate.of(2024, 4, 1), john);
+            assertEquals(4, model.getRowCount());
+            assertRowEvent(TableModelEvent.INSERT, 3);
+
+            manager.setTransaction(1, null, 35.0, null, null);
+            assertEquals(35.0, model.getValueAt(0, 4));
+            assertRowEvent(TableModelEvent.UPDATE, 0);
+
+            manager.removeTransaction(2);
+            assertEquals(3, model.getRowCount());
+            assertEquals(3, model.getIdAt(1));
+            assertRowEvent(TableModelEvent.DELETE, 1);
+        });
+    }
+
+    @Test
+    void edits_KeepSortedOrderAndFilter() throws Exception {
+        // Events are applied on the event dispatch thread, so edit there to see them at once
+        onEdt(() -> {
+            model.setQuery(new TransactionFilter(null, null, null, null, Expense.class), true, false);
+            assertIds(3, 1);
+
+            manager.addTransaction(ExpenseCategory.GROCERY, 20.0, LocalDate.of(2024, 4, 1), john);
+            assertIds(3, 4, 1);
+            manager.addTransaction(IncomeCategory.SALARY, 1.0, LocalDate.of(2024, 4, 1), john);
+            assertIds(3, 4, 1);
+
+            manager.setTransaction(3, null, 50.0, null, null);
+            assertIds(4, 1, 3);
+            manager.setTransaction(1, IncomeCategory.SALARY, null, null, null);
+            assertIds(4, 1, 3);
+        });
+    }
+
+    @Test
+    void rows_MatchDisplayTransactionsAfterRandomEdits() throws Exception {
+        // Events are applied on the event dispatch thread, so edit there to see them at once
+        onEdt(() -> {
+            Random random = new Random(17);
+            TransactionCategory[] categories = {IncomeCategory.SALARY, ExpenseCategory.GROCERY, ExpenseCategory.HOUSING};
+            model.setQuery(new TransactionFilter(null, null, null, null, Expense.class), false, true);
+            for (int i = 0; i < 500; i++) {
+                int action = random.nextInt(3);
+                int id = 1 + random.nextInt(manager.getCurrentMaxID());
+                if (action == 0) {
+                    manager.addTransaction(categories[random.nextInt(3)], random.nextInt(100),
+                        LocalDate.of(2024, 1, 1).plusDays(random.nextInt(60)), john);
+                } else if (action == 1) {
+                    manager.setTransaction(id, null, null, LocalDate.of(2024, 1, 1).plusDays(random.nextInt(60)), null);
+                } else {
+                    manager.removeTransaction(id);
+                }
+            }
+            List<Transaction> expected = manager.displayTransactions(null, null, null, null, Expense.class, false, true);
+            assertEquals(expected.size(), model.getRowCount());
+            for (int row = 0; row < expected.size(); row++) {
+                assertEquals(expected.get(row).getId(), model.getIdAt(row));
+            }
+        });
+    }
+
+    @Test
+    void updates_FindTheirRowAmongEqualKeys() throws Exception {
+        // Events are applied on the event dispatch thread, so edit there to see them at once
+        onEdt(() -> {
+            model.setQuery(new TransactionFilter(null, null, ExpenseCategory.GROCERY, null, null), true, false);
+            for (int i = 0; i < 50; i++) {
+                manager.addTransaction(ExpenseCategory.GROCERY, 7.0, LocalDate.of(2024, 4, 1), john);
+            }
+            manager.setTransaction(20, null, null, LocalDate.of(2024, 5, 1), null);
+            assertRowEvent(TableModelEvent.UPDATE, 16);
+            manager.setTransaction(30, ExpenseCategory.HOUSING, null, null, null);
+            assertRowEvent(TableModelEvent.DELETE, 26);
+            manager.setTransaction(30, ExpenseCategory.GROCERY, null, null, null);
+            assertRowEvent(TableModelEvent.INSERT, 26);
+            manager.setTransaction(40, null, 8.0, null, null);
+            List<Transaction> expected = manager.displayTransactions(null, null, ExpenseCategory.GROCERY, null, null, true, false);
+            assertEquals(expected.size(), model.getRowCount());
+            for (int row = 0; row < expected.size(); row++) {
+                assertEquals(expected.get(row).getId(), model.getIdAt(row));
+            }
+        });
+    }
+
+    @Test
+    void editsOnAnotherThread_AreAppliedOnTheEventDispatchThread() throws Exception {
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 200; i++) {
+                manager.addTransaction(ExpenseCategory.GROCERY, i, LocalDate.of(2024, 4, 1).plusDays(i % 30), john);
+                manager.setTransaction(1 + i, null, null, LocalDate.of(2024, 5, 1).plusDays(i % 7), null);
+            }
+        });
+        writer.start();
+        writer.join();
+        onEdt(() -> {
+            assertEquals(203, model.getRowCount());
+            for (int row = 0; row < model.getRowCount(); row++) {
+                assertEquals(row + 1, model.getIdAt(row));
+            }
+        });
+    }
+
+    private static void onEdt(Runnable body) throws Exception {
+        try {
+            SwingUtilities.invokeAndWait(body);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw (Exception) e.getCause();
+        }
+    }
+
+    private void awaitRowCount(int count) throws Exception {
+        final int[] rows = new int[1];
+        for (int i = 0; i < 500; i++) {
+            onEdt(() -> rows[0] = model.getRowCount());
+            if (rows[0] == count) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        assertEquals(count, rows[0]);
+    }
+
+    private void assertRowEvent(int type, int row) {
+        TableModelEvent event = events.get(events.size() - 1);
+        assertEquals(type, event.getType());
+        assertEquals(row, event.getFirstRow());
+        assertEquals(row, event.getLastRow());
+    }
+
+    private void assertIds(int... ids) {
+        assertEquals(ids.length, model.getRowCount());
+        for (int row = 0; row < ids.length; row++) {
+            assertEquals(ids[row], model.getIdAt(row));
+        }
+    }
+}
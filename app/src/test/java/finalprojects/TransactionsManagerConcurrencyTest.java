@@ -0,0 +1,213 @@
+package finalprojects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TransactionsManagerConcurrencyTest {
+    private static final int WRITERS = 4;
+    private static final int READERS = 3;
+    private static final int EDITS_PER_WRITER = 2_000;
+    private static final int QUERIES_PER_READER = 1_000;
+
+    private MemberManager memberManager;
+    private TransactionsManager manager;
+    private Member[] members;
+    private final TransactionFilter all = new TransactionFilter(null, null, null, null, null);
+
+    @BeforeEach
+    void setup() {
+        memberManager = new MemberManager();
+        manager = new TransactionsManager(memberManager);
+        members = new Member[]{memberManager.intern("John Doe"), memberManager.intern("Jane Doe")};
+    }
+
+    @Test
+    void concurrentEditsAndQueries_KeepTheLedgerConsistent() throws Exception {
+        final AtomicInteger added = new AtomicInteger();
+        final AtomicInteger removed = new AtomicInteger();
+        manager.addTransactionListener(new TransactionListener() {
+            @Override
+            public void transactionsChanged(TransactionEvent event) {
+                if (event.getType() == TransactionEvent.Type.ADDED) {
+                    added.incrementAndGet();
+                } else if (event.getType() == TransactionEvent.Type.REMOVED) {
+                    removed.incrementAndGet();
+                }
+            }
+        });
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        List<Future<?>> writers = new ArrayList<>();
+        List<Future<?>> readers = new ArrayList<>();
+        try {
+            for (int w = 0; w < WRITERS; w++) {
+                final Random random = new Random(w);
+                writers.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        start.await();
+                        for (int i = 0; i < EDITS_PER_WRITER; i++) {
+                            edit(random);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (int r = 0; r < READERS; r++) {
+                final Random random = new Random(100 + r);
+                readers.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        start.await();
+                        for (int i = 0; i < QUERIES_PER_READER; i++) {
+                            query(random);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+            for (Future<?> reader : readers) {
+                reader.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Transaction> snapshot = manager.snapshot();
+        assertEquals(added.get(), manager.getCurrentMaxID());
+        assertEquals(added.get() - removed.get(), snapshot.size());
+        Set<Integer> ids = new HashSet<>();
+        for (Transaction transaction : snapshot) {
+            assertTrue(ids.add(transaction.getId()));
+            assertEquals(transaction, manager.findTransactionbyID(transaction.getId()));
+        }
+        assertEquals(snapshot.size(), manager.queryIds(all, true, false).length);
+        assertEquals(snapshot.size(), manager.countTransactions(all));
+        Report rollup = manager.report(YearMonth.of(2024, 1), YearMonth.of(2024, 12));
+        for (boolean income : new boolean[]{true, false}) {
+            Map<YearMonth, Long> expected = new TreeMap<>();
+            for (Transaction transaction : snapshot) {
+                if ((transaction instanceof Income) == income) {
+                    expected.merge(YearMonth.from(transaction.getDate()), Amounts.toUnits(transaction.getAmount()), Long::sum);
+                }
+            }
+            assertEquals(expected.keySet(), rollup.getMonthlyTotals(income).keySet());
+            for (Map.Entry<YearMonth, Long> entry : expected.entrySet()) {
+                assertEquals(Amounts.toAmount(entry.getValue()), rollup.getMonthlyTotals(income).get(entry.getKey()));
+            }
+        }
+    }
+
+    @Test
+    void concurrentUpdatesOfOneTransaction_AreNotLost() throws Exception {
+        manager.addTransaction(ExpenseCategory.GROCERY, 1.0, LocalDate.of(2024, 1, 1), members[0]);
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> amounts = executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    start.await();
+                    for (int i = 1; i <= 2_000; i++) {
+                        manager.setTransaction(1, null, (double) i, null, null);
+                    }
+                    return null;
+                }
+            });
+            Future<?> dates = executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    start.await();
+                    for (int i = 1; i <= 2_000; i++) {
+                        manager.setTransaction(1, null, null, LocalDate.of(2024, 1, 1).plusDays(i % 300), null);
+                    }
+                    return null;
+                }
+            });
+            start.countDown();
+            amounts.get(60, TimeUnit.SECONDS);
+            dates.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        Transaction transaction = manager.findTransactionbyID(1);
+        assertEquals(2_000.0, transaction.getAmount());
+        assertEquals(LocalDate.of(2024, 1, 1).plusDays(2_000 % 300), transaction.getDate());
+    }
+
+    /**
+     * Helper method to make a random edit: mostly additions, then updates and deletions of random IDs.
+     */
+    private void edit(Random random) {
+        int choice = random.nextInt(10);
+        int maxId = manager.getCurrentMaxID();
+        if (choice < 6 || maxId == 0) {
+            TransactionCategory category = random.nextBoolean() ? IncomeCategory.SALARY : ExpenseCategory.GROCERY;
+            manager.addTransaction(category, random.nextInt(10_000) / 4.0,
+                LocalDate.of(2024, 1, 1).plusDays(random.nextInt(366)), members[random.nextInt(2)]);
+        } else if (choice < 8) {
+            manager.setTransaction(1 + random.nextInt(maxId), null, random.nextInt(10_000) / 4.0,
+                LocalDate.of(2024, 1, 1).plusDays(random.nextInt(366)), null);
+        } else {
+            manager.removeTransaction(1 + random.nextInt(maxId));
+        }
+    }
+
+    /**
+     * Helper method to run a random query and check it against itself under the read lock.
+     */
+    private void query(Random random) {
+        int maxId = manager.getCurrentMaxID();
+        switch (random.nextInt(5)) {
+            case 0: {
+                Transaction transaction = manager.findTransactionbyID(1 + random.nextInt(Math.max(1, maxId)));
+                if (transaction != null) {
+                    assertNotNull(transaction.getDate());
+                    assertNotNull(transaction.getMember());
+                }
+                break;
+            }
+            case 1:
+                manager.readLocked(() -> {
+                    assertEquals(manager.countTransactions(all), manager.queryIds(all, random.nextBoolean(), true).length);
+                    return null;
+                });
+                break;
+            case 2: {
+                TransactionPage page = manager.queryPage(all, true, false, null, 0, 50);
+                assertTrue(page.size() <= 50);
+                break;
+            }
+            case 3:
+                manager.report(YearMonth.of(2024, 1), YearMonth.of(2024, 12));
+                break;
+            default: {
+                List<Transaction> snapshot = manager.snapshot();
+                assertThrows(UnsupportedOperationException.class, () -> snapshot.add(null));
+                break;
+            }
+        }
+    }
+}